@@ -66,4 +66,10 @@ public interface CFA {
   Optional<LiveVariables> getLiveVariables();
 
   Language getLanguage();
+
+  /**
+   * Get an array-based view of this CFA for fast traversals,
+   * if the CFA is immutable and such a view can be provided.
+   */
+  Optional<CompactCFAView> getCompactView();
 }
\ No newline at end of file
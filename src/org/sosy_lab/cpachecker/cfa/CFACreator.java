@@ -78,6 +78,7 @@ import org.sosy_lab.cpachecker.cfa.postprocessing.function.MultiEdgeCreator;
 import org.sosy_lab.cpachecker.cfa.postprocessing.function.NullPointerChecks;
 import org.sosy_lab.cpachecker.cfa.postprocessing.global.CFAReduction;
 import org.sosy_lab.cpachecker.cfa.postprocessing.global.FunctionCallUnwinder;
+import org.sosy_lab.cpachecker.cfa.postprocessing.global.ProgramSlicer;
 import org.sosy_lab.cpachecker.cfa.postprocessing.global.singleloop.CFASingleLoopTransformation;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cfa.types.c.CComplexType.ComplexTypeKind;
@@ -152,6 +153,11 @@ public class CFACreator {
       description="remove paths from CFA that cannot lead to a specification violation")
   private boolean removeIrrelevantForSpecification = false;
 
+  @Option(secure=true, name="cfa.sliceForSpecification",
+      description="replace assignments by blank edges if they cannot influence"
+          + " whether a specification violation is reached (only for C programs)")
+  private boolean sliceForSpecification = false;
+
   @Option(secure=true, name="cfa.export",
       description="export CFA as .dot file")
   private boolean exportCfa = true;
@@ -224,6 +230,7 @@ private boolean classifyNodes = false;
   private final LogManager logger;
   private final Parser parser;
   private final CFAReduction cfaReduction;
+  private final ProgramSlicer programSlicer;
   private final ShutdownNotifier shutdownNotifier;
 
   private static class CFACreatorStatistics implements Statistics {
@@ -235,6 +242,11 @@ private boolean classifyNodes = false;
     private final Timer checkTime = new Timer();
     private final Timer processingTime = new Timer();
     private final Timer pruningTime = new Timer();
+    private final Timer slicingTime = new Timer();
+    private int slicedEdges = 0;
+    private int relevantVariables = 0;
+    private int multiEdges = 0;
+    private int edgesInMultiEdges = 0;
     private final Timer variableClassificationTime = new Timer();
     private final Timer exportTime = new Timer();
 
@@ -254,6 +266,14 @@ private boolean classifyNodes = false;
       if (pruningTime.getNumberOfIntervals() > 0) {
         out.println("      Time for CFA pruning:   " + pruningTime);
       }
+      if (slicingTime.getNumberOfIntervals() > 0) {
+        out.println("      Time for CFA slicing:   " + slicingTime);
+        out.println("        Sliced edges:         " + slicedEdges);
+        out.println("        Relevant variables:   " + relevantVariables);
+      }
+      if (multiEdges > 0) {
+        out.println("      Number of MultiEdges:   " + multiEdges + " (containing " + edgesInMultiEdges + " edges)");
+      }
       if (variableClassificationTime.getNumberOfIntervals() > 0) {
         out.println("      Time for var class.:    " + pruningTime);
       }
@@ -308,6 +328,15 @@ private boolean classifyNodes = false;
       cfaReduction = null;
     }
 
+    if (sliceForSpecification) {
+      if (language != Language.C) {
+        throw new InvalidConfigurationException("Option cfa.sliceForSpecification is only supported for C programs.");
+      }
+      programSlicer = new ProgramSlicer(config, logger, pShutdownNotifier);
+    } else {
+      programSlicer = null;
+    }
+
     stats.parserInstantiationTime.stop();
   }
 
@@ -455,21 +484,30 @@ private boolean classifyNodes = false;
     }
 
     // SIXTH, get information about the CFA,
-    // the cfa should not be modified after this line.
+    // the cfa should not be modified after this line (except by the slicer).
 
     // Get information about variables, needed for some analysis.
-    final Optional<VariableClassification> varClassification;
-    if (language == Language.C) {
+    Optional<VariableClassification> varClassification = buildVariableClassification(cfa, language);
+
+    // Replace irrelevant assignments with blank edges.
+    // This does not change the structure of the CFA (nodes, loops, post-order ids),
+    // and the information collected above stays a sound over-approximation.
+    if (programSlicer != null) {
+      stats.slicingTime.start();
       try {
-        stats.variableClassificationTime.start();
-        varClassification = Optional.of(new VariableClassificationBuilder(config, logger).build(cfa));
+        programSlicer.sliceForSpecification(cfa, varClassification.get());
       } catch (UnrecognizedCCodeException e) {
         throw new CParserException(e);
       } finally {
-        stats.variableClassificationTime.stop();
+        stats.slicingTime.stop();
+      }
+      stats.slicedEdges = programSlicer.getNumberOfSlicedEdges();
+      stats.relevantVariables = programSlicer.getNumberOfRelevantVariables();
+
+      if (stats.slicedEdges > 0) {
+        // the variable classification should describe the sliced CFA
+        varClassification = buildVariableClassification(cfa, language);
       }
-    } else {
-      varClassification = Optional.<VariableClassification>absent();
     }
 
     // create the live variables if the variable classification is present
@@ -500,6 +538,21 @@ private boolean classifyNodes = false;
     return immutableCFA;
   }
 
+  private Optional<VariableClassification> buildVariableClassification(MutableCFA cfa, Language language)
+      throws InvalidConfigurationException, CParserException {
+    if (language != Language.C) {
+      return Optional.absent();
+    }
+    stats.variableClassificationTime.start();
+    try {
+      return Optional.of(new VariableClassificationBuilder(config, logger).build(cfa));
+    } catch (UnrecognizedCCodeException e) {
+      throw new CParserException(e);
+    } finally {
+      stats.variableClassificationTime.stop();
+    }
+  }
+
   /** This method parses the program from the String and builds a CFA for each function.
    * The ParseResult is only a Wrapper for the CFAs of the functions and global declarations. */
   private ParseResult parseToCFAs(final String program)
@@ -652,7 +705,10 @@ private boolean classifyNodes = false;
     }
 
     if (useMultiEdges) {
-      MultiEdgeCreator.createMultiEdges(cfa);
+      MultiEdgeCreator multiEdgeCreator = new MultiEdgeCreator(cfa, config);
+      multiEdgeCreator.createMultiEdges();
+      stats.multiEdges = multiEdgeCreator.getNumberOfCreatedMultiEdges();
+      stats.edgesInMultiEdges = multiEdgeCreator.getNumberOfMergedEdges();
     }
 
     return cfa;
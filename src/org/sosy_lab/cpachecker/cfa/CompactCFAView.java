@@ -0,0 +1,335 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+
+/**
+ * An immutable, array-based view of a CFA.
+ *
+ * Nodes and edges are numbered densely, and the leaving and entering edges
+ * of all nodes are stored in contiguous arrays (compressed sparse row format),
+ * such that traversals do not need to follow the pointers
+ * from {@link CFANode} to its edge lists.
+ *
+ * The node indices are assigned function by function,
+ * and inside each function in reverse postorder
+ * (i.e., the function entry node gets the smallest index of its function).
+ * Summary edges are not part of the regular edge lists,
+ * they are available separately via {@link #getLeavingSummaryEdge(int)}
+ * and {@link #getEnteringSummaryEdge(int)}.
+ *
+ * The view is created once when the CFA becomes immutable,
+ * and it is only valid as long as the CFA is not modified afterwards.
+ */
+public final class CompactCFAView {
+
+  /** Index that is returned for nodes and edges that are not part of this view. */
+  public static final int NO_INDEX = -1;
+
+  private static final Ordering<CFANode> REVERSE_POSTORDER = Ordering.from(new Comparator<CFANode>() {
+        @Override
+        public int compare(CFANode pO1, CFANode pO2) {
+          // larger reverse-postorder ids come first
+          return Integer.compare(pO2.getReversePostorderId(), pO1.getReversePostorderId());
+        }
+      }).compound(Ordering.natural());
+
+  private final CFANode[] nodes;
+  private final CFAEdge[] edges;
+
+  // maps CFANode.getNodeNumber() to the index in this view
+  private final int[] nodeNumberToIndex;
+
+  private final int[] edgePredecessor;
+  private final int[] edgeSuccessor;
+
+  // CSR arrays: edges are numbered such that the leaving edges of node i
+  // have the ids leavingOffsets[i] .. leavingOffsets[i+1]-1,
+  // and the entering edges of node i are enteringEdges[enteringOffsets[i] .. enteringOffsets[i+1]-1]
+  private final int[] leavingOffsets;
+  private final int[] enteringOffsets;
+  private final int[] enteringEdges;
+
+  private final int[] leavingSummaryEdge;
+  private final int[] enteringSummaryEdge;
+
+  // the nodes of function i are nodes[functionOffsets[i] .. functionOffsets[i+1]-1]
+  private final int[] functionOffsets;
+
+  private CompactCFAView(CFANode[] pNodes, CFAEdge[] pEdges, int[] pNodeNumberToIndex,
+      int[] pEdgePredecessor, int[] pEdgeSuccessor,
+      int[] pLeavingOffsets, int[] pEnteringOffsets, int[] pEnteringEdges,
+      int[] pLeavingSummaryEdge, int[] pEnteringSummaryEdge,
+      int[] pFunctionOffsets) {
+    nodes = pNodes;
+    edges = pEdges;
+    nodeNumberToIndex = pNodeNumberToIndex;
+    edgePredecessor = pEdgePredecessor;
+    edgeSuccessor = pEdgeSuccessor;
+    leavingOffsets = pLeavingOffsets;
+    enteringOffsets = pEnteringOffsets;
+    enteringEdges = pEnteringEdges;
+    leavingSummaryEdge = pLeavingSummaryEdge;
+    enteringSummaryEdge = pEnteringSummaryEdge;
+    functionOffsets = pFunctionOffsets;
+  }
+
+  /**
+   * Create the view for a CFA.
+   * @param pFunctionNodes The nodes of the CFA, grouped by function
+   * (each collection contains exactly the nodes of one function).
+   */
+  static CompactCFAView create(Collection<? extends Collection<CFANode>> pFunctionNodes) {
+    List<CFANode> nodeList = new ArrayList<>();
+    int[] functionOffsets = new int[pFunctionNodes.size() + 1];
+    int function = 0;
+    int maxNodeNumber = -1;
+    for (Collection<CFANode> functionNodes : pFunctionNodes) {
+      functionOffsets[function++] = nodeList.size();
+      for (CFANode node : REVERSE_POSTORDER.sortedCopy(functionNodes)) {
+        nodeList.add(node);
+        maxNodeNumber = Math.max(maxNodeNumber, node.getNodeNumber());
+      }
+    }
+    functionOffsets[function] = nodeList.size();
+
+    final CFANode[] nodes = nodeList.toArray(new CFANode[nodeList.size()]);
+    final int[] nodeNumberToIndex = new int[maxNodeNumber + 1];
+    Arrays.fill(nodeNumberToIndex, NO_INDEX);
+    for (int i = 0; i < nodes.length; i++) {
+      nodeNumberToIndex[nodes[i].getNodeNumber()] = i;
+    }
+
+    // Edges are numbered in the order of the leaving-edge lists,
+    // so the leaving edges of each node have consecutive ids.
+    List<CFAEdge> edgeList = new ArrayList<>();
+    int[] leavingOffsets = new int[nodes.length + 1];
+    for (int i = 0; i < nodes.length; i++) {
+      leavingOffsets[i] = edgeList.size();
+      CFANode node = nodes[i];
+      for (int j = 0; j < node.getNumLeavingEdges(); j++) {
+        edgeList.add(node.getLeavingEdge(j));
+      }
+    }
+    leavingOffsets[nodes.length] = edgeList.size();
+
+    // Summary edges are appended after all normal edges.
+    int[] leavingSummaryEdge = new int[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      FunctionSummaryEdge summaryEdge = nodes[i].getLeavingSummaryEdge();
+      if (summaryEdge == null) {
+        leavingSummaryEdge[i] = NO_INDEX;
+      } else {
+        leavingSummaryEdge[i] = edgeList.size();
+        edgeList.add(summaryEdge);
+      }
+    }
+
+    final CFAEdge[] edges = edgeList.toArray(new CFAEdge[edgeList.size()]);
+    int[] edgePredecessor = new int[edges.length];
+    int[] edgeSuccessor = new int[edges.length];
+    for (int e = 0; e < edges.length; e++) {
+      edgePredecessor[e] = indexOf(nodeNumberToIndex, edges[e].getPredecessor());
+      edgeSuccessor[e] = indexOf(nodeNumberToIndex, edges[e].getSuccessor());
+    }
+
+    // Entering edges keep the order of CFANode.getEnteringEdge(int) for each node.
+    int[] enteringOffsets = new int[nodes.length + 1];
+    for (int i = 0; i < nodes.length; i++) {
+      enteringOffsets[i + 1] = enteringOffsets[i] + nodes[i].getNumEnteringEdges();
+    }
+    int[] enteringEdges = new int[enteringOffsets[nodes.length]];
+    int[] enteringSummaryEdge = new int[nodes.length];
+    Arrays.fill(enteringSummaryEdge, NO_INDEX);
+    for (int i = 0; i < nodes.length; i++) {
+      CFANode node = nodes[i];
+      for (int j = 0; j < node.getNumEnteringEdges(); j++) {
+        CFAEdge edge = node.getEnteringEdge(j);
+        enteringEdges[enteringOffsets[i] + j] = findLeavingEdge(leavingOffsets, edges,
+            indexOf(nodeNumberToIndex, edge.getPredecessor()), edge);
+      }
+      FunctionSummaryEdge summaryEdge = node.getEnteringSummaryEdge();
+      if (summaryEdge != null) {
+        enteringSummaryEdge[i] = leavingSummaryEdge[indexOf(nodeNumberToIndex, summaryEdge.getPredecessor())];
+      }
+    }
+
+    return new CompactCFAView(nodes, edges, nodeNumberToIndex,
+        edgePredecessor, edgeSuccessor,
+        leavingOffsets, enteringOffsets, enteringEdges,
+        leavingSummaryEdge, enteringSummaryEdge, functionOffsets);
+  }
+
+  private static int indexOf(int[] pNodeNumberToIndex, CFANode pNode) {
+    int nodeNumber = pNode.getNodeNumber();
+    int index = nodeNumber < pNodeNumberToIndex.length ? pNodeNumberToIndex[nodeNumber] : NO_INDEX;
+    checkState(index != NO_INDEX,
+        "Node %s in function %s is connected to the CFA but not part of it", pNode, pNode.getFunctionName());
+    return index;
+  }
+
+  private static int findLeavingEdge(int[] pLeavingOffsets, CFAEdge[] pEdges, int pPredecessor, CFAEdge pEdge) {
+    for (int e = pLeavingOffsets[pPredecessor]; e < pLeavingOffsets[pPredecessor + 1]; e++) {
+      if (pEdges[e] == pEdge) {
+        return e;
+      }
+    }
+    throw new IllegalStateException("Entering edge " + pEdge + " is not a leaving edge of its predecessor");
+  }
+
+  static CompactCFAView empty() {
+    return create(Collections.<Collection<CFANode>>emptyList());
+  }
+
+  public int getNumberOfNodes() {
+    return nodes.length;
+  }
+
+  public int getNumberOfEdges() {
+    return edges.length;
+  }
+
+  public int getNumberOfFunctions() {
+    return functionOffsets.length - 1;
+  }
+
+  /**
+   * Get the index of a node in this view,
+   * or {@link #NO_INDEX} if the node is not part of the CFA.
+   */
+  public int getIndex(CFANode pNode) {
+    int nodeNumber = pNode.getNodeNumber();
+    return nodeNumber < nodeNumberToIndex.length ? nodeNumberToIndex[nodeNumber] : NO_INDEX;
+  }
+
+  public CFANode getNode(int pIndex) {
+    return nodes[pIndex];
+  }
+
+  public CFAEdge getEdge(int pEdgeId) {
+    return edges[pEdgeId];
+  }
+
+  /**
+   * Get the node with the given reverse-postorder position inside a function,
+   * where position 0 is the first node in reverse postorder (the entry node).
+   * @param pFunction the index of the function
+   * (functions are numbered in the order of {@link CFA#getAllFunctions()})
+   */
+  public CFANode getNodeInReversePostorder(int pFunction, int pPosition) {
+    checkElementIndex(pPosition, functionOffsets[pFunction + 1] - functionOffsets[pFunction]);
+    return nodes[functionOffsets[pFunction] + pPosition];
+  }
+
+  public int getFunctionStart(int pFunction) {
+    return functionOffsets[pFunction];
+  }
+
+  public int getFunctionEnd(int pFunction) {
+    return functionOffsets[pFunction + 1];
+  }
+
+  public int getPredecessorIndex(int pEdgeId) {
+    return edgePredecessor[pEdgeId];
+  }
+
+  public int getSuccessorIndex(int pEdgeId) {
+    return edgeSuccessor[pEdgeId];
+  }
+
+  public int getNumLeavingEdges(int pIndex) {
+    return leavingOffsets[pIndex + 1] - leavingOffsets[pIndex];
+  }
+
+  /**
+   * Get the id of the i-th leaving edge of a node.
+   * Leaving edges of a node have consecutive ids,
+   * so this is the same as <code>getFirstLeavingEdge(pIndex) + i</code>.
+   */
+  public int getLeavingEdge(int pIndex, int i) {
+    checkElementIndex(i, getNumLeavingEdges(pIndex));
+    return leavingOffsets[pIndex] + i;
+  }
+
+  public int getFirstLeavingEdge(int pIndex) {
+    return leavingOffsets[pIndex];
+  }
+
+  public int getNumEnteringEdges(int pIndex) {
+    return enteringOffsets[pIndex + 1] - enteringOffsets[pIndex];
+  }
+
+  public int getEnteringEdge(int pIndex, int i) {
+    checkElementIndex(i, getNumEnteringEdges(pIndex));
+    return enteringEdges[enteringOffsets[pIndex] + i];
+  }
+
+  /**
+   * Get the id of the leaving summary edge of a node,
+   * or {@link #NO_INDEX} if there is none.
+   */
+  public int getLeavingSummaryEdge(int pIndex) {
+    return leavingSummaryEdge[pIndex];
+  }
+
+  /**
+   * Get the id of the entering summary edge of a node,
+   * or {@link #NO_INDEX} if there is none.
+   */
+  public int getEnteringSummaryEdge(int pIndex) {
+    return enteringSummaryEdge[pIndex];
+  }
+
+  /**
+   * Get the indices of all successors of a node (not following summary edges).
+   * Prefer iterating over {@link #getFirstLeavingEdge(int)} and {@link #getNumLeavingEdges(int)}
+   * in performance-critical code, this method allocates a new array.
+   */
+  public int[] getSuccessorIndices(int pIndex) {
+    int[] result = new int[getNumLeavingEdges(pIndex)];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = edgeSuccessor[leavingOffsets[pIndex] + i];
+    }
+    return result;
+  }
+
+  public ImmutableList<CFANode> getNodes() {
+    return ImmutableList.copyOf(nodes);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+import com.google.common.collect.ImmutableList;
+
+public class CompactCFAViewTest {
+
+  private CFANode a;
+  private CFANode b;
+  private CFANode c;
+  private CFANode d;
+  private CFANode other;
+
+  private CFAEdge ab;
+  private CFAEdge ac;
+  private CFAEdge bd;
+  private CFAEdge cd;
+
+  private CompactCFAView view;
+
+  @Before
+  public void setUp() {
+    // diamond a -> {b, c} -> d in function f, and a single node in function g
+    a = new CFANode("f");
+    b = new CFANode("f");
+    c = new CFANode("f");
+    d = new CFANode("f");
+    other = new CFANode("g");
+
+    ab = addEdge(a, b);
+    ac = addEdge(a, c);
+    bd = addEdge(b, d);
+    cd = addEdge(c, d);
+
+    new CFAReversePostorder().assignSorting(a);
+
+    // order of nodes in the input should not matter
+    view = CompactCFAView.create(ImmutableList.<Collection<CFANode>>of(
+        ImmutableList.of(d, c, b, a), ImmutableList.of(other)));
+  }
+
+  private static CFAEdge addEdge(CFANode pPredecessor, CFANode pSuccessor) {
+    CFAEdge edge = new BlankEdge("", FileLocation.DUMMY, pPredecessor, pSuccessor, "");
+    CFACreationUtils.addEdgeUnconditionallyToCFA(edge);
+    return edge;
+  }
+
+  @Test
+  public void testNodesInReversePostorder() {
+    assertThat(view.getNumberOfNodes()).isEqualTo(5);
+    assertThat(view.getNumberOfFunctions()).isEqualTo(2);
+
+    assertThat(view.getNodeInReversePostorder(0, 0)).isSameAs(a);
+    assertThat(view.getNodeInReversePostorder(0, 3)).isSameAs(d);
+    assertThat(view.getNodeInReversePostorder(1, 0)).isSameAs(other);
+
+    for (int i = 0; i < view.getNumberOfNodes(); i++) {
+      assertThat(view.getIndex(view.getNode(i))).isEqualTo(i);
+    }
+    for (int i = 1; i < view.getFunctionEnd(0); i++) {
+      assertThat(view.getNode(i).getReversePostorderId())
+          .isLessThan(view.getNode(i-1).getReversePostorderId());
+    }
+  }
+
+  @Test
+  public void testLeavingEdges() {
+    int index = view.getIndex(a);
+    assertThat(view.getNumLeavingEdges(index)).isEqualTo(2);
+    assertThat(view.getEdge(view.getLeavingEdge(index, 0))).isSameAs(ab);
+    assertThat(view.getEdge(view.getLeavingEdge(index, 1))).isSameAs(ac);
+    assertThat(view.getSuccessorIndex(view.getLeavingEdge(index, 0))).isEqualTo(view.getIndex(b));
+
+    int[] successors = view.getSuccessorIndices(index);
+    assertThat(successors.length).isEqualTo(2);
+    assertThat(view.getNode(successors[0])).isSameAs(b);
+    assertThat(view.getNode(successors[1])).isSameAs(c);
+
+    assertThat(view.getNumLeavingEdges(view.getIndex(d))).isEqualTo(0);
+    assertThat(view.getLeavingSummaryEdge(index)).isEqualTo(CompactCFAView.NO_INDEX);
+  }
+
+  @Test
+  public void testEnteringEdges() {
+    int index = view.getIndex(d);
+    assertThat(view.getNumEnteringEdges(index)).isEqualTo(2);
+    assertThat(view.getEdge(view.getEnteringEdge(index, 0))).isSameAs(bd);
+    assertThat(view.getEdge(view.getEnteringEdge(index, 1))).isSameAs(cd);
+    assertThat(view.getPredecessorIndex(view.getEnteringEdge(index, 1))).isEqualTo(view.getIndex(c));
+
+    assertThat(view.getNumEnteringEdges(view.getIndex(a))).isEqualTo(0);
+  }
+
+  @Test
+  public void testUnknownNode() {
+    assertThat(view.getIndex(new CFANode("f"))).isEqualTo(CompactCFAView.NO_INDEX);
+  }
+}
@@ -25,20 +25,28 @@ package org.sosy_lab.cpachecker.cfa;
 
 import static com.google.common.base.Preconditions.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.util.CFAUtils;
 import org.sosy_lab.cpachecker.util.LiveVariables;
 import org.sosy_lab.cpachecker.util.LoopStructure;
 import org.sosy_lab.cpachecker.util.VariableClassification;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 
 /**
@@ -56,6 +64,9 @@ class ImmutableCFA implements CFA {
   private final Optional<LiveVariables> liveVariables;
   private final Language language;
 
+  // created on first request, only few analyses use it
+  private final Supplier<CompactCFAView> compactView;
+
   ImmutableCFA(
       MachineModel pMachineModel,
       Map<String, FunctionEntryNode> pFunctions,
@@ -76,6 +87,18 @@ class ImmutableCFA implements CFA {
     language = pLanguage;
 
     checkArgument(functions.get(mainFunction.getFunctionName()) == mainFunction);
+
+    compactView = Suppliers.memoize(new Supplier<CompactCFAView>() {
+          @Override
+          public CompactCFAView get() {
+            ImmutableListMultimap<String, CFANode> nodesPerFunction = Multimaps.index(allNodes, CFAUtils.GET_FUNCTION);
+            List<Collection<CFANode>> functionNodes = new ArrayList<>(functions.size());
+            for (String function : functions.keySet()) {
+              functionNodes.add(nodesPerFunction.get(function));
+            }
+            return CompactCFAView.create(functionNodes);
+          }
+        });
   }
 
   private ImmutableCFA(MachineModel pMachineModel, Language pLanguage) {
@@ -87,6 +110,7 @@ class ImmutableCFA implements CFA {
     varClassification = Optional.absent();
     liveVariables = Optional.absent();
     language = pLanguage;
+    compactView = Suppliers.ofInstance(CompactCFAView.empty());
   }
 
   static ImmutableCFA empty(MachineModel pMachineModel, Language pLanguage) {
@@ -166,4 +190,9 @@ class ImmutableCFA implements CFA {
     return language;
   }
 
+  @Override
+  public Optional<CompactCFAView> getCompactView() {
+    return Optional.of(compactView.get());
+  }
+
 }
@@ -180,4 +180,10 @@ public class MutableCFA implements CFA {
       return language;
   }
 
+  @Override
+  public Optional<CompactCFAView> getCompactView() {
+    // node and edge indices would be invalidated by any modification
+    return Optional.absent();
+  }
+
 }
\ No newline at end of file
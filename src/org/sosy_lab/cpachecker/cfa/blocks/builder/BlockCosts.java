@@ -0,0 +1,144 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa.blocks.builder;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.Ordering;
+
+/**
+ * Measured costs of the blocks of a BAM analysis,
+ * i.e., how often the analysis entered a block and how often it could reuse a cached result.
+ * The costs can be written to a file and read again by a later analysis of the same program
+ * (cf. {@link CostBasedPartitioning}).
+ *
+ * Blocks are identified by the smallest node number of their call nodes,
+ * thus the file is only meaningful for the same program and the same CFA options.
+ */
+public class BlockCosts {
+
+  private static final String HEADER = "# block\tentries\tcacheHits\tnodes\tvariables";
+  private static final Splitter COLUMN_SPLITTER = Splitter.on('\t').trimResults();
+
+  /** The costs of a single block. */
+  public static class Entry {
+
+    private final int entries;
+    private final int cacheHits;
+    private final int nodes;
+    private final int variables;
+
+    private Entry(int pEntries, int pCacheHits, int pNodes, int pVariables) {
+      entries = pEntries;
+      cacheHits = pCacheHits;
+      nodes = pNodes;
+      variables = pVariables;
+    }
+
+    /** number of times the analysis entered the block */
+    public int getEntries() {
+      return entries;
+    }
+
+    /** number of entries for which a cached result could be used */
+    public int getCacheHits() {
+      return cacheHits;
+    }
+
+    /** number of CFA nodes in the block */
+    public int getNodes() {
+      return nodes;
+    }
+
+    /** number of variables referenced in the block */
+    public int getVariables() {
+      return variables;
+    }
+  }
+
+  private final Map<String, Entry> entries = new TreeMap<>();
+
+  static String getKey(Collection<CFANode> pCallNodes) {
+    return "N" + Ordering.natural().min(pCallNodes).getNodeNumber();
+  }
+
+  public void put(Collection<CFANode> pCallNodes, int pEntries, int pCacheHits, int pNodes, int pVariables) {
+    entries.put(getKey(pCallNodes), new Entry(pEntries, pCacheHits, pNodes, pVariables));
+  }
+
+  /** Get the costs of the block with the given call nodes, or null if they are unknown. */
+  public @Nullable Entry get(Collection<CFANode> pCallNodes) {
+    return entries.get(getKey(pCallNodes));
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public void write(Appendable out) throws IOException {
+    out.append(HEADER).append('\n');
+    for (Map.Entry<String, Entry> e : entries.entrySet()) {
+      Entry costs = e.getValue();
+      out.append(e.getKey()).append('\t')
+         .append(Integer.toString(costs.entries)).append('\t')
+         .append(Integer.toString(costs.cacheHits)).append('\t')
+         .append(Integer.toString(costs.nodes)).append('\t')
+         .append(Integer.toString(costs.variables)).append('\n');
+    }
+  }
+
+  public static BlockCosts read(Path pFile) throws IOException {
+    BlockCosts result = new BlockCosts();
+    int lineNumber = 0;
+    for (String line : pFile.asCharSource(Charset.defaultCharset()).readLines()) {
+      lineNumber++;
+      if (line.trim().isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      List<String> columns = COLUMN_SPLITTER.splitToList(line);
+      if (columns.size() != 5) {
+        throw new IOException("Invalid line " + lineNumber + " in block cost file " + pFile + ": " + line);
+      }
+      try {
+        result.entries.put(columns.get(0), new Entry(
+            Integer.parseInt(columns.get(1)), Integer.parseInt(columns.get(2)),
+            Integer.parseInt(columns.get(3)), Integer.parseInt(columns.get(4))));
+      } catch (NumberFormatException e) {
+        throw new IOException("Invalid number in line " + lineNumber + " of block cost file " + pFile, e);
+      }
+    }
+    return result;
+  }
+}
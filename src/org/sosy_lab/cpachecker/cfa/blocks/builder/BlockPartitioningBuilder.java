@@ -134,7 +134,7 @@ public class BlockPartitioningBuilder {
     return result;
   }
 
-  private Set<CFANode> collectCallNodes(Set<CFANode> pNodes, CFANode mainFunction) {
+  static Set<CFANode> collectCallNodes(Set<CFANode> pNodes, CFANode mainFunction) {
     Set<CFANode> result = new HashSet<>();
     for (CFANode node : pNodes) {
       if (node instanceof FunctionEntryNode &&
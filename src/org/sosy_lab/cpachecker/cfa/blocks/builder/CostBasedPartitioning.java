@@ -0,0 +1,157 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa.blocks.builder;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.logging.Level;
+
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+
+
+/**
+ * <code>PartitioningHeuristic</code> that creates blocks only for those functions and loops,
+ * for which the expected savings through cache hits outweigh the costs
+ * of reducing and expanding the abstract states at the entries of the block.
+ *
+ * The number of entries and cache hits of a block is taken from the block costs
+ * of a previous analysis (cf. {@link BlockCosts}), if available.
+ * Otherwise we assume that every call site of the function (or of the function containing the loop)
+ * enters the block once, and that all but the first entry are cache hits.
+ */
+@Options(prefix="cpa.bam.costBasedPartitioning")
+public class CostBasedPartitioning extends PartitioningHeuristic {
+
+  @Option(secure=true, description="block costs of a previous analysis of the same program "
+      + "(cf. option cpa.bam.blockCostFile), if not given, the costs are estimated")
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private Path costFile = null;
+
+  @Option(secure=true, description="minimal number of CFA nodes of a block, "
+      + "smaller functions and loops are analysed as part of the surrounding block")
+  @IntegerOption(min=1)
+  private int minBlockSize = 10;
+
+  @Option(secure=true, description="costs of reducing and expanding one variable at a block entry, "
+      + "relative to the costs of analysing one CFA node of the block")
+  private double reductionCostPerVariable = 0.5;
+
+  private final FunctionPartitioning functionPartitioning;
+  private final LoopPartitioning loopPartitioning;
+  private final BlockCosts costs;
+
+  /** Do not change signature! Constructor will be created with Reflections. */
+  public CostBasedPartitioning(LogManager pLogger, CFA pCfa, Configuration pConfig)
+      throws InvalidConfigurationException {
+    super(pLogger, pCfa);
+    pConfig.inject(this);
+    functionPartitioning = new FunctionPartitioning(pLogger, pCfa);
+    loopPartitioning = new LoopPartitioning(pLogger, pCfa);
+    costs = readCosts();
+  }
+
+  private BlockCosts readCosts() {
+    if (costFile != null) {
+      try {
+        BlockCosts result = BlockCosts.read(costFile);
+        logger.log(Level.INFO, "Using costs of", result.size(), "blocks from", costFile);
+        return result;
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not read block costs, estimating them instead");
+      }
+    }
+    return new BlockCosts();
+  }
+
+  @Override
+  protected boolean shouldBeCached(CFANode pNode) {
+    return functionPartitioning.shouldBeCached(pNode) || loopPartitioning.shouldBeCached(pNode);
+  }
+
+  @Override
+  protected Set<CFANode> getBlockForNode(CFANode pNode) {
+    final Set<CFANode> nodes;
+    if (functionPartitioning.shouldBeCached(pNode)) {
+      nodes = functionPartitioning.getBlockForNode(pNode);
+    } else if (loopPartitioning.shouldBeCached(pNode)) {
+      nodes = loopPartitioning.getBlockForNode(pNode);
+    } else {
+      throw new AssertionError("node should not be cached: " + pNode);
+    }
+
+    if (nodes == null || pNode.equals(cfa.getMainFunction())) {
+      // the main function is always a block
+      return nodes;
+    }
+    return isWorthABlock(pNode, nodes) ? nodes : null;
+  }
+
+  private boolean isWorthABlock(CFANode pNode, Set<CFANode> pNodes) {
+    if (pNodes.size() < minBlockSize) {
+      logger.log(Level.FINE, "No block for", pNode, "because it contains only", pNodes.size(), "nodes");
+      return false;
+    }
+
+    final int variables = new ReferencedVariablesCollector(pNodes).getVars().size();
+    final BlockCosts.Entry measured =
+        costs.get(BlockPartitioningBuilder.collectCallNodes(pNodes, cfa.getMainFunction()));
+
+    final int entries;
+    final int cacheHits;
+    if (measured != null) {
+      entries = measured.getEntries();
+      cacheHits = measured.getCacheHits();
+    } else {
+      entries = estimateEntries(pNode);
+      cacheHits = entries - 1;
+    }
+
+    final double savings = (double) cacheHits * pNodes.size();
+    final double overhead = entries * variables * reductionCostPerVariable;
+    final boolean worthABlock = savings >= overhead;
+
+    logger.log(Level.FINE, worthABlock ? "Block" : "No block", "for", pNode,
+        "with", pNodes.size(), "nodes,", variables, "variables,", entries, "entries, and", cacheHits,
+        "cache hits", (measured != null ? "(measured)" : "(estimated)"));
+    return worthABlock;
+  }
+
+  /** Estimate the number of entries of the block as the number of call sites of the function. */
+  private int estimateEntries(CFANode pNode) {
+    FunctionEntryNode function = pNode instanceof FunctionEntryNode
+        ? (FunctionEntryNode) pNode
+        : cfa.getFunctionHead(pNode.getFunctionName());
+    return Math.max(1, function.getNumEnteringEdges());
+  }
+}
@@ -43,7 +43,9 @@ public abstract class PartitioningHeuristic {
   protected final LogManager logger;
 
   /** Do not change signature! Constructor will be created with Reflections.
-   * Subclasses should also implement the same signature. */
+   * Subclasses should also implement the same signature,
+   * or a signature with an additional {@link org.sosy_lab.common.configuration.Configuration}
+   * as last parameter, if they have options. */
   public PartitioningHeuristic(LogManager pLogger, CFA pCfa) {
     cfa = pCfa;
     logger = pLogger;
@@ -28,8 +28,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.cpachecker.cfa.MutableCFA;
 import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
+import org.sosy_lab.cpachecker.cfa.ast.c.CSimpleDeclaration;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
@@ -42,20 +48,45 @@ import org.sosy_lab.cpachecker.util.CFATraversal.TraversalProcess;
 /**
  * Class which tries to find all sequences of simple edges in the CFA and
  * replaces them by {@link MultiEdge}s.
+ *
+ * The sequences are cut at the following points (in addition to all branching
+ * and merging points of the control flow, which are always cut points):
+ * loop heads, calls to functions, and after a configurable maximal length.
  */
+@Options(prefix="cfa.multiEdges")
 public class MultiEdgeCreator extends DefaultCFAVisitor {
 
-  public static void createMultiEdges(MutableCFA cfa) {
-    final MultiEdgeCreator visitor = new MultiEdgeCreator(cfa);
+  @Option(secure=true, description="Allow calls to functions without body (like nondet functions) "
+      + "inside MultiEdges. Note that specification automata that match such calls "
+      + "cannot detect target states inside a MultiEdge.")
+  private boolean includeExternalFunctionCalls = false;
+
+  @Option(secure=true, description="maximal number of edges in one MultiEdge (0 for no limit)")
+  @IntegerOption(min=0)
+  private int maxLength = 0;
+
+  private final MutableCFA cfa;
+
+  private int createdMultiEdges = 0;
+  private int mergedEdges = 0;
+
+  public MultiEdgeCreator(MutableCFA pCfa, Configuration pConfig) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    cfa = pCfa;
+  }
+
+  public void createMultiEdges() {
     for (final CFANode functionStart : cfa.getAllFunctionHeads()) {
-      CFATraversal.dfs().ignoreSummaryEdges().traverseOnce(functionStart, visitor);
+      CFATraversal.dfs().ignoreSummaryEdges().traverseOnce(functionStart, this);
     }
   }
 
-  private final MutableCFA cfa;
+  public int getNumberOfCreatedMultiEdges() {
+    return createdMultiEdges;
+  }
 
-  private MultiEdgeCreator(MutableCFA pCfa) {
-    cfa = pCfa;
+  public int getNumberOfMergedEdges() {
+    return mergedEdges;
   }
 
   @Override
@@ -79,7 +110,7 @@ public class MultiEdgeCreator extends DefaultCFAVisitor {
         nodes.add(edge.getSuccessor());
 
         node = edge.getSuccessor();
-      } while (nodeQualifies(node));
+      } while (nodeQualifies(node) && (maxLength == 0 || edges.size() < maxLength));
 
       if (edges.size() > 1) {
         CFAEdge firstEdge = edges.get(0);
@@ -104,6 +135,9 @@ public class MultiEdgeCreator extends DefaultCFAVisitor {
         for (CFANode middleNode : nodes) {
           cfa.removeNode(middleNode);
         }
+
+        createdMultiEdges++;
+        mergedEdges += edges.size();
       }
     }
 
@@ -144,9 +178,13 @@ public class MultiEdgeCreator extends DefaultCFAVisitor {
     if (edge.getEdgeType() == CFAEdgeType.StatementEdge) {
       CStatementEdge statementEdge = (CStatementEdge)edge;
 
-/* Temporarily disabled because SV-COMP specification relies on matching
- * extern function calls, and target states cannot appear within a multi edge.
       if ((statementEdge.getStatement() instanceof CFunctionCall)) {
+        if (!includeExternalFunctionCalls) {
+          // By default, SV-COMP specifications rely on matching extern function calls,
+          // and target states cannot appear within a multi edge.
+          return true;
+        }
+
         CFunctionCall call = ((CFunctionCall)statementEdge.getStatement());
         CSimpleDeclaration declaration = call.getFunctionCallExpression().getDeclaration();
 
@@ -155,8 +193,6 @@ public class MultiEdgeCreator extends DefaultCFAVisitor {
         // otherwise: call of non-existent function, example: nondet_int() -> ignore this case
         return declaration == null || cfa.getAllFunctionNames().contains(declaration.getQualifiedName());
       }
-*/
-      return (statementEdge.getStatement() instanceof CFunctionCall);
     }
     return false;
   }
@@ -0,0 +1,159 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa.postprocessing.function;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.cfa.MutableCFA;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.MultiEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.SortedSetMultimap;
+import com.google.common.collect.TreeMultimap;
+
+public class MultiEdgeCreatorTest {
+
+  private static final String FUNCTION = "main";
+
+  private MutableCFA cfa;
+  private List<CFANode> chain;
+
+  /**
+   * Create the CFA entry -> n0 -> n1 -> ... -> n4 -> exit,
+   * which consists only of blank edges.
+   */
+  @Before
+  public void createCFA() {
+    FunctionExitNode exit = new FunctionExitNode(FUNCTION);
+    FunctionEntryNode entry = new CFunctionEntryNode(
+        FileLocation.DUMMY,
+        new CFunctionDeclaration(FileLocation.DUMMY,
+            CFunctionType.functionTypeWithReturnType(CNumericTypes.INT), FUNCTION,
+            Collections.<CParameterDeclaration>emptyList()),
+        exit,
+        Collections.<String>emptyList(),
+        Optional.<CVariableDeclaration>absent());
+
+    SortedSetMultimap<String, CFANode> nodes = TreeMultimap.create();
+    nodes.put(FUNCTION, entry);
+    nodes.put(FUNCTION, exit);
+
+    chain = new ArrayList<>();
+    CFANode last = entry;
+    for (int i = 0; i < 5; i++) {
+      CFANode node = new CFANode(FUNCTION);
+      nodes.put(FUNCTION, node);
+      chain.add(node);
+      connect(last, node);
+      last = node;
+    }
+    connect(last, exit);
+
+    SortedMap<String, FunctionEntryNode> functions = new TreeMap<>();
+    functions.put(FUNCTION, entry);
+    cfa = new MutableCFA(MachineModel.LINUX32, functions, nodes, entry, Language.C);
+  }
+
+  private static void connect(CFANode pPredecessor, CFANode pSuccessor) {
+    CFAEdge edge = new BlankEdge("", FileLocation.DUMMY, pPredecessor, pSuccessor, "");
+    pPredecessor.addLeavingEdge(edge);
+    pSuccessor.addEnteringEdge(edge);
+  }
+
+  private MultiEdgeCreator createMultiEdges(Configuration pConfig) throws Exception {
+    MultiEdgeCreator creator = new MultiEdgeCreator(cfa, pConfig);
+    creator.createMultiEdges();
+    return creator;
+  }
+
+  @Test
+  public void testWholeChain() throws Exception {
+    MultiEdgeCreator creator = createMultiEdges(TestDataTools.configurationForTest().build());
+
+    assertThat(creator.getNumberOfCreatedMultiEdges()).isEqualTo(1);
+    assertThat(creator.getNumberOfMergedEdges()).isEqualTo(5);
+
+    CFAEdge edge = chain.get(0).getLeavingEdge(0);
+    assertThat(edge).isInstanceOf(MultiEdge.class);
+    assertThat(edge.getSuccessor()).isSameAs(cfa.getMainFunction().getExitNode());
+    assertThat(cfa.getAllNodes()).containsNoneOf(chain.get(1), chain.get(2), chain.get(3), chain.get(4));
+  }
+
+  @Test
+  public void testMaxLength() throws Exception {
+    MultiEdgeCreator creator = createMultiEdges(TestDataTools.configurationForTest()
+        .setOption("cfa.multiEdges.maxLength", "2")
+        .build());
+
+    // n0 -> n2 -> n4 with two MultiEdges, the last edge n4 -> exit stays single
+    assertThat(creator.getNumberOfCreatedMultiEdges()).isEqualTo(2);
+    assertThat(creator.getNumberOfMergedEdges()).isEqualTo(4);
+
+    CFAEdge first = chain.get(0).getLeavingEdge(0);
+    assertThat(first).isInstanceOf(MultiEdge.class);
+    assertThat(((MultiEdge) first).getEdges()).hasSize(2);
+    assertThat(first.getSuccessor()).isSameAs(chain.get(2));
+
+    CFAEdge second = chain.get(2).getLeavingEdge(0);
+    assertThat(second).isInstanceOf(MultiEdge.class);
+    assertThat(second.getSuccessor()).isSameAs(chain.get(4));
+
+    assertThat(chain.get(4).getLeavingEdge(0)).isInstanceOf(BlankEdge.class);
+  }
+
+  @Test
+  public void testCutAtLoopHead() throws Exception {
+    chain.get(2).setLoopStart();
+
+    MultiEdgeCreator creator = createMultiEdges(TestDataTools.configurationForTest().build());
+
+    assertThat(creator.getNumberOfCreatedMultiEdges()).isEqualTo(2);
+    assertThat(chain.get(0).getLeavingEdge(0).getSuccessor()).isSameAs(chain.get(2));
+    assertThat(chain.get(2).getLeavingEdge(0).getSuccessor()).isSameAs(cfa.getMainFunction().getExitNode());
+  }
+}
@@ -122,7 +122,7 @@ public class CFAReduction {
     pruneIrrelevantNodes(cfa, removedNodes, errorNodes);
   }
 
-  private Collection<CFANode> getErrorNodesWithCPA(MutableCFA cfa) throws InterruptedException {
+  Collection<CFANode> getErrorNodesWithCPA(MutableCFA cfa) throws InterruptedException {
     try {
       LogManager lLogger = logger.withComponentName("CFAReduction");
       ReachedSetFactory lReachedSetFactory = new ReachedSetFactory(Configuration.defaultConfiguration(), lLogger);
@@ -0,0 +1,429 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa.postprocessing.global;
+
+import static org.sosy_lab.cpachecker.util.CFAUtils.leavingEdges;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.logging.Level;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFACreationUtils;
+import org.sosy_lab.cpachecker.cfa.MutableCFA;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAssignment;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CComplexCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldReference;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpressionCollectingVisitor;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CRightHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CRightHandSideVisitor;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.DefaultCExpressionVisitor;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.MultiEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionSummaryEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CReturnStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.util.CFATraversal;
+import org.sosy_lab.cpachecker.util.VariableClassification;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
+/**
+ * Slice the CFA with respect to the specification:
+ * all assignments that cannot influence whether a target location
+ * of the specification is reached are replaced by blank edges.
+ *
+ * The slicing criterion consists of all assumptions on paths to the target locations
+ * (as a conservative approximation of the control dependences of the targets)
+ * and of the edges entering the target locations.
+ * The data dependences are computed flow-insensitively over the whole program
+ * (assignments, parameter passing, return values, and initializers),
+ * where all memory that is accessed through pointers is treated as a single variable
+ * that is connected to all variables whose address is taken
+ * (as given by the {@link VariableClassification}).
+ *
+ * Only assignments to plain variables that do not dereference any pointer are sliced,
+ * all other edges (declarations, function calls, returns, etc.) are kept,
+ * such that the structure of the CFA remains unchanged
+ * and properties like memory safety are not affected.
+ */
+public class ProgramSlicer {
+
+  /** Pseudo variable that represents all memory accessed through pointers. */
+  private static final String MEMORY = "*";
+
+  private static final String SLICED_DESCRIPTION = "irrelevant for specification";
+
+  private final LogManager logger;
+  private final CFAReduction targetFinder;
+
+  private int numberOfSlicedEdges = 0;
+  private int numberOfRelevantVariables = 0;
+
+  public ProgramSlicer(Configuration config, LogManager pLogger, ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    logger = pLogger;
+    // the target locations are computed the same way as for cfa.removeIrrelevantForSpecification
+    targetFinder = new CFAReduction(config, pLogger, pShutdownNotifier);
+  }
+
+  public int getNumberOfSlicedEdges() {
+    return numberOfSlicedEdges;
+  }
+
+  public int getNumberOfRelevantVariables() {
+    return numberOfRelevantVariables;
+  }
+
+  public void sliceForSpecification(MutableCFA cfa, VariableClassification varClassification)
+      throws InterruptedException {
+    Collection<CFANode> targetNodes = targetFinder.getErrorNodesWithCPA(cfa);
+
+    // all nodes from which a target location is reachable
+    CFATraversal.NodeCollectingCFAVisitor cfaVisitor = new CFATraversal.NodeCollectingCFAVisitor();
+    CFATraversal traversal = CFATraversal.dfs().backwards();
+    for (CFANode n : targetNodes) {
+      traversal.traverse(n, cfaVisitor);
+    }
+    Set<CFANode> relevantNodes = cfaVisitor.getVisitedNodes();
+
+    // compute the criterion and the dependences in one pass over all edges
+    Set<String> criterion = new HashSet<>();
+    SetMultimap<String, String> dependences = HashMultimap.create();
+    List<CStatementEdge> candidates = new ArrayList<>();
+
+    for (CFANode node : cfa.getAllNodes()) {
+      for (CFAEdge edge : leavingEdges(node)) {
+        if (edge instanceof MultiEdge) {
+          // inner edges of MultiEdges are never sliced, but they may create dependences
+          for (CFAEdge innerEdge : ((MultiEdge) edge).getEdges()) {
+            handleEdge(innerEdge, relevantNodes, targetNodes, criterion, dependences);
+          }
+        } else {
+          handleEdge(edge, relevantNodes, targetNodes, criterion, dependences);
+          if (edge instanceof CStatementEdge && isSliceable((CStatementEdge) edge)) {
+            candidates.add((CStatementEdge) edge);
+          }
+        }
+      }
+      if (node.getLeavingSummaryEdge() != null) {
+        handleEdge(node.getLeavingSummaryEdge(), relevantNodes, targetNodes, criterion, dependences);
+      }
+    }
+
+    for (String addressedVariable : varClassification.getAddressedVariables()) {
+      dependences.put(addressedVariable, MEMORY);
+      dependences.put(MEMORY, addressedVariable);
+    }
+
+    Set<String> relevantVariables = computeClosure(criterion, dependences);
+    numberOfRelevantVariables = relevantVariables.size();
+
+    for (CStatementEdge edge : candidates) {
+      CExpressionAssignmentStatement assignment = (CExpressionAssignmentStatement) edge.getStatement();
+      String variable = ((CIdExpression) assignment.getLeftHandSide()).getDeclaration().getQualifiedName();
+      if (!relevantVariables.contains(variable)) {
+        replaceWithBlankEdge(edge);
+        numberOfSlicedEdges++;
+      }
+    }
+
+    logger.log(Level.INFO, "Slicing for specification replaced", numberOfSlicedEdges,
+        "irrelevant assignments with blank edges.");
+  }
+
+  private static Set<String> computeClosure(Set<String> pCriterion, SetMultimap<String, String> pDependences) {
+    Set<String> result = new HashSet<>(pCriterion);
+    Queue<String> waitlist = new ArrayDeque<>(pCriterion);
+    while (!waitlist.isEmpty()) {
+      String variable = waitlist.poll();
+      for (String dependency : pDependences.get(variable)) {
+        if (result.add(dependency)) {
+          waitlist.add(dependency);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static void replaceWithBlankEdge(CStatementEdge pEdge) {
+    CFANode predecessor = pEdge.getPredecessor();
+    CFANode successor = pEdge.getSuccessor();
+    CFACreationUtils.removeEdgeFromNodes(pEdge);
+    CFAEdge blankEdge = new BlankEdge(pEdge.getRawStatement(), pEdge.getFileLocation(),
+        predecessor, successor, SLICED_DESCRIPTION);
+    CFACreationUtils.addEdgeUnconditionallyToCFA(blankEdge);
+  }
+
+  /**
+   * Only assignments of side-effect free and dereference-free expressions
+   * to plain variables are candidates for slicing.
+   */
+  private static boolean isSliceable(CStatementEdge pEdge) {
+    CStatement statement = pEdge.getStatement();
+    if (!(statement instanceof CExpressionAssignmentStatement)) {
+      return false;
+    }
+    CExpressionAssignmentStatement assignment = (CExpressionAssignmentStatement) statement;
+    return assignment.getLeftHandSide() instanceof CIdExpression
+        && ((CIdExpression) assignment.getLeftHandSide()).getDeclaration() != null
+        && !assignment.getRightHandSide().accept(DereferenceFinder.INSTANCE);
+  }
+
+  private static void handleEdge(CFAEdge pEdge, Set<CFANode> pRelevantNodes, Collection<CFANode> pTargetNodes,
+      Set<String> pCriterion, SetMultimap<String, String> pDependences) {
+
+    if (pTargetNodes.contains(pEdge.getSuccessor())) {
+      pCriterion.addAll(getReadVariables(pEdge));
+    }
+
+    switch (pEdge.getEdgeType()) {
+    case AssumeEdge:
+      if (pRelevantNodes.contains(pEdge.getPredecessor())) {
+        pCriterion.addAll(getVariables(((CAssumeEdge) pEdge).getExpression()));
+      }
+      break;
+
+    case StatementEdge:
+      CStatement statement = ((CStatementEdge) pEdge).getStatement();
+      if (statement instanceof CAssignment) {
+        addAssignment(((CAssignment) statement).getLeftHandSide(),
+            ((CAssignment) statement).getRightHandSide(), pDependences);
+      } else if (statement instanceof CFunctionCall) {
+        // A call to a function without body, which may restrict the control flow
+        // depending on its arguments (like __VERIFIER_assume),
+        // or write to memory through pointer arguments.
+        Set<String> arguments = getVariables(((CFunctionCall) statement).getFunctionCallExpression());
+        pCriterion.addAll(arguments);
+        pDependences.putAll(MEMORY, arguments);
+      }
+      break;
+
+    case DeclarationEdge:
+      if (((CDeclarationEdge) pEdge).getDeclaration() instanceof CVariableDeclaration) {
+        CVariableDeclaration declaration = (CVariableDeclaration) ((CDeclarationEdge) pEdge).getDeclaration();
+        if (declaration.getInitializer() != null) {
+          pDependences.putAll(declaration.getQualifiedName(),
+              toNames(declaration.getInitializer().accept(new CIdExpressionCollectingVisitor())));
+        }
+      }
+      break;
+
+    case ReturnStatementEdge:
+      CReturnStatementEdge returnEdge = (CReturnStatementEdge) pEdge;
+      CFunctionEntryNode entryNode = (CFunctionEntryNode) returnEdge.getSuccessor().getEntryNode();
+      if (returnEdge.getExpression().isPresent() && entryNode.getReturnVariable().isPresent()) {
+        pDependences.putAll(entryNode.getReturnVariable().get().getQualifiedName(),
+            getVariables(returnEdge.getExpression().get()));
+      }
+      break;
+
+    case FunctionCallEdge:
+      CFunctionCallEdge callEdge = (CFunctionCallEdge) pEdge;
+      List<CParameterDeclaration> parameters = callEdge.getSuccessor().getFunctionParameters();
+      List<CExpression> arguments = callEdge.getArguments();
+      for (int i = 0; i < parameters.size() && i < arguments.size(); i++) {
+        pDependences.putAll(parameters.get(i).getQualifiedName(), getVariables(arguments.get(i)));
+      }
+      // variadic arguments and function pointers
+      for (int i = parameters.size(); i < arguments.size(); i++) {
+        pCriterion.addAll(getVariables(arguments.get(i)));
+      }
+      pCriterion.addAll(getVariables(callEdge.getSummaryEdge().getExpression()
+          .getFunctionCallExpression().getFunctionNameExpression()));
+      break;
+
+    case CallToReturnEdge:
+      CFunctionSummaryEdge summaryEdge = (CFunctionSummaryEdge) pEdge;
+      if (summaryEdge.getExpression() instanceof CFunctionCallAssignmentStatement) {
+        CFunctionCallAssignmentStatement assignment = (CFunctionCallAssignmentStatement) summaryEdge.getExpression();
+        Set<String> read = new HashSet<>(getVariables(assignment.getLeftHandSide()));
+        if (summaryEdge.getFunctionEntry().getReturnVariable().isPresent()) {
+          read.add(summaryEdge.getFunctionEntry().getReturnVariable().get().getQualifiedName());
+        }
+        for (String written : getWrittenVariables(assignment.getLeftHandSide())) {
+          pDependences.putAll(written, read);
+        }
+      }
+      break;
+
+    default:
+      // no data flow
+    }
+  }
+
+  private static void addAssignment(CExpression pLhs, CRightHandSide pRhs,
+      SetMultimap<String, String> pDependences) {
+    Set<String> read = new HashSet<>(getVariables(pRhs));
+    // variables in array indices and field owners of the left-hand side
+    read.addAll(getVariables(pLhs));
+    if (pRhs instanceof CFunctionCallExpression) {
+      // call to a function without body, which may write to memory through its arguments
+      CFunctionCallExpression call = (CFunctionCallExpression) pRhs;
+      read.addAll(getVariables(call.getFunctionNameExpression()));
+      pDependences.putAll(MEMORY, read);
+    }
+
+    for (String written : getWrittenVariables(pLhs)) {
+      pDependences.putAll(written, read);
+    }
+  }
+
+  private static String lhsVariable(CExpression pLhs) {
+    if (pLhs instanceof CIdExpression && ((CIdExpression) pLhs).getDeclaration() != null) {
+      return ((CIdExpression) pLhs).getDeclaration().getQualifiedName();
+    }
+    return null;
+  }
+
+  private static Set<String> getWrittenVariables(CExpression pLhs) {
+    String variable = lhsVariable(pLhs);
+    if (variable != null) {
+      return Collections.singleton(variable);
+    }
+    // arrays, fields, and dereferences: the whole object and all memory may be written
+    Set<String> result = new HashSet<>(getVariables(pLhs));
+    result.add(MEMORY);
+    return result;
+  }
+
+  private static Set<String> getReadVariables(CFAEdge pEdge) {
+    switch (pEdge.getEdgeType()) {
+    case AssumeEdge:
+      return getVariables(((CAssumeEdge) pEdge).getExpression());
+    case StatementEdge:
+      CStatement statement = ((CStatementEdge) pEdge).getStatement();
+      return toNames(statement.accept(new CIdExpressionCollectingVisitor()));
+    default:
+      return Collections.<String>emptySet();
+    }
+  }
+
+  private static Set<String> getVariables(CRightHandSide pExpression) {
+    Set<String> result = toNames(pExpression.accept(new CIdExpressionCollectingVisitor()));
+    if (pExpression.accept(DereferenceFinder.INSTANCE)) {
+      result.add(MEMORY);
+    }
+    return result;
+  }
+
+  private static Set<String> toNames(Iterable<CIdExpression> pIds) {
+    Set<String> result = new HashSet<>();
+    for (CIdExpression id : pIds) {
+      if (id.getDeclaration() != null) {
+        result.add(id.getDeclaration().getQualifiedName());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether an expression accesses memory through a pointer or an array subscript.
+   */
+  private static class DereferenceFinder extends DefaultCExpressionVisitor<Boolean, RuntimeException>
+      implements CRightHandSideVisitor<Boolean, RuntimeException> {
+
+    private static final DereferenceFinder INSTANCE = new DereferenceFinder();
+
+    @Override
+    protected Boolean visitDefault(CExpression pExp) {
+      return false;
+    }
+
+    @Override
+    public Boolean visit(CArraySubscriptExpression pE) {
+      return true;
+    }
+
+    @Override
+    public Boolean visit(CPointerExpression pE) {
+      return true;
+    }
+
+    @Override
+    public Boolean visit(CFieldReference pE) {
+      return pE.isPointerDereference() || pE.getFieldOwner().accept(this);
+    }
+
+    @Override
+    public Boolean visit(CBinaryExpression pE) {
+      return pE.getOperand1().accept(this) || pE.getOperand2().accept(this);
+    }
+
+    @Override
+    public Boolean visit(CCastExpression pE) {
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    public Boolean visit(CComplexCastExpression pE) {
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    public Boolean visit(CUnaryExpression pE) {
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    public Boolean visit(CFunctionCallExpression pE) {
+      for (CExpression parameter : pE.getParameterExpressions()) {
+        if (parameter.accept(this)) {
+          return true;
+        }
+      }
+      return pE.getFunctionNameExpression().accept(this);
+    }
+  }
+}
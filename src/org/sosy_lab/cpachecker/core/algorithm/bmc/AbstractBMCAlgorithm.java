@@ -27,10 +27,16 @@ import static com.google.common.collect.FluentIterable.from;
 import static org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState.FILTER_ABSTRACTION_STATES;
 import static org.sosy_lab.cpachecker.util.AbstractStates.*;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -75,7 +81,9 @@ import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerVie
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 
 @Options(prefix="bmc")
 abstract class AbstractBMCAlgorithm implements StatisticsProvider {
@@ -109,6 +117,29 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
       + "the SV-COMP 2013 competition contribution of ESBMC 1.20.")
   private boolean havocLoopTerminationConditionVariablesOnly = false;
 
+  @Option(secure=true, description="Keep the formulas that are checked for one bound "
+      + "on the solver stack and check each of them under a fresh activation literal, "
+      + "such that the checks of the candidate invariants and of the bounding assertions "
+      + "for the same bound can reuse what the solver learned in the previous checks. "
+      + "The formulas are removed from the stack before the next bound.")
+  private boolean incrementalSolving = false;
+
+  @Option(secure=true, description="Check all candidate invariants together "
+      + "with one solver call per round instead of one call per candidate, "
+      + "guarding each candidate with an activation literal "
+      + "and dropping the candidates that are violated by the model (Houdini-style).")
+  private boolean batchCandidateChecks = false;
+
+  @Option(secure=true, description="Run the inductive step of k-induction in a separate thread "
+      + "while the base case for the same k is checked, and let it speculatively "
+      + "continue with the next k if it finishes first.")
+  private boolean parallelInduction = false;
+
+  private static final String ACTIVATION_LITERAL_PREFIX = "__BMC_ACTIVATION_";
+  private int activationLiteralCount = 0;
+  // number of stack levels that hold guarded formulas of the current bound
+  private int guardedStackLevels = 0;
+
   protected final BMCStatistics stats;
   private final Algorithm algorithm;
   private final ConfigurableProgramAnalysis cpa;
@@ -229,10 +260,19 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
 
       try (ProverEnvironment prover = solver.newProverEnvironmentWithModelGeneration();
           @SuppressWarnings("resource")
-          KInductionProver kInductionProver = createInductionProver()) {
+          KInductionProver kInductionProver = createInductionProver();
+          @SuppressWarnings("resource")
+          InductionStepRunner inductionStepRunner = createInductionStepRunner(kInductionProver)) {
 
         do {
           shutdownNotifier.shutdownIfNecessary();
+          stats.startBound();
+
+          if (inductionStepRunner != null) {
+            // the inductive step does not depend on the base case, so start it right away
+            final int k = CPAs.retrieveCPA(cpa, BoundsCPA.class).getMaxLoopIterations();
+            inductionStepRunner.start(k, from(candidateGenerator).toSet());
+          }
 
           logger.log(Level.INFO, "Creating formula for program");
           status = BMCHelper.unroll(logger, reachedSet, algorithm, cpa);
@@ -255,19 +295,29 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
           }
 
           // Perform a bounded model check on each candidate invariant
-          Iterator<CandidateInvariant> candidateInvariantIterator = candidateGenerator.iterator();
-          while (candidateInvariantIterator.hasNext()) {
-            CandidateInvariant candidateInvariant = candidateInvariantIterator.next();
-            // first check safety in k iterations
-
-            boolean safe = boundedModelCheck(reachedSet, prover, candidateInvariant);
-            if (!safe) {
-              candidateInvariantIterator.remove();
-            }
+          if (batchCandidateChecks) {
+            Set<CandidateInvariant> unsafeCandidates =
+                boundedModelCheck(reachedSet, prover, from(candidateGenerator).toList());
+            Iterables.removeAll(candidateGenerator, unsafeCandidates);
 
             if (invariantGenerator.isProgramSafe()) {
               return AlgorithmStatus.SOUND_AND_PRECISE;
             }
+          } else {
+            Iterator<CandidateInvariant> candidateInvariantIterator = candidateGenerator.iterator();
+            while (candidateInvariantIterator.hasNext()) {
+              CandidateInvariant candidateInvariant = candidateInvariantIterator.next();
+              // first check safety in k iterations
+
+              boolean safe = boundedModelCheck(reachedSet, prover, candidateInvariant);
+              if (!safe) {
+                candidateInvariantIterator.remove();
+              }
+
+              if (invariantGenerator.isProgramSafe()) {
+                return AlgorithmStatus.SOUND_AND_PRECISE;
+              }
+            }
           }
 
           // second check soundness
@@ -284,7 +334,17 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
             }
 
             // try to prove program safety via induction
-            if (induction) {
+            if (inductionStepRunner != null) {
+              Set<CandidateInvariant> remainingCandidates = from(candidateGenerator).toSet();
+              Set<CandidateInvariant> provenCandidates = selectProvenCandidates(
+                  inductionStepRunner.getProvenCandidates(),
+                  remainingCandidates,
+                  ImmutableSet.copyOf(kInductionProver.getConfirmedCandidates()),
+                  batchCandidateChecks);
+              kInductionProver.confirmCandidates(provenCandidates);
+              sound = sound || provenCandidates.size() == remainingCandidates.size();
+              candidateGenerator.confirmCandidates(kInductionProver.getConfirmedCandidates());
+            } else if (induction) {
               final int k = CPAs.retrieveCPA(cpa, BoundsCPA.class).getMaxLoopIterations();
               sound = sound || kInductionProver.check(k, from(candidateGenerator).toSet());
               candidateGenerator.confirmCandidates(kInductionProver.getConfirmedCandidates());
@@ -295,6 +355,9 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
             }
           }
 
+          // the formulas of the next bound contain all formulas of this bound
+          popGuardedFormulas(prover);
+
           if (!candidateGenerator.hasCandidatesAvailable()) {
             // no remaining invariants to be proven
             return status;
@@ -305,9 +368,36 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
 
       return AlgorithmStatus.UNSOUND_AND_PRECISE;
     } finally {
+      stats.finishBound();
     }
   }
 
+  /**
+   * Selects the candidates that may be confirmed after both the inductive step
+   * and the base case were checked for the same bound:
+   * only candidates that survived the base case may be confirmed.
+   * If the candidates were checked in batches, they were proven together
+   * and may depend on each other, so none of them holds if the base case
+   * violated one of them.
+   *
+   * @param pStepCandidates the candidates for which the inductive step succeeded.
+   * @param pRemainingCandidates the candidates that survived the base case.
+   * @param pConfirmedCandidates the candidates that were confirmed before.
+   * @param pBatch whether the inductive step checked the candidates in batches.
+   * @return the candidates that may be confirmed.
+   */
+  static Set<CandidateInvariant> selectProvenCandidates(
+      Set<CandidateInvariant> pStepCandidates,
+      Set<CandidateInvariant> pRemainingCandidates,
+      Set<CandidateInvariant> pConfirmedCandidates,
+      boolean pBatch) {
+    if (pBatch
+        && !Sets.union(pRemainingCandidates, pConfirmedCandidates).containsAll(pStepCandidates)) {
+      return ImmutableSet.of();
+    }
+    return Sets.intersection(pStepCandidates, pRemainingCandidates).immutableCopy();
+  }
+
   /**
    * Gets the candidate invariants to be checked.
    *
@@ -341,7 +431,7 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
     BooleanFormula program = bfmgr.not(pInductionProblem.getAssertion(pReachedSet, fmgr, pmgr));
     logger.log(Level.INFO, "Starting satisfiability check...");
     stats.satCheck.start();
-    pProver.push(program);
+    BooleanFormula activationLiteral = pushForCheck(pProver, program);
     boolean safe = pProver.isUnsat();
     // Leave program formula on solver stack until error path is created
     stats.satCheck.stop();
@@ -353,11 +443,120 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
     }
 
     // Now pop the program formula off of the stack
-    pProver.pop();
+    popAfterCheck(pProver, activationLiteral);
 
     return safe;
   }
 
+  /**
+   * Performs a bounded model check on all given candidate invariants at once.
+   * Each round checks with a single solver call whether any of the remaining candidates
+   * can be violated, and removes the candidates that are violated by the model,
+   * until the remaining candidates are safe.
+   *
+   * @return the candidate invariants that can be violated within the bound.
+   */
+  private Set<CandidateInvariant> boundedModelCheck(final ReachedSet pReachedSet,
+      final ProverEnvironment pProver, List<CandidateInvariant> pCandidates)
+      throws CPATransferException, InterruptedException, SolverException {
+    List<CandidateInvariant> remaining = new ArrayList<>(pCandidates);
+    List<BooleanFormula> violations = new ArrayList<>(pCandidates.size());
+    for (CandidateInvariant candidate : pCandidates) {
+      violations.add(bfmgr.not(candidate.getAssertion(pReachedSet, fmgr, pmgr)));
+    }
+
+    Set<CandidateInvariant> unsafe = new HashSet<>();
+    int solverCalls = 0;
+    while (!remaining.isEmpty()) {
+      logger.log(Level.INFO, "Starting satisfiability check for", remaining.size(), "candidates...");
+      stats.satCheck.start();
+      BooleanFormula activationLiteral =
+          pushForCheck(pProver, BMCHelper.disjoinWithActivationLiterals(violations, bfmgr));
+      boolean safe = pProver.isUnsat();
+      stats.satCheck.stop();
+      solverCalls++;
+
+      if (safe) {
+        popAfterCheck(pProver, activationLiteral);
+        break;
+      }
+
+      List<Integer> violated = new ArrayList<>(BMCHelper.getSatisfiedIndices(pProver.getModel()));
+      analyzeCounterexample(pReachedSet, pProver);
+      popAfterCheck(pProver, activationLiteral);
+
+      if (violated.isEmpty()) {
+        // the model does not tell which candidate is violated, check them separately
+        for (CandidateInvariant candidate : remaining) {
+          if (!boundedModelCheck(pReachedSet, pProver, candidate)) {
+            unsafe.add(candidate);
+          }
+        }
+        stats.addCandidateBatch(pCandidates.size(), solverCalls + remaining.size());
+        return unsafe;
+      }
+
+      // remove from the back to keep the remaining indices valid
+      for (int i = violated.size() - 1; i >= 0; i--) {
+        int index = violated.get(i);
+        unsafe.add(remaining.remove(index));
+        violations.remove(index);
+      }
+    }
+
+    for (CandidateInvariant candidate : remaining) {
+      candidate.assumeTruth(pReachedSet);
+    }
+    stats.addCandidateBatch(pCandidates.size(), solverCalls);
+    return unsafe;
+  }
+
+  /**
+   * Pushes a formula that should be checked for satisfiability onto the prover stack.
+   * With incremental solving, the formula is guarded by a fresh activation literal
+   * and stays on the stack until the end of the current bound,
+   * and only the literal is pushed for the check.
+   * Afterwards, {@link #popAfterCheck(ProverEnvironment, BooleanFormula)} needs to be called
+   * with the returned literal.
+   *
+   * @return the activation literal, or null if incremental solving is disabled.
+   */
+  private @Nullable BooleanFormula pushForCheck(ProverEnvironment pProver, BooleanFormula pFormula) {
+    if (!incrementalSolving) {
+      pProver.push(pFormula);
+      return null;
+    }
+    BooleanFormula literal = bfmgr.makeVariable(ACTIVATION_LITERAL_PREFIX + activationLiteralCount++);
+    pProver.push(bfmgr.implication(literal, pFormula));
+    pProver.push(literal);
+    return literal;
+  }
+
+  /**
+   * Removes a formula that was pushed by {@link #pushForCheck(ProverEnvironment, BooleanFormula)}.
+   * With incremental solving, the guarded formula remains on the stack
+   * until {@link #popGuardedFormulas(ProverEnvironment)} is called,
+   * but its activation literal is disabled.
+   */
+  private void popAfterCheck(ProverEnvironment pProver, @Nullable BooleanFormula pLiteral) {
+    pProver.pop();
+    if (pLiteral != null) {
+      pProver.push(bfmgr.not(pLiteral));
+      guardedStackLevels += 2; // the guarded formula and the disabled literal
+    }
+  }
+
+  /**
+   * Removes the guarded formulas that were kept on the stack by incremental solving
+   * for the checks of the current bound.
+   */
+  private void popGuardedFormulas(ProverEnvironment pProver) {
+    while (guardedStackLevels > 0) {
+      pProver.pop();
+      guardedStackLevels--;
+    }
+  }
+
   /**
    * This class is called after a violation has been found
    * (i.e., the bounded-model-checking formula was satisfied).
@@ -401,9 +600,9 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
       logger.log(Level.INFO, "Starting assertions check...");
 
       stats.assertionsCheck.start();
-      prover.push(assertions);
+      BooleanFormula activationLiteral = pushForCheck(prover, assertions);
       boolean sound = prover.isUnsat();
-      prover.pop();
+      popAfterCheck(prover, activationLiteral);
       stats.assertionsCheck.stop();
 
       logger.log(Level.FINER, "Soundness after assertion checks:", sound);
@@ -436,6 +635,13 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
         stats,
         reachedSetFactory,
         havocLoopTerminationConditionVariablesOnly,
+        batchCandidateChecks,
         shutdownNotifier) : null;
   }
+
+  private @Nullable InductionStepRunner createInductionStepRunner(@Nullable KInductionProver pProver) {
+    return pProver != null && parallelInduction
+        ? new InductionStepRunner(pProver, logger, stats)
+        : null;
+  }
 }
@@ -26,6 +26,11 @@ package org.sosy_lab.cpachecker.core.algorithm.bmc;
 import static com.google.common.collect.FluentIterable.from;
 import static org.sosy_lab.cpachecker.util.AbstractStates.extractLocation;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.logging.Level;
 
 import org.sosy_lab.common.log.LogManager;
@@ -42,8 +47,13 @@ import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.CPAs;
+import org.sosy_lab.solver.AssignableTerm;
+import org.sosy_lab.solver.AssignableTerm.Variable;
+import org.sosy_lab.solver.Model;
+import org.sosy_lab.solver.TermType;
 import org.sosy_lab.solver.api.BooleanFormula;
 import org.sosy_lab.solver.api.BooleanFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.view.BooleanFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
 
@@ -54,6 +64,8 @@ import com.google.common.collect.ImmutableSet;
 
 final class BMCHelper {
 
+  private static final String CANDIDATE_LITERAL_PREFIX = "__BMC_CANDIDATE_";
+
   private BMCHelper() {
 
   }
@@ -101,6 +113,44 @@ final class BMCHelper {
     return f;
   }
 
+  /**
+   * Create a formula that is satisfiable if and only if at least one of the given formulas is.
+   * Each formula is guarded by an activation literal,
+   * such that a model of the result tells which of the formulas it satisfies
+   * (cf. {@link #getSatisfiedIndices(Model)}).
+   * This allows to check a whole batch of formulas with a single solver call.
+   */
+  public static BooleanFormula disjoinWithActivationLiterals(List<BooleanFormula> pFormulas,
+      BooleanFormulaManagerView pBFMGR) {
+    List<BooleanFormula> guardedFormulas = new ArrayList<>(pFormulas.size());
+    List<BooleanFormula> literals = new ArrayList<>(pFormulas.size());
+    for (int i = 0; i < pFormulas.size(); i++) {
+      BooleanFormula literal = pBFMGR.makeVariable(CANDIDATE_LITERAL_PREFIX + i);
+      guardedFormulas.add(pBFMGR.implication(literal, pFormulas.get(i)));
+      literals.add(literal);
+    }
+    return pBFMGR.and(pBFMGR.and(guardedFormulas), pBFMGR.or(literals));
+  }
+
+  /**
+   * Get the indices of the formulas given to
+   * {@link #disjoinWithActivationLiterals(List, BooleanFormulaManagerView)}
+   * whose activation literals are true in the given model,
+   * i.e., formulas that are definitely satisfied by the model.
+   */
+  public static SortedSet<Integer> getSatisfiedIndices(Model pModel) {
+    SortedSet<Integer> result = new TreeSet<>();
+    for (Map.Entry<AssignableTerm, Object> entry : pModel.entrySet()) {
+      AssignableTerm term = entry.getKey();
+      if (term instanceof Variable && term.getType() == TermType.Boolean
+          && term.getName().startsWith(CANDIDATE_LITERAL_PREFIX)
+          && Boolean.TRUE.equals(entry.getValue())) {
+        result.add(Integer.parseInt(term.getName().substring(CANDIDATE_LITERAL_PREFIX.length())));
+      }
+    }
+    return result;
+  }
+
   /**
    * Unrolls the given reached set using the algorithm provided to this
    * instance of the bounded model checking algorithm.
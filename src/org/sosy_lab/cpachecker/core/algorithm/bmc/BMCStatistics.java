@@ -24,7 +24,13 @@
 package org.sosy_lab.cpachecker.core.algorithm.bmc;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
@@ -39,6 +45,42 @@ public class BMCStatistics implements Statistics {
   final Timer inductionPreparation = new Timer();
   final Timer inductionCheck = new Timer();
   private int inductionCutPoints = 0;
+  final AtomicInteger speculativeInductionSteps = new AtomicInteger();
+  final AtomicInteger reusedSpeculativeInductionSteps = new AtomicInteger();
+
+  // solver calls for batches of candidate invariants,
+  // and the number of calls for checking every candidate separately (one per candidate);
+  // batches with violated candidates may need more calls than the latter
+  private final AtomicInteger batchSolverCalls = new AtomicInteger();
+  private final AtomicInteger separateSolverCalls = new AtomicInteger();
+
+  // solver time (sat checks and bounding assertions) spent for each bound, in nanoseconds
+  private final List<Long> solverTimePerBound = new ArrayList<>();
+  private long solverTimeBeforeBound = -1;
+
+  /** Called when the checks for a new bound start. */
+  void startBound() {
+    finishBound();
+    solverTimeBeforeBound = getSolverTime();
+  }
+
+  /** Called when the checks for the current bound are finished. */
+  void finishBound() {
+    if (solverTimeBeforeBound >= 0) {
+      solverTimePerBound.add(getSolverTime() - solverTimeBeforeBound);
+      solverTimeBeforeBound = -1;
+    }
+  }
+
+  /** Called after a batch of candidates was checked with the given number of solver calls. */
+  void addCandidateBatch(int pCandidates, int pSolverCalls) {
+    batchSolverCalls.addAndGet(pSolverCalls);
+    separateSolverCalls.addAndGet(pCandidates);
+  }
+
+  private long getSolverTime() {
+    return satCheck.getSumTime().asNanos() + assertionsCheck.getSumTime().asNanos();
+  }
 
   @Override
   public void printStatistics(PrintStream out, Result pResult, ReachedSet pReached) {
@@ -51,13 +93,36 @@ public class BMCStatistics implements Statistics {
     if (assertionsCheck.getNumberOfIntervals() > 0) {
       out.println("Time for bounding assertions check:  " + assertionsCheck);
     }
+    if (!solverTimePerBound.isEmpty()) {
+      long sum = 0;
+      for (long time : solverTimePerBound) {
+        sum += time;
+      }
+      out.println("Number of checked bounds:            " + solverTimePerBound.size());
+      out.println("Solver time per bound:               "
+          + format(sum / solverTimePerBound.size()) + " (avg), "
+          + format(Collections.max(solverTimePerBound)) + " (max), "
+          + format(solverTimePerBound.get(solverTimePerBound.size() - 1)) + " (last)");
+    }
+    if (batchSolverCalls.get() > 0) {
+      out.println("Solver calls for candidate batches:  " + batchSolverCalls
+          + " (" + separateSolverCalls + " for separate checks)");
+    }
     if (inductionCheck.getNumberOfIntervals() > 0) {
       out.println("Number of cut points for induction:  " + inductionCutPoints);
       out.println("Time for induction formula creation: " + inductionPreparation);
       out.println("Time for induction check:            " + inductionCheck);
+      if (speculativeInductionSteps.get() > 0) {
+        out.println("Number of speculative steps:         " + speculativeInductionSteps
+            + " (" + reusedSpeculativeInductionSteps + " reused)");
+      }
     }
   }
 
+  private static String format(long pNanos) {
+    return TimeSpan.ofNanos(pNanos).formatAs(TimeUnit.SECONDS);
+  }
+
   @Override
   public String getName() {
     return "BMC algorithm";
@@ -0,0 +1,215 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.concurrency.Threads;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.solver.SolverException;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+/**
+ * Runs the inductive step of k-induction in a separate thread,
+ * while the caller checks the base case for the same k.
+ * Both use their own solver instances, so they do not interfere.
+ *
+ * If the inductive step finishes before the base case and did not succeed
+ * for all candidates, the remaining candidates are speculatively checked
+ * for k+1 already, and this result is reused if the next bound is k+1.
+ *
+ * The candidates for which the inductive step succeeded are not confirmed
+ * by this class, because this is only sound if the base case holds, too.
+ */
+class InductionStepRunner implements AutoCloseable {
+
+  private static class StepResult {
+
+    private final int k;
+    private final Set<CandidateInvariant> provenCandidates;
+
+    private StepResult(int pK, Set<CandidateInvariant> pProvenCandidates) {
+      k = pK;
+      provenCandidates = pProvenCandidates;
+    }
+  }
+
+  private final KInductionProver prover;
+  private final LogManager logger;
+  private final BMCStatistics stats;
+
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(Threads.threadFactoryBuilder().setDaemon(true).build());
+
+  // whether the caller is still busy with the base case of the current step
+  private volatile boolean baseCaseRunning = false;
+
+  // the inductive step for the current bound, accessed only by the caller
+  private Future<StepResult> currentStep = null;
+
+  // the speculative inductive step for the next bound,
+  // accessed only by the thread of the executor
+  private Future<StepResult> speculativeStep = null;
+
+  InductionStepRunner(KInductionProver pProver, LogManager pLogger, BMCStatistics pStats) {
+    prover = checkNotNull(pProver);
+    logger = checkNotNull(pLogger);
+    stats = checkNotNull(pStats);
+  }
+
+  /**
+   * Starts the inductive step for the given bound,
+   * which should be called before checking the base case for this bound.
+   * The bound must not decrease between calls.
+   */
+  void start(final int k, final Set<CandidateInvariant> pCandidates)
+      throws CPAException, InterruptedException, SolverException {
+    if (currentStep != null) {
+      // result of previous bound was not needed, but we still need to wait for it
+      getProvenCandidates();
+    }
+    baseCaseRunning = true;
+
+    final Set<CandidateInvariant> candidates = ImmutableSet.copyOf(pCandidates);
+    currentStep = executor.submit(new Callable<StepResult>() {
+      @Override
+      public StepResult call() throws Exception {
+        return runStep(k, candidates);
+      }
+    });
+  }
+
+  /**
+   * Waits for the inductive step of the current bound to finish.
+   * This should be called after the base case for this bound was checked.
+   *
+   * @return the candidates for which the inductive step succeeded.
+   * If a speculative result is reused, this may include candidates
+   * that were not given for the current bound.
+   */
+  Set<CandidateInvariant> getProvenCandidates()
+      throws CPAException, InterruptedException, SolverException {
+    checkState(currentStep != null);
+    baseCaseRunning = false;
+
+    StepResult result;
+    try {
+      result = getResult(currentStep);
+    } finally {
+      currentStep = null;
+    }
+    return result.provenCandidates;
+  }
+
+  private StepResult runStep(int k, Set<CandidateInvariant> pCandidates)
+      throws CPAException, InterruptedException, SolverException {
+    Set<CandidateInvariant> provenCandidates = null;
+
+    if (speculativeStep != null) {
+      // speculative step was submitted earlier and has thus already terminated
+      StepResult speculation = getResult(speculativeStep);
+      speculativeStep = null;
+
+      if (speculation.k == k) {
+        // Candidates that were proven for the previous bound but not confirmed
+        // are not checked again for this bound, they have a new chance with the next bound.
+        // Candidates that are no longer given are still returned,
+        // because the proofs of the others may depend on them.
+        provenCandidates = speculation.provenCandidates;
+        stats.reusedSpeculativeInductionSteps.incrementAndGet();
+        logger.log(Level.FINE, "Reusing speculative induction step for k =", k);
+      }
+    }
+
+    if (provenCandidates == null) {
+      provenCandidates = prover.checkStep(k, pCandidates);
+    }
+
+    if (baseCaseRunning && !provenCandidates.containsAll(pCandidates)) {
+      submitSpeculativeStep(k + 1, Sets.difference(pCandidates, provenCandidates).immutableCopy());
+    }
+    return new StepResult(k, provenCandidates);
+  }
+
+  private void submitSpeculativeStep(final int k, final Set<CandidateInvariant> pCandidates) {
+    logger.log(Level.FINE, "Speculatively starting induction step for k =", k);
+    stats.speculativeInductionSteps.incrementAndGet();
+    speculativeStep = executor.submit(new Callable<StepResult>() {
+      @Override
+      public StepResult call() throws Exception {
+        return new StepResult(k, prover.checkStep(k, pCandidates));
+      }
+    });
+  }
+
+  private static StepResult getResult(Future<StepResult> pStep)
+      throws CPAException, InterruptedException, SolverException {
+    try {
+      return pStep.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.propagateIfPossible(cause, CPAException.class, SolverException.class);
+      Throwables.propagateIfInstanceOf(cause, InterruptedException.class);
+      throw new UnexpectedCheckedException("inductive step", cause);
+    }
+  }
+
+  /**
+   * Stops the thread and waits until it has terminated,
+   * because the prover must not be closed while it is still in use.
+   */
+  @Override
+  public void close() {
+    baseCaseRunning = false;
+    executor.shutdownNow();
+
+    boolean interrupted = false;
+    while (true) {
+      try {
+        if (executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+          break;
+        }
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
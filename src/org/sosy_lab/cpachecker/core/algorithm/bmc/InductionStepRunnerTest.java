@@ -0,0 +1,112 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.sosy_lab.common.log.TestLogManager;
+
+import com.google.common.collect.ImmutableSet;
+
+public class InductionStepRunnerTest {
+
+  private final CandidateInvariant refuted = mock(CandidateInvariant.class);
+  private final CandidateInvariant valid = mock(CandidateInvariant.class);
+  private final Set<CandidateInvariant> none = ImmutableSet.of();
+
+  private KInductionProver prover;
+  private InductionStepRunner runner;
+
+  @Before
+  public void setUp() {
+    prover = mock(KInductionProver.class);
+    runner = new InductionStepRunner(prover, TestLogManager.getInstance(), new BMCStatistics());
+  }
+
+  @After
+  public void tearDown() {
+    runner.close();
+  }
+
+  @Test
+  public void testStepForRefutedCandidateIsNotConfirmed() throws Exception {
+    Set<CandidateInvariant> candidates = ImmutableSet.of(refuted, valid);
+    when(prover.checkStep(1, candidates)).thenReturn(candidates);
+
+    runner.start(1, candidates);
+    // the base case violates the refuted candidate
+    Set<CandidateInvariant> remaining = ImmutableSet.of(valid);
+    Set<CandidateInvariant> stepCandidates = runner.getProvenCandidates();
+
+    assertThat(stepCandidates).containsExactly(refuted, valid);
+    assertThat(AbstractBMCAlgorithm.selectProvenCandidates(stepCandidates, remaining, none, false))
+        .containsExactly(valid);
+    // proofs of a batch may depend on the refuted candidate
+    assertThat(AbstractBMCAlgorithm.selectProvenCandidates(stepCandidates, remaining, none, true))
+        .isEmpty();
+  }
+
+  @Test
+  public void testSpeculativeStepForRefutedCandidateIsNotConfirmed() throws Exception {
+    Set<CandidateInvariant> candidates = ImmutableSet.of(refuted, valid);
+    Set<CandidateInvariant> unproven = ImmutableSet.of(refuted);
+    final CountDownLatch speculating = new CountDownLatch(1);
+    when(prover.checkStep(1, candidates)).thenReturn(ImmutableSet.of(valid));
+    when(prover.checkStep(2, unproven)).thenAnswer(new Answer<Set<CandidateInvariant>>() {
+      @Override
+      public Set<CandidateInvariant> answer(InvocationOnMock pInvocation) {
+        speculating.countDown();
+        return ImmutableSet.of(refuted);
+      }
+    });
+
+    // the step for k = 1 finishes while the base case is still running,
+    // so the unproven candidate is checked for k = 2 speculatively
+    runner.start(1, candidates);
+    assertThat(speculating.await(1, TimeUnit.MINUTES)).isTrue();
+    assertThat(AbstractBMCAlgorithm.selectProvenCandidates(
+        runner.getProvenCandidates(), candidates, none, false)).containsExactly(valid);
+
+    // the base case for k = 2 violates the candidate, the speculative result is reused anyway
+    runner.start(2, unproven);
+    Set<CandidateInvariant> stepCandidates = runner.getProvenCandidates();
+
+    assertThat(stepCandidates).containsExactly(refuted);
+    assertThat(AbstractBMCAlgorithm.selectProvenCandidates(
+        stepCandidates, none, ImmutableSet.of(valid), false)).isEmpty();
+    assertThat(AbstractBMCAlgorithm.selectProvenCandidates(
+        stepCandidates, none, ImmutableSet.of(valid), true)).isEmpty();
+    verify(prover, times(1)).checkStep(2, unproven);
+  }
+}
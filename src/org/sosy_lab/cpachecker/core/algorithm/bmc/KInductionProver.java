@@ -33,6 +33,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
@@ -48,6 +49,7 @@ import org.sosy_lab.cpachecker.cfa.postprocessing.global.singleloop.CFASingleLoo
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.core.algorithm.Algorithm;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantGenerator;
+import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantGeneratorPool;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
@@ -127,6 +129,8 @@ class KInductionProver implements AutoCloseable {
 
   private final boolean havocLoopTerminationConditionVariablesOnly;
 
+  private final boolean batchCandidateChecks;
+
   private ProverEnvironment prover = null;
 
   private InvariantSupplier invariantsSupplier;
@@ -135,14 +139,14 @@ class KInductionProver implements AutoCloseable {
 
   private int stackDepth = 0;
 
-  private final Map<CandidateInvariant, BooleanFormula> violationFormulas = Maps.newHashMap();
+  private final Map<CandidateInvariant, BooleanFormula> violationFormulas = Maps.newConcurrentMap();
 
   private int previousK = -1;
 
   // The CandidateInvariants that have been proven to hold at the loop heads of {@link loop}.
   private final Set<CandidateInvariant> confirmedCandidates = new CopyOnWriteArraySet<>();
 
-  private boolean invariantGenerationRunning = true;
+  private volatile boolean invariantGenerationRunning = true;
 
   /**
    * Creates an instance of the KInductionProver.
@@ -156,6 +160,7 @@ class KInductionProver implements AutoCloseable {
       BMCStatistics pStats,
       ReachedSetFactory pReachedSetFactory,
       boolean pHavocLoopTerminationConditionVariablesOnly,
+      boolean pBatchCandidateChecks,
       ShutdownNotifier pShutdownNotifier) {
     cfa = checkNotNull(pCFA);
     logger = checkNotNull(pLogger);
@@ -166,6 +171,7 @@ class KInductionProver implements AutoCloseable {
     reachedSetFactory = checkNotNull(pReachedSetFactory);
     shutdownNotifier = checkNotNull(pShutdownNotifier);
     havocLoopTerminationConditionVariablesOnly = pHavocLoopTerminationConditionVariablesOnly;
+    batchCandidateChecks = pBatchCandidateChecks;
     reached = reachedSetFactory.create();
 
     PredicateCPA stepCasePredicateCPA = CPAs.retrieveCPA(cpa, PredicateCPA.class);
@@ -219,6 +225,10 @@ class KInductionProver implements AutoCloseable {
       return invariantsSupplier;
     }
     try {
+      if (invariantGenerator instanceof InvariantGeneratorPool) {
+        // use what the generators have published so far instead of waiting for all of them
+        return ((InvariantGeneratorPool) invariantGenerator).poll();
+      }
       return invariantGenerator.get();
     } catch (CPAException e) {
       logger.logUserException(Level.FINE, e, "Invariant generation failed.");
@@ -311,6 +321,53 @@ class KInductionProver implements AutoCloseable {
   public final boolean check(final int k,
       final Set<CandidateInvariant> candidateInvariants)
       throws CPAException, InterruptedException, SolverException {
+    return check(k, candidateInvariants, true).size() == candidateInvariants.size();
+  }
+
+  /**
+   * Attempts to perform the inductive check over all candidate invariants,
+   * but does not confirm the candidates for which it succeeds.
+   * This is necessary if the base case for k is still running concurrently,
+   * because the inductive step alone does not prove anything.
+   * The caller needs to pass the candidates for which the base case holds
+   * to {@link #confirmCandidates(Iterable)} afterwards.
+   *
+   * Calls to this method and to {@link #check(int, Set)} must not overlap,
+   * and k must not decrease between them.
+   *
+   * @param k The k value to use in the check.
+   * @param candidateInvariants What should be checked.
+   * @return the candidate invariants for which the inductive step succeeded.
+   */
+  Set<CandidateInvariant> checkStep(final int k,
+      final Set<CandidateInvariant> candidateInvariants)
+      throws CPAException, InterruptedException, SolverException {
+    return check(k, candidateInvariants, false);
+  }
+
+  /**
+   * Confirms candidate invariants for which both the inductive step
+   * (cf. {@link #checkStep(int, Set)}) and the base case hold.
+   * They are used to strengthen all further induction checks.
+   * This method may be called while another thread runs an inductive step.
+   */
+  void confirmCandidates(Iterable<CandidateInvariant> pCandidates) throws CPAException {
+    for (CandidateInvariant candidateInvariant : pCandidates) {
+      confirmCandidate(candidateInvariant);
+    }
+  }
+
+  private void confirmCandidate(CandidateInvariant pCandidateInvariant) throws CPAException {
+    confirmedCandidates.add(pCandidateInvariant);
+    violationFormulas.remove(pCandidateInvariant);
+
+    // Try to inject the new invariant into the invariant generator
+    pCandidateInvariant.attemptInjection(invariantGenerator);
+  }
+
+  private Set<CandidateInvariant> check(final int k,
+      final Set<CandidateInvariant> candidateInvariants, boolean pConfirm)
+      throws CPAException, InterruptedException, SolverException {
     stats.inductionPreparation.start();
 
     // Proving program safety with induction consists of two parts:
@@ -388,8 +445,11 @@ class KInductionProver implements AutoCloseable {
 
     // Attempt the induction proofs
     ProverEnvironment prover = getProver();
-    int numberOfSuccessfulProofs = 0;
     stats.inductionPreparation.stop();
+    if (batchCandidateChecks) {
+      return checkBatch(candidateInvariants, assertions, loopHeadInv, stopLocations, pConfirm);
+    }
+    Set<CandidateInvariant> provenCandidates = new HashSet<>();
     for (CandidateInvariant candidateInvariant : candidateInvariants) {
 
       // Obtain the predecessor assertion created earlier
@@ -436,12 +496,10 @@ class KInductionProver implements AutoCloseable {
       // If the proof is successful, move the problem from the set of open
       // problems to the set of solved problems
       if (isInvariant) {
-        ++numberOfSuccessfulProofs;
-        confirmedCandidates.add(candidateInvariant);
-        violationFormulas.remove(candidateInvariant);
-
-        // Try to inject the new invariant into the invariant generator
-        candidateInvariant.attemptInjection(invariantGenerator);
+        provenCandidates.add(candidateInvariant);
+        if (pConfirm) {
+          confirmCandidate(candidateInvariant);
+        }
       }
       pop(); // Pop invariant successor violation
       pop(); // Pop invariant predecessor assertion
@@ -451,7 +509,85 @@ class KInductionProver implements AutoCloseable {
       logger.log(Level.FINER, "Soundness after induction check:", isInvariant);
     }
 
-    return numberOfSuccessfulProofs == candidateInvariants.size();
+    return provenCandidates;
+  }
+
+  /**
+   * Attempts the induction proofs for all candidate invariants together (Houdini-style):
+   * all remaining candidates are assumed at the predecessors,
+   * one solver call checks whether any of them can be violated at a successor,
+   * and the candidates that are violated by the model are dropped,
+   * until the remaining candidates are inductive together.
+   * This yields the maximal subset of the candidates that is inductive,
+   * but the proof of each candidate may depend on the others of the subset.
+   *
+   * @return the candidate invariants that were proven to be inductive together.
+   */
+  private Set<CandidateInvariant> checkBatch(Set<CandidateInvariant> pCandidateInvariants,
+      Map<CandidateInvariant, BooleanFormula> pPredecessorAssertions,
+      BooleanFormula pLoopHeadInv, Set<CFANode> pStopLocations, boolean pConfirm)
+      throws CPAException, InterruptedException, SolverException {
+    List<CandidateInvariant> remaining = new ArrayList<>(pCandidateInvariants);
+    List<BooleanFormula> successorViolations = new ArrayList<>(remaining.size());
+    for (CandidateInvariant candidateInvariant : remaining) {
+      BooleanFormula successorViolation = bfmgr.not(candidateInvariant.getAssertion(reached, fmgr, pfmgr));
+      violationFormulas.put(candidateInvariant, successorViolation);
+      successorViolations.add(successorViolation);
+    }
+
+    int solverCalls = 0;
+    while (!remaining.isEmpty()) {
+      logger.log(Level.INFO, "Starting induction check for", remaining.size(), "candidates...");
+      stats.inductionCheck.start();
+
+      List<BooleanFormula> predecessorAssertions = new ArrayList<>(remaining.size());
+      for (CandidateInvariant candidateInvariant : remaining) {
+        predecessorAssertions.add(pPredecessorAssertions.get(candidateInvariant));
+      }
+      push(pLoopHeadInv); // Assert the known invariants
+      push(fmgr.instantiate(getCurrentLoopHeadInvariants(pStopLocations),
+          SSAMap.emptySSAMap().withDefault(1))); // Assert invariants that became available since
+      push(bfmgr.and(predecessorAssertions)); // Assert the formulas we want to prove at the predecessors
+      push(BMCHelper.disjoinWithActivationLiterals(successorViolations, bfmgr)); // Assert that one is violated
+
+      boolean isInvariant = prover.isUnsat();
+      solverCalls++;
+      List<Integer> violated = isInvariant
+          ? Collections.<Integer>emptyList()
+          : new ArrayList<>(BMCHelper.getSatisfiedIndices(prover.getModel()));
+
+      pop(); // Pop successor violations
+      pop(); // Pop predecessor assertions
+      pop(); // Pop current loop head invariants
+      pop(); // Pop loop head invariants
+      stats.inductionCheck.stop();
+
+      if (isInvariant) {
+        break;
+      }
+      if (violated.isEmpty()) {
+        // the model does not tell which candidate is violated, so nothing can be proven
+        logger.log(Level.FINE, "Could not determine violated candidates from model.");
+        remaining.clear();
+        break;
+      }
+      // remove from the back to keep the remaining indices valid
+      for (int i = violated.size() - 1; i >= 0; i--) {
+        int index = violated.get(i);
+        remaining.remove(index);
+        successorViolations.remove(index);
+      }
+    }
+
+    stats.addCandidateBatch(pCandidateInvariants.size(), solverCalls);
+    logger.log(Level.FINER, "Inductive candidates after batch check:", remaining.size(), "of", pCandidateInvariants.size());
+
+    if (pConfirm) {
+      for (CandidateInvariant candidateInvariant : remaining) {
+        confirmCandidate(candidateInvariant);
+      }
+    }
+    return new HashSet<>(remaining);
   }
 
   private void ensureReachedSetInitialized(ReachedSet pReachedSet) throws InterruptedException, CPAException {
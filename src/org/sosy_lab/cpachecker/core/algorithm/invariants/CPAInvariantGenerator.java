@@ -41,6 +41,8 @@ import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.LazyFutureTask;
 import org.sosy_lab.common.ShutdownNotifier;
@@ -84,6 +86,7 @@ import org.sosy_lab.cpachecker.util.predicates.interfaces.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Class that encapsulates invariant generation by using the CPAAlgorithm
@@ -121,6 +124,21 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
   @Option(secure=true, description="adjust invariant generation conditions if supported by the analysis")
   private boolean adjustConditions = false;
 
+  @Options(prefix="invariantGeneration")
+  private static class PoolOptions {
+
+    @Option(secure=true, description="further configuration files for invariant generation "
+        + "that are run in parallel to the one given by invariantGeneration.config, "
+        + "each in its own thread. The invariants of all of them are combined, "
+        + "generators that fail are ignored as long as one of them succeeds.")
+    @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+    private List<Path> additionalConfigs = ImmutableList.of();
+
+    private PoolOptions(Configuration pConfig) throws InvalidConfigurationException {
+      pConfig.inject(this);
+    }
+  }
+
   private final CPAInvariantGeneratorStatistics stats = new CPAInvariantGeneratorStatistics();
   private final LogManager logger;
   private final CPAAlgorithm algorithm;
@@ -140,6 +158,10 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
 
   private volatile boolean programIsSafe = false;
 
+  // If this generator is part of an InvariantGeneratorPool,
+  // every intermediate result is also published here.
+  private final @Nullable InvariantStore.Slot publishSlot;
+
   private final ShutdownRequestListener shutdownListener = new ShutdownRequestListener() {
 
     @Override
@@ -148,24 +170,66 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
     }
   };
 
-  public static CPAInvariantGenerator create(final Configuration pConfig,
+  /**
+   * Create an invariant generator for the configuration file given by
+   * the option invariantGeneration.config, or an {@link InvariantGeneratorPool}
+   * if additional configuration files are given.
+   */
+  public static InvariantGenerator create(final Configuration pConfig,
       final LogManager pLogger, final ShutdownNotifier pShutdownNotifier,
       final CFA pCFA)
           throws InvalidConfigurationException, CPAException {
 
+    List<Path> additionalConfigs = new PoolOptions(pConfig).additionalConfigs;
+    if (!additionalConfigs.isEmpty()) {
+      return InvariantGeneratorPool.create(pConfig, pLogger, pShutdownNotifier, pCFA, additionalConfigs);
+    }
+
     return new CPAInvariantGenerator(
             pConfig,
             pLogger.withComponentName("CPAInvariantGenerator"),
             ShutdownNotifier.createWithParent(pShutdownNotifier),
-            pCFA);
+            pCFA,
+            null,
+            null);
+  }
+
+  /**
+   * Create an invariant generator that runs asynchronously as member of an
+   * {@link InvariantGeneratorPool} and publishes all its results to the given slot.
+   *
+   * @param pConfigFile the configuration file for invariant generation,
+   * or null to use the one given by the option invariantGeneration.config.
+   */
+  static CPAInvariantGenerator createPoolMember(final Configuration pConfig,
+      final LogManager pLogger, final ShutdownNotifier pShutdownNotifier,
+      final CFA pCFA, final @Nullable Path pConfigFile, final InvariantStore.Slot pSlot)
+          throws InvalidConfigurationException, CPAException {
+
+    return new CPAInvariantGenerator(
+            pConfig,
+            pLogger,
+            ShutdownNotifier.createWithParent(pShutdownNotifier),
+            pCFA,
+            pConfigFile,
+            checkNotNull(pSlot));
   }
 
   private CPAInvariantGenerator(final Configuration config, final LogManager pLogger,
-      final ShutdownNotifier pShutdownNotifier, final CFA cfa)
+      final ShutdownNotifier pShutdownNotifier, final CFA cfa,
+      final @Nullable Path pConfigFile, final @Nullable InvariantStore.Slot pPublishSlot)
           throws InvalidConfigurationException, CPAException {
     config.inject(this);
     logger = pLogger;
     shutdownNotifier = pShutdownNotifier;
+    publishSlot = pPublishSlot;
+    if (pConfigFile != null) {
+      configFile = pConfigFile;
+    }
+    if (publishSlot != null) {
+      // members of a pool always run in parallel
+      async = true;
+    }
 
     Configuration invariantConfig;
     try {
@@ -319,10 +383,20 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
 
           invariant = runInvariantGeneration(initialLocation);
           latestInvariant.set(invariant);
+          if (publishSlot != null) {
+            publishSlot.publish(invariant);
+          }
         } while (!programIsSafe && adjustConditions());
 
         return invariant;
 
+      } catch (CPAException e) {
+        if (publishSlot != null) {
+          // let consumers that only poll the pool know about the problem
+          publishSlot.fail(e);
+        }
+        throw e;
+
       } finally {
         stats.invariantGeneration.stop();
         CPAs.closeCpaIfPossible(cpa, logger);
@@ -0,0 +1,192 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.invariants;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.AssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.exceptions.UnrecognizedCodeException;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Invariant generator that runs several {@link CPAInvariantGenerator}s
+ * with different configurations in parallel
+ * (e.g., based on intervals, octagons, the InvariantsCPA, or policy iteration).
+ *
+ * {@link #get()} waits for the generators like {@link CPAInvariantGenerator#get()}
+ * and returns the conjunction of the invariants of those that succeeded.
+ * In addition, each generator publishes its invariants to a shared {@link InvariantStore}
+ * as soon as one of its iterations is finished,
+ * and {@link #poll()} returns the conjunction of all invariants published so far
+ * without waiting for the generators.
+ * Note that a generator publishes its invariants only after each iteration
+ * (cf. option invariantGeneration.adjustConditions), so without adjusting the conditions
+ * {@link #poll()} returns the invariants of a generator only after it has finished.
+ */
+public class InvariantGeneratorPool implements InvariantGenerator, StatisticsProvider {
+
+  private class InvariantGeneratorPoolStatistics implements Statistics {
+
+    @Override
+    public void printStatistics(PrintStream out, Result result, ReachedSet reached) {
+      out.println("Number of invariant generators:  " + generators.size());
+      out.println("Number of published invariants:  " + store.getVersion());
+    }
+
+    @Override
+    public String getName() {
+      return "Invariant generator pool";
+    }
+  }
+
+  private final List<CPAInvariantGenerator> generators;
+  private final InvariantStore store;
+  private final LogManager logger;
+
+  static InvariantGeneratorPool create(final Configuration pConfig,
+      final LogManager pLogger, final ShutdownNotifier pShutdownNotifier,
+      final CFA pCFA, final List<Path> pAdditionalConfigFiles)
+          throws InvalidConfigurationException, CPAException {
+
+    InvariantStore store = new InvariantStore(pAdditionalConfigFiles.size() + 1);
+    ImmutableList.Builder<CPAInvariantGenerator> generators = ImmutableList.builder();
+
+    // the generator for the main configuration file
+    generators.add(CPAInvariantGenerator.createPoolMember(pConfig,
+        pLogger.withComponentName("CPAInvariantGenerator"),
+        pShutdownNotifier, pCFA, null, store.getSlot(0)));
+
+    for (int i = 0; i < pAdditionalConfigFiles.size(); i++) {
+      Path configFile = pAdditionalConfigFiles.get(i);
+      generators.add(CPAInvariantGenerator.createPoolMember(pConfig,
+          pLogger.withComponentName("CPAInvariantGenerator" + (i + 2)),
+          pShutdownNotifier, pCFA, configFile, store.getSlot(i + 1)));
+    }
+
+    return new InvariantGeneratorPool(generators.build(), store, pLogger);
+  }
+
+  private InvariantGeneratorPool(List<CPAInvariantGenerator> pGenerators, InvariantStore pStore,
+      LogManager pLogger) {
+    generators = pGenerators;
+    store = pStore;
+    logger = pLogger;
+  }
+
+  @Override
+  public void start(CFANode pInitialLocation) {
+    for (CPAInvariantGenerator generator : generators) {
+      generator.start(pInitialLocation);
+    }
+  }
+
+  @Override
+  public void cancel() {
+    for (CPAInvariantGenerator generator : generators) {
+      generator.cancel();
+    }
+  }
+
+  /**
+   * Wait for all generators as {@link CPAInvariantGenerator#get()} does
+   * and return the conjunction of the invariants of the generators that succeeded.
+   *
+   * @throws CPAException If all generators failed.
+   * @throws InterruptedException If the invariant generation was interrupted.
+   */
+  @Override
+  public InvariantSupplier get() throws CPAException, InterruptedException {
+    List<InvariantSupplier> invariants = new ArrayList<>(generators.size());
+    CPAException failure = null;
+    for (CPAInvariantGenerator generator : generators) {
+      try {
+        invariants.add(generator.get());
+      } catch (CPAException e) {
+        logger.logUserException(Level.WARNING, e,
+            "Invariant generation failed, using only the invariants of the other generators.");
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (invariants.isEmpty() && failure != null) {
+      throw failure;
+    }
+    return InvariantStore.conjunction(invariants);
+  }
+
+  /**
+   * Return the conjunction of the invariants that the generators have published so far,
+   * without waiting for them.
+   * Consumers that want to use invariants that are published later need to poll again.
+   *
+   * @throws CPAException If all generators failed.
+   */
+  public InvariantSupplier poll() throws CPAException {
+    store.checkFailure();
+    return store.getCurrentInvariants();
+  }
+
+  @Override
+  public boolean isProgramSafe() {
+    for (CPAInvariantGenerator generator : generators) {
+      if (generator.isProgramSafe()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void injectInvariant(CFANode pLocation, AssumeEdge pAssumption) throws UnrecognizedCodeException {
+    for (CPAInvariantGenerator generator : generators) {
+      generator.injectInvariant(pLocation, pAssumption);
+    }
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    for (CPAInvariantGenerator generator : generators) {
+      generator.collectStatistics(pStatsCollection);
+    }
+    pStatsCollection.add(new InvariantGeneratorPoolStatistics());
+  }
+}
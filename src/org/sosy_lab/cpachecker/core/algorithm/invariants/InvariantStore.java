@@ -0,0 +1,168 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.invariants;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
+import org.sosy_lab.solver.api.BooleanFormula;
+import org.sosy_lab.solver.api.BooleanFormulaManager;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Lock-free store for the invariants of several concurrently running invariant generators.
+ * Each generator owns a {@link Slot} and publishes its latest invariants there
+ * whenever it has new ones, and consumers retrieve the conjunction
+ * of all invariants published so far without blocking.
+ * Failures of the generators are recorded, too,
+ * but only matter to consumers if all generators failed.
+ */
+class InvariantStore {
+
+  /** The part of the store that belongs to one invariant generator. */
+  class Slot {
+
+    private final int index;
+
+    private Slot(int pIndex) {
+      index = pIndex;
+    }
+
+    /**
+     * Replace the invariants of this slot.
+     * The new invariants need to be at least as strong as the previous ones.
+     */
+    void publish(InvariantSupplier pInvariants) {
+      suppliers.set(index, checkNotNull(pInvariants));
+      version.incrementAndGet();
+    }
+
+    /**
+     * Report that the generator of this slot failed.
+     * The invariants that it published before stay valid.
+     */
+    void fail(CPAException pException) {
+      if (failures.compareAndSet(index, null, checkNotNull(pException))) {
+        firstFailure.compareAndSet(null, pException);
+        failedSlots.incrementAndGet();
+      }
+    }
+  }
+
+  private final AtomicReferenceArray<InvariantSupplier> suppliers;
+
+  private final AtomicInteger version = new AtomicInteger();
+
+  private final AtomicReferenceArray<CPAException> failures;
+
+  private final AtomicInteger failedSlots = new AtomicInteger();
+
+  private final AtomicReference<CPAException> firstFailure = new AtomicReference<>();
+
+  private final List<Slot> slots;
+
+  InvariantStore(int pSize) {
+    suppliers = new AtomicReferenceArray<>(pSize);
+    failures = new AtomicReferenceArray<>(pSize);
+    ImmutableList.Builder<Slot> builder = ImmutableList.builder();
+    for (int i = 0; i < pSize; i++) {
+      suppliers.set(i, InvariantSupplier.TrivialInvariantSupplier.INSTANCE);
+      builder.add(new Slot(i));
+    }
+    slots = builder.build();
+  }
+
+  Slot getSlot(int pIndex) {
+    return slots.get(pIndex);
+  }
+
+  /**
+   * Get a counter that is incremented whenever new invariants are published,
+   * such that consumers can cheaply check whether something changed.
+   */
+  int getVersion() {
+    return version.get();
+  }
+
+  /**
+   * Throw the exception of the first generator that failed
+   * if all generators failed, i.e., if no further invariants can be expected.
+   */
+  void checkFailure() throws CPAException {
+    if (failedSlots.get() == slots.size()) {
+      throw firstFailure.get();
+    }
+  }
+
+  /**
+   * Get the conjunction of the invariants that are currently published.
+   * The result is a snapshot and does not change if new invariants are published later.
+   */
+  InvariantSupplier getCurrentInvariants() {
+    List<InvariantSupplier> current = new ArrayList<>(suppliers.length());
+    for (int i = 0; i < suppliers.length(); i++) {
+      current.add(suppliers.get(i));
+    }
+    return conjunction(current);
+  }
+
+  /**
+   * Get the conjunction of the given invariants.
+   */
+  static InvariantSupplier conjunction(List<InvariantSupplier> pInvariants) {
+    final List<InvariantSupplier> current = new ArrayList<>(pInvariants.size());
+    for (InvariantSupplier supplier : pInvariants) {
+      if (supplier != InvariantSupplier.TrivialInvariantSupplier.INSTANCE) {
+        current.add(supplier);
+      }
+    }
+
+    if (current.isEmpty()) {
+      return InvariantSupplier.TrivialInvariantSupplier.INSTANCE;
+    } else if (current.size() == 1) {
+      return current.get(0);
+    }
+    return new InvariantSupplier() {
+      @Override
+      public BooleanFormula getInvariantFor(CFANode pNode, FormulaManagerView pFmgr, PathFormulaManager pPfmgr) {
+        BooleanFormulaManager bfmgr = pFmgr.getBooleanFormulaManager();
+        List<BooleanFormula> invariants = new ArrayList<>(current.size());
+        for (InvariantSupplier supplier : current) {
+          invariants.add(supplier.getInvariantFor(pNode, pFmgr, pPfmgr));
+        }
+        return bfmgr.and(invariants);
+      }
+    };
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.invariants;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+
+public class InvariantStoreTest {
+
+  @Test
+  public void testPublish() {
+    InvariantStore store = new InvariantStore(2);
+    assertThat(store.getCurrentInvariants())
+        .isSameAs(InvariantSupplier.TrivialInvariantSupplier.INSTANCE);
+
+    InvariantSupplier invariants = mock(InvariantSupplier.class);
+    store.getSlot(1).publish(invariants);
+    assertThat(store.getVersion()).isEqualTo(1);
+    assertThat(store.getCurrentInvariants()).isSameAs(invariants);
+  }
+
+  @Test
+  public void testFirstFailureIsKept() {
+    InvariantStore store = new InvariantStore(2);
+    CPAException first = new CPAException("first");
+    store.getSlot(1).fail(first);
+    store.getSlot(0).fail(new CPAException("second"));
+
+    try {
+      store.checkFailure();
+      fail("failure was not reported");
+    } catch (CPAException e) {
+      assertThat(e).isSameAs(first);
+    }
+  }
+
+  @Test
+  public void testFailureOfSomeGenerators() throws CPAException {
+    InvariantStore store = new InvariantStore(2);
+    InvariantSupplier invariants = mock(InvariantSupplier.class);
+    store.getSlot(0).publish(invariants);
+    store.getSlot(1).fail(new CPAException("failed"));
+
+    store.checkFailure(); // does not throw, the other generator is still usable
+    assertThat(store.getCurrentInvariants()).isSameAs(invariants);
+  }
+}
@@ -40,6 +40,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.PCCStrategy;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy;
 import org.sosy_lab.cpachecker.pcc.strategy.PCCStrategyBuilder;
 
 @Options
@@ -63,6 +64,9 @@ public class ProofGenerator {
       pOut.println(getName() + " statistics");
       pOut.println("------------------------------------");
       pOut.println("Time for proof writing: " + writingTimer);
+      if (checkingStrategy instanceof AbstractStrategy) {
+        ((AbstractStrategy) checkingStrategy).getProofWritingStatistics().printStatistics(pOut, pResult, pReached);
+      }
 
     }
 
@@ -28,7 +28,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.time.TimeSpan;
 
 import com.google.common.collect.Maps;
 
@@ -45,6 +48,10 @@ public class Automaton {
   private final List<AutomatonInternalState> states;
   private final AutomatonInternalState initState;
 
+  // statistics of the parser that created this automaton, if it measured them
+  private @Nullable TimeSpan parseTime = null;
+  private long parsePeakHeap = -1;
+
   public Automaton(String pName, Map<String, AutomatonVariable> pVars, List<AutomatonInternalState> pStates,
       String pInitialStateName) throws InvalidAutomatonException {
     this.name = pName;
@@ -85,6 +92,21 @@ public class Automaton {
     return states.size();
   }
 
+  void setParseStatistics(TimeSpan pParseTime, long pPeakHeap) {
+    parseTime = pParseTime;
+    parsePeakHeap = pPeakHeap;
+  }
+
+  /** The time needed for parsing this automaton, or null if it is unknown. */
+  @Nullable TimeSpan getParseTime() {
+    return parseTime;
+  }
+
+  /** The peak heap usage (in bytes) while parsing this automaton, or -1 if it is unknown. */
+  long getParsePeakHeap() {
+    return parsePeakHeap;
+  }
+
   /**
    * Prints the contents of a DOT file representing this automaton to the PrintStream.
    * @param pOut
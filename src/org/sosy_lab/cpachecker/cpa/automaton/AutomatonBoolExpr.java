@@ -324,6 +324,10 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return String.format("MATCH FORALL SUCCESSOR EDGES (%s)", operandExpression);
     }
 
+    public AutomatonBoolExpr getOperandExpression() {
+      return operandExpression;
+    }
+
   }
 
   static class MatchAnySuccessorEdgesBoolExpr implements AutomatonBoolExpr {
@@ -362,6 +366,10 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return String.format("MATCH EXISTS SUCCESSOR EDGE (%s)", operandExpression);
     }
 
+    public AutomatonBoolExpr getOperandExpression() {
+      return operandExpression;
+    }
+
   }
 
   static interface OnRelevantEdgesBoolExpr extends AutomatonBoolExpr {
@@ -27,6 +27,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -36,6 +38,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -44,10 +47,11 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.logging.Level;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParserFactory;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -57,6 +61,7 @@ import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.Files;
 import org.sosy_lab.common.io.Path;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CParser;
 import org.sosy_lab.cpachecker.cfa.CProgramScope;
 import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
@@ -78,13 +83,8 @@ import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.AssumeCase;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlTag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
@@ -94,6 +94,9 @@ import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -152,54 +155,44 @@ public class AutomatonGraphmlParser {
   */
   public List<Automaton> parseAutomatonFile(Path pInputFile) throws InvalidConfigurationException {
     CParser cparser = CParser.Factory.getParser(config, logger, CParser.Factory.getOptions(config), machine);
+    Timer parseTime = new Timer();
+    parseTime.start();
+    HeapUsage heapUsage = new HeapUsage();
     try (InputStream input = pInputFile.asByteSource().openStream()) {
-      // Parse the XML document ----
-      DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      Document doc = docBuilder.parse(input);
-      doc.getDocumentElement().normalize();
-
-      GraphMlDocumentData docDat = new GraphMlDocumentData(doc);
+      // Read the XML document ----
+      GraphMlDocumentData docDat = GraphMlDocumentData.read(input, heapUsage);
 
       // (The one) root node of the graph ----
-      NodeList graphs = doc.getElementsByTagName(GraphMlTag.GRAPH.toString());
-      Preconditions.checkArgument(graphs.getLength() == 1, "The graph file must describe exactly one automaton.");
-      Node graphNode = graphs.item(0);
+      Preconditions.checkArgument(docDat.graphCount == 1, "The graph file must describe exactly one automaton.");
 
       // Extract the information on the automaton ----
-      Node nameAttribute = graphNode.getAttributes().getNamedItem("name");
       String automatonName = WITNESS_AUTOMATON_NAME;
-      if (nameAttribute != null) {
-        automatonName += "_" + nameAttribute.getTextContent();
+      if (docDat.graphName != null) {
+        automatonName += "_" + docDat.graphName;
       }
       String initialStateName = null;
 
       // Create transitions ----
       //AutomatonBoolExpr epsilonTrigger = new SubsetMatchEdgeTokens(Collections.<Comparable<Integer>>emptySet());
-      NodeList edges = doc.getElementsByTagName(GraphMlTag.EDGE.toString());
-      NodeList nodes = doc.getElementsByTagName(GraphMlTag.NODE.toString());
       Map<String, LinkedList<AutomatonTransition>> stateTransitions = Maps.newHashMap();
       Map<String, Deque<String>> stacks = Maps.newHashMap();
 
       // Create graph
-      Multimap<String, Node> leavingEdges = HashMultimap.create();
-      Multimap<String, Node> enteringEdges = HashMultimap.create();
+      Multimap<String, GraphMlEdge> leavingEdges = HashMultimap.create();
+      Multimap<String, GraphMlEdge> enteringEdges = HashMultimap.create();
       String entryNodeId = null;
 
       Set<String> violationStates = Sets.newHashSet();
 
-      for (int i = 0; i < edges.getLength(); i++) {
-        Node stateTransitionEdge = edges.item(i);
+      for (GraphMlEdge stateTransitionEdge : docDat.edges) {
 
-        String sourceStateId = GraphMlDocumentData.getAttributeValue(stateTransitionEdge, "source", "Every transition needs a source!");
-        String targetStateId = GraphMlDocumentData.getAttributeValue(stateTransitionEdge, "target", "Every transition needs a target!");
+        String sourceStateId = stateTransitionEdge.source;
+        String targetStateId = stateTransitionEdge.target;
         leavingEdges.put(sourceStateId, stateTransitionEdge);
         enteringEdges.put(targetStateId, stateTransitionEdge);
 
-        Element sourceStateNode = docDat.getNodeWithId(sourceStateId);
-        Element targetStateNode = docDat.getNodeWithId(targetStateId);
-        EnumSet<NodeFlag> sourceNodeFlags = docDat.getNodeFlags(sourceStateNode);
-        EnumSet<NodeFlag> targetNodeFlags = docDat.getNodeFlags(targetStateNode);
+        EnumSet<NodeFlag> sourceNodeFlags = docDat.getNodeWithId(sourceStateId).flags;
+        EnumSet<NodeFlag> targetNodeFlags = docDat.getNodeWithId(targetStateId).flags;
         if (targetNodeFlags.contains(NodeFlag.ISVIOLATION)) {
           violationStates.add(sourceStateId);
         }
@@ -209,10 +202,9 @@ public class AutomatonGraphmlParser {
       }
 
       // Find entry
-      for (int i = 0; i < nodes.getLength(); ++i) {
-        Node node = nodes.item(i);
-        if (Boolean.parseBoolean(docDat.getDataValueWithDefault(node, KeyDef.ISENTRYNODE, "false"))) {
-          entryNodeId = GraphMlDocumentData.getAttributeValue(node, "id", "Every node needs an id!");
+      for (GraphMlNode node : docDat.nodes.values()) {
+        if (Boolean.parseBoolean(docDat.getDataValueWithDefault(node.data, KeyDef.ISENTRYNODE, "false"))) {
+          entryNodeId = node.id;
           break;
         }
       }
@@ -228,8 +220,8 @@ public class AutomatonGraphmlParser {
       while (!waitlist.isEmpty()) {
         String current = waitlist.poll();
         int newDistance = distances.get(current) + 1;
-        for (Node enteringEdge : enteringEdges.get(current)) {
-          String sourceStateId = GraphMlDocumentData.getAttributeValue(enteringEdge, "source", "Every transition needs a source!");
+        for (GraphMlEdge enteringEdge : enteringEdges.get(current)) {
+          String sourceStateId = enteringEdge.source;
           Integer oldDistance = distances.get(sourceStateId);
           if (oldDistance == null || oldDistance > newDistance) {
             distances.put(sourceStateId, newDistance);
@@ -240,24 +232,23 @@ public class AutomatonGraphmlParser {
       // Sink nodes have infinite distance to the target location, encoded as -1
       distances.put(AutomatonGraphmlCommon.SINK_NODE_ID, -1);
 
-      Set<Node> visitedEdges = new HashSet<>();
-      Queue<Node> waitingEdges = new ArrayDeque<>();
+      Set<GraphMlEdge> visitedEdges = new HashSet<>();
+      Queue<GraphMlEdge> waitingEdges = new ArrayDeque<>();
       waitingEdges.addAll(leavingEdges.get(entryNodeId));
       visitedEdges.addAll(waitingEdges);
       while (!waitingEdges.isEmpty()) {
-        Node stateTransitionEdge = waitingEdges.poll();
+        GraphMlEdge stateTransitionEdge = waitingEdges.poll();
 
-        String sourceStateId = GraphMlDocumentData.getAttributeValue(stateTransitionEdge, "source", "Every transition needs a source!");
-        String targetStateId = GraphMlDocumentData.getAttributeValue(stateTransitionEdge, "target", "Every transition needs a target!");
+        String sourceStateId = stateTransitionEdge.source;
+        String targetStateId = stateTransitionEdge.target;
 
-        for (Node successorEdge : leavingEdges.get(targetStateId)) {
+        for (GraphMlEdge successorEdge : leavingEdges.get(targetStateId)) {
           if (visitedEdges.add(successorEdge)) {
             waitingEdges.add(successorEdge);
           }
         }
 
-        Element targetStateNode = docDat.getNodeWithId(targetStateId);
-        EnumSet<NodeFlag> targetNodeFlags = docDat.getNodeFlags(targetStateNode);
+        EnumSet<NodeFlag> targetNodeFlags = docDat.getNodeWithId(targetStateId).flags;
 
         final List<AutomatonBoolExpr> assertions = Collections.emptyList();
         boolean leadsToViolationNode = targetNodeFlags.contains(NodeFlag.ISVIOLATION);
@@ -290,9 +281,9 @@ public class AutomatonGraphmlParser {
           stacks.put(sourceStateId, currentStack);
         }
         Deque<String> newStack = currentStack;
-        Set<String> functionEntries = GraphMlDocumentData.getDataOnNode(stateTransitionEdge, KeyDef.FUNCTIONENTRY);
+        Set<String> functionEntries = stateTransitionEdge.getData(KeyDef.FUNCTIONENTRY);
         String functionEntry = Iterables.getOnlyElement(functionEntries, null);
-        Set<String> functionExits = GraphMlDocumentData.getDataOnNode(stateTransitionEdge, KeyDef.FUNCTIONEXIT);
+        Set<String> functionExits = stateTransitionEdge.getData(KeyDef.FUNCTIONEXIT);
         String functionExit = Iterables.getOnlyElement(functionEntries, null);
 
         // If the same function is entered and exited, the stack remains unchanged.
@@ -328,8 +319,8 @@ public class AutomatonGraphmlParser {
 
         // Add assumptions to the transition
         if (considerAssumptions) {
-          Set<String> transAssumes = GraphMlDocumentData.getDataOnNode(stateTransitionEdge, KeyDef.ASSUMPTION);
-          Set<String> assumptionScopes = GraphMlDocumentData.getDataOnNode(stateTransitionEdge, KeyDef.ASSUMPTIONSCOPE);
+          Set<String> transAssumes = stateTransitionEdge.getData(KeyDef.ASSUMPTION);
+          Set<String> assumptionScopes = stateTransitionEdge.getData(KeyDef.ASSUMPTIONSCOPE);
           Preconditions.checkArgument(assumptionScopes.size() < 2, "At most one assumption scope must be provided for an edge.");
           if (!transAssumes.isEmpty()) {
             Scope scope = this.scope;
@@ -354,10 +345,10 @@ public class AutomatonGraphmlParser {
         }
 
         if (matchOriginLine) {
-          Set<String> originFileTags = GraphMlDocumentData.getDataOnNode(stateTransitionEdge, KeyDef.ORIGINFILE);
+          Set<String> originFileTags = stateTransitionEdge.getData(KeyDef.ORIGINFILE);
           Preconditions.checkArgument(originFileTags.size() < 2, "At most one origin-file data tag must be provided for an edge.");
 
-          Set<String> originLineTags = GraphMlDocumentData.getDataOnNode(stateTransitionEdge, KeyDef.ORIGINLINE);
+          Set<String> originLineTags = stateTransitionEdge.getData(KeyDef.ORIGINLINE);
           Preconditions.checkArgument(originLineTags.size() <  2, "At most one origin-line data tag must be provided for each edge.");
 
           int matchOriginLineNumber = -1;
@@ -375,10 +366,10 @@ public class AutomatonGraphmlParser {
         }
 
         if (matchOffset) {
-          Set<String> originFileTags = GraphMlDocumentData.getDataOnNode(stateTransitionEdge, KeyDef.ORIGINFILE);
+          Set<String> originFileTags = stateTransitionEdge.getData(KeyDef.ORIGINFILE);
           Preconditions.checkArgument(originFileTags.size() < 2, "At most one origin-file data tag must be provided for an edge.");
 
-          Set<String> offsetTags = GraphMlDocumentData.getDataOnNode(stateTransitionEdge, KeyDef.OFFSET);
+          Set<String> offsetTags = stateTransitionEdge.getData(KeyDef.OFFSET);
           Preconditions.checkArgument(offsetTags.size() <  2, "At most one offset data tag must be provided for each edge.");
 
           int offset = -1;
@@ -397,7 +388,7 @@ public class AutomatonGraphmlParser {
         }
 
         if (matchSourcecodeData) {
-          Set<String> sourceCodeDataTags = GraphMlDocumentData.getDataOnNode(stateTransitionEdge, KeyDef.SOURCECODE);
+          Set<String> sourceCodeDataTags = stateTransitionEdge.getData(KeyDef.SOURCECODE);
           Preconditions.checkArgument(sourceCodeDataTags.size() < 2, "At most one source-code data tag must be provided.");
           final String sourceCode;
           if (sourceCodeDataTags.isEmpty()) {
@@ -432,7 +423,7 @@ public class AutomatonGraphmlParser {
         }
 
         if (matchAssumeCase) {
-          Set<String> assumeCaseTags = GraphMlDocumentData.getDataOnNode(stateTransitionEdge, KeyDef.CONTROLCASE);
+          Set<String> assumeCaseTags = stateTransitionEdge.getData(KeyDef.CONTROLCASE);
 
           if (assumeCaseTags.size() > 0) {
             Preconditions.checkArgument(assumeCaseTags.size() <  2, "At most one assume case tag must be provided for each edge.");
@@ -467,8 +458,7 @@ public class AutomatonGraphmlParser {
         // Multiple CFA edges in a sequence might match the triggers,
         // so in that case we ALSO need a transition back to the source state
         if (strictMatching || !assumptions.isEmpty() || !actions.isEmpty() || leadsToViolationNode) {
-          Element sourceNode = docDat.getNodeWithId(sourceStateId);
-          Set<NodeFlag> sourceNodeFlags = docDat.getNodeFlags(sourceNode);
+          Set<NodeFlag> sourceNodeFlags = docDat.getNodeWithId(sourceStateId).flags;
           boolean sourceIsViolationNode = sourceNodeFlags.contains(NodeFlag.ISVIOLATION);
           matchingTransitions.add(createAutomatonTransition(
               and(conjunctedTriggers,
@@ -485,9 +475,9 @@ public class AutomatonGraphmlParser {
 
       // Create states ----
       List<AutomatonInternalState> automatonStates = Lists.newArrayList();
-      for (String stateId : docDat.getIdToNodeMap().keySet()) {
-        Element stateNode = docDat.getIdToNodeMap().get(stateId);
-        EnumSet<NodeFlag> nodeFlags = docDat.getNodeFlags(stateNode);
+      for (GraphMlNode stateNode : docDat.nodes.values()) {
+        String stateId = stateNode.id;
+        EnumSet<NodeFlag> nodeFlags = stateNode.flags;
 
         List<AutomatonTransition> transitions = stateTransitions.get(stateId);
         if (transitions == null) {
@@ -528,6 +518,12 @@ public class AutomatonGraphmlParser {
       Automaton automaton = new Automaton(automatonName, automatonVariables, automatonStates, initialStateName);
       result.add(automaton);
 
+      parseTime.stop();
+      heapUsage.sample();
+      automaton.setParseStatistics(parseTime.getLengthOfLastInterval(), heapUsage.peak);
+      logger.log(Level.FINE, "Parsed witness with", docDat.nodes.size(), "nodes and",
+          docDat.edges.size(), "edges in", parseTime.getLengthOfLastInterval());
+
       if (automatonDumpFile != null) {
         try (Writer w = Files.openOutputFile(automatonDumpFile)) {
           automaton.writeDotFile(w);
@@ -540,7 +536,7 @@ public class AutomatonGraphmlParser {
 
     } catch (FileNotFoundException e) {
       throw new InvalidConfigurationException("Invalid automaton file provided! File not found!: " + pInputFile.getPath());
-    } catch (IOException | ParserConfigurationException | SAXException e) {
+    } catch (IOException | XMLStreamException e) {
       throw new InvalidConfigurationException("Error while accessing automaton file!", e);
     } catch (InvalidAutomatonException e) {
       throw new InvalidConfigurationException("The automaton provided is invalid!", e);
@@ -750,100 +746,188 @@ public class AutomatonGraphmlParser {
     return pAssumeCode;
   }
 
-  private static class GraphMlDocumentData {
-
-    private final HashMap<String, Optional<String>> defaultDataValues = Maps.newHashMap();
-    private final Document doc;
-
-    private Map<String, Element> idToNodeMap = null;
-
-    public GraphMlDocumentData(Document doc) {
-      this.doc = doc;
-    }
-
-    public EnumSet<NodeFlag> getNodeFlags(Element pStateNode) {
-      EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
+  /** A node of the witness graph, with the data elements attached to it. */
+  @VisibleForTesting
+  static class GraphMlNode {
 
-      NodeList dataChilds = pStateNode.getElementsByTagName(GraphMlTag.DATA.toString());
+    final String id;
+    final ImmutableSetMultimap<String, String> data;
+    private final EnumSet<NodeFlag> flags;
 
-      for (int i=0; i<dataChilds.getLength(); i++) {
-        Node dataChild = dataChilds.item(i);
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String key = attribute.getTextContent();
+    private GraphMlNode(String pId, ImmutableSetMultimap<String, String> pData) {
+      id = pId;
+      data = pData;
+      flags = EnumSet.noneOf(NodeFlag.class);
+      for (String key : pData.keySet()) {
         NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
         if (flag != null) {
-          result.add(flag);
+          flags.add(flag);
         }
       }
-
-      return result;
     }
+  }
 
-    public Map<String, Element> getIdToNodeMap() {
-      if (idToNodeMap != null) {
-        return idToNodeMap;
-      }
-
-      idToNodeMap = Maps.newHashMap();
+  /**
+   * An edge of the witness graph, with the data elements attached to it.
+   * Edges are compared by identity.
+   */
+  @VisibleForTesting
+  static class GraphMlEdge {
 
-      NodeList nodes = doc.getElementsByTagName(GraphMlTag.NODE.toString());
-      for (int i=0; i<nodes.getLength(); i++) {
-        Element stateNode = (Element) nodes.item(i);
-        String stateId = getNodeId(stateNode);
+    final String source;
+    final String target;
+    final ImmutableSetMultimap<String, String> data;
 
-        idToNodeMap.put(stateId, stateNode);
-      }
+    private GraphMlEdge(String pSource, String pTarget, ImmutableSetMultimap<String, String> pData) {
+      source = pSource;
+      target = pTarget;
+      data = pData;
+    }
 
-      return idToNodeMap;
+    Set<String> getData(KeyDef pDataKey) {
+      return data.get(pDataKey.id);
     }
+  }
+
+  /**
+   * Samples the used heap memory, in order to report (an approximation of)
+   * the peak memory usage while parsing.
+   */
+  @VisibleForTesting
+  static class HeapUsage {
 
-    private static String getAttributeValue(Node of, String attributeName, String exceptionMessage) {
-      Node attribute = of.getAttributes().getNamedItem(attributeName);
-      Preconditions.checkNotNull(attribute, exceptionMessage);
-      return attribute.getTextContent();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private long peak = 0;
+
+    private void sample() {
+      peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
     }
+  }
 
-    private Optional<String> getDataDefault(KeyDef dataKey) {
-      Optional<String> result = defaultDataValues.get(dataKey.id);
-      if (result != null) {
-        return result;
-      }
+  /**
+   * The contents of a GraphML file that are relevant for building the automaton.
+   * The file is read with a streaming (StAX) parser without building a DOM,
+   * and repeated strings (node ids, keys, source code, function names) are shared.
+   */
+  @VisibleForTesting
+  static class GraphMlDocumentData {
+
+    private static final int SAMPLE_INTERVAL = 1024;
+
+    private final Map<String, String> defaultDataValues = Maps.newHashMap();
+    final Map<String, GraphMlNode> nodes = new LinkedHashMap<>();
+    final List<GraphMlEdge> edges = new ArrayList<>();
+
+    int graphCount = 0;
+    @Nullable String graphName = null;
+
+    private GraphMlDocumentData() {}
+
+    static GraphMlDocumentData read(InputStream pInput, HeapUsage pHeapUsage) throws XMLStreamException {
+      GraphMlDocumentData result = new GraphMlDocumentData();
+      Interner<String> strings = Interners.newStrongInterner();
+
+      XMLStreamReader reader = createInputFactory().createXMLStreamReader(pInput);
+      try {
+        String keyId = null;
+        String nodeId = null;
+        String edgeSource = null;
+        String edgeTarget = null;
+        String dataKey = null;
+        ImmutableSetMultimap.Builder<String, String> data = null;
+        StringBuilder text = null;
+
+        while (reader.hasNext()) {
+          switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            String startTag = reader.getLocalName();
+            if (startTag.equals(GraphMlTag.GRAPH.text)) {
+              result.graphCount++;
+              result.graphName = reader.getAttributeValue(null, "name");
+            } else if (startTag.equals(GraphMlTag.KEY.text)) {
+              keyId = reader.getAttributeValue(null, "id");
+            } else if (startTag.equals(GraphMlTag.DEFAULT.text)) {
+              text = new StringBuilder();
+            } else if (startTag.equals(GraphMlTag.NODE.text)) {
+              nodeId = strings.intern(getAttributeValue(reader, "id", "Every state needs an ID!"));
+              data = ImmutableSetMultimap.builder();
+            } else if (startTag.equals(GraphMlTag.EDGE.text)) {
+              edgeSource = strings.intern(getAttributeValue(reader, "source", "Every transition needs a source!"));
+              edgeTarget = strings.intern(getAttributeValue(reader, "target", "Every transition needs a target!"));
+              data = ImmutableSetMultimap.builder();
+            } else if (startTag.equals(GraphMlTag.DATA.text)) {
+              dataKey = strings.intern(getAttributeValue(reader, "key", "Every data element must have a key attribute!"));
+              text = new StringBuilder();
+            }
+            break;
 
-      NodeList keyDefs = doc.getElementsByTagName(GraphMlTag.KEY.toString());
-      for (int i=0; i<keyDefs.getLength(); i++) {
-        Element keyDef = (Element) keyDefs.item(i);
-        Node id = keyDef.getAttributes().getNamedItem("id");
-        if (dataKey.id.equals(id.getTextContent())) {
-          NodeList defaultTags = keyDef.getElementsByTagName(GraphMlTag.DEFAULT.toString());
-          result = Optional.absent();
-          if (defaultTags.getLength() > 0) {
-            Preconditions.checkArgument(defaultTags.getLength() == 1);
-            result = Optional.of(defaultTags.item(0).getTextContent());
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.CDATA:
+          case XMLStreamConstants.SPACE:
+            if (text != null) {
+              text.append(reader.getText());
+            }
+            break;
+
+          case XMLStreamConstants.END_ELEMENT:
+            String endTag = reader.getLocalName();
+            if (endTag.equals(GraphMlTag.DATA.text)) {
+              if (data != null) {
+                data.put(dataKey, strings.intern(text.toString()));
+              }
+              dataKey = null;
+              text = null;
+            } else if (endTag.equals(GraphMlTag.DEFAULT.text)) {
+              if (keyId != null && !result.defaultDataValues.containsKey(keyId)) {
+                result.defaultDataValues.put(keyId, text.toString());
+              }
+              text = null;
+            } else if (endTag.equals(GraphMlTag.KEY.text)) {
+              keyId = null;
+            } else if (endTag.equals(GraphMlTag.NODE.text)) {
+              result.nodes.put(nodeId, new GraphMlNode(nodeId, data.build()));
+              nodeId = null;
+              data = null;
+            } else if (endTag.equals(GraphMlTag.EDGE.text)) {
+              result.edges.add(new GraphMlEdge(edgeSource, edgeTarget, data.build()));
+              edgeSource = null;
+              edgeTarget = null;
+              data = null;
+              if (result.edges.size() % SAMPLE_INTERVAL == 0) {
+                pHeapUsage.sample();
+              }
+            }
+            break;
+
+          default:
+            break;
           }
-          defaultDataValues.put(dataKey.id, result);
-          return result;
         }
+      } finally {
+        reader.close();
       }
-      return Optional.absent();
+      pHeapUsage.sample();
+      return result;
     }
 
-    private static String getNodeId(Node stateNode) {
-      return getAttributeValue(stateNode, "id", "Every state needs an ID!");
+    private static String getAttributeValue(XMLStreamReader pReader, String pAttributeName, String pExceptionMessage) {
+      String result = pReader.getAttributeValue(null, pAttributeName);
+      Preconditions.checkNotNull(result, pExceptionMessage);
+      return result;
     }
 
-    private Element getNodeWithId(String nodeId) {
-      Element result = getIdToNodeMap().get(nodeId);
+    private GraphMlNode getNodeWithId(String nodeId) {
+      GraphMlNode result = nodes.get(nodeId);
       Preconditions.checkNotNull(result, "Node not found. Id: " + nodeId);
       return result;
     }
 
-    private String getDataValueWithDefault(Node dataOnNode, KeyDef dataKey, final String defaultValue) {
-      Set<String> values = getDataOnNode(dataOnNode, dataKey);
+    String getDataValueWithDefault(ImmutableSetMultimap<String, String> pData, KeyDef dataKey, final String defaultValue) {
+      Set<String> values = pData.get(dataKey.id);
       if (values.size() == 0) {
-        Optional<String> dataDefault = getDataDefault(dataKey);
-        if (dataDefault.isPresent()) {
-          return dataDefault.get();
+        String dataDefault = defaultDataValues.get(dataKey.id);
+        if (dataDefault != null) {
+          return dataDefault;
         } else {
           return defaultValue;
         }
@@ -852,49 +936,37 @@ public class AutomatonGraphmlParser {
       }
     }
 
-    private static Set<String> getDataOnNode(Node node, final KeyDef dataKey) {
-      Preconditions.checkNotNull(node);
-      Preconditions.checkArgument(node.getNodeType() == Node.ELEMENT_NODE);
-
-      Element nodeElement = (Element) node;
-      Set<Node> dataNodes = findKeyedDataNode(nodeElement, dataKey);
-
-      Set<String> result = Sets.newHashSet();
-      for (Node n: dataNodes) {
-        result.add(n.getTextContent());
-      }
-
-      return result;
-    }
-
-    private static Set<Node> findKeyedDataNode(Element of, final KeyDef dataKey) {
-      Set<Node> result = Sets.newHashSet();
-      NodeList dataChilds = of.getElementsByTagName(GraphMlTag.DATA.toString());
-      for (int i=0; i<dataChilds.getLength(); i++) {
-        Node dataChild = dataChilds.item(i);
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        if (attribute.getTextContent().equals(dataKey.id)) {
-          result.add(dataChild);
-        }
-      }
-      return result;
-    }
+  }
 
+  private static XMLInputFactory createInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
   }
 
+  /**
+   * Checks whether the given file is a well-formed XML file.
+   * The whole file is read with a streaming parser, but no document is built.
+   */
   public static boolean isGraphmlAutomaton(Path pPath, LogManager pLogger) throws InvalidConfigurationException {
     try (InputStream input = pPath.asByteSource().openStream()) {
-      SAXParserFactory.newInstance().newSAXParser().parse(input, new DefaultHandler());
-      return true;
+      XMLStreamReader reader = createInputFactory().createXMLStreamReader(input);
+      try {
+        boolean hasElement = false;
+        while (reader.hasNext()) {
+          hasElement |= reader.next() == XMLStreamConstants.START_ELEMENT;
+        }
+        return hasElement;
+      } finally {
+        reader.close();
+      }
     } catch (FileNotFoundException e) {
       throw new InvalidConfigurationException("Invalid automaton file provided! File not found: " + pPath.getPath());
     } catch (IOException e) {
       throw new InvalidConfigurationException("Error while accessing automaton file", e);
-    } catch (SAXException e) {
-      return false;
-    } catch (ParserConfigurationException e) {
-      pLogger.logException(Level.WARNING, e, "SAX parser configured incorrectly. Could not determine whether or not the path describes a graphml automaton.");
+    } catch (XMLStreamException e) {
       return false;
     }
   }
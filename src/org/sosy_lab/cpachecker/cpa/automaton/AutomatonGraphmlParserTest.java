@@ -0,0 +1,120 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.io.Files;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.common.io.Paths;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.log.TestLogManager;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.GraphMlDocumentData;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.GraphMlEdge;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.HeapUsage;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+
+public class AutomatonGraphmlParserTest {
+
+  private static final String WITNESS =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+      + "  <key id=\"sourcecodelang\" for=\"graph\" attr.name=\"sourcecodeLanguage\">\n"
+      + "    <default>C</default>\n"
+      + "  </key>\n"
+      + "  <graph edgedefault=\"directed\" name=\"witness\">\n"
+      + "    <node id=\"A0\"><data key=\"entry\">true</data></node>\n"
+      + "    <node id=\"A1\"><data key=\"violation\">true</data></node>\n"
+      + "    <edge source=\"A0\" target=\"A1\">\n"
+      + "      <data key=\"sourcecode\"><![CDATA[x < 1]]> &amp;&amp; y;</data>\n"
+      + "      <data key=\"startline\">5</data>\n"
+      + "    </edge>\n"
+      + "    <edge source=\"A1\" target=\"A1\"/>\n"
+      + "  </graph>\n"
+      + "</graphml>\n";
+
+  private final LogManager logger = TestLogManager.getInstance();
+
+  @Test
+  public void testReadDocument() throws XMLStreamException {
+    GraphMlDocumentData data = GraphMlDocumentData.read(
+        new ByteArrayInputStream(WITNESS.getBytes(StandardCharsets.UTF_8)), new HeapUsage());
+
+    assertThat(data.graphCount).isEqualTo(1);
+    assertThat(data.graphName).isEqualTo("witness");
+    assertThat(data.nodes.keySet()).containsExactly("A0", "A1").inOrder();
+    assertThat(data.nodes.get("A0").data.get(KeyDef.ISENTRYNODE.id)).containsExactly("true");
+    assertThat(data.nodes.get("A1").data.get(KeyDef.ISVIOLATIONNODE.id)).containsExactly("true");
+    assertThat(data.edges).hasSize(2);
+
+    GraphMlEdge edge = data.edges.get(0);
+    assertThat(edge.source).isEqualTo("A0");
+    assertThat(edge.target).isEqualTo("A1");
+    assertThat(edge.getData(KeyDef.SOURCECODE)).containsExactly("x < 1 && y;");
+    assertThat(edge.getData(KeyDef.ORIGINLINE)).containsExactly("5");
+    // strings are shared between the records
+    assertThat(data.edges.get(1).target).isSameAs(edge.target);
+
+    assertThat(data.getDataValueWithDefault(edge.data, KeyDef.SOURCECODELANGUAGE, "Java"))
+        .isEqualTo("C");
+    assertThat(data.getDataValueWithDefault(edge.data, KeyDef.FUNCTIONENTRY, "none"))
+        .isEqualTo("none");
+  }
+
+  @Test(expected = XMLStreamException.class)
+  public void testReadMalformedDocument() throws XMLStreamException {
+    String truncated = WITNESS.substring(0, WITNESS.indexOf("</graph>"));
+    GraphMlDocumentData.read(
+        new ByteArrayInputStream(truncated.getBytes(StandardCharsets.UTF_8)), new HeapUsage());
+  }
+
+  @Test
+  public void testIsGraphmlAutomaton() throws IOException, InvalidConfigurationException {
+    assertThat(AutomatonGraphmlParser.isGraphmlAutomaton(writeTempFile(WITNESS), logger)).isTrue();
+
+    // only well-formed documents are accepted, even if they start like one
+    String truncated = WITNESS.substring(0, WITNESS.indexOf("</graph>"));
+    assertThat(AutomatonGraphmlParser.isGraphmlAutomaton(writeTempFile(truncated), logger)).isFalse();
+
+    String automaton = "OBSERVER AUTOMATON A\nINITIAL STATE Init;\nSTATE USEFIRST Init :\n  TRUE -> GOTO Init;\nEND AUTOMATON\n";
+    assertThat(AutomatonGraphmlParser.isGraphmlAutomaton(writeTempFile(automaton), logger)).isFalse();
+  }
+
+  private static Path writeTempFile(String pContent) throws IOException {
+    File file = File.createTempFile("witness", ".graphml");
+    file.deleteOnExit();
+    Path path = Paths.get(file.getPath());
+    Files.writeFile(path, pContent);
+    return path;
+  }
+}
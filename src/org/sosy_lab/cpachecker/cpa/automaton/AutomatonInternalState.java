@@ -26,10 +26,14 @@ package org.sosy_lab.cpachecker.cpa.automaton;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import org.sosy_lab.common.UniqueIdGenerator;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonExpression.StringExpression;
 
+import com.google.common.collect.MapMaker;
+
 /** Represents a State in the automaton.
  */
 public class AutomatonInternalState {
@@ -74,11 +78,38 @@ public class AutomatonInternalState {
    */
   private final boolean mAllTransitions;
 
+  /**
+   * Dispatch index: for each CFA edge the indices of those transitions
+   * that might match it (cf. {@link AutomatonTransition#cannotMatch(CFAEdge)}).
+   * Filled lazily by the transfer relation, CFA edges are compared by identity.
+   */
+  private final ConcurrentMap<CFAEdge, int[]> candidateTransitions =
+      new MapMaker().weakKeys().makeMap();
+
+  /**
+   * The indices of all transitions if none of them is cached per edge,
+   * in this case the dispatch index would be the same for every edge and is not filled.
+   */
+  private final int[] allTransitions;
+
   public AutomatonInternalState(String pName, List<AutomatonTransition> pTransitions, boolean pIsTarget, boolean pAllTransitions) {
     this.name = pName;
     this.transitions = pTransitions;
     this.mIsTarget = pIsTarget;
     this.mAllTransitions = pAllTransitions;
+
+    boolean edgeDependent = false;
+    for (AutomatonTransition t : pTransitions) {
+      edgeDependent |= t.isTriggerDependingOnlyOnEdge();
+    }
+    if (edgeDependent) {
+      allTransitions = null;
+    } else {
+      allTransitions = new int[pTransitions.size()];
+      for (int i = 0; i < allTransitions.length; i++) {
+        allTransitions[i] = i;
+      }
+    }
   }
 
   public AutomatonInternalState(String pName, List<AutomatonTransition> pTransitions) {
@@ -134,6 +165,26 @@ public class AutomatonInternalState {
     return transitions;
   }
 
+  /**
+   * Returns the indices of the transitions that might match the given edge,
+   * or null if they were not computed yet.
+   */
+  int[] getCandidateTransitions(CFAEdge pEdge) {
+    if (allTransitions != null) {
+      return allTransitions;
+    }
+    return candidateTransitions.get(pEdge);
+  }
+
+  /**
+   * Stores the indices of the transitions that might match the given edge
+   * and returns the stored value (which may be one stored concurrently by another thread).
+   */
+  int[] setCandidateTransitions(CFAEdge pEdge, int[] pCandidates) {
+    int[] previous = candidateTransitions.putIfAbsent(pEdge, pCandidates);
+    return previous != null ? previous : pCandidates;
+  }
+
   @Override
   public String toString() {
     return this.name;
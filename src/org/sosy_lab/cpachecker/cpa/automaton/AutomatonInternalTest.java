@@ -45,11 +45,16 @@ import org.sosy_lab.common.log.TestLogManager;
 import org.sosy_lab.cpachecker.cfa.CParser;
 import org.sosy_lab.cpachecker.cfa.CParser.ParserOptions;
 import org.sosy_lab.cpachecker.cfa.CProgramScope;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonASTComparator.ASTMatcher;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.exceptions.InvalidQueryException;
 import org.sosy_lab.cpachecker.util.test.TestDataTools;
 
 import com.google.common.io.CharSource;
@@ -216,6 +221,68 @@ public class AutomatonInternalTest {
     verify(mockLogger).log(eq(Level.WARNING), anyVararg());
   }
 
+  @Test
+  public void testMatchCacheForEdgeTriggers() throws CPATransferException {
+    CFAEdge edge = new BlankEdge("x = 1;", FileLocation.DUMMY, new CFANode("f"), new CFANode("f"), "");
+    AutomatonExpressionArguments args = new AutomatonExpressionArguments(
+        null, Collections.<String, AutomatonVariable>emptyMap(),
+        Collections.<AbstractState>emptyList(), edge, logger);
+    List<AutomatonBoolExpr> noAssertions = Collections.emptyList();
+    List<AutomatonAction> noActions = Collections.emptyList();
+
+    AutomatonTransition matching = new AutomatonTransition(
+        new AutomatonBoolExpr.MatchCFAEdgeExact("x = 1;"), noAssertions, noActions, "A");
+    AutomatonTransition notMatching = new AutomatonTransition(
+        new AutomatonBoolExpr.MatchCFAEdgeExact("x = 2;"), noAssertions, noActions, "A");
+    AutomatonTransition query = new AutomatonTransition(
+        new AutomatonBoolExpr.CPAQuery("none", "none"), noAssertions, noActions, "A");
+
+    assertThat(notMatching.cannotMatch(edge)).isFalse(); // not evaluated yet
+    assertThat(matching.match(args).getValue()).isTrue();
+    assertThat(notMatching.match(args).getValue()).isFalse();
+    assertThat(notMatching.match(args).getValue()).isFalse();
+    assertThat(query.match(args).canNotEvaluate()).isTrue();
+
+    assertThat(matching.cannotMatch(edge)).isFalse();
+    assertThat(notMatching.cannotMatch(edge)).isTrue();
+    assertThat(query.cannotMatch(edge)).isFalse();
+    assertThat(query.isTriggerDependingOnlyOnEdge()).isFalse();
+  }
+
+  @Test
+  public void testNoDispatchIndexForConstantTriggers() throws CPATransferException {
+    CFAEdge edge = new BlankEdge("x = 1;", FileLocation.DUMMY, new CFANode("f"), new CFANode("f"), "");
+    List<AutomatonBoolExpr> noAssertions = Collections.emptyList();
+    List<AutomatonAction> noActions = Collections.emptyList();
+
+    AutomatonTransition always = new AutomatonTransition(
+        AutomatonBoolExpr.TRUE, noAssertions, noActions, "A");
+    AutomatonTransition never = new AutomatonTransition(
+        AutomatonBoolExpr.FALSE, noAssertions, noActions, "A");
+    assertThat(always.isTriggerDependingOnlyOnEdge()).isFalse();
+    assertThat(always.cannotMatch(edge)).isFalse();
+    assertThat(never.cannotMatch(edge)).isTrue();
+
+    AutomatonInternalState state = new AutomatonInternalState("A",
+        Collections.singletonList(always));
+    assertThat(state.getCandidateTransitions(edge)).isEqualTo(new int[] {0});
+  }
+
+  @Test
+  public void testModifyPropertyDoesNotChangeSharedVariables() throws InvalidQueryException {
+    Map<String, AutomatonVariable> vars =
+        Collections.singletonMap("x", new AutomatonVariable("int", "x"));
+    AutomatonInternalState internalState =
+        new AutomatonInternalState("A", Collections.<AutomatonTransition>emptyList());
+    ControlAutomatonCPA cpa = mock(ControlAutomatonCPA.class);
+    AutomatonState first = AutomatonState.automatonStateFactory(vars, internalState, cpa, 0, 0, null);
+    AutomatonState second = AutomatonState.automatonStateFactory(vars, internalState, cpa, 0, 0, null);
+
+    second.modifyProperty("x:=5");
+    assertThat(second.checkProperty("x==5")).isTrue();
+    assertThat(first.checkProperty("x==0")).isTrue();
+  }
+
   @Test
   public void testASTcomparison() throws InvalidAutomatonException, InvalidConfigurationException {
 
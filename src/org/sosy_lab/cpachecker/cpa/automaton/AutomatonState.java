@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -109,7 +110,7 @@ public class AutomatonState implements AbstractQueryableState, Targetable, Seria
   }
 
   private transient ControlAutomatonCPA automatonCPA;
-  private final Map<String, AutomatonVariable> vars;
+  private Map<String, AutomatonVariable> vars;
   private transient AutomatonInternalState internalState;
   private final ImmutableList<AStatement> assumptions;
   private int matches = 0;
@@ -386,7 +387,12 @@ public class AutomatonState implements AbstractQueryableState, Targetable, Seria
       if (var != null) {
         try {
           int val = Integer.parseInt(right);
-          var.setValue(val);
+          // the variables may be shared with other states, so copy before writing
+          AutomatonVariable newVar = var.clone();
+          newVar.setValue(val);
+          Map<String, AutomatonVariable> newVars = new HashMap<>(vars);
+          newVars.put(left, newVar);
+          vars = newVars;
         } catch (NumberFormatException e) {
           throw new InvalidQueryException("The Query \"" + pModification + "\" is invalid. Could not parse the int \"" + right + "\".");
         }
@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.cpa.automaton;
 
 import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
 
 import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
@@ -47,7 +48,12 @@ class AutomatonStatistics extends AbstractStatistics {
   public void printStatistics(PrintStream out, Result pResult, ReachedSet pReached) {
     AutomatonTransferRelation trans = mCpa.getTransferRelation();
 
-    put(out, 0, "Number of states", mCpa.getAutomaton().getNumberOfStates());
+    Automaton automaton = mCpa.getAutomaton();
+    put(out, 0, "Number of states", automaton.getNumberOfStates());
+    if (automaton.getParseTime() != null) {
+      put(out, 0, "Time for parsing automaton", automaton.getParseTime().formatAs(TimeUnit.SECONDS));
+      put(out, 0, "Peak heap usage while parsing automaton", (automaton.getParsePeakHeap() / 1000 / 1000) + "MB");
+    }
     put(out, 0, "Total time for successor computation", trans.totalPostTime);
 
     if (trans.totalPostTime.getSumTime().compareTo(TimeSpan.ofMillis(500)) >= 0) {
@@ -29,6 +29,7 @@ import static com.google.common.collect.FluentIterable.from;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
@@ -224,7 +225,13 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
     // the list holds a Transition and the TransitionVariables generated during its match
     List<Pair<AutomatonTransition, Map<Integer, String>>> transitionsToBeTaken = new ArrayList<>(2);
 
-    for (AutomatonTransition t : state.getInternalState().getTransitions()) {
+    List<AutomatonTransition> transitions = state.getInternalState().getTransitions();
+    int[] candidates = getCandidateTransitions(state.getInternalState(), exprArgs);
+    // the transitions that are not candidates do not match
+    failedMatches += transitions.size() - candidates.length;
+
+    for (int i : candidates) {
+      AutomatonTransition t = transitions.get(i);
       exprArgs.clearTransitionVariables();
 
       matchTime.start();
@@ -290,7 +297,10 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
         AutomatonTransition t = pair.getFirst();
         Map<Integer, String> transitionVariables = pair.getSecond();
         actionTime.start();
-        Map<String, AutomatonVariable> newVars = deepCloneVars(state.getVars());
+        // the variables are shared with the predecessor unless the transition assigns them
+        Map<String, AutomatonVariable> newVars = t.modifiesVariables()
+            ? deepCloneVars(state.getVars())
+            : state.getVars();
         exprArgs.setAutomatonVariables(newVars);
         exprArgs.putTransitionVariables(transitionVariables);
         t.executeActions(exprArgs);
@@ -320,6 +330,47 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
     }
   }
 
+  /**
+   * Returns the indices of those transitions of the given internal state
+   * that might match the current edge, in their original order.
+   * Transitions whose trigger depends only on the edge are evaluated once per edge
+   * (the result is cached in the transition), and the resulting index is cached
+   * in the internal state, so transitions that cannot match are never considered again.
+   */
+  private int[] getCandidateTransitions(AutomatonInternalState pState, AutomatonExpressionArguments pArgs) {
+    CFAEdge edge = pArgs.getCfaEdge();
+    int[] candidates = pState.getCandidateTransitions(edge);
+    if (candidates != null) {
+      return candidates;
+    }
+
+    matchTime.start();
+    try {
+      List<AutomatonTransition> transitions = pState.getTransitions();
+      int[] result = new int[transitions.size()];
+      int count = 0;
+      for (int i = 0; i < transitions.size(); i++) {
+        AutomatonTransition t = transitions.get(i);
+        if (t.isTriggerDependingOnlyOnEdge()) {
+          pArgs.clearTransitionVariables();
+          try {
+            t.match(pArgs);
+          } catch (CPATransferException e) {
+            // keep the transition, the exception will be thrown if it is actually evaluated
+          }
+        }
+        if (!t.cannotMatch(edge)) {
+          result[count++] = i;
+        }
+      }
+      candidates = pState.setCandidateTransitions(edge, Arrays.copyOf(result, count));
+    } finally {
+      matchTime.stop();
+    }
+    pArgs.clearTransitionVariables();
+    return candidates;
+  }
+
   private static Map<String, AutomatonVariable> deepCloneVars(Map<String, AutomatonVariable> pOld) {
     Map<String, AutomatonVariable> result = Maps.newHashMapWithExpectedSize(pOld.size());
     for (Entry<String, AutomatonVariable> e : pOld.entrySet()) {
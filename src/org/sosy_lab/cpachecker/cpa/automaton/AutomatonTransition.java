@@ -28,6 +28,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
 import org.sosy_lab.cpachecker.cfa.ast.AStatement;
@@ -40,6 +41,8 @@ import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.MapMaker;
 
 /**
  * A transition in the automaton implements one of the {@link PATTERN_MATCHING_METHODS}.
@@ -54,6 +57,27 @@ class AutomatonTransition {
   private final ImmutableList<AutomatonAction> actions;
   private final StringExpression violatedPropertyDescription;
 
+  /**
+   * If the trigger depends only on the CFA edge (and not on the automaton variables
+   * or the states of other CPAs), its result for each edge never changes,
+   * so it is evaluated only once per edge and cached here.
+   * CFA edges are compared by identity (weak keys).
+   * Constant triggers (TRUE and FALSE) need no cache and are not considered here.
+   */
+  private final boolean triggerDependsOnlyOnEdge;
+  private final ConcurrentMap<CFAEdge, CachedMatch> matchCache;
+  private final boolean modifiesVariables;
+
+  private static class CachedMatch {
+    private final ResultValue<Boolean> result;
+    private final ImmutableMap<Integer, String> transitionVariables;
+
+    private CachedMatch(ResultValue<Boolean> pResult, Map<Integer, String> pTransitionVariables) {
+      result = pResult;
+      transitionVariables = ImmutableMap.copyOf(pTransitionVariables);
+    }
+  }
+
   /**
    * When the parser instances this class it can not assign a followstate because
    * that state might not be created (forward-reference).
@@ -105,6 +129,15 @@ class AutomatonTransition {
     }
 
     this.actions = ImmutableList.copyOf(pActions);
+    this.triggerDependsOnlyOnEdge = !isConstant(trigger) && dependsOnlyOnEdge(trigger);
+    this.matchCache = triggerDependsOnlyOnEdge
+        ? new MapMaker().weakKeys().<CFAEdge, CachedMatch>makeMap()
+        : null;
+    boolean lModifiesVariables = false;
+    for (AutomatonAction action : actions) {
+      lModifiesVariables |= action instanceof AutomatonAction.Assignment;
+    }
+    this.modifiesVariables = lModifiesVariables;
     this.followStateName = checkNotNull(pFollowStateName);
     this.followState = pFollowState;
     this.violatedPropertyDescription = pViolatedPropertyDescription;
@@ -145,7 +178,88 @@ class AutomatonTransition {
    * @throws CPATransferException
    */
   public ResultValue<Boolean> match(AutomatonExpressionArguments pArgs) throws CPATransferException {
-    return trigger.eval(pArgs);
+    if (!triggerDependsOnlyOnEdge) {
+      return trigger.eval(pArgs);
+    }
+
+    CachedMatch cached = matchCache.get(pArgs.getCfaEdge());
+    if (cached == null) {
+      ResultValue<Boolean> result = trigger.eval(pArgs);
+      if (result.canNotEvaluate()) {
+        return result;
+      }
+      cached = new CachedMatch(result, pArgs.getTransitionVariables());
+      matchCache.put(pArgs.getCfaEdge(), cached);
+    } else {
+      pArgs.putTransitionVariables(cached.transitionVariables);
+    }
+    return cached.result;
+  }
+
+  /**
+   * Returns true if it is known that the trigger of this transition
+   * does not match the given edge, regardless of the automaton variables
+   * and the states of other CPAs.
+   * This is the case if the trigger is FALSE, or if it depends only on the edge
+   * and {@link #match(AutomatonExpressionArguments)} already returned false for it.
+   */
+  boolean cannotMatch(CFAEdge pEdge) {
+    if (trigger == AutomatonBoolExpr.FALSE) {
+      return true;
+    }
+    if (!triggerDependsOnlyOnEdge) {
+      return false;
+    }
+    CachedMatch cached = matchCache.get(pEdge);
+    return cached != null && !cached.result.getValue();
+  }
+
+  boolean isTriggerDependingOnlyOnEdge() {
+    return triggerDependsOnlyOnEdge;
+  }
+
+  /**
+   * Returns true if the actions of this transition may assign automaton variables,
+   * i.e., if the variables need to be copied before executing them.
+   */
+  boolean modifiesVariables() {
+    return modifiesVariables;
+  }
+
+  private static boolean isConstant(AutomatonBoolExpr pExpr) {
+    return pExpr == AutomatonBoolExpr.TRUE || pExpr == AutomatonBoolExpr.FALSE;
+  }
+
+  private static boolean dependsOnlyOnEdge(AutomatonBoolExpr pExpr) {
+    if (isConstant(pExpr)) {
+      return true;
+    } else if (pExpr instanceof AutomatonBoolExpr.And) {
+      AutomatonBoolExpr.And and = (AutomatonBoolExpr.And) pExpr;
+      return dependsOnlyOnEdge(and.getA()) && dependsOnlyOnEdge(and.getB());
+    } else if (pExpr instanceof AutomatonBoolExpr.Or) {
+      AutomatonBoolExpr.Or or = (AutomatonBoolExpr.Or) pExpr;
+      return dependsOnlyOnEdge(or.getA()) && dependsOnlyOnEdge(or.getB());
+    } else if (pExpr instanceof AutomatonBoolExpr.Negation) {
+      return dependsOnlyOnEdge(((AutomatonBoolExpr.Negation) pExpr).getA());
+    } else if (pExpr instanceof AutomatonBoolExpr.MatchAllSuccessorEdgesBoolExpr) {
+      return dependsOnlyOnEdge(((AutomatonBoolExpr.MatchAllSuccessorEdgesBoolExpr) pExpr).getOperandExpression());
+    } else if (pExpr instanceof AutomatonBoolExpr.MatchAnySuccessorEdgesBoolExpr) {
+      return dependsOnlyOnEdge(((AutomatonBoolExpr.MatchAnySuccessorEdgesBoolExpr) pExpr).getOperandExpression());
+    }
+    // MatchEdgeTokens also looks at the tokens of the automaton state,
+    // the queries look at the variables and the other CPAs.
+    return pExpr instanceof AutomatonBoolExpr.MatchProgramExit
+        || pExpr instanceof AutomatonBoolExpr.MatchLabelExact
+        || pExpr instanceof AutomatonBoolExpr.MatchLabelRegEx
+        || pExpr instanceof AutomatonBoolExpr.MatchCFAEdgeASTComparison
+        || pExpr instanceof AutomatonBoolExpr.MatchCFAEdgeRegEx
+        || pExpr instanceof AutomatonBoolExpr.MatchCFAEdgeExact
+        || pExpr instanceof AutomatonBoolExpr.MatchJavaAssert
+        || pExpr instanceof AutomatonBoolExpr.MatchAssumeEdge
+        || pExpr instanceof AutomatonBoolExpr.MatchAssumeCase
+        || pExpr instanceof AutomatonBoolExpr.MatchPathRelevantEdgesBoolExpr
+        || pExpr instanceof AutomatonBoolExpr.MatchNonEmptyEdgeTokens
+        || pExpr instanceof AutomatonBoolExpr.MatchLocationDescriptor;
   }
 
   /**
@@ -88,8 +88,8 @@ public class BAMCPA extends AbstractSingleWrapperCPA implements StatisticsProvid
   private final ProofChecker wrappedProofChecker;
   private final BAMDataManager data;
 
-  @Option(secure=true, description = "Type of partitioning (FunctionAndLoopPartitioning or DelayedFunctionAndLoopPartitioning)\n"
-      + "or any class that implements a PartitioningHeuristic")
+  @Option(secure=true, description = "Type of partitioning (FunctionAndLoopPartitioning, DelayedFunctionAndLoopPartitioning,\n"
+      + "or CostBasedPartitioning) or any class that implements a PartitioningHeuristic")
   @ClassOption(packagePrefix = "org.sosy_lab.cpachecker.cfa.blocks.builder")
   private Class<? extends PartitioningHeuristic> blockHeuristic = FunctionAndLoopPartitioning.class;
 
@@ -135,7 +135,7 @@ public class BAMCPA extends AbstractSingleWrapperCPA implements StatisticsProvid
     stop = new BAMStopOperator(pCpa.getStopOperator(), transfer);
 
     stats = new BAMCPAStatistics(this, data, config, logger);
-    heuristic = getPartitioningHeuristic();
+    heuristic = getPartitioningHeuristic(config);
   }
 
   @Override
@@ -163,9 +163,17 @@ public class BAMCPA extends AbstractSingleWrapperCPA implements StatisticsProvid
     return getWrappedCpa().getInitialPrecision(pNode, pPartition);
   }
 
-  private PartitioningHeuristic getPartitioningHeuristic() throws CPAException, InvalidConfigurationException {
+  private PartitioningHeuristic getPartitioningHeuristic(Configuration pConfig)
+      throws CPAException, InvalidConfigurationException {
+    try {
+      blockHeuristic.getConstructor(LogManager.class, CFA.class, Configuration.class);
+    } catch (NoSuchMethodException e) {
+      // heuristic without options
+      return Classes.createInstance(PartitioningHeuristic.class, blockHeuristic, new Class[] { LogManager.class,
+          CFA.class }, new Object[] { logger, cfa }, CPAException.class);
+    }
     return Classes.createInstance(PartitioningHeuristic.class, blockHeuristic, new Class[] { LogManager.class,
-        CFA.class }, new Object[] { logger, cfa }, CPAException.class);
+        CFA.class, Configuration.class }, new Object[] { logger, cfa, pConfig }, CPAException.class);
   }
 
   @Override
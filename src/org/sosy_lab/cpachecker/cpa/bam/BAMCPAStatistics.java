@@ -48,6 +48,8 @@ import org.sosy_lab.common.io.Path;
 import org.sosy_lab.common.io.PathTemplate;
 import org.sosy_lab.common.io.Paths;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.blocks.builder.BlockCosts;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
@@ -82,6 +84,11 @@ class BAMCPAStatistics implements Statistics {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path simplifiedArgFile = Paths.get("BlockedARGSimplified.dot");
 
+  @Option(secure=true, description="export the number of entries and cache hits for each block, "
+      + "e.g., as input for the next analysis with CostBasedPartitioning")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private Path blockCostFile = null;
+
   private final Predicate<Pair<ARGState,ARGState>> highlightSummaryEdge = new Predicate<Pair<ARGState, ARGState>>() {
     @Override
     public boolean apply(Pair<ARGState, ARGState> input) {
@@ -168,6 +175,23 @@ class BAMCPAStatistics implements Statistics {
 
     exportAllReachedSets(argFile, indexedArgFile, reached);
     exportUsedReachedSets(simplifiedArgFile, reached);
+    exportBlockCosts(blockCostFile);
+  }
+
+  private void exportBlockCosts(final Path file) {
+    if (file != null) {
+      BlockCosts costs = new BlockCosts();
+      for (Block block : cpa.getBlockPartitioning().getBlocks()) {
+        costs.put(block.getCallNodes(),
+            data.bamCache.getNumberOfEntries(block), data.bamCache.getNumberOfCacheHits(block),
+            block.getNodes().size(), block.getReferencedVariables().size());
+      }
+      try (Writer w = Files.openOutputFile(file)) {
+        costs.write(w);
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not write block costs to file");
+      }
+    }
   }
 
   protected void exportAllReachedSets(final Path superArgFile, final PathTemplate indexedFile,
@@ -45,6 +45,8 @@ import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
 
 @Options(prefix = "cpa.bam")
 public class BAMCache {
@@ -67,6 +69,9 @@ public class BAMCache {
   int precisionCausedMisses = 0;
   int noSimilarCausedMisses = 0;
 
+  private final Multiset<Block> blockEntries = HashMultiset.create();
+  private final Multiset<Block> blockCacheHits = HashMultiset.create();
+
   private final Map<AbstractStateHash, ReachedSet> preciseReachedCache = new HashMap<>();
   private final Map<AbstractStateHash, ReachedSet> unpreciseReachedCache = new HashMap<>();
   private final Map<AbstractStateHash, Collection<AbstractState>> returnCache = new HashMap<>();
@@ -134,9 +139,11 @@ public class BAMCache {
     final ReachedSet reached = pair.getFirst();
     final Collection<AbstractState> returnStates = pair.getSecond();
 
+    blockEntries.add(context);
     if (reached != null && returnStates != null) { // we have reached-set and elements
       assert allStatesContainedInReachedSet(returnStates, reached) : "output-states must be in reached-set";
       fullCacheHits++;
+      blockCacheHits.add(context);
     } else if (reached != null) { // we have cached a partly computed reached-set
       partialCacheHits++;
     } else if (returnStates == null) {
@@ -265,6 +272,16 @@ public class BAMCache {
     }
   }
 
+  /** Get the number of cache accesses for the given block. */
+  int getNumberOfEntries(Block block) {
+    return blockEntries.count(block);
+  }
+
+  /** Get the number of cache accesses for the given block that returned a complete result. */
+  int getNumberOfCacheHits(Block block) {
+    return blockCacheHits.count(block);
+  }
+
   public Collection<ReachedSet> getAllCachedReachedStates() {
     return preciseReachedCache.values();
   }
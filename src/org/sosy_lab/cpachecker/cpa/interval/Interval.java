@@ -23,80 +23,146 @@
  */
 package org.sosy_lab.cpachecker.cpa.interval;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.Arrays;
-import java.util.Collections;
 
+/**
+ * An interval of long values. The bounds are stored as primitive longs,
+ * Long.MIN_VALUE and Long.MAX_VALUE represent negative and positive infinity, respectively.
+ * The empty interval is represented by a lower bound that is larger than the upper bound.
+ *
+ * Intervals are immutable, so the factory methods return shared instances
+ * for the empty, the unbounded, and the boolean interval, and for small constants.
+ */
 public class Interval implements Serializable{
-  private static final long serialVersionUID = 4223098080993616295L;
+  private static final long serialVersionUID = -3281961740409262349L;
 
   /**
    * the lower bound of the interval
    */
-  private final Long low;
+  private final long low;
 
   /**
    * the upper bound of the interval
    */
-  private final Long high;
+  private final long high;
+
+  private static final long CACHE_LOW = -128;
+  private static final long CACHE_HIGH = 1024;
+  private static final Interval[] CONSTANTS = new Interval[(int)(CACHE_HIGH - CACHE_LOW + 1)];
+  static {
+    for (int i = 0; i < CONSTANTS.length; i++) {
+      CONSTANTS[i] = new Interval(CACHE_LOW + i, CACHE_LOW + i);
+    }
+  }
+
+  private static final Interval EMPTY = new Interval(1L, 0L);
+  private static final Interval UNBOUND = new Interval(Long.MIN_VALUE, Long.MAX_VALUE);
+  private static final Interval BOOLEAN = new Interval(0L, 1L);
 
-  public static final Interval ZERO = new Interval(0L, 0L);
-  public static final Interval ONE = new Interval(1L, 1L);
+  public static final Interval ZERO = of(0L);
+  public static final Interval ONE = of(1L);
 
   /**
    * This method acts as constructor for a single-value interval.
    *
-   * @param value for the lower and upper bound
+   * @param value for the lower and upper bound, or null for the empty interval
    */
   public Interval(Long value) {
-    this.low  = value;
-
-    this.high = value;
-
-    isSane();
+    this(value, value);
   }
 
   /**
    * This method acts as constructor for a long-based interval.
    *
-   * @param low the lower bound
-   * @param high the upper bound
+   * @param low the lower bound, or null for the empty interval
+   * @param high the upper bound, or null for the empty interval
    */
   public Interval(Long low, Long high) {
-    this.low  = low;
-
-    this.high = high;
+    if ((low == null) != (high == null)) {
+      throw new IllegalStateException("invalid empty interval");
+    }
+    if (low == null) {
+      this.low  = EMPTY.low;
+      this.high = EMPTY.high;
+    } else {
+      if (low > high) {
+        throw new IllegalStateException("low cannot be larger than high");
+      }
+      this.low  = low;
+      this.high = high;
+    }
+  }
 
-    isSane();
+  /** Constructor without checks for the factory methods. */
+  private Interval(long pLow, long pHigh) {
+    low = pLow;
+    high = pHigh;
   }
 
-  private boolean isSane() {
-    if ((low == null) != (high == null)) {
-      throw new IllegalStateException("invalid empty interval");
+  /**
+   * This method is a factory method for a single-value interval.
+   *
+   * @param value for the lower and upper bound
+   * @return an interval containing only the given value
+   */
+  public static Interval of(long value) {
+    if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+      return CONSTANTS[(int)(value - CACHE_LOW)];
     }
-    if (low != null && low > high) {
+    return new Interval(value, value);
+  }
+
+  /**
+   * This method is a factory method for an interval with the given bounds.
+   *
+   * @param low the lower bound
+   * @param high the upper bound, which must not be smaller than the lower bound
+   * @return an interval with the given bounds
+   */
+  public static Interval of(long low, long high) {
+    if (low > high) {
       throw new IllegalStateException("low cannot be larger than high");
+    } else if (low == high) {
+      return of(low);
+    } else if (low == Long.MIN_VALUE && high == Long.MAX_VALUE) {
+      return UNBOUND;
+    } else if (low == 0L && high == 1L) {
+      return BOOLEAN;
     }
+    return new Interval(low, high);
+  }
 
-    return true;
+  private Object readResolve() throws ObjectStreamException {
+    // keep the empty interval canonical
+    return isEmpty() ? EMPTY : this;
   }
 
   /**
    * This method returns the lower bound of the interval.
    *
-   * @return the lower bound
+   * @return the lower bound, or null if the interval is empty
    */
   public Long getLow() {
-    return low;
+    return isEmpty() ? null : low;
   }
 
   /**
    * This method returns the upper bound of the interval.
    *
-   * @return the upper bound
+   * @return the upper bound, or null if the interval is empty
    */
   public Long getHigh() {
-    return high;
+    return isEmpty() ? null : high;
+  }
+
+  /**
+   * This method determines whether the interval contains exactly one value.
+   *
+   * @return true, if the lower and upper bounds are equal
+   */
+  public boolean isSingleton() {
+    return low == high;
   }
 
   /* (non-Javadoc)
@@ -113,7 +179,7 @@ public class Interval implements Serializable{
         return false;
       }
 
-      return low.equals(another.low) && high.equals(another.high);
+      return low == another.low && high == another.high;
     } else {
       return false;
     }
@@ -130,8 +196,8 @@ public class Interval implements Serializable{
 
     int result = 17;
 
-    result = 31 * result + low.hashCode();
-    result = 31 * result + high.hashCode();
+    result = 31 * result + (int)(low ^ (low >>> 32));
+    result = 31 * result + (int)(high ^ (high >>> 32));
 
     return result;
   }
@@ -150,7 +216,7 @@ public class Interval implements Serializable{
     } else if (low >= other.low && high <= other.high) {
       return other;
     } else {
-      return new Interval(Math.min(low, other.low), Math.max(high, other.high));
+      return of(Math.min(low, other.low), Math.max(high, other.high));
     }
   }
 
@@ -164,7 +230,7 @@ public class Interval implements Serializable{
    */
   public Interval intersect(Interval other) {
     if (this.intersects(other)) {
-      return new Interval(Math.max(low, other.low), Math.min(high, other.high));
+      return of(Math.max(low, other.low), Math.min(high, other.high));
     } else {
       return createEmptyInterval();
     }
@@ -218,13 +284,16 @@ public class Interval implements Serializable{
    * @return the new interval with the respective bounds.
    */
   public Interval modulo(Interval other) {
-    if (other.contains(ZERO)) {
+    if (isEmpty() || other.isEmpty()) {
+      return createEmptyInterval();
+    } else if (other.contains(ZERO)) {
       return Interval.createUnboundInterval();
     }
 
     // The interval doesn't contain zero, hence low and high has to be of the same sign.
     // In that case we can call an absolute value on both, as "% (-x)" is the same as "% x".
-    other = new Interval(Math.abs(other.low), Math.abs(other.high));
+    long otherLow = Math.abs(other.low);
+    long otherHigh = Math.abs(other.high);
 
     long newHigh;
     long newLow;
@@ -239,13 +308,13 @@ public class Interval implements Serializable{
     } else {
       top = Math.max(Math.abs(low), high);
     }
-    newHigh = Math.min(top, other.high - 1);
+    newHigh = Math.min(top, otherHigh - 1);
 
     // Separate consideration for the case where the divisible number can be negative.
     if (low >= 0) { // If the divisible interval is all positive, the lowest we can ever get is 0.
 
       // We can only get zero if we include 0 or the number higher than the smallest value of the other interval.
-      if (low == 0 || high >= other.low) {
+      if (low == 0 || high >= otherLow) {
         newLow = 0;
       } else {
         newLow = low;
@@ -256,11 +325,10 @@ public class Interval implements Serializable{
       // (e.g. X mod 14 can not be lower than -13)
 
       // Remember, <low> is negative in this branch.
-      newLow = Math.max(low, 1 - other.high);
+      newLow = Math.max(low, 1 - otherHigh);
     }
 
-    Interval out = new Interval(newLow, newHigh);
-    return out;
+    return of(newLow, newHigh);
   }
 
   /**
@@ -275,7 +343,7 @@ public class Interval implements Serializable{
     if (isEmpty() || other.isEmpty() || high < other.low) {
       interval = createEmptyInterval();
     } else {
-      interval = new Interval(Math.max(low, other.low), high);
+      interval = of(Math.max(low, other.low), high);
     }
 
     return interval;
@@ -293,7 +361,7 @@ public class Interval implements Serializable{
     if (isEmpty() || other.isEmpty() || low > other.high) {
       interval = createEmptyInterval();
     } else {
-      interval = new Interval(low, Math.min(high, other.high));
+      interval = of(low, Math.min(high, other.high));
     }
 
     return interval;
@@ -339,7 +407,7 @@ public class Interval implements Serializable{
       return createEmptyInterval();
     }
 
-    return new Interval(scalarPlus(low, interval.low), scalarPlus(high, interval.high));
+    return of(scalarPlus(low, interval.low), scalarPlus(high, interval.high));
   }
 
   /**
@@ -349,7 +417,10 @@ public class Interval implements Serializable{
    * @return a new interval with the respective bounds
    */
   public Interval plus(Long offset) {
-    return plus(new Interval(offset, offset));
+    if (isEmpty()) {
+      return createEmptyInterval();
+    }
+    return of(scalarPlus(low, offset), scalarPlus(high, offset));
   }
 
   /**
@@ -379,14 +450,16 @@ public class Interval implements Serializable{
    * @return new interval that represents the result of the multiplication of the two intervals
    */
   public Interval times(Interval other) {
-    Long[] values = {
-                      scalarTimes(low, other.low),
-                      scalarTimes(low, other.high),
-                      scalarTimes(high, other.low),
-                      scalarTimes(high, other.high)
-                    };
+    if (isEmpty() || other.isEmpty()) {
+      return createEmptyInterval();
+    }
 
-    return new Interval(Collections.min(Arrays.asList(values)), Collections.max(Arrays.asList(values)));
+    long ll = scalarTimes(low, other.low);
+    long lh = scalarTimes(low, other.high);
+    long hl = scalarTimes(high, other.low);
+    long hh = scalarTimes(high, other.high);
+
+    return of(Math.min(Math.min(ll, lh), Math.min(hl, hh)), Math.max(Math.max(ll, lh), Math.max(hl, hh)));
   }
 
   /**
@@ -399,15 +472,15 @@ public class Interval implements Serializable{
     // other interval contains "0", return unbound interval
     if (other.contains(ZERO)) {
       return createUnboundInterval();
+    } else if (isEmpty() || other.isEmpty()) {
+      return createEmptyInterval();
     } else {
-      Long[] values = {
-                        low / other.low,
-                        low / other.high,
-                        high / other.low,
-                        high / other.high
-                      };
-
-      return new Interval(Collections.min(Arrays.asList(values)), Collections.max(Arrays.asList(values)));
+      long ll = low / other.low;
+      long lh = low / other.high;
+      long hl = high / other.low;
+      long hh = high / other.high;
+
+      return of(Math.min(Math.min(ll, lh), Math.min(hl, hh)), Math.max(Math.max(ll, lh), Math.max(hl, hh)));
     }
   }
 
@@ -418,20 +491,22 @@ public class Interval implements Serializable{
   * @return new interval that represents the result of the arithmetical left shift
   */
   public Interval shiftLeft(Interval offset) {
-    // create an unbound interval upon trying to shift by a possibly negative offset
-    if (ZERO.mayBeGreaterThan(offset)) {
+    if (isEmpty()) {
+      return createEmptyInterval();
+    } else if (ZERO.mayBeGreaterThan(offset)) {
+      // create an unbound interval upon trying to shift by a possibly negative offset
       return createUnboundInterval();
     } else {
       // if lower bound is negative, shift it by upper bound of offset, else by lower bound of offset
-      Long newLow   = low << ((low < 0L) ? offset.high : offset.low);
+      long newLow   = low << ((low < 0L) ? offset.high : offset.low);
 
       // if upper bound is negative, shift it by lower bound of offset, else by upper bound of offset
-      Long newHigh  = high << ((high < 0L) ? offset.low : offset.high);
+      long newHigh  = high << ((high < 0L) ? offset.low : offset.high);
 
       if ((low < 0 && newLow > low) || (high > 0 && newHigh < high)) {
         return createUnboundInterval();
       } else {
-        return new Interval(newLow, newHigh);
+        return of(newLow, newHigh);
       }
     }
   }
@@ -443,17 +518,19 @@ public class Interval implements Serializable{
   * @return new interval that represents the result of the arithmetical right shift
   */
   public Interval shiftRight(Interval offset) {
-    // create an unbound interval upon trying to shift by a possibly negative offset
-    if (ZERO.mayBeGreaterThan(offset)) {
+    if (isEmpty()) {
+      return createEmptyInterval();
+    } else if (ZERO.mayBeGreaterThan(offset)) {
+      // create an unbound interval upon trying to shift by a possibly negative offset
       return createUnboundInterval();
     } else {
       // if lower bound is negative, shift it by lower bound of offset, else by upper bound of offset
-      Long newLow   = low >> ((low < 0L) ? offset.low : offset.high);
+      long newLow   = low >> ((low < 0L) ? offset.low : offset.high);
 
       // if upper bound is negative, shift it by upper bound of offset, else by lower bound of offset
-      Long newHigh  = high >> ((high < 0L) ? offset.high : offset.low);
+      long newHigh  = high >> ((high < 0L) ? offset.high : offset.low);
 
-      return new Interval(newLow, newHigh);
+      return of(newLow, newHigh);
     }
   }
 
@@ -463,16 +540,19 @@ public class Interval implements Serializable{
    * @return new negated interval
    */
   public Interval negate() {
-    return new Interval(scalarTimes(high, -1L), scalarTimes(low, -1L));
+    if (isEmpty()) {
+      return createEmptyInterval();
+    }
+    return of(scalarTimes(high, -1L), scalarTimes(low, -1L));
   }
 
   /**
    * This method determines whether the interval is empty or not.
    *
-   * @return true, if the interval is empty, i.e. the lower and upper bounds are null
+   * @return true, if the interval is empty, i.e. the lower bound is larger than the upper bound
    */
   public boolean isEmpty() {
-    return low == null && high == null;
+    return low > high;
   }
 
   public boolean isUnbound() {
@@ -484,7 +564,10 @@ public class Interval implements Serializable{
    */
   @Override
   public String toString() {
-    return "[" + (low == null ? "" : low) + "; " + (high == null ? "" : high) + "]";
+    if (isEmpty()) {
+      return "[; ]";
+    }
+    return "[" + low + "; " + high + "]";
   }
 
   /**
@@ -493,7 +576,7 @@ public class Interval implements Serializable{
    * @return an empty interval
    */
   private static Interval createEmptyInterval() {
-    return new Interval(null,null);
+    return EMPTY;
   }
 
   /**
@@ -502,7 +585,7 @@ public class Interval implements Serializable{
    * @return an interval [0;1]
    */
   public static Interval createBooleanInterval() {
-    return new Interval(0L,1L);
+    return BOOLEAN;
   }
 
   /**
@@ -511,7 +594,7 @@ public class Interval implements Serializable{
    * @return an unbounded interval, i.e. the lower and upper bound are set to Long.MIN_VALUE and Long.MAX_VALUE respectively
    */
   public static Interval createUnboundInterval() {
-    return new Interval(Long.MIN_VALUE, Long.MAX_VALUE);
+    return UNBOUND;
   }
 
   /**
@@ -521,7 +604,7 @@ public class Interval implements Serializable{
    * @return a lower bounded interval, i.e. the lower bound is set to the given lower bound, the upper bound is set to Long.MAX_VALUE
    */
   public static Interval createLowerBoundedInterval(Long lowerBound) {
-    return new Interval(lowerBound, Long.MAX_VALUE);
+    return of(lowerBound, Long.MAX_VALUE);
   }
 
   /**
@@ -531,7 +614,7 @@ public class Interval implements Serializable{
    * @return an upper bounded interval, i.e. the lower bound is set to Long.MIN_VALUE, the upper bound is set to the given upper bound
    */
   public static Interval createUpperBoundedInterval(Long upperBound) {
-    return new Interval(Long.MIN_VALUE, upperBound);
+    return of(Long.MIN_VALUE, upperBound);
   }
 
   /**
@@ -540,7 +623,7 @@ public class Interval implements Serializable{
    * @return an interval representing the FALSE value, i.e. the lower and upper bound are set to 0
    */
   public static Interval createFalseInterval() {
-    return new Interval(0L);
+    return ZERO;
   }
 
   /**
@@ -549,7 +632,7 @@ public class Interval implements Serializable{
    * @return an interval representing the TRUE value, i.e. the lower and upper bound are set to 1
    */
   public static Interval createTrueInterval() {
-    return new Interval(1L);
+    return ONE;
   }
 
   /**
@@ -559,8 +642,8 @@ public class Interval implements Serializable{
    * @param y the second scalar operand
    * @return the sum of the first and second scalar operand or on overflow Long.MAX_VALUE and Long.MIN_VALUE, respectively.
    */
-  private static Long scalarPlus(Long x, Long y) {
-    Long result = x + y;
+  private static long scalarPlus(long x, long y) {
+    long result = x + y;
 
     // both operands are positive but the result is negative
     if ((Long.signum(x) + Long.signum(y) == 2) && Long.signum(result) == -1) {
@@ -579,8 +662,8 @@ public class Interval implements Serializable{
    * @param y the second scalar operand
    * @return the product of the first and second scalar operand or on overflow Long.MAX_VALUE and Long.MIN_VALUE, respectively.
    */
-  private static Long scalarTimes(Long x, Long y) {
-    Long bound = (Long.signum(x) == Long.signum(y)) ? Long.MAX_VALUE : Long.MIN_VALUE;
+  private static long scalarTimes(long x, long y) {
+    long bound = (Long.signum(x) == Long.signum(y)) ? Long.MAX_VALUE : Long.MIN_VALUE;
 
     // if overflow occurs, return the respective bound
     if (x != 0 && (y > 0 && y > (bound / x) || y < 0 && y < (bound / x))) {
@@ -30,6 +30,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
@@ -141,6 +143,22 @@ public class IntervalAnalysisState implements Serializable, LatticeAbstractState
    */
   // see ExplicitState::assignConstant
   public IntervalAnalysisState addInterval(String variableName, Interval interval, int pThreshold) {
+    return addInterval(variableName, interval, pThreshold, null);
+  }
+
+  /**
+   * This method assigns an interval to a variable and puts it in the map.
+   * If the threshold is reached and widening thresholds are given,
+   * the interval is widened with the previous interval of the variable instead of removing it.
+   *
+   * @param variableName name of the variable
+   * @param interval the interval to be assigned
+   * @param pThreshold threshold from property explicitAnalysis.threshold
+   * @param pWideningThresholds the thresholds for widening, or null
+   * @return this
+   */
+  IntervalAnalysisState addInterval(String variableName, Interval interval, int pThreshold,
+      @Nullable WideningThresholds pWideningThresholds) {
     if (interval.isUnbound()) {
       removeInterval(variableName);
       return this;
@@ -153,6 +171,13 @@ public class IntervalAnalysisState implements Serializable, LatticeAbstractState
         referenceCounts = referenceCounts.putAndCopy(variableName, referenceCount + 1);
 
         intervals = intervals.putAndCopy(variableName, interval);
+      } else if (pWideningThresholds != null && intervals.containsKey(variableName)) {
+        Interval widened = pWideningThresholds.widen(intervals.get(variableName), interval);
+        if (widened.isUnbound()) {
+          removeInterval(variableName);
+        } else {
+          intervals = intervals.putAndCopy(variableName, widened);
+        }
       } else {
         removeInterval(variableName);
       }
@@ -29,10 +29,13 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAssignment;
 import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
@@ -89,8 +92,16 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
   @Option(secure=true, description="at most that many intervals will be tracked per variable, -1 if number not restricted")
   private int threshold = -1;
 
-  public IntervalAnalysisTransferRelation(Configuration config) throws InvalidConfigurationException {
+  @Option(secure=true, description="when a variable reaches the threshold (cpa.interval.threshold), "
+      + "widen its interval to the next constant from the conditions of the program "
+      + "instead of dropping the interval")
+  private boolean useWideningThresholds = false;
+
+  private final @Nullable WideningThresholds wideningThresholds;
+
+  public IntervalAnalysisTransferRelation(Configuration config, CFA cfa) throws InvalidConfigurationException {
     config.inject(this);
+    wideningThresholds = useWideningThresholds ? WideningThresholds.collect(cfa) : null;
   }
 
   @Override
@@ -176,7 +187,7 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
       // get value of actual parameter in caller function context
       Interval interval = evaluateInterval(state, arguments.get(i));
       String formalParameterName = parameters.get(i).getQualifiedName();
-      newState.addInterval(formalParameterName, interval, this.threshold);
+      newState.addInterval(formalParameterName, interval, threshold, wideningThresholds);
     }
 
     return soleSuccessor(newState);
@@ -201,7 +212,7 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
       CAssignment ass = returnEdge.asAssignment().get();
       newState.addInterval(
           ((CIdExpression)ass.getLeftHandSide()).getDeclaration().getQualifiedName(),
-          evaluateInterval(state, ass.getRightHandSide()), threshold);
+          evaluateInterval(state, ass.getRightHandSide()), threshold, wideningThresholds);
     }
 
     return soleSuccessor(newState);
@@ -290,10 +301,10 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
 
       // Splitting depends on the fact that one operand is a literal.
       // Then we try to split into two intervals.
-      if (interval2.getLow().equals(interval2.getHigh())) {
+      if (interval2.isSingleton()) {
         return splitInterval(newState, operand1, interval1, interval2);
 
-      } else if (interval1.getLow().equals(interval1.getHigh())) {
+      } else if (interval1.isSingleton()) {
         return splitInterval(newState, operand2, interval2, interval1);
 
       } else {
@@ -320,7 +331,7 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
   private Collection<IntervalAnalysisState> splitInterval(
       IntervalAnalysisState newState, CExpression lhs, Interval interval, Interval splitPoint) {
 
-    assert splitPoint.getLow().equals(splitPoint.getHigh()) : "invalid splitpoint for interval";
+    assert splitPoint.isSingleton() : "invalid splitpoint for interval";
 
     // we split in following cases:
     // - either always because of the option 'splitIntervals'
@@ -359,7 +370,8 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
       newState.addInterval(
           ((CIdExpression) lhs).getDeclaration().getQualifiedName(),
           interval,
-          threshold);
+          threshold,
+          wideningThresholds);
     }
   }
 
@@ -427,7 +439,7 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
         interval = Interval.createUnboundInterval();
       }
 
-      newState.addInterval(decl.getQualifiedName(), interval, this.threshold);
+      newState.addInterval(decl.getQualifiedName(), interval, threshold, wideningThresholds);
     }
 
     return soleSuccessor(newState);
@@ -520,7 +532,7 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
       case EQUALS:
         if (!interval1.intersects(interval2)) {
           return Interval.ZERO;
-        } else if (interval1.getLow().equals(interval1.getHigh()) && interval1.equals(interval2)) {
+        } else if (interval1.isSingleton() && interval1.equals(interval2)) {
           // singular interval, [5;5]==[5;5]
           return Interval.ONE;
         } else {
@@ -530,7 +542,7 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
       case NOT_EQUALS:
         if (!interval1.intersects(interval2)) {
           return Interval.ONE;
-        } else if (interval1.getLow().equals(interval1.getHigh()) && interval1.equals(interval2)) {
+        } else if (interval1.isSingleton() && interval1.equals(interval2)) {
           // singular interval, [5;5]!=[5;5]
           return Interval.ZERO;
         } else {
@@ -548,7 +560,7 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
 
       case GREATER_EQUAL: // a>=b == a+1>b, works only for integers
         return getLogicInterval(BinaryOperator.GREATER_THAN,
-            interval1.plus(new Interval(1L)), interval2);
+            interval1.plus(Interval.ONE), interval2);
 
       case LESS_THAN: // a<b == b>a
         return getLogicInterval(BinaryOperator.GREATER_THAN,
@@ -556,7 +568,7 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
 
       case LESS_EQUAL: // a<=b == b+1>a, works only for integers
         return getLogicInterval(BinaryOperator.GREATER_THAN,
-            interval2.plus(new Interval(1L)), interval1);
+            interval2.plus(Interval.ONE), interval1);
 
       default:
         throw new AssertionError("unknown binary operator: " + operator);
@@ -600,7 +612,7 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
     }
     @Override
     public Interval visit(CCharLiteralExpression charLiteral) throws UnrecognizedCCodeException {
-      return new Interval((long)charLiteral.getCharacter());
+      return Interval.of(charLiteral.getCharacter());
     }
 
     @Override
@@ -610,13 +622,13 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
 
     @Override
     public Interval visit(CIntegerLiteralExpression integerLiteral) throws UnrecognizedCCodeException {
-      return new Interval(integerLiteral.asLong());
+      return Interval.of(integerLiteral.asLong());
     }
 
     @Override
     public Interval visit(CIdExpression identifier) throws UnrecognizedCCodeException {
       if (identifier.getDeclaration() instanceof CEnumerator) {
-        return new Interval(((CEnumerator)identifier.getDeclaration()).getValue());
+        return Interval.of(((CEnumerator)identifier.getDeclaration()).getValue());
       }
 
       final String variableName = identifier.getDeclaration().getQualifiedName();
@@ -0,0 +1,82 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.interval;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+public class IntervalTest {
+
+  private static final Interval EMPTY = new Interval(null, null);
+
+  @Test
+  public void testFactoriesShareInstances() {
+    assertThat(Interval.of(5)).isSameAs(Interval.of(5));
+    assertThat(Interval.of(0, 1)).isSameAs(Interval.createBooleanInterval());
+    assertThat(Interval.of(Long.MIN_VALUE, Long.MAX_VALUE)).isSameAs(Interval.createUnboundInterval());
+    assertThat(Interval.of(3)).isEqualTo(new Interval(3L));
+    assertThat(Interval.of(1L << 40)).isEqualTo(new Interval(1L << 40, 1L << 40));
+  }
+
+  @Test
+  public void testEmptyInterval() {
+    assertThat(EMPTY.isEmpty()).isTrue();
+    assertThat(EMPTY.getLow()).isNull();
+    assertThat(EMPTY.isSingleton()).isFalse();
+    assertThat(EMPTY.plus(Interval.ONE).isEmpty()).isTrue();
+    assertThat(EMPTY.times(Interval.ONE).isEmpty()).isTrue();
+    assertThat(EMPTY.negate().isEmpty()).isTrue();
+    assertThat(Interval.ONE.intersect(Interval.ZERO)).isEqualTo(EMPTY);
+  }
+
+  @Test
+  public void testArithmetic() {
+    Interval a = Interval.of(-2, 3);
+    Interval b = Interval.of(4, 5);
+    assertThat(a.plus(b)).isEqualTo(Interval.of(2, 8));
+    assertThat(a.minus(b)).isEqualTo(Interval.of(-7, -1));
+    assertThat(a.times(b)).isEqualTo(Interval.of(-10, 15));
+    assertThat(b.divide(Interval.of(2))).isEqualTo(Interval.of(2));
+    assertThat(a.negate()).isEqualTo(Interval.of(-3, 2));
+    assertThat(Interval.of(Long.MAX_VALUE - 1).plus(b)).isEqualTo(Interval.of(Long.MAX_VALUE));
+    assertThat(Interval.createUnboundInterval().times(Interval.of(2)).isUnbound()).isTrue();
+  }
+
+  @Test
+  public void testWideningThresholds() {
+    WideningThresholds thresholds = WideningThresholds.of(10, -1, 100);
+
+    // contained intervals are not widened
+    assertThat(thresholds.widen(Interval.of(0, 5), Interval.of(1, 2))).isEqualTo(Interval.of(0, 5));
+
+    // growing bounds are widened to the next threshold or infinity
+    assertThat(thresholds.widen(Interval.of(0, 5), Interval.of(1, 6))).isEqualTo(Interval.of(0, 10));
+    assertThat(thresholds.widen(Interval.of(0, 10), Interval.of(-1, 10))).isEqualTo(Interval.of(-1, 10));
+    assertThat(thresholds.widen(Interval.of(0, 10), Interval.of(-2, 11)))
+        .isEqualTo(Interval.of(Long.MIN_VALUE, 100));
+    assertThat(thresholds.widen(Interval.of(0, 100), Interval.of(101)))
+        .isEqualTo(Interval.createLowerBoundedInterval(0L));
+  }
+}
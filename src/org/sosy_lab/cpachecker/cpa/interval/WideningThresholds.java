@@ -0,0 +1,153 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.interval;
+
+import java.util.Arrays;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.DefaultCExpressionVisitor;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+import com.google.common.primitives.Longs;
+
+/**
+ * Thresholds for widening intervals, i.e., the integer constants that occur in the conditions of the program
+ * (and their neighbours, such that the bounds of strict comparisons are also found).
+ *
+ * When a bound of an interval grows, it is widened only to the next threshold instead of infinity.
+ * As there are finitely many thresholds, this ensures termination.
+ */
+final class WideningThresholds {
+
+  private final long[] thresholds;
+
+  private WideningThresholds(long[] pThresholds) {
+    thresholds = pThresholds;
+  }
+
+  /** Collect the integer constants of all conditions in the CFA. */
+  static WideningThresholds collect(CFA pCfa) {
+    final SortedSet<Long> constants = new TreeSet<>();
+    DefaultCExpressionVisitor<Void, RuntimeException> collector =
+        new DefaultCExpressionVisitor<Void, RuntimeException>() {
+
+          @Override
+          public Void visit(CBinaryExpression e) {
+            e.getOperand1().accept(this);
+            e.getOperand2().accept(this);
+            return null;
+          }
+
+          @Override
+          public Void visit(CCastExpression e) {
+            return e.getOperand().accept(this);
+          }
+
+          @Override
+          public Void visit(CUnaryExpression e) {
+            return e.getOperand().accept(this);
+          }
+
+          @Override
+          public Void visit(CIntegerLiteralExpression e) {
+            long value = e.asLong();
+            for (long v : new long[] {value, -value}) {
+              constants.add(v);
+              if (v != Long.MIN_VALUE) {
+                constants.add(v - 1);
+              }
+              if (v != Long.MAX_VALUE) {
+                constants.add(v + 1);
+              }
+            }
+            return null;
+          }
+
+          @Override
+          protected Void visitDefault(CExpression pExp) {
+            return null;
+          }
+        };
+
+    for (CFANode node : pCfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        if (edge instanceof CAssumeEdge) {
+          ((CAssumeEdge) edge).getExpression().accept(collector);
+        }
+      }
+    }
+    return new WideningThresholds(Longs.toArray(constants));
+  }
+
+  static WideningThresholds of(long... pThresholds) {
+    long[] thresholds = pThresholds.clone();
+    Arrays.sort(thresholds);
+    return new WideningThresholds(thresholds);
+  }
+
+  /**
+   * Widen the interval of a variable.
+   *
+   * @param pPrevious the previous interval of the variable
+   * @param pNext the new interval of the variable
+   * @return an interval that contains both intervals, and whose bounds are those of the previous interval,
+   *         or thresholds, or infinite
+   */
+  Interval widen(Interval pPrevious, Interval pNext) {
+    if (pPrevious.isEmpty()) {
+      return pNext;
+    } else if (pNext.isEmpty() || pPrevious.contains(pNext)) {
+      return pPrevious;
+    }
+
+    long low = pPrevious.getLow();
+    long high = pPrevious.getHigh();
+    long nextLow = pNext.getLow();
+    long nextHigh = pNext.getHigh();
+
+    if (nextLow < low) {
+      // largest threshold below the new lower bound
+      int pos = Arrays.binarySearch(thresholds, nextLow);
+      pos = pos >= 0 ? pos : -pos - 2;
+      low = pos >= 0 ? thresholds[pos] : Long.MIN_VALUE;
+    }
+    if (nextHigh > high) {
+      // smallest threshold above the new upper bound
+      int pos = Arrays.binarySearch(thresholds, nextHigh);
+      pos = pos >= 0 ? pos : -pos - 1;
+      high = pos < thresholds.length ? thresholds[pos] : Long.MAX_VALUE;
+    }
+    return Interval.of(low, high);
+  }
+}
@@ -45,12 +45,24 @@ public class BitVectorInfo {
 
   private final BigInteger maxValue;
 
+  /**
+   * The minimum value, or Long.MIN_VALUE if it does not fit into a long.
+   */
+  private final long minLongValue;
+
+  /**
+   * The maximum value, or Long.MAX_VALUE if it does not fit into a long.
+   */
+  private final long maxLongValue;
+
   private BitVectorInfo(int pSize, boolean pSigned) {
     Preconditions.checkArgument(pSize > 0, "bit vector size must be greater than zero");
     size = pSize;
     signed = pSigned;
     minValue = !signed ? BigInteger.ZERO : BigInteger.valueOf(2).pow(size - 1).negate();
     maxValue = !signed ? BigInteger.valueOf(2).pow(size).subtract(BigInteger.ONE) : BigInteger.valueOf(2).pow(size - 1).subtract(BigInteger.ONE);
+    minLongValue = minValue.bitLength() < Long.SIZE ? minValue.longValue() : Long.MIN_VALUE;
+    maxLongValue = maxValue.bitLength() < Long.SIZE ? maxValue.longValue() : Long.MAX_VALUE;
   }
 
   public int getSize() {
@@ -69,6 +81,20 @@ public class BitVectorInfo {
     return maxValue;
   }
 
+  /**
+   * Checks if the given value is greater than or equal to the minimum value.
+   */
+  boolean isAtLeastMinValue(long pValue) {
+    return pValue >= minLongValue;
+  }
+
+  /**
+   * Checks if the given value is less than or equal to the maximum value.
+   */
+  boolean isAtMostMaxValue(long pValue) {
+    return pValue <= maxLongValue;
+  }
+
   public BitVectorInterval getRange() {
     return BitVectorInterval.of(this, minValue, maxValue);
   }
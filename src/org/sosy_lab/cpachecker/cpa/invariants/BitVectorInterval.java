@@ -36,19 +36,38 @@ import com.google.common.base.Preconditions;
  * concrete value or infinity. In case of a concrete value, the bound is assumed
  * to be included in the range.
  *
+ * If both bounds fit into a long, which is the common case,
+ * they are stored as primitive longs and the comparisons are done on these,
+ * the BigInteger bounds are only created on demand.
+ *
  * All instances of this class are immutable.
  */
 public class BitVectorInterval implements BitVectorType {
 
   /**
-   * The lower bound of the interval.
+   * The lower bound of the interval, created lazily if the bounds fit into a long.
+   */
+  private BigInteger lowerBound;
+
+  /**
+   * The upper bound of the interval, created lazily if the bounds fit into a long.
+   */
+  private BigInteger upperBound;
+
+  /**
+   * Whether or not both bounds fit into a long.
+   */
+  private final boolean longBounds;
+
+  /**
+   * The lower bound of the interval, if both bounds fit into a long.
    */
-  private final BigInteger lowerBound;
+  private final long lowerLong;
 
   /**
-   * The upper bound of the interval.
+   * The upper bound of the interval, if both bounds fit into a long.
    */
-  private final BigInteger upperBound;
+  private final long upperLong;
 
   /**
    * Size and signedness.
@@ -75,6 +94,29 @@ public class BitVectorInterval implements BitVectorType {
     info = pInfo;
     lowerBound = pLowerBound;
     upperBound = pUpperBound;
+    longBounds = pLowerBound.bitLength() < Long.SIZE && pUpperBound.bitLength() < Long.SIZE;
+    lowerLong = longBounds ? pLowerBound.longValue() : 0;
+    upperLong = longBounds ? pUpperBound.longValue() : 0;
+  }
+
+  /**
+   * Creates a new interval from the given lower bound to the given upper bound.
+   *
+   * The lower bound must be a value less than or equal to the upper bound.
+   *
+   * @param pLowerBound the lower bound of the interval.
+   * @param pUpperBound the upper bound of the interval.
+   */
+  private BitVectorInterval(BitVectorInfo pInfo, long pLowerBound, long pUpperBound) {
+    checkNotNull(pInfo);
+    checkArgument(pLowerBound <= pUpperBound, "lower endpoint greater than upper end point");
+    checkArgument(pInfo.isAtLeastMinValue(pLowerBound), "lower bound must fit the bit vector");
+    checkArgument(pInfo.isAtMostMaxValue(pUpperBound), "upper bound must fit the bit vector");
+
+    info = pInfo;
+    longBounds = true;
+    lowerLong = pLowerBound;
+    upperLong = pUpperBound;
   }
 
   /**
@@ -91,14 +133,51 @@ public class BitVectorInterval implements BitVectorType {
    * Return lower bound (may only be called if {@link #hasLowerBound()} returns true.
    */
   public BigInteger getLowerBound() {
-    return lowerBound;
+    BigInteger result = lowerBound;
+    if (result == null) {
+      // BigInteger is immutable, so it does not matter if two threads create it concurrently
+      result = BigInteger.valueOf(lowerLong);
+      lowerBound = result;
+    }
+    return result;
   }
 
   /**
    * Return upper bound (may only be called if {@link #hasUpperBound()} returns true.
    */
   public BigInteger getUpperBound() {
-    return upperBound;
+    BigInteger result = upperBound;
+    if (result == null) {
+      result = BigInteger.valueOf(upperLong);
+      upperBound = result;
+    }
+    return result;
+  }
+
+  /**
+   * Checks if both bounds of this interval fit into a long,
+   * such that {@link #getLowerBoundAsLong()} and {@link #getUpperBoundAsLong()} may be called.
+   *
+   * @return <code>true</code> if both bounds fit into a long, <code>false</code> otherwise.
+   */
+  public boolean hasLongBounds() {
+    return longBounds;
+  }
+
+  /**
+   * Return lower bound (may only be called if {@link #hasLongBounds()} returns true.
+   */
+  public long getLowerBoundAsLong() {
+    checkState(longBounds);
+    return lowerLong;
+  }
+
+  /**
+   * Return upper bound (may only be called if {@link #hasLongBounds()} returns true.
+   */
+  public long getUpperBoundAsLong() {
+    checkState(longBounds);
+    return upperLong;
   }
 
   /**
@@ -132,8 +211,12 @@ public class BitVectorInterval implements BitVectorType {
     if (pOther.isSingleton() || contains(pOther)) {
       return pOther;
     }
+    if (longBounds && pOther.longBounds) {
+      return new BitVectorInterval(info,
+          Math.max(lowerLong, pOther.lowerLong), Math.min(upperLong, pOther.upperLong));
+    }
     // The lower bound of this interval is a candidate for the new lower bound
-    BigInteger lowerBound = this.lowerBound;
+    BigInteger lowerBound = getLowerBound();
 
     // The lower bound of the other interval is a candidate as well
     BigInteger otherLowerBound = pOther.getLowerBound();
@@ -143,7 +226,7 @@ public class BitVectorInterval implements BitVectorType {
     lowerBound = lowerBound.max(otherLowerBound);
 
     // The upper bound of this interval is a candidate for the new lower bound
-    BigInteger upperBound = this.upperBound;
+    BigInteger upperBound = getUpperBound();
     // The upper bound of the other interval is a candidate as well
     BigInteger otherUpperBound = pOther.getUpperBound();
     /*
@@ -156,12 +239,18 @@ public class BitVectorInterval implements BitVectorType {
 
   public BitVectorInterval getNegativePart() {
     Preconditions.checkArgument(containsNegative(), "This interval has no negative part.");
-    return BitVectorInterval.of(info, lowerBound, BigInteger.valueOf(-1).min(upperBound));
+    if (longBounds) {
+      return new BitVectorInterval(info, lowerLong, Math.min(-1L, upperLong));
+    }
+    return BitVectorInterval.of(info, getLowerBound(), BigInteger.valueOf(-1).min(getUpperBound()));
   }
 
   public BitVectorInterval getPositivePart() {
     Preconditions.checkArgument(containsPositive(), "This interval has no positive part.");
-    return BitVectorInterval.of(info, BigInteger.ONE.max(lowerBound), upperBound);
+    if (longBounds) {
+      return new BitVectorInterval(info, Math.max(1L, lowerLong), upperLong);
+    }
+    return BitVectorInterval.of(info, BigInteger.ONE.max(getLowerBound()), getUpperBound());
   }
 
   /**
@@ -186,6 +275,9 @@ public class BitVectorInterval implements BitVectorType {
    * positive value, <code>false</code> otherwise.
    */
   public boolean containsPositive() {
+    if (longBounds) {
+      return upperLong > 0;
+    }
     return upperBound.signum() == 1;
   }
 
@@ -195,6 +287,9 @@ public class BitVectorInterval implements BitVectorType {
    * <code>false</code> otherwise.
    */
   public boolean containsZero() {
+    if (longBounds) {
+      return upperLong >= 0 && lowerLong <= 0;
+    }
     return upperBound.signum() >= 0
         && lowerBound.signum() <= 0;
   }
@@ -205,8 +300,23 @@ public class BitVectorInterval implements BitVectorType {
    * <code>false</code> otherwise.
    */
   public boolean contains(BigInteger pValue) {
-    return upperBound.compareTo(pValue) >= 0
-        && lowerBound.compareTo(pValue) <= 0;
+    if (longBounds && pValue.bitLength() < Long.SIZE) {
+      return contains(pValue.longValue());
+    }
+    return getUpperBound().compareTo(pValue) >= 0
+        && getLowerBound().compareTo(pValue) <= 0;
+  }
+
+  /**
+   * Checks if this interval contains the given value.
+   * @return <code>true</code> if this interval contains the given value,
+   * <code>false</code> otherwise.
+   */
+  public boolean contains(long pValue) {
+    if (longBounds) {
+      return lowerLong <= pValue && pValue <= upperLong;
+    }
+    return contains(BigInteger.valueOf(pValue));
   }
 
   /**
@@ -215,6 +325,9 @@ public class BitVectorInterval implements BitVectorType {
    * negative value, <code>false</code> otherwise.
    */
   public boolean containsNegative() {
+    if (longBounds) {
+      return lowerLong < 0;
+    }
     return lowerBound.signum() == -1;
   }
 
@@ -225,7 +338,7 @@ public class BitVectorInterval implements BitVectorType {
    * @return The upper bound minus the lower bound plus one.
    */
   public BigInteger size() {
-    return upperBound.subtract(lowerBound).add(BigInteger.ONE);
+    return getUpperBound().subtract(getLowerBound()).add(BigInteger.ONE);
   }
 
   /**
@@ -237,6 +350,9 @@ public class BitVectorInterval implements BitVectorType {
    * single value, <code>false</code> otherwise.
    */
   public boolean isSingleton() {
+    if (longBounds) {
+      return lowerLong == upperLong;
+    }
     return lowerBound.equals(upperBound);
   }
 
@@ -251,8 +367,12 @@ public class BitVectorInterval implements BitVectorType {
    * @return the mathematical negation of this interval.
    */
   public BitVectorInterval negate(boolean pAllowSignedWrapAround) {
-    BigInteger newLowerBound = upperBound.negate();
-    BigInteger newUpperBound = lowerBound.negate();
+    if (longBounds && lowerLong != Long.MIN_VALUE
+        && info.isAtLeastMinValue(-upperLong) && info.isAtMostMaxValue(-lowerLong)) {
+      return new BitVectorInterval(info, -upperLong, -lowerLong);
+    }
+    BigInteger newLowerBound = getUpperBound().negate();
+    BigInteger newUpperBound = getLowerBound().negate();
 
     boolean lbExceedsBelow = newLowerBound.compareTo(info.getMinValue()) < 0;
     boolean lbExceedsAbove = !lbExceedsBelow && newLowerBound.compareTo(info.getMaxValue()) > 0;
@@ -308,6 +428,14 @@ public class BitVectorInterval implements BitVectorType {
     return BitVectorInterval.singleton(pInfo, value);
   }
 
+  public static BitVectorInterval cast(BitVectorInfo pInfo, long pLowerBound, long pUpperBound, boolean pAllowSignedWrapAround) {
+    if (pLowerBound <= pUpperBound && pInfo.isAtLeastMinValue(pLowerBound) && pInfo.isAtMostMaxValue(pUpperBound)) {
+      // If the value fits in the range, there is no problem
+      return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
+    }
+    return cast(pInfo, BigInteger.valueOf(pLowerBound), BigInteger.valueOf(pUpperBound), pAllowSignedWrapAround);
+  }
+
   public static BitVectorInterval cast(BitVectorInfo pInfo, BigInteger pLowerBound, BigInteger pUpperBound, boolean pAllowSignedWrapAround) {
     if (pLowerBound.equals(pUpperBound)) {
       return cast(pInfo, pLowerBound, pAllowSignedWrapAround);
@@ -382,10 +510,10 @@ public class BitVectorInterval implements BitVectorType {
    * allowed by the bit vector size.
    */
   public BitVectorInterval extendToMaxValue() {
-    if (upperBound.equals(info.getMaxValue())) {
+    if (getUpperBound().equals(info.getMaxValue())) {
       return this;
     }
-    return new BitVectorInterval(info, lowerBound, info.getMaxValue());
+    return new BitVectorInterval(info, getLowerBound(), info.getMaxValue());
   }
 
   /**
@@ -396,10 +524,10 @@ public class BitVectorInterval implements BitVectorType {
    * allowed by the bit vector size.
    */
   public BitVectorInterval extendToMinValue() {
-    if (lowerBound.equals(info.getMinValue())) {
+    if (getLowerBound().equals(info.getMinValue())) {
       return this;
     }
-    return new BitVectorInterval(info, info.getMinValue(), upperBound);
+    return new BitVectorInterval(info, info.getMinValue(), getUpperBound());
   }
 
   @Override
@@ -411,17 +539,46 @@ public class BitVectorInterval implements BitVectorType {
     }
 
     BitVectorInterval other = (BitVectorInterval) pObj;
+    if (longBounds || other.longBounds) {
+      return longBounds == other.longBounds
+          && lowerLong == other.lowerLong
+          && upperLong == other.upperLong;
+    }
     return Objects.equals(this.lowerBound, other.lowerBound)
         && Objects.equals(this.upperBound, other.upperBound);
   }
 
   @Override
   public int hashCode() {
+    if (longBounds) {
+      // same as Objects.hash(lowerBound, upperBound)
+      return 31 * (31 + bigIntegerHashCode(lowerLong)) + bigIntegerHashCode(upperLong);
+    }
     return Objects.hash(lowerBound, upperBound);
   }
 
+  /**
+   * Computes {@link BigInteger#hashCode()} for the given value
+   * without creating a BigInteger.
+   */
+  static int bigIntegerHashCode(long pValue) {
+    // the magnitude, as unsigned long (also for Long.MIN_VALUE)
+    long magnitude = pValue < 0 ? -pValue : pValue;
+    int high = (int) (magnitude >>> 32);
+    int low = (int) magnitude;
+    int hashCode = 0;
+    if (high != 0) {
+      hashCode = (int) (high & 0xFFFFFFFFL);
+    }
+    hashCode = (int) (31 * hashCode + (low & 0xFFFFFFFFL));
+    return hashCode * Long.signum(pValue);
+  }
+
   @Override
   public String toString() {
+    if (longBounds) {
+      return "[" + lowerLong + ", " + upperLong + "]";
+    }
     return "[" + lowerBound + ", " + upperBound + "]";
   }
 
@@ -439,8 +596,11 @@ public class BitVectorInterval implements BitVectorType {
       return false;
     }
 
-    return this.lowerBound.compareTo(pOther.lowerBound) <= 0
-        && this.upperBound.compareTo(pOther.upperBound) >= 0;
+    if (longBounds && pOther.longBounds) {
+      return lowerLong <= pOther.lowerLong && upperLong >= pOther.upperLong;
+    }
+    return this.getLowerBound().compareTo(pOther.getLowerBound()) <= 0
+        && this.getUpperBound().compareTo(pOther.getUpperBound()) >= 0;
   }
 
   /**
@@ -456,8 +616,13 @@ public class BitVectorInterval implements BitVectorType {
   public boolean touches(BitVectorInterval pOther) {
     if (pOther == null) { return false; }
     if (intersectsWith(pOther)) { return true; }
-    return pOther.upperBound.add(BigInteger.ONE).equals(this.lowerBound)
-        || this.upperBound.add(BigInteger.ONE).equals(pOther.lowerBound);
+    if (longBounds && pOther.longBounds) {
+      // an upper bound of Long.MAX_VALUE cannot be followed by a lower bound
+      return (pOther.upperLong != Long.MAX_VALUE && pOther.upperLong + 1 == lowerLong)
+          || (upperLong != Long.MAX_VALUE && upperLong + 1 == pOther.lowerLong);
+    }
+    return pOther.getUpperBound().add(BigInteger.ONE).equals(this.getLowerBound())
+        || this.getUpperBound().add(BigInteger.ONE).equals(pOther.getLowerBound());
   }
 
   /**
@@ -471,8 +636,11 @@ public class BitVectorInterval implements BitVectorType {
 
     // this is [a, b]; other is [c, d]
     // result is true if a <= d and b >= c
-    boolean aLessThanOrEqB = this.lowerBound.compareTo(other.upperBound) <= 0;
-    boolean bGreaterThanOrEqC = this.upperBound.compareTo(other.lowerBound) >= 0;
+    if (longBounds && other.longBounds) {
+      return lowerLong <= other.upperLong && upperLong >= other.lowerLong;
+    }
+    boolean aLessThanOrEqB = this.getLowerBound().compareTo(other.getUpperBound()) <= 0;
+    boolean bGreaterThanOrEqC = this.getUpperBound().compareTo(other.getLowerBound()) >= 0;
     return aLessThanOrEqB && bGreaterThanOrEqC;
   }
 
@@ -506,6 +674,10 @@ public class BitVectorInterval implements BitVectorType {
     return new BitVectorInterval(pInfo, pI, pI);
   }
 
+  public static BitVectorInterval singleton(BitVectorInfo pInfo, long pI) {
+    return new BitVectorInterval(pInfo, pI, pI);
+  }
+
   public static BitVectorInterval greaterOrEqual(BitVectorInfo pInfo, BigInteger pI) {
     return singleton(pInfo, pI).extendToMaxValue();
   }
@@ -518,28 +690,33 @@ public class BitVectorInterval implements BitVectorType {
     return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
   }
 
+  public static BitVectorInterval of(BitVectorInfo pInfo, long pLowerBound, long pUpperBound) {
+    return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
+  }
+
   /**
    * Create the smallest interval that contains two given intervals;
    */
   public static BitVectorInterval span(BitVectorInterval a, BitVectorInterval b) {
     a.checkBitVectorCompatibilityWith(b);
-    BigInteger lower;
-    if (a.lowerBound == null || b.lowerBound == null) {
-      lower = null;
-    } else {
-      lower = a.lowerBound.min(b.lowerBound);
+    if (a.longBounds && b.longBounds) {
+      long lower = Math.min(a.lowerLong, b.lowerLong);
+      long upper = Math.max(a.upperLong, b.upperLong);
+      if (lower == a.lowerLong && upper == a.upperLong) {
+        return a;
+      } else if (lower == b.lowerLong && upper == b.upperLong) {
+        return b;
+      } else {
+        return new BitVectorInterval(a.info, lower, upper);
+      }
     }
 
-    BigInteger upper;
-    if (a.upperBound == null || b.upperBound == null) {
-      upper = null;
-    } else {
-      upper = a.upperBound.max(b.upperBound);
-    }
+    BigInteger lower = a.getLowerBound().min(b.getLowerBound());
+    BigInteger upper = a.getUpperBound().max(b.getUpperBound());
 
-    if (lower == a.lowerBound && upper == a.upperBound) {
+    if (lower.equals(a.getLowerBound()) && upper.equals(a.getUpperBound())) {
       return a;
-    } else if (lower == b.lowerBound && upper == b.upperBound) {
+    } else if (lower.equals(b.getLowerBound()) && upper.equals(b.getUpperBound())) {
       return b;
     } else {
       return new BitVectorInterval(a.info, lower, upper);
@@ -0,0 +1,147 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.invariants;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.invariants.operators.bitvector.IIIOperatorFactory;
+import org.sosy_lab.cpachecker.cpa.invariants.operators.bitvector.ISIOperatorFactory;
+
+public class BitVectorIntervalTest {
+
+  private static final BitVectorInfo INT = BitVectorInfo.from(32, true);
+  private static final BitVectorInfo LONG = BitVectorInfo.from(64, true);
+  private static final BitVectorInfo UNSIGNED_LONG = BitVectorInfo.from(64, false);
+
+  private static BigInteger big(long pValue) {
+    return BigInteger.valueOf(pValue);
+  }
+
+  @Test
+  public void testLongBounds() {
+    assertTrue(BitVectorInterval.of(LONG, big(Long.MIN_VALUE), big(Long.MAX_VALUE)).hasLongBounds());
+    assertTrue(UNSIGNED_LONG.getRange().contains(Long.MAX_VALUE));
+    assertFalse(UNSIGNED_LONG.getRange().hasLongBounds());
+    assertEquals(UNSIGNED_LONG.getMaxValue(), UNSIGNED_LONG.getRange().getUpperBound());
+
+    BitVectorInterval fromLongs = BitVectorInterval.of(INT, -5, 7);
+    BitVectorInterval fromBigIntegers = BitVectorInterval.of(INT, big(-5), big(7));
+    assertEquals(fromBigIntegers, fromLongs);
+    assertEquals(fromBigIntegers.hashCode(), fromLongs.hashCode());
+    assertEquals(fromBigIntegers.toString(), fromLongs.toString());
+    assertEquals(big(-5), fromLongs.getLowerBound());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutOfRange() {
+    BitVectorInterval.of(INT, 0, 1L << 31);
+  }
+
+  @Test
+  public void testHashCodeLikeBigInteger() {
+    Random random = new Random(0);
+    long[] values = {0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 1L << 32, -(1L << 32),
+        Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+    for (long value : values) {
+      assertEquals(big(value).hashCode(), BitVectorInterval.bigIntegerHashCode(value));
+    }
+    for (int i = 0; i < 1000; i++) {
+      long value = random.nextLong() >> random.nextInt(64);
+      assertEquals(big(value).hashCode(), BitVectorInterval.bigIntegerHashCode(value));
+      BitVectorInterval interval = BitVectorInterval.singleton(LONG, value);
+      assertEquals(Objects.hash(big(value), big(value)), interval.hashCode());
+    }
+  }
+
+  @Test
+  public void testTouchesAtLongBoundaries() {
+    BitVectorInterval upper = BitVectorInterval.of(LONG, 10, Long.MAX_VALUE);
+    BitVectorInterval lower = BitVectorInterval.of(LONG, Long.MIN_VALUE, 5);
+    assertFalse(upper.touches(lower));
+    assertFalse(lower.touches(upper));
+
+    BitVectorInterval max = BitVectorInterval.singleton(LONG, Long.MAX_VALUE);
+    BitVectorInterval min = BitVectorInterval.singleton(LONG, Long.MIN_VALUE);
+    assertFalse(max.touches(min));
+    assertFalse(min.touches(max));
+
+    BitVectorInterval belowMax = BitVectorInterval.of(LONG, 0, Long.MAX_VALUE - 1);
+    assertTrue(belowMax.touches(max));
+    assertTrue(max.touches(belowMax));
+    BitVectorInterval aboveMin = BitVectorInterval.of(LONG, Long.MIN_VALUE + 1, 0);
+    assertTrue(aboveMin.touches(min));
+    assertTrue(min.touches(aboveMin));
+  }
+
+  @Test
+  public void testArithmeticLikeBigInteger() {
+    Random random = new Random(0);
+    for (boolean allowWrapAround : new boolean[] {false, true}) {
+      for (BitVectorInfo info : new BitVectorInfo[] {INT, LONG, UNSIGNED_LONG}) {
+        for (int i = 0; i < 1000; i++) {
+          BitVectorInterval a = randomInterval(random, info);
+          BitVectorInterval b = randomInterval(random, info);
+          BigInteger c = big(random.nextLong() >> random.nextInt(64));
+
+          assertEquals(
+              BitVectorInterval.cast(info,
+                  a.getLowerBound().add(b.getLowerBound()), a.getUpperBound().add(b.getUpperBound()),
+                  allowWrapAround),
+              IIIOperatorFactory.INSTANCE.getAdd(allowWrapAround).apply(a, b));
+          assertEquals(
+              BitVectorInterval.cast(info, a.getLowerBound().add(c), a.getUpperBound().add(c), allowWrapAround),
+              ISIOperatorFactory.INSTANCE.getAdd(allowWrapAround).apply(a, c));
+
+          assertEquals(a.intersectsWith(b), b.intersectsWith(a));
+          assertEquals(a.intersectsWith(b)
+              || a.getUpperBound().add(BigInteger.ONE).equals(b.getLowerBound())
+              || b.getUpperBound().add(BigInteger.ONE).equals(a.getLowerBound()), a.touches(b));
+          assertEquals(a.getLowerBound().compareTo(b.getUpperBound()) <= 0
+              && a.getUpperBound().compareTo(b.getLowerBound()) >= 0, a.intersectsWith(b));
+          assertEquals(a.getLowerBound().compareTo(b.getLowerBound()) <= 0
+              && a.getUpperBound().compareTo(b.getUpperBound()) >= 0, a.contains(b));
+          BitVectorInterval span = BitVectorInterval.span(a, b);
+          assertEquals(a.getLowerBound().min(b.getLowerBound()), span.getLowerBound());
+          assertEquals(a.getUpperBound().max(b.getUpperBound()), span.getUpperBound());
+        }
+      }
+    }
+  }
+
+  private static BitVectorInterval randomInterval(Random pRandom, BitVectorInfo pInfo) {
+    BigInteger range = pInfo.getRange().size();
+    BigInteger x = pInfo.getMinValue().add(new BigInteger(range.bitLength() + 8, pRandom).mod(range));
+    BigInteger y = pInfo.getMinValue().add(new BigInteger(range.bitLength() + 8, pRandom).mod(range));
+    if (pRandom.nextBoolean()) {
+      // small intervals are more common
+      y = x.add(BigInteger.valueOf(pRandom.nextInt(10))).min(pInfo.getMaxValue());
+    }
+    return BitVectorInterval.of(pInfo, x.min(y), x.max(y));
+  }
+}
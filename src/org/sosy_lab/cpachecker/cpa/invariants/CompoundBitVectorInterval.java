@@ -397,15 +397,21 @@ public class CompoundBitVectorInterval implements CompoundInterval, BitVectorTyp
     }
     boolean hasLowerBound = pInterval.hasLowerBound();
     boolean hasUpperBound = pInterval.hasUpperBound();
-    BigInteger lb = hasLowerBound ? pInterval.getLowerBound() : null;
-    BigInteger ub = hasUpperBound ? pInterval.getUpperBound() : null;
+    boolean longBounds = pInterval.hasLongBounds();
     int leftInclusive = 0;
     int rightExclusive = this.intervals.length;
     while (leftInclusive < rightExclusive) {
       int index = IntMath.mean(leftInclusive, rightExclusive);
       BitVectorInterval intervalAtIndex = this.intervals[index];
-      boolean lbIndexLeqLb = !intervalAtIndex.hasLowerBound() || hasLowerBound && intervalAtIndex.getLowerBound().compareTo(lb) <= 0;
-      boolean ubIndexGeqUb = !intervalAtIndex.hasUpperBound() || hasUpperBound && intervalAtIndex.getUpperBound().compareTo(ub) >= 0;
+      final boolean lbIndexLeqLb;
+      final boolean ubIndexGeqUb;
+      if (longBounds && intervalAtIndex.hasLongBounds()) {
+        lbIndexLeqLb = intervalAtIndex.getLowerBoundAsLong() <= pInterval.getLowerBoundAsLong();
+        ubIndexGeqUb = intervalAtIndex.getUpperBoundAsLong() >= pInterval.getUpperBoundAsLong();
+      } else {
+        lbIndexLeqLb = !intervalAtIndex.hasLowerBound() || hasLowerBound && intervalAtIndex.getLowerBound().compareTo(pInterval.getLowerBound()) <= 0;
+        ubIndexGeqUb = !intervalAtIndex.hasUpperBound() || hasUpperBound && intervalAtIndex.getUpperBound().compareTo(pInterval.getUpperBound()) >= 0;
+      }
       if (lbIndexLeqLb) { // Interval at index starts before interval
         if (ubIndexGeqUb) { // Interval at index ends after interval
           return true;
@@ -473,8 +479,10 @@ public class CompoundBitVectorInterval implements CompoundInterval, BitVectorTyp
    */
   public boolean contains(long pValue) {
     if (isBottom()) { return false; }
-    BigInteger value = BigInteger.valueOf(pValue);
-    return intervalIndexOf(value) >= 0;
+    if (!info.isAtLeastMinValue(pValue) || !info.isAtMostMaxValue(pValue)) {
+      return false;
+    }
+    return contains(BitVectorInterval.singleton(info, pValue));
   }
 
   /**
@@ -1867,7 +1875,7 @@ public class CompoundBitVectorInterval implements CompoundInterval, BitVectorTyp
    * @return a compound state representing the given long value.
    */
   public static CompoundBitVectorInterval singleton(BitVectorInfo pInfo, long pValue) {
-    return singleton(pInfo, BigInteger.valueOf(pValue));
+    return CompoundBitVectorInterval.of(BitVectorInterval.singleton(pInfo, pValue));
   }
 
   /**
@@ -26,12 +26,15 @@ package org.sosy_lab.cpachecker.cpa.invariants;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
+import org.sosy_lab.cpachecker.cpa.invariants.formula.FormulaInternerTest;
 import org.sosy_lab.cpachecker.cpa.invariants.operators.mathematical.IIIOperatorTest;
 import org.sosy_lab.cpachecker.cpa.invariants.operators.mathematical.ISIOperatorTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({
+  BitVectorIntervalTest.class,
   CompoundMathematicalIntervalTest.class,
+  FormulaInternerTest.class,
   SimpleIntervalTest.class,
   IIIOperatorTest.class,
   ISIOperatorTest.class})
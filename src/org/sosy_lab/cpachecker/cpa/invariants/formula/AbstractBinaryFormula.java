@@ -37,6 +37,8 @@ public abstract class AbstractBinaryFormula<ConstantType> extends AbstractFormul
     // isCommutative is TRUE for "=", "+", "*" and FALSE for "-", "/", "<".
     private final boolean isCommutative;
 
+    private final int hashCode;
+
     /**
      * Creates a new formula with two operands.
      *
@@ -53,6 +55,9 @@ public abstract class AbstractBinaryFormula<ConstantType> extends AbstractFormul
       this.isCommutative = pIsCommutative;
       this.operand1 = pOperand1;
       this.operand2 = pOperand2;
+      this.hashCode = 31 * pOperator.hashCode()
+          + pOperand1.hashCode() * pOperand2.hashCode()
+          + 43 * pOperand1.getBitVectorInfo().hashCode();
     }
 
    public NumeralFormula<ConstantType> getOperand1() {
@@ -73,6 +78,9 @@ public abstract class AbstractBinaryFormula<ConstantType> extends AbstractFormul
      }
      if (this.getClass().equals(o.getClass())) { // equality for subclasses
        AbstractBinaryFormula<?> other = (AbstractBinaryFormula<?>) o;
+       if (hashCode != other.hashCode) {
+         return false;
+       }
        if (!getBitVectorInfo().equals(other.getBitVectorInfo())) {
          return false;
        }
@@ -90,9 +98,7 @@ public abstract class AbstractBinaryFormula<ConstantType> extends AbstractFormul
 
    @Override
    public int hashCode() {
-     return 31 * operator.hashCode()
-         + getOperand1().hashCode() * getOperand2().hashCode()
-         + 43 * getBitVectorInfo().hashCode();
+     return hashCode;
    }
 
    @Override
@@ -78,7 +78,7 @@ public class Add<ConstantType> extends AbstractBinaryFormula<ConstantType> imple
    * @return the sum of the given formulae.
    */
   static <ConstantType> Add<ConstantType> of(NumeralFormula<ConstantType> pSummand1, NumeralFormula<ConstantType> pSummand2) {
-    return new Add<>(pSummand1, pSummand2);
+    return FormulaInterner.intern(new Add<>(pSummand1, pSummand2));
   }
 
 }
@@ -61,7 +61,7 @@ public class BinaryAnd<ConstantType> extends AbstractBinaryFormula<ConstantType>
    * @return the binary and operation over the given operands.
    */
   static <ConstantType> BinaryAnd<ConstantType> of(NumeralFormula<ConstantType> pOperand1, NumeralFormula<ConstantType> pOperand2) {
-    return new BinaryAnd<>(pOperand1, pOperand2);
+    return FormulaInterner.intern(new BinaryAnd<>(pOperand1, pOperand2));
   }
 
 }
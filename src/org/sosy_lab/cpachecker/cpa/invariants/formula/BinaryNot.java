@@ -35,6 +35,8 @@ public class BinaryNot<ConstantType> extends AbstractFormula<ConstantType> imple
    */
   final NumeralFormula<ConstantType> flipped;
 
+  private final int hashCode;
+
   /**
    * Creates a new binary negation formula over the given operand.
    *
@@ -43,6 +45,7 @@ public class BinaryNot<ConstantType> extends AbstractFormula<ConstantType> imple
   private BinaryNot(NumeralFormula<ConstantType> pToFlip) {
     super(pToFlip.getBitVectorInfo());
     this.flipped = pToFlip;
+    this.hashCode = ~getFlipped().hashCode();
   }
 
   /**
@@ -64,7 +67,7 @@ public class BinaryNot<ConstantType> extends AbstractFormula<ConstantType> imple
     if (this == o) {
       return true;
     }
-    if (o instanceof BinaryNot<?>) {
+    if (o instanceof BinaryNot<?> && o.hashCode() == hashCode) {
       return getFlipped().equals(((BinaryNot<?>) o).getFlipped());
     }
     return false;
@@ -72,7 +75,7 @@ public class BinaryNot<ConstantType> extends AbstractFormula<ConstantType> imple
 
   @Override
   public int hashCode() {
-    return ~getFlipped().hashCode();
+    return hashCode;
   }
 
   @Override
@@ -94,7 +97,7 @@ public class BinaryNot<ConstantType> extends AbstractFormula<ConstantType> imple
    * @return the binary negation of the given formula.
    */
   static <ConstantType> BinaryNot<ConstantType> of(NumeralFormula<ConstantType> pToFlip) {
-    return new BinaryNot<>(pToFlip);
+    return FormulaInterner.intern(new BinaryNot<>(pToFlip));
   }
 
 }
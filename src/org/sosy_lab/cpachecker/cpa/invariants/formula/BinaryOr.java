@@ -63,7 +63,7 @@ public class BinaryOr<ConstantType> extends AbstractBinaryFormula<ConstantType>
    * given operands.
    */
   static <ConstantType> BinaryOr<ConstantType> of(NumeralFormula<ConstantType> pOperand1, NumeralFormula<ConstantType> pOperand2) {
-    return new BinaryOr<>(pOperand1, pOperand2);
+    return FormulaInterner.intern(new BinaryOr<>(pOperand1, pOperand2));
   }
 
 }
@@ -58,7 +58,7 @@ public class BinaryXor<ConstantType> extends AbstractBinaryFormula<ConstantType>
    * over the given operands.
    */
   static <ConstantType> BinaryXor<ConstantType> of(NumeralFormula<ConstantType> pOperand1, NumeralFormula<ConstantType> pOperand2) {
-    return new BinaryXor<>(pOperand1, pOperand2);
+    return FormulaInterner.intern(new BinaryXor<>(pOperand1, pOperand2));
   }
 
 }
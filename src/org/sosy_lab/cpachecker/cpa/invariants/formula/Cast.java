@@ -31,9 +31,12 @@ public class Cast<ConstantType> extends AbstractFormula<ConstantType> {
 
   private final NumeralFormula<ConstantType> casted;
 
+  private final int hashCode;
+
   private Cast(BitVectorInfo pInfo, NumeralFormula<ConstantType> pCasted) {
     super(pInfo);
     this.casted = pCasted;
+    this.hashCode = Objects.hash(getBitVectorInfo(), getCasted());
   }
 
   public NumeralFormula<ConstantType> getCasted() {
@@ -50,7 +53,7 @@ public class Cast<ConstantType> extends AbstractFormula<ConstantType> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(getBitVectorInfo(), getCasted());
+    return hashCode;
   }
 
   @Override
@@ -58,7 +61,7 @@ public class Cast<ConstantType> extends AbstractFormula<ConstantType> {
     if (this == pOther) {
       return true;
     }
-    if (pOther instanceof Cast) {
+    if (pOther instanceof Cast && pOther.hashCode() == hashCode) {
       Cast<?> other = (Cast<?>) pOther;
       return getBitVectorInfo().equals(other.getBitVectorInfo())
           && getCasted().equals(other.getCasted());
@@ -78,7 +81,7 @@ public class Cast<ConstantType> extends AbstractFormula<ConstantType> {
   }
 
   public static <ConstantType> Cast<ConstantType> of(BitVectorInfo pBitVectorInfo, NumeralFormula<ConstantType> pCasted) {
-    return new Cast<>(pBitVectorInfo, pCasted);
+    return FormulaInterner.intern(new Cast<>(pBitVectorInfo, pCasted));
   }
 
 }
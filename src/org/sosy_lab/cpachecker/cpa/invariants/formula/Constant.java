@@ -42,6 +42,8 @@ public class Constant<T> extends AbstractFormula<T> implements NumeralFormula<T>
    */
   private final T value;
 
+  private final int hashCode;
+
   /**
    * Creates a new constant with the given value.
    *
@@ -54,6 +56,7 @@ public class Constant<T> extends AbstractFormula<T> implements NumeralFormula<T>
       Preconditions.checkArgument(pInfo.equals(((BitVectorType) pValue).getBitVectorInfo()));
     }
     this.value = pValue;
+    this.hashCode = Objects.hash(getBitVectorInfo(), getValue());
   }
 
   /**
@@ -75,7 +78,7 @@ public class Constant<T> extends AbstractFormula<T> implements NumeralFormula<T>
     if (this == pOther) {
       return true;
     }
-    if (pOther instanceof Constant) {
+    if (pOther instanceof Constant && pOther.hashCode() == hashCode) {
       Constant<?> other = (Constant<?>) pOther;
       return getBitVectorInfo().equals(other.getBitVectorInfo())
           && getValue().equals(other.getValue());
@@ -85,7 +88,7 @@ public class Constant<T> extends AbstractFormula<T> implements NumeralFormula<T>
 
   @Override
   public int hashCode() {
-    return Objects.hash(getBitVectorInfo(), getValue());
+    return hashCode;
   }
 
   @Override
@@ -107,7 +110,7 @@ public class Constant<T> extends AbstractFormula<T> implements NumeralFormula<T>
    * @return a invariants formula representing a constant with the given value.
    */
   static <T> Constant<T> of(BitVectorInfo pInfo, T pValue) {
-    return new Constant<>(pInfo, pValue);
+    return FormulaInterner.intern(new Constant<>(pInfo, pValue));
   }
 
   /**
@@ -118,7 +121,7 @@ public class Constant<T> extends AbstractFormula<T> implements NumeralFormula<T>
    * @return a invariants formula representing a constant with the given value.
    */
   static <T extends BitVectorType> Constant<T> of(T pValue) {
-    return new Constant<>(pValue.getBitVectorInfo(), pValue);
+    return FormulaInterner.intern(new Constant<>(pValue.getBitVectorInfo(), pValue));
   }
 
 }
@@ -82,7 +82,7 @@ public class Divide<ConstantType> extends AbstractBinaryFormula<ConstantType> im
    * numerator formula by the given denominator formula.
    */
   static <ConstantType> Divide<ConstantType> of(NumeralFormula<ConstantType> pNumerator, NumeralFormula<ConstantType> pDenominator) {
-    return new Divide<>(pNumerator, pDenominator);
+    return FormulaInterner.intern(new Divide<>(pNumerator, pDenominator));
   }
 
 }
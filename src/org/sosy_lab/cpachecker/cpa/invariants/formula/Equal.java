@@ -42,6 +42,8 @@ public class Equal<ConstantType> implements BooleanFormula<ConstantType> {
    */
   private final NumeralFormula<ConstantType> operand2;
 
+  private final int hashCode;
+
   /**
    * Creates a new equation over the given operands.
    *
@@ -53,6 +55,8 @@ public class Equal<ConstantType> implements BooleanFormula<ConstantType> {
     Preconditions.checkArgument(pOperand1.getBitVectorInfo().equals(pOperand2.getBitVectorInfo()));
     this.operand1 = pOperand1;
     this.operand2 = pOperand2;
+    // symmetric, because equals does not depend on the order of the operands
+    this.hashCode = getOperand1().hashCode() + getOperand2().hashCode();
   }
 
   public NumeralFormula<ConstantType> getOperand1() {
@@ -68,7 +72,7 @@ public class Equal<ConstantType> implements BooleanFormula<ConstantType> {
     if (this == o) {
       return true;
     }
-    if (o instanceof Equal) {
+    if (o instanceof Equal && o.hashCode() == hashCode) {
       Equal<?> other = (Equal<?>) o;
       return getOperand1().equals(other.getOperand1()) && getOperand2().equals(other.getOperand2())
           || getOperand1().equals(other.getOperand2()) && getOperand2().equals(other.getOperand1());
@@ -78,7 +82,7 @@ public class Equal<ConstantType> implements BooleanFormula<ConstantType> {
 
   @Override
   public int hashCode() {
-    return 31 * getOperand1().hashCode() + getOperand2().hashCode();
+    return hashCode;
   }
 
   @Override
@@ -108,7 +112,7 @@ public class Equal<ConstantType> implements BooleanFormula<ConstantType> {
    * operands.
    */
   static <ConstantType> Equal<ConstantType> of(NumeralFormula<ConstantType> pOperand1, NumeralFormula<ConstantType> pOperand2) {
-    return new Equal<>(pOperand1, pOperand2);
+    return FormulaInterner.intern(new Equal<>(pOperand1, pOperand2));
   }
 
 }
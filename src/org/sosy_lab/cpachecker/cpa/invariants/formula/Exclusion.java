@@ -28,9 +28,12 @@ public class Exclusion<ConstantType> extends AbstractFormula<ConstantType> imple
 
   private final NumeralFormula<ConstantType> excluded;
 
+  private final int hashCode;
+
   private Exclusion(NumeralFormula<ConstantType> pExcluded) {
     super(pExcluded.getBitVectorInfo());
     this.excluded = pExcluded;
+    this.hashCode = ~getExcluded().hashCode();
   }
 
   public NumeralFormula<ConstantType> getExcluded() {
@@ -44,7 +47,7 @@ public class Exclusion<ConstantType> extends AbstractFormula<ConstantType> imple
 
   @Override
   public int hashCode() {
-    return ~getExcluded().hashCode();
+    return hashCode;
   }
 
   @Override
@@ -52,7 +55,7 @@ public class Exclusion<ConstantType> extends AbstractFormula<ConstantType> imple
     if (this == pO) {
       return true;
     }
-    if (pO instanceof Exclusion) {
+    if (pO instanceof Exclusion && pO.hashCode() == hashCode) {
       return getExcluded().equals(((Exclusion<?>) pO).getExcluded());
     }
     return false;
@@ -70,7 +73,7 @@ public class Exclusion<ConstantType> extends AbstractFormula<ConstantType> imple
   }
 
   public static <ConstantType> NumeralFormula<ConstantType> of(NumeralFormula<ConstantType> pToExclude) {
-    return new Exclusion<>(pToExclude);
+    return FormulaInterner.intern(new Exclusion<>(pToExclude));
   }
 
 }
@@ -0,0 +1,88 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.invariants.formula;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Hash-consing table shared by all invariants formula factories.
+ *
+ * Every formula node is created by the static <code>of</code> method of its
+ * class, which passes the new node through {@link #intern(Object)}.
+ * Structurally equal formulae are therefore represented by the same
+ * instance as long as any of them is reachable,
+ * so that the equality checks of the merge and stop operators
+ * usually succeed by reference comparison,
+ * and that the operands of a node only need to be compared by reference
+ * once their hash codes match.
+ * The table holds its entries weakly and does not prevent garbage collection
+ * of formulae that are no longer used.
+ *
+ * Commutative formulae are equal to their mirrored versions,
+ * but a mirrored instance is never returned instead of the requested one:
+ * otherwise the operand order seen by the simplifying visitors would depend
+ * on which formulae happen to be still alive.
+ */
+final class FormulaInterner {
+
+  private static final Interner<Object> INTERNER = Interners.newWeakInterner();
+
+  private FormulaInterner() {
+  }
+
+  /**
+   * Gets the canonical instance of the given formula.
+   *
+   * @param pFormula the formula to intern.
+   *
+   * @return a formula equal to the given one that is shared
+   * by all equal formulae interned before.
+   */
+  @SuppressWarnings("unchecked")
+  static <T> T intern(T pFormula) {
+    // Equal formulae are always of the same class
+    T interned = (T) INTERNER.intern(pFormula);
+    if (interned == pFormula || haveSameOperandOrder(interned, pFormula)) {
+      return interned;
+    }
+    return pFormula;
+  }
+
+  private static boolean haveSameOperandOrder(Object pFormula1, Object pFormula2) {
+    if (pFormula1 instanceof AbstractBinaryFormula) {
+      return ((AbstractBinaryFormula<?>) pFormula1).getOperand1().equals(
+          ((AbstractBinaryFormula<?>) pFormula2).getOperand1());
+    }
+    if (pFormula1 instanceof Equal) {
+      return ((Equal<?>) pFormula1).getOperand1().equals(((Equal<?>) pFormula2).getOperand1());
+    }
+    if (pFormula1 instanceof LogicalAnd) {
+      return ((LogicalAnd<?>) pFormula1).getOperand1().equals(
+          ((LogicalAnd<?>) pFormula2).getOperand1());
+    }
+    return true;
+  }
+
+}
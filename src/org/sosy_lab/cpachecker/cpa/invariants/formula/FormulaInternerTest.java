@@ -0,0 +1,95 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.invariants.formula;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.invariants.BitVectorInfo;
+import org.sosy_lab.cpachecker.cpa.invariants.CompoundBitVectorInterval;
+import org.sosy_lab.cpachecker.cpa.invariants.CompoundInterval;
+
+public class FormulaInternerTest {
+
+  private static final BitVectorInfo INT = BitVectorInfo.from(32, true);
+
+  private static final InvariantsFormulaManager FMGR = InvariantsFormulaManager.INSTANCE;
+
+  private static NumeralFormula<CompoundInterval> constant(long pValue) {
+    return FMGR.<CompoundInterval>asConstant(INT, CompoundBitVectorInterval.singleton(INT, pValue));
+  }
+
+  private static NumeralFormula<CompoundInterval> variable(String pName) {
+    return FMGR.<CompoundInterval>asVariable(INT, pName);
+  }
+
+  @Test
+  public void testEqualFormulaeAreShared() {
+    NumeralFormula<CompoundInterval> sum1 = FMGR.add(variable("x"), constant(1));
+    NumeralFormula<CompoundInterval> sum2 = FMGR.add(variable("x"), constant(1));
+    assertSame(sum1, sum2);
+    assertSame(FMGR.lessThan(sum1, variable("y")), FMGR.lessThan(sum2, variable("y")));
+    assertSame(FMGR.logicalNot(FMGR.equal(sum1, constant(0))),
+        FMGR.logicalNot(FMGR.equal(sum2, constant(0))));
+  }
+
+  @Test
+  public void testDifferentFormulae() {
+    NumeralFormula<CompoundInterval> sum1 = FMGR.add(variable("x"), constant(1));
+    NumeralFormula<CompoundInterval> sum2 = FMGR.add(variable("x"), constant(2));
+    assertNotSame(sum1, sum2);
+    assertFalse(sum1.equals(sum2));
+    assertFalse(variable("x").equals(FMGR.asVariable(BitVectorInfo.from(64, true), "x")));
+  }
+
+  @Test
+  public void testOperandOrderIsKept() {
+    NumeralFormula<CompoundInterval> x = variable("x");
+    NumeralFormula<CompoundInterval> y = variable("y");
+    Add<CompoundInterval> xy = (Add<CompoundInterval>) FMGR.add(x, y);
+    Add<CompoundInterval> yx = (Add<CompoundInterval>) FMGR.add(y, x);
+    assertEquals(xy, yx);
+    assertEquals(xy.hashCode(), yx.hashCode());
+    assertSame(x, xy.getSummand1());
+    assertSame(y, yx.getSummand1());
+  }
+
+  @Test
+  public void testMirroredOperands() {
+    NumeralFormula<CompoundInterval> x = variable("x");
+    NumeralFormula<CompoundInterval> y = variable("y");
+    BooleanFormula<CompoundInterval> xEqualsY = FMGR.equal(x, y);
+    BooleanFormula<CompoundInterval> yEqualsX = FMGR.equal(y, x);
+    assertEquals(xEqualsY, yEqualsX);
+    assertEquals(xEqualsY.hashCode(), yEqualsX.hashCode());
+
+    BooleanFormula<CompoundInterval> xLessThanY = FMGR.lessThan(x, y);
+    BooleanFormula<CompoundInterval> conjunction1 = FMGR.logicalAnd(xEqualsY, xLessThanY);
+    BooleanFormula<CompoundInterval> conjunction2 = FMGR.logicalAnd(xLessThanY, yEqualsX);
+    assertEquals(conjunction1, conjunction2);
+    assertEquals(conjunction1.hashCode(), conjunction2.hashCode());
+    assertFalse(xLessThanY.equals(FMGR.lessThan(y, x)));
+  }
+
+}
@@ -35,6 +35,8 @@ public class IfThenElse<ConstantType> extends AbstractFormula<ConstantType> {
 
   private final NumeralFormula<ConstantType> negativeCase;
 
+  private final int hashCode;
+
   private IfThenElse(
       BooleanFormula<ConstantType> pCondition,
       NumeralFormula<ConstantType> pPositiveCase,
@@ -46,6 +48,7 @@ public class IfThenElse<ConstantType> extends AbstractFormula<ConstantType> {
     this.condition = pCondition;
     this.positiveCase = pPositiveCase;
     this.negativeCase = pNegativeCase;
+    this.hashCode = Objects.hash(getCondition(), getPositiveCase(), getNegativeCase());
   }
 
   public BooleanFormula<ConstantType> getCondition() {
@@ -67,7 +70,7 @@ public class IfThenElse<ConstantType> extends AbstractFormula<ConstantType> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(getCondition(), getPositiveCase(), getNegativeCase());
+    return hashCode;
   }
 
   @Override
@@ -75,7 +78,7 @@ public class IfThenElse<ConstantType> extends AbstractFormula<ConstantType> {
     if (this == pOther) {
       return true;
     }
-    if (pOther instanceof IfThenElse) {
+    if (pOther instanceof IfThenElse && pOther.hashCode() == hashCode) {
       IfThenElse<?> other = (IfThenElse<?>) pOther;
       return getCondition().equals(other.getCondition())
           && getPositiveCase().equals(other.getPositiveCase())
@@ -99,7 +102,7 @@ public class IfThenElse<ConstantType> extends AbstractFormula<ConstantType> {
       BooleanFormula<ConstantType> pCondition,
       NumeralFormula<ConstantType> pPositiveCase,
       NumeralFormula<ConstantType> pNegativeCase) {
-    return new IfThenElse<>(pCondition, pPositiveCase, pNegativeCase);
+    return FormulaInterner.intern(new IfThenElse<>(pCondition, pPositiveCase, pNegativeCase));
   }
 
 }
@@ -43,6 +43,8 @@ public class LessThan<ConstantType> implements BooleanFormula<ConstantType> {
    */
   private final NumeralFormula<ConstantType> operand2;
 
+  private final int hashCode;
+
   /**
    * Creates a new less-than inequation over the given operands.
    *
@@ -54,6 +56,7 @@ public class LessThan<ConstantType> implements BooleanFormula<ConstantType> {
     Preconditions.checkArgument(pOperand1.getBitVectorInfo().equals(pOperand2.getBitVectorInfo()));
     this.operand1 = pOperand1;
     this.operand2 = pOperand2;
+    this.hashCode = 31 * getOperand1().hashCode() + getOperand2().hashCode();
   }
 
   public NumeralFormula<ConstantType> getOperand1() {
@@ -69,7 +72,7 @@ public class LessThan<ConstantType> implements BooleanFormula<ConstantType> {
     if (this == o) {
       return true;
     }
-    if (o instanceof LessThan) {
+    if (o instanceof LessThan && o.hashCode() == hashCode) {
       LessThan<?> other = (LessThan<?>) o;
       return getOperand1().equals(other.getOperand1()) && getOperand2().equals(other.getOperand2());
     }
@@ -78,7 +81,7 @@ public class LessThan<ConstantType> implements BooleanFormula<ConstantType> {
 
   @Override
   public int hashCode() {
-    return 31 * getOperand1().hashCode() + getOperand2().hashCode();
+    return hashCode;
   }
 
   @Override
@@ -108,7 +111,7 @@ public class LessThan<ConstantType> implements BooleanFormula<ConstantType> {
    * given operands.
    */
   static <ConstantType> LessThan<ConstantType> of(NumeralFormula<ConstantType> pOperand1, NumeralFormula<ConstantType> pOperand2) {
-    return new LessThan<>(pOperand1, pOperand2);
+    return FormulaInterner.intern(new LessThan<>(pOperand1, pOperand2));
   }
 
 }
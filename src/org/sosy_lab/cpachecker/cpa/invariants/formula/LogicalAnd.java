@@ -39,6 +39,8 @@ public class LogicalAnd<ConstantType> implements BooleanFormula<ConstantType> {
    */
   private final BooleanFormula<ConstantType> operand2;
 
+  private final int hashCode;
+
   /**
    * Creates a new conjunction over the given operands.
    *
@@ -50,6 +52,8 @@ public class LogicalAnd<ConstantType> implements BooleanFormula<ConstantType> {
       BooleanFormula<ConstantType> pOperand2) {
     this.operand1 = pOperand1;
     this.operand2 = pOperand2;
+    // conjunction is commutative, so the hash code must not depend on the operand order
+    this.hashCode = getOperand1().hashCode() + getOperand2().hashCode();
   }
 
   public BooleanFormula<ConstantType> getOperand1() {
@@ -65,7 +69,7 @@ public class LogicalAnd<ConstantType> implements BooleanFormula<ConstantType> {
     if (this == o) {
       return true;
     }
-    if (o instanceof LogicalAnd) {
+    if (o instanceof LogicalAnd && o.hashCode() == hashCode) {
       LogicalAnd<?> other = (LogicalAnd<?>) o;
       return getOperand1().equals(other.getOperand1()) && getOperand2().equals(other.getOperand2())
           || getOperand1().equals(other.getOperand2()) && getOperand2().equals(other.getOperand1());
@@ -75,7 +79,7 @@ public class LogicalAnd<ConstantType> implements BooleanFormula<ConstantType> {
 
   @Override
   public int hashCode() {
-    return 31 * getOperand1().hashCode() + getOperand2().hashCode();
+    return hashCode;
   }
 
   @Override
@@ -105,7 +109,7 @@ public class LogicalAnd<ConstantType> implements BooleanFormula<ConstantType> {
    * given operands.
    */
   static <ConstantType> LogicalAnd<ConstantType> of(BooleanFormula<ConstantType> pOperand1, BooleanFormula<ConstantType> pOperand2) {
-    return new LogicalAnd<>(pOperand1, pOperand2);
+    return FormulaInterner.intern(new LogicalAnd<>(pOperand1, pOperand2));
   }
 
 }
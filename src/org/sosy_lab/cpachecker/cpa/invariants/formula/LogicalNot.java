@@ -35,6 +35,8 @@ public class LogicalNot<ConstantType> implements BooleanFormula<ConstantType> {
    */
   private final BooleanFormula<ConstantType> negated;
 
+  private final int hashCode;
+
   /**
    * Creates a new logical negation of the given formula.
    *
@@ -43,6 +45,7 @@ public class LogicalNot<ConstantType> implements BooleanFormula<ConstantType> {
   private LogicalNot(BooleanFormula<ConstantType> pToNegate) {
     Preconditions.checkNotNull(pToNegate);
     this.negated = pToNegate;
+    this.hashCode = -getNegated().hashCode();
   }
 
   /**
@@ -94,7 +97,7 @@ public class LogicalNot<ConstantType> implements BooleanFormula<ConstantType> {
     if (this == o) {
       return true;
     }
-    if (o instanceof LogicalNot) {
+    if (o instanceof LogicalNot && o.hashCode() == hashCode) {
       return getNegated().equals(((LogicalNot<?>) o).getNegated());
     }
     return false;
@@ -102,7 +105,7 @@ public class LogicalNot<ConstantType> implements BooleanFormula<ConstantType> {
 
   @Override
   public int hashCode() {
-    return -getNegated().hashCode();
+    return hashCode;
   }
 
   @Override
@@ -126,7 +129,7 @@ public class LogicalNot<ConstantType> implements BooleanFormula<ConstantType> {
    * operand.
    */
   static <ConstantType> LogicalNot<ConstantType> of(BooleanFormula<ConstantType> pToNegate) {
-    return new LogicalNot<>(pToNegate);
+    return FormulaInterner.intern(new LogicalNot<>(pToNegate));
   }
 
 }
@@ -82,7 +82,7 @@ public class Modulo<ConstantType> extends AbstractBinaryFormula<ConstantType> im
    * given operands.
    */
   static <ConstantType> Modulo<ConstantType> of(NumeralFormula<ConstantType> pNumerator, NumeralFormula<ConstantType> pDenominator) {
-    return new Modulo<>(pNumerator, pDenominator);
+    return FormulaInterner.intern(new Modulo<>(pNumerator, pDenominator));
   }
 
 }
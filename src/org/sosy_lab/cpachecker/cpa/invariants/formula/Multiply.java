@@ -82,7 +82,7 @@ public class Multiply<ConstantType> extends AbstractBinaryFormula<ConstantType>
    * factors.
    */
   static <ConstantType> Multiply<ConstantType> of(NumeralFormula<ConstantType> pFactor1, NumeralFormula<ConstantType> pFactor2) {
-    return new Multiply<>(pFactor1, pFactor2);
+    return FormulaInterner.intern(new Multiply<>(pFactor1, pFactor2));
   }
 
 }
@@ -84,7 +84,7 @@ public class ShiftLeft<ConstantType> extends AbstractBinaryFormula<ConstantType>
    */
   static <ConstantType> ShiftLeft<ConstantType> of(NumeralFormula<ConstantType> pToShift,
       NumeralFormula<ConstantType> pShiftDistance) {
-    return new ShiftLeft<>(pToShift, pShiftDistance);
+    return FormulaInterner.intern(new ShiftLeft<>(pToShift, pShiftDistance));
   }
 
 }
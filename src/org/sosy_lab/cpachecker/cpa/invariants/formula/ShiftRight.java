@@ -83,7 +83,7 @@ public class ShiftRight<ConstantType> extends AbstractBinaryFormula<ConstantType
    * given operand by the second given operand.
    */
   static <ConstantType> ShiftRight<ConstantType> of(NumeralFormula<ConstantType> pToShift, NumeralFormula<ConstantType> pShiftDistance) {
-    return new ShiftRight<>(pToShift, pShiftDistance);
+    return FormulaInterner.intern(new ShiftRight<>(pToShift, pShiftDistance));
   }
 
 }
@@ -64,7 +64,7 @@ public class Union<ConstantType> extends AbstractBinaryFormula<ConstantType> imp
    */
   public static <ConstantType> Union<ConstantType> of(NumeralFormula<ConstantType> pOperand1,
       NumeralFormula<ConstantType> pOperand2) {
-    return new Union<>(pOperand1, pOperand2);
+    return FormulaInterner.intern(new Union<>(pOperand1, pOperand2));
   }
 
 }
@@ -32,9 +32,12 @@ public class Variable<ConstantType> extends AbstractFormula<ConstantType> implem
 
   private final String name;
 
+  private final int hashCode;
+
   private Variable(BitVectorInfo pInfo, String name) {
     super(pInfo);
     this.name = name;
+    this.hashCode = Objects.hash(getBitVectorInfo(), getName());
   }
 
   public String getName() {
@@ -51,7 +54,7 @@ public class Variable<ConstantType> extends AbstractFormula<ConstantType> implem
     if (this == pOther) {
       return true;
     }
-    if (pOther instanceof Variable) {
+    if (pOther instanceof Variable && pOther.hashCode() == hashCode) {
       Variable<?> other = (Variable<?>) pOther;
       return getBitVectorInfo().equals(other.getBitVectorInfo())
           && getName().equals(other.getName());
@@ -61,7 +64,7 @@ public class Variable<ConstantType> extends AbstractFormula<ConstantType> implem
 
   @Override
   public int hashCode() {
-    return Objects.hash(getBitVectorInfo(), getName());
+    return hashCode;
   }
 
   @Override
@@ -84,6 +87,6 @@ public class Variable<ConstantType> extends AbstractFormula<ConstantType> implem
    * @return an invariants formula representing the variable with the given name.
    */
   static <ConstantType> Variable<ConstantType> of(BitVectorInfo pInfo, String pName) {
-    return new Variable<>(pInfo, pName);
+    return FormulaInterner.intern(new Variable<ConstantType>(pInfo, pName));
   }
 }
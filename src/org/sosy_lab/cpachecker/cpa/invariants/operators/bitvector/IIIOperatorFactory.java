@@ -31,6 +31,7 @@ import org.sosy_lab.cpachecker.cpa.invariants.BitVectorInterval;
 import org.sosy_lab.cpachecker.cpa.invariants.operators.Operator;
 
 import com.google.common.base.Preconditions;
+import com.google.common.math.LongMath;
 
 /**
  * This factory provides operators that can be applied to two bit-vector
@@ -78,6 +79,16 @@ public enum IIIOperatorFactory {
          * bounds for the new upper bound. If any of the summands is not
          * finite, the resulting bound isn't finite either.
          */
+        if (pOperand1.hasLongBounds() && pOperand2.hasLongBounds()) {
+          try {
+            return BitVectorInterval.cast(pOperand1.getBitVectorInfo(),
+                LongMath.checkedAdd(pOperand1.getLowerBoundAsLong(), pOperand2.getLowerBoundAsLong()),
+                LongMath.checkedAdd(pOperand1.getUpperBoundAsLong(), pOperand2.getUpperBoundAsLong()),
+                pAllowSignedWrapAround);
+          } catch (ArithmeticException e) {
+            // overflow, compute with big integers
+          }
+        }
         BigInteger lowerBound = pOperand1.getLowerBound();
         BigInteger upperBound = pOperand1.getUpperBound();
         BigInteger pLowerBound = pOperand2.getLowerBound();
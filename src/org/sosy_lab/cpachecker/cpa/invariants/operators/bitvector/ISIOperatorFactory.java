@@ -30,6 +30,8 @@ import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cpa.invariants.BitVectorInterval;
 import org.sosy_lab.cpachecker.cpa.invariants.operators.Operator;
 
+import com.google.common.math.LongMath;
+
 /**
  * This factory provides operators that can be applied to an interval operand
  * and a big integer operand, producing another interval representing the result
@@ -60,6 +62,17 @@ public enum ISIOperatorFactory {
         if (pFirstOperand.isTop() || pSecondOperand.equals(BigInteger.ZERO)) {
           return pFirstOperand;
         }
+        if (pFirstOperand.hasLongBounds() && pSecondOperand.bitLength() < Long.SIZE) {
+          long value = pSecondOperand.longValue();
+          try {
+            return BitVectorInterval.cast(pFirstOperand.getBitVectorInfo(),
+                LongMath.checkedAdd(pFirstOperand.getLowerBoundAsLong(), value),
+                LongMath.checkedAdd(pFirstOperand.getUpperBoundAsLong(), value),
+                pAllowSignedWrapAround);
+          } catch (ArithmeticException e) {
+            // overflow, compute with big integers
+          }
+        }
         BigInteger lowerBound = pFirstOperand.getLowerBound().add(pSecondOperand);
         BigInteger upperBound = pFirstOperand.getUpperBound().add(pSecondOperand);
         return BitVectorInterval.cast(pFirstOperand.getBitVectorInfo(), lowerBound, upperBound, pAllowSignedWrapAround);
@@ -119,6 +132,17 @@ public enum ISIOperatorFactory {
          * Infinite bounds stay infinite, finite bounds are multiplied with
          * the factor.
          */
+        if (pFirstOperand.hasLongBounds() && pSecondOperand.bitLength() < Long.SIZE) {
+          long value = pSecondOperand.longValue();
+          try {
+            return BitVectorInterval.cast(pFirstOperand.getBitVectorInfo(),
+                LongMath.checkedMultiply(pFirstOperand.getLowerBoundAsLong(), value),
+                LongMath.checkedMultiply(pFirstOperand.getUpperBoundAsLong(), value),
+                pAllowSignedWrapAround);
+          } catch (ArithmeticException e) {
+            // overflow, compute with big integers
+          }
+        }
         BigInteger lowerBound = pFirstOperand.getLowerBound().multiply(pSecondOperand);
         BigInteger upperBound = pFirstOperand.getUpperBound().multiply(pSecondOperand);
         return BitVectorInterval.cast(pFirstOperand.getBitVectorInfo(), lowerBound, upperBound, pAllowSignedWrapAround);
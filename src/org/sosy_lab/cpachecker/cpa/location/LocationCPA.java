@@ -27,7 +27,10 @@ import java.util.Collection;
 
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CompactCFAView;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.defaults.FlatLatticeDomain;
@@ -58,6 +61,7 @@ import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
 
 import com.google.common.base.Optional;
 
+@Options(prefix="cpa.location")
 public class LocationCPA implements ConfigurableProgramAnalysis, ConfigurableProgramAnalysisWithBAM, ProofChecker {
 
   private final LocationStateFactory stateFactory;
@@ -65,9 +69,18 @@ public class LocationCPA implements ConfigurableProgramAnalysis, ConfigurablePro
   private final LocationTransferRelation transferRelation;
   private final StopOperator stopOperator = new StopSepOperator(abstractDomain);
 
+  @Option(secure=true, description="Compute successor locations and check edges for successor computation"
+      + " with the array-based view of the CFA instead of following the edge lists of the CFA nodes."
+      + " This is only available if the CFA is not modified after its creation.")
+  private boolean useCompactCFA = false;
+
   public LocationCPA(CFA pCfa, Configuration config) throws InvalidConfigurationException {
+    config.inject(this);
     stateFactory = new LocationStateFactory(pCfa, LocationStateType.FORWARD, config);
-    transferRelation = new LocationTransferRelation(stateFactory);
+    Optional<CompactCFAView> compactView = useCompactCFA
+        ? pCfa.getCompactView()
+        : Optional.<CompactCFAView>absent();
+    transferRelation = new LocationTransferRelation(stateFactory, compactView);
 
     Optional<CFAInfo> cfaInfo = GlobalInfo.getInstance().getCFAInfo();
     if (cfaInfo.isPresent()) {
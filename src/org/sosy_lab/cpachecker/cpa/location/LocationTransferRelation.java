@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import org.sosy_lab.cpachecker.cfa.CompactCFAView;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.model.MultiEdge;
@@ -38,12 +39,55 @@ import org.sosy_lab.cpachecker.cpa.location.LocationState.LocationStateFactory;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.CFAUtils;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
 public class LocationTransferRelation implements TransferRelation {
 
   private final LocationStateFactory factory;
+  private final CompactCFAView compactView; // may be null
+
+  // If the compact view is used, the successor states are computed once and indexed
+  // by the ids of the view: the successor state of each edge (including summary edges),
+  // and the successor states of each node.
+  private final List<Collection<LocationState>> edgeSuccessorStates;
+  private final List<Collection<LocationState>> nodeSuccessorStates;
 
   public LocationTransferRelation(LocationStateFactory pFactory) {
+    this(pFactory, Optional.<CompactCFAView>absent());
+  }
+
+  public LocationTransferRelation(LocationStateFactory pFactory, Optional<CompactCFAView> pCompactView) {
     factory = pFactory;
+    compactView = pCompactView.orNull();
+
+    if (compactView == null) {
+      edgeSuccessorStates = null;
+      nodeSuccessorStates = null;
+    } else {
+      ImmutableList.Builder<Collection<LocationState>> edgeSuccessors = ImmutableList.builder();
+      for (int edge = 0; edge < compactView.getNumberOfEdges(); edge++) {
+        edgeSuccessors.add(ImmutableList.of(
+            factory.getState(compactView.getNode(compactView.getSuccessorIndex(edge)))));
+      }
+      edgeSuccessorStates = edgeSuccessors.build();
+
+      ImmutableList.Builder<Collection<LocationState>> nodeSuccessors = ImmutableList.builder();
+      for (int node = 0; node < compactView.getNumberOfNodes(); node++) {
+        int firstEdge = compactView.getFirstLeavingEdge(node);
+        int numEdges = compactView.getNumLeavingEdges(node);
+        if (numEdges == 1) {
+          nodeSuccessors.add(edgeSuccessorStates.get(firstEdge));
+        } else {
+          ImmutableList.Builder<LocationState> successors = ImmutableList.builder();
+          for (int edge = firstEdge; edge < firstEdge + numEdges; edge++) {
+            successors.addAll(edgeSuccessorStates.get(edge));
+          }
+          nodeSuccessors.add(successors.build());
+        }
+      }
+      nodeSuccessorStates = nodeSuccessors.build();
+    }
   }
 
   @Override
@@ -53,10 +97,19 @@ public class LocationTransferRelation implements TransferRelation {
     LocationState inputElement = (LocationState) element;
     CFANode node = inputElement.getLocationNode();
 
-    if (CFAUtils.allLeavingEdges(node).contains(cfaEdge)) {
+    int index = compactView != null ? compactView.getIndex(node) : CompactCFAView.NO_INDEX;
+    if (index != CompactCFAView.NO_INDEX) {
+      int edge = findLeavingEdge(index, cfaEdge);
+      if (edge != CompactCFAView.NO_INDEX) {
+        return edgeSuccessorStates.get(edge);
+      }
+
+    } else if (CFAUtils.allLeavingEdges(node).contains(cfaEdge)) {
+      // without the compact view, or node is not part of it (e.g., inside a MultiEdge)
       return Collections.singleton(factory.getState(cfaEdge.getSuccessor()));
+    }
 
-    } else if (node.getNumLeavingEdges() == 1
+    if (node.getNumLeavingEdges() == 1
         && node.getLeavingEdge(0) instanceof MultiEdge) {
       // maybe we are "entering" a MultiEdge via it's first component edge
       MultiEdge multiEdge = (MultiEdge)node.getLeavingEdge(0);
@@ -68,12 +121,40 @@ public class LocationTransferRelation implements TransferRelation {
     return Collections.emptySet();
   }
 
+  /**
+   * Get the id of the given edge in the compact view
+   * if it is a leaving edge or the leaving summary edge of the node with the given index,
+   * otherwise {@link CompactCFAView#NO_INDEX}.
+   */
+  private int findLeavingEdge(int pIndex, CFAEdge pEdge) {
+    int firstEdge = compactView.getFirstLeavingEdge(pIndex);
+    int end = firstEdge + compactView.getNumLeavingEdges(pIndex);
+    for (int edge = firstEdge; edge < end; edge++) {
+      if (pEdge.equals(compactView.getEdge(edge))) {
+        return edge;
+      }
+    }
+    int summaryEdge = compactView.getLeavingSummaryEdge(pIndex);
+    if (summaryEdge != CompactCFAView.NO_INDEX && pEdge.equals(compactView.getEdge(summaryEdge))) {
+      return summaryEdge;
+    }
+    return CompactCFAView.NO_INDEX;
+  }
+
   @Override
   public Collection<LocationState> getAbstractSuccessors(AbstractState element,
       Precision prec) throws CPATransferException {
 
     CFANode node = ((LocationState)element).getLocationNode();
 
+    if (compactView != null) {
+      int index = compactView.getIndex(node);
+      if (index != CompactCFAView.NO_INDEX) {
+        return nodeSuccessorStates.get(index);
+      }
+      // node is not part of the CFA (e.g., inside a MultiEdge), use the CFA itself
+    }
+
     List<LocationState> allSuccessors = new ArrayList<>(node.getNumLeavingEdges());
 
     for (CFANode successor : CFAUtils.successorsOf(node)) {
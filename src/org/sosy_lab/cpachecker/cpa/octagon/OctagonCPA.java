@@ -23,6 +23,8 @@
  */
 package org.sosy_lab.cpachecker.cpa.octagon;
 
+import java.util.logging.Level;
+
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -48,6 +50,7 @@ import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.octagon.OctagonFloatManager;
 import org.sosy_lab.cpachecker.util.octagon.OctagonIntManager;
+import org.sosy_lab.cpachecker.util.octagon.OctagonJavaManager;
 import org.sosy_lab.cpachecker.util.octagon.OctagonManager;
 
 @Options(prefix="cpa.octagon")
@@ -62,6 +65,10 @@ public final class OctagonCPA implements ConfigurableProgramAnalysis {
           + " library will be changed between floats and ints.")
   private String octagonLibrary = "INT";
 
+  @Option(secure=true, description="use the octagon implementation in Java instead of the native library,"
+      + " the native library is also not used if it cannot be loaded on this system")
+  private boolean useJavaImplementation = false;
+
   @Option(secure=true, name="initialPrecisionType", toUppercase=true, values={"STATIC_FULL", "REFINEABLE_EMPTY"},
       description="this option determines which initial precision should be used")
   private String precisionType = "STATIC_FULL";
@@ -88,11 +95,7 @@ public final class OctagonCPA implements ConfigurableProgramAnalysis {
     logger = log;
     OctagonDomain octagonDomain = new OctagonDomain(logger);
 
-    if (octagonLibrary.equals("FLOAT")) {
-      octagonManager = new OctagonFloatManager();
-    } else {
-      octagonManager = new OctagonIntManager();
-    }
+    octagonManager = createManager();
 
     this.transferRelation = new OctagonTransferRelation(logger, cfa.getLoopStructure().get());
 
@@ -119,6 +122,19 @@ public final class OctagonCPA implements ConfigurableProgramAnalysis {
 
   }
 
+  private OctagonManager createManager() {
+    boolean integers = !octagonLibrary.equals("FLOAT");
+    if (!useJavaImplementation) {
+      try {
+        return integers ? new OctagonIntManager() : new OctagonFloatManager();
+      } catch (UnsatisfiedLinkError e) {
+        logger.logUserException(Level.WARNING, e,
+            "Could not load the octagon library, using the Java implementation instead");
+      }
+    }
+    return new OctagonJavaManager(integers);
+  }
+
   public OctagonManager getManager() {
     return octagonManager;
   }
@@ -27,29 +27,49 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 
+import org.sosy_lab.common.Pair;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.cpa.smg.objects.SMGObject;
+import org.sosy_lab.cpachecker.util.collections.PersistentHashMap;
+import org.sosy_lab.cpachecker.util.collections.PersistentHashSet;
 
 import com.google.common.collect.ImmutableList;
 
+/**
+ * A symbolic memory graph.
+ *
+ * The graph is stored in persistent collections that are shared between an SMG and its copies,
+ * thus copying an SMG is cheap, and a modification copies only O(log n) nodes of a collection.
+ * Consequently, the views returned by the getters are unmodifiable snapshots
+ * that do not reflect later modifications of the SMG.
+ */
 public class SMG {
-  final private Set<SMGObject> objects = new HashSet<>();
-  final private Set<Integer> values = new HashSet<>();
-  final private Set<SMGEdgeHasValue> hv_edges = new HashSet<>();
-  final private Map<Integer, SMGEdgePointsTo> pt_edges = new HashMap<>();
-  final private Map<SMGObject, Boolean> object_validity = new HashMap<>();
+  private PersistentHashSet<SMGObject> objects = PersistentHashSet.of();
+  private PersistentHashSet<Integer> values = PersistentHashSet.of();
+  private PersistentHashSet<SMGEdgeHasValue> hv_edges = PersistentHashSet.of();
+  private PersistentHashMap<Integer, SMGEdgePointsTo> pt_edges = PersistentHashMap.of();
+  private PersistentHashMap<SMGObject, Boolean> object_validity = PersistentHashMap.of();
   final private NeqRelation neq = new NeqRelation();
 
+  /*
+   * Indices of the Has-Value edges by object, by field (object and offset), and by value,
+   * used to answer queries with a SMGEdgeHasValueFilter.
+   * They are updated together with hv_edges and do not take part in equals and hashCode.
+   */
+  private PersistentHashMap<SMGObject, PersistentHashSet<SMGEdgeHasValue>> hv_edges_by_object =
+      PersistentHashMap.of();
+  private PersistentHashMap<Pair<SMGObject, Integer>, PersistentHashSet<SMGEdgeHasValue>> hv_edges_by_field =
+      PersistentHashMap.of();
+  private PersistentHashMap<Integer, PersistentHashSet<SMGEdgeHasValue>> hv_edges_by_value =
+      PersistentHashMap.of();
+
   final private MachineModel machine_model;
 
   /**
@@ -73,8 +93,7 @@ public class SMG {
   public SMG(final MachineModel pMachineModel) {
     SMGEdgePointsTo nullPointer = new SMGEdgePointsTo(nullAddress, nullObject, 0);
 
-    addObject(nullObject);
-    object_validity.put(nullObject, false);
+    addObject(nullObject, false);
 
     addValue(nullAddress);
     addPointsToEdge(nullPointer);
@@ -90,12 +109,15 @@ public class SMG {
    * @param pHeap Original SMG.
    */
   public SMG(final SMG pHeap) {
-    objects.addAll(pHeap.objects);
-    values.addAll(pHeap.values);
-    hv_edges.addAll(pHeap.hv_edges);
-    pt_edges.putAll(pHeap.pt_edges);
+    objects = pHeap.objects;
+    values = pHeap.values;
+    hv_edges = pHeap.hv_edges;
+    hv_edges_by_object = pHeap.hv_edges_by_object;
+    hv_edges_by_field = pHeap.hv_edges_by_field;
+    hv_edges_by_value = pHeap.hv_edges_by_value;
+    pt_edges = pHeap.pt_edges;
 
-    object_validity.putAll(pHeap.object_validity);
+    object_validity = pHeap.object_validity;
 
     machine_model = pHeap.machine_model;
 
@@ -197,7 +219,7 @@ public class SMG {
    * @param pValue Value to remove
    */
   final public void removeValue(final Integer pValue) {
-    values.remove(pValue);
+    values = values.removeAndCopy(pValue);
     neq.removeValue(pValue);
   }
   /**
@@ -209,8 +231,8 @@ public class SMG {
    * @param pObj Object to remove
    */
   final public void removeObject(final SMGObject pObj) {
-    objects.remove(pObj);
-    object_validity.remove(pObj);
+    objects = objects.removeAndCopy(pObj);
+    object_validity = object_validity.removeAndCopy(pObj);
   }
 
   /**
@@ -222,17 +244,13 @@ public class SMG {
    */
   final public void removeObjectAndEdges(final SMGObject pObj) {
     removeObject(pObj);
-    Iterator<SMGEdgeHasValue> hv_iter = hv_edges.iterator();
-    Iterator<SMGEdgePointsTo> pt_iter = pt_edges.values().iterator();
-    while (hv_iter.hasNext()) {
-      if (hv_iter.next().getObject() == pObj) {
-        hv_iter.remove();
-      }
+    for (SMGEdgeHasValue hv : lookup(hv_edges_by_object, pObj)) {
+      removeHasValueEdge(hv);
     }
 
-    while (pt_iter.hasNext()) {
-      if (pt_iter.next().getObject() == pObj) {
-        pt_iter.remove();
+    for (SMGEdgePointsTo pt : pt_edges.asMap().values()) {
+      if (pt.getObject() == pObj) {
+        pt_edges = pt_edges.removeAndCopy(pt.getValue());
       }
     }
   }
@@ -247,8 +265,8 @@ public class SMG {
    *
    */
   final public void addObject(final SMGObject pObj, final boolean pValidity) {
-    objects.add(pObj);
-    object_validity.put(pObj, pValidity);
+    objects = objects.addAndCopy(pObj);
+    object_validity = object_validity.putAndCopy(pObj, pValidity);
   }
 
   /**
@@ -259,7 +277,7 @@ public class SMG {
    * @param pValue  Value to add.
    */
   final public void addValue(Integer pValue) {
-    values.add(pValue);
+    values = values.addAndCopy(pValue);
   }
 
   /**
@@ -270,7 +288,7 @@ public class SMG {
    * @param pEdge Points-To edge to add.
    */
   final public void addPointsToEdge(SMGEdgePointsTo pEdge) {
-    pt_edges.put(pEdge.getValue(), pEdge);
+    pt_edges = pt_edges.putAndCopy(pEdge.getValue(), pEdge);
   }
 
   /**
@@ -281,7 +299,13 @@ public class SMG {
    * @param pEdge Has-Value edge to add
    */
   final public void addHasValueEdge(SMGEdgeHasValue pEdge) {
-    hv_edges.add(pEdge);
+    PersistentHashSet<SMGEdgeHasValue> new_hv_edges = hv_edges.addAndCopy(pEdge);
+    if (new_hv_edges != hv_edges) {
+      hv_edges = new_hv_edges;
+      hv_edges_by_object = addToIndex(hv_edges_by_object, pEdge.getObject(), pEdge);
+      hv_edges_by_field = addToIndex(hv_edges_by_field, getField(pEdge), pEdge);
+      hv_edges_by_value = addToIndex(hv_edges_by_value, pEdge.getValue(), pEdge);
+    }
   }
 
   /**
@@ -292,7 +316,42 @@ public class SMG {
    * @param pEdge Has-Value edge to remove
    */
   final public void removeHasValueEdge(SMGEdgeHasValue pEdge) {
-    hv_edges.remove(pEdge);
+    PersistentHashSet<SMGEdgeHasValue> new_hv_edges = hv_edges.removeAndCopy(pEdge);
+    if (new_hv_edges != hv_edges) {
+      hv_edges = new_hv_edges;
+      hv_edges_by_object = removeFromIndex(hv_edges_by_object, pEdge.getObject(), pEdge);
+      hv_edges_by_field = removeFromIndex(hv_edges_by_field, getField(pEdge), pEdge);
+      hv_edges_by_value = removeFromIndex(hv_edges_by_value, pEdge.getValue(), pEdge);
+    }
+  }
+
+  private static Pair<SMGObject, Integer> getField(SMGEdgeHasValue pEdge) {
+    return Pair.of(pEdge.getObject(), pEdge.getOffset());
+  }
+
+  private static <K> PersistentHashMap<K, PersistentHashSet<SMGEdgeHasValue>> addToIndex(
+      PersistentHashMap<K, PersistentHashSet<SMGEdgeHasValue>> pIndex, K pKey, SMGEdgeHasValue pEdge) {
+    PersistentHashSet<SMGEdgeHasValue> edges = pIndex.get(pKey);
+    if (edges == null) {
+      edges = PersistentHashSet.of();
+    }
+    return pIndex.putAndCopy(pKey, edges.addAndCopy(pEdge));
+  }
+
+  private static <K> PersistentHashMap<K, PersistentHashSet<SMGEdgeHasValue>> removeFromIndex(
+      PersistentHashMap<K, PersistentHashSet<SMGEdgeHasValue>> pIndex, K pKey, SMGEdgeHasValue pEdge) {
+    PersistentHashSet<SMGEdgeHasValue> edges = pIndex.get(pKey);
+    if (edges == null) {
+      return pIndex;
+    }
+    edges = edges.removeAndCopy(pEdge);
+    return edges.isEmpty() ? pIndex.removeAndCopy(pKey) : pIndex.putAndCopy(pKey, edges);
+  }
+
+  private static <K> Set<SMGEdgeHasValue> lookup(
+      PersistentHashMap<K, PersistentHashSet<SMGEdgeHasValue>> pIndex, K pKey) {
+    PersistentHashSet<SMGEdgeHasValue> edges = pIndex.get(pKey);
+    return edges == null ? Collections.<SMGEdgeHasValue>emptySet() : edges.asSet();
   }
 
   /**
@@ -303,7 +362,7 @@ public class SMG {
    * @param pValue the Source of the Points-To edge to be removed
    */
   final public void removePointsToEdge(int pValue) {
-    pt_edges.remove(pValue);
+    pt_edges = pt_edges.removeAndCopy(pValue);
   }
 
   /**
@@ -321,7 +380,7 @@ public class SMG {
       throw new IllegalArgumentException("Object [" + pObject + "] not in SMG");
     }
 
-    object_validity.put(pObject, pValidity);
+    object_validity = object_validity.putAndCopy(pObject, pValidity);
   }
 
   /**
@@ -331,8 +390,13 @@ public class SMG {
    * Keeps consistency: no
    */
   public void replaceHVSet(Set<SMGEdgeHasValue> pNewHV) {
-    hv_edges.clear();
-    hv_edges.addAll(pNewHV);
+    hv_edges = PersistentHashSet.of();
+    hv_edges_by_object = PersistentHashMap.of();
+    hv_edges_by_field = PersistentHashMap.of();
+    hv_edges_by_value = PersistentHashMap.of();
+    for (SMGEdgeHasValue edge : pNewHV) {
+      addHasValueEdge(edge);
+    }
   }
 
   /**
@@ -396,7 +460,7 @@ public class SMG {
    * @return Unmodifiable view on values set.
    */
   final public Set<Integer> getValues() {
-    return Collections.unmodifiableSet(values);
+    return values.asSet();
   }
 
   /**
@@ -404,7 +468,7 @@ public class SMG {
    * @return Unmodifiable view on objects set.
    */
   final public Set<SMGObject> getObjects() {
-    return Collections.unmodifiableSet(objects);
+    return objects.asSet();
   }
 
   /**
@@ -412,17 +476,30 @@ public class SMG {
    * @return Unmodifiable view on Has-Value edges set.
    */
   final public Set<SMGEdgeHasValue> getHVEdges() {
-    return Collections.unmodifiableSet(hv_edges);
+    return hv_edges.asSet();
   }
 
   /**
    * Getter for obtaining unmodifiable view on Has-Value edges set, filtered by
    * a certain set of criteria.
+   * If the filter restricts the object or the value of the edges,
+   * the edges are looked up in an index and the result is a view, otherwise all edges are scanned.
    * @param pFilter Filtering object
    * @return A set of Has-Value edges for which the criteria in p hold
    */
   final public Set<SMGEdgeHasValue> getHVEdges(SMGEdgeHasValueFilter pFilter) {
-    return Collections.unmodifiableSet(pFilter.filterSet(hv_edges));
+    SMGObject object = pFilter.getObject();
+    Integer offset = pFilter.getOffset();
+    Integer value = pFilter.getValue();
+
+    if (object != null && offset != null) {
+      return Collections.unmodifiableSet(pFilter.filterView(lookup(hv_edges_by_field, Pair.of(object, offset))));
+    } else if (object != null) {
+      return Collections.unmodifiableSet(pFilter.filterView(lookup(hv_edges_by_object, object)));
+    } else if (value != null && !pFilter.isValueComplement()) {
+      return Collections.unmodifiableSet(pFilter.filterView(lookup(hv_edges_by_value, value)));
+    }
+    return Collections.unmodifiableSet(pFilter.filterSet(hv_edges.asSet()));
   }
 
   /**
@@ -430,7 +507,7 @@ public class SMG {
    * @return Unmodifiable view on Points-To edges set.
    */
   final public Map<Integer, SMGEdgePointsTo> getPTEdges() {
-    return Collections.unmodifiableMap(pt_edges );
+    return pt_edges.asMap();
   }
 
   /**
@@ -452,8 +529,9 @@ public class SMG {
       throw new IllegalArgumentException("Value [" + pValue + "] not in SMG");
     }
 
-    if (pt_edges.containsKey(pValue)) {
-      return pt_edges.get(pValue).getObject();
+    SMGEdgePointsTo pt = pt_edges.get(pValue);
+    if (pt != null) {
+      return pt.getObject();
     } else {
       return null;
     }
@@ -557,16 +635,10 @@ public class SMG {
 
     neq.mergeValues(pV1, pV2);
     removeValue(pV2);
-    Set<SMGEdgeHasValue> new_hv_edges = new HashSet<>();
-    for (SMGEdgeHasValue hv : hv_edges) {
-      if (hv.getValue() != pV2) {
-        new_hv_edges.add(hv);
-      } else {
-        new_hv_edges.add(new SMGEdgeHasValue(hv.getType(), hv.getOffset(), hv.getObject(), pV1));
-      }
+    for (SMGEdgeHasValue hv : lookup(hv_edges_by_value, pV2)) {
+      removeHasValueEdge(hv);
+      addHasValueEdge(new SMGEdgeHasValue(hv.getType(), hv.getOffset(), hv.getObject(), pV1));
     }
-    hv_edges.clear();
-    hv_edges.addAll(new_hv_edges);
     // TODO: Handle PT Edges: I'm not entirely sure how they should be handled
   }
 
@@ -833,6 +905,10 @@ final class SMGConsistencyVerifier {
 }
 
 final class NeqRelation {
+
+  /** Symmetric relation, values without any relation are not contained. */
+  private PersistentHashMap<Integer, PersistentHashSet<Integer>> smgValues = PersistentHashMap.of();
+
   @Override
   public int hashCode() {
     final int prime = 31;
@@ -841,11 +917,17 @@ final class NeqRelation {
     return result;
   }
 
+  private PersistentHashSet<Integer> getNeqs(Integer pV) {
+    PersistentHashSet<Integer> neqs = smgValues.get(pV);
+    return neqs == null ? PersistentHashSet.<Integer>of() : neqs;
+  }
+
+  private void setNeqs(Integer pV, PersistentHashSet<Integer> pNeqs) {
+    smgValues = pNeqs.isEmpty() ? smgValues.removeAndCopy(pV) : smgValues.putAndCopy(pV, pNeqs);
+  }
+
   public Set<Integer> getNeqsForValue(Integer pV) {
-    if (smgValues.containsKey(pV)) {
-      return Collections.unmodifiableSet(new HashSet<>(smgValues.get(pV)));
-    }
-    return Collections.unmodifiableSet(new HashSet<Integer>());
+    return getNeqs(pV).asSet();
   }
 
   @Override
@@ -870,84 +952,50 @@ final class NeqRelation {
     return true;
   }
 
-  private final Map<Integer, List<Integer>> smgValues = new HashMap<>();
-
   public void add_relation(Integer pOne, Integer pTwo) {
 
     if(pOne.intValue() == pTwo.intValue()) {
       return;
     }
 
-    if (! smgValues.containsKey(pOne)) {
-      smgValues.put(pOne, new ArrayList<Integer>());
-    }
-    if (! smgValues.containsKey(pTwo)) {
-      smgValues.put(pTwo, new ArrayList<Integer>());
-    }
-
-    if (! smgValues.get(pOne).contains(pTwo)) {
-      smgValues.get(pOne).add(pTwo);
-      smgValues.get(pTwo).add(pOne);
-    }
+    setNeqs(pOne, getNeqs(pOne).addAndCopy(pTwo));
+    setNeqs(pTwo, getNeqs(pTwo).addAndCopy(pOne));
   }
 
   public void putAll(NeqRelation pNeq) {
-    for (Integer key : pNeq.smgValues.keySet()) {
-      smgValues.put(key, new ArrayList<Integer>());
-      smgValues.get(key).addAll(pNeq.smgValues.get(key));
+    if (smgValues.isEmpty()) {
+      smgValues = pNeq.smgValues;
+      return;
+    }
+    for (Map.Entry<Integer, PersistentHashSet<Integer>> entry : pNeq.smgValues.asMap().entrySet()) {
+      smgValues = smgValues.putAndCopy(entry.getKey(), entry.getValue());
     }
   }
 
   public void remove_relation(Integer pOne, Integer pTwo) {
-    if (smgValues.containsKey(pOne) && smgValues.containsKey(pTwo)) {
-      List<Integer> listOne = smgValues.get(pOne);
-      List<Integer> listTwo = smgValues.get(pTwo);
-
-      if (listOne.contains(pTwo)) {
-        listOne.remove(pTwo);
-        listTwo.remove(pOne);
-      }
+    if (neq_exists(pOne, pTwo)) {
+      setNeqs(pOne, getNeqs(pOne).removeAndCopy(pTwo));
+      setNeqs(pTwo, getNeqs(pTwo).removeAndCopy(pOne));
     }
   }
 
   public boolean neq_exists(Integer pOne, Integer pTwo) {
-    if (smgValues.containsKey(pOne) && smgValues.get(pOne).contains(pTwo)) {
-      return true;
-    }
-    return false;
+    return getNeqs(pOne).contains(pTwo);
   }
 
   public void removeValue(Integer pOne) {
-    if (smgValues.containsKey(pOne)) {
-      for (Integer other : smgValues.get(pOne)) {
-        smgValues.get(other).remove(pOne);
-      }
-      smgValues.remove(pOne);
+    for (Integer other : getNeqs(pOne)) {
+      setNeqs(other, getNeqs(other).removeAndCopy(pOne));
     }
+    smgValues = smgValues.removeAndCopy(pOne);
   }
 
   public void mergeValues(Integer pOne, Integer pTwo) {
-    if (! smgValues.containsKey(pOne)) {
-      smgValues.put(pOne, new ArrayList<Integer>());
-    }
-    if (! smgValues.containsKey(pTwo)) {
-      smgValues.put(pTwo, new ArrayList<Integer>());
-    }
-
-    List<Integer> values = ImmutableList.copyOf(smgValues.get(pTwo));
+    List<Integer> values = ImmutableList.copyOf(getNeqs(pTwo));
     removeValue(pTwo);
 
-    List<Integer> my = smgValues.get(pOne);
     for (Integer value : values) {
-      if(!smgValues.containsKey(value)) {
-        continue;
-      }
-
-      List<Integer> other = smgValues.get(value);
-      if ((! value.equals(pOne)) && (! other.contains(pOne))) {
-        other.add(pOne);
-        my.add(value);
-      }
+      add_relation(pOne, value);
     }
   }
 }
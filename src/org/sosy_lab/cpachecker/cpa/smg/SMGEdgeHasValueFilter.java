@@ -30,6 +30,9 @@ import java.util.Set;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.cpa.smg.objects.SMGObject;
 
+import com.google.common.base.Predicate;
+import com.google.common.collect.Sets;
+
 public class SMGEdgeHasValueFilter {
 
   public static SMGEdgeHasValueFilter objectFilter(SMGObject pObject) {
@@ -73,6 +76,32 @@ public class SMGEdgeHasValueFilter {
     return this;
   }
 
+  SMGObject getObject() {
+    return object;
+  }
+
+  Integer getValue() {
+    return value;
+  }
+
+  boolean isValueComplement() {
+    return valueComplement;
+  }
+
+  Integer getOffset() {
+    return offset;
+  }
+
+  private SMGEdgeHasValueFilter copy() {
+    SMGEdgeHasValueFilter copy = new SMGEdgeHasValueFilter();
+    copy.object = object;
+    copy.value = value;
+    copy.valueComplement = valueComplement;
+    copy.offset = offset;
+    copy.type = type;
+    return copy;
+  }
+
   public boolean holdsFor(SMGEdgeHasValue pEdge) {
     if (object != null && object != pEdge.getObject()) {
       return false;
@@ -107,6 +136,20 @@ public class SMGEdgeHasValueFilter {
     return Collections.unmodifiableSet(returnSet);
   }
 
+  /**
+   * Returns a view of the edges in the given set for which the criteria hold.
+   * Later changes of this filter do not affect the view.
+   */
+  public Set<SMGEdgeHasValue> filterView(Set<SMGEdgeHasValue> pEdges) {
+    final SMGEdgeHasValueFilter filter = copy();
+    return Sets.filter(pEdges, new Predicate<SMGEdgeHasValue>() {
+      @Override
+      public boolean apply(SMGEdgeHasValue pEdge) {
+        return filter.holdsFor(pEdge);
+      }
+    });
+  }
+
   public boolean edgeContainedIn(Set<SMGEdgeHasValue> pEdges) {
 
     assert value != null;
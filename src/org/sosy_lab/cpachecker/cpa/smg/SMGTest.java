@@ -37,6 +37,8 @@ import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.cpa.smg.objects.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.objects.SMGRegion;
 
+import com.google.common.collect.ImmutableSet;
+
 
 public class SMGTest {
   private LogManager logger = TestLogManager.getInstance();
@@ -432,6 +434,35 @@ public class SMGTest {
     Assert.assertTrue(smg.getPTEdges().values().containsAll(set));
   }
 
+  @Test
+  public void getHVEdgesFromIndexTest() {
+    SMGEdgeHasValueFilter byObject = SMGEdgeHasValueFilter.objectFilter(obj2);
+    SMGEdgeHasValueFilter byField = SMGEdgeHasValueFilter.objectFilter(obj2).filterAtOffset(4);
+    SMGEdgeHasValueFilter byValue = new SMGEdgeHasValueFilter().filterHavingValue(val1);
+
+    Assert.assertEquals(ImmutableSet.of(hv2has2at0, hv2has1at4), smg.getHVEdges(byObject));
+    Assert.assertEquals(ImmutableSet.of(hv2has1at4), smg.getHVEdges(byField));
+    Assert.assertEquals(ImmutableSet.of(hv2has1at4), smg.getHVEdges(byValue));
+
+    // a copy and the view must not be affected by later changes
+    SMG copy = new SMG(smg);
+    Set<SMGEdgeHasValue> view = smg.getHVEdges(byObject);
+    smg.mergeValues(val2, val1);
+    SMGEdgeHasValue hv2has2at4 = new SMGEdgeHasValue(mockType, 4, obj2, val2);
+
+    Assert.assertEquals(ImmutableSet.of(hv2has2at0, hv2has1at4), view);
+    Assert.assertEquals(ImmutableSet.of(hv2has1at4), copy.getHVEdges(byValue));
+    Assert.assertTrue(smg.getHVEdges(byValue).isEmpty());
+    Assert.assertEquals(ImmutableSet.of(hv2has2at4), smg.getHVEdges(byField));
+    Assert.assertEquals(ImmutableSet.of(hv2has2at0, hv2has2at4),
+        smg.getHVEdges(new SMGEdgeHasValueFilter().filterHavingValue(val2)));
+
+    smg.removeObjectAndEdges(obj2);
+    Assert.assertTrue(smg.getHVEdges(byObject).isEmpty());
+    Assert.assertTrue(smg.getHVEdges().isEmpty());
+    Assert.assertEquals(ImmutableSet.of(hv2has2at0, hv2has1at4), copy.getHVEdges(byObject));
+  }
+
   @Test
   public void getObjectPointedByTest() {
     Assert.assertEquals(obj1, smg.getObjectPointedBy(val1));
@@ -56,8 +56,7 @@ public class SMGSingleLinkedListFinder implements SMGAbstractionFinder {
   @Override
   public Set<SMGAbstractionCandidate> traverse(CLangSMG pSmg) {
     smg = pSmg;
-
-    buildInboundPointers();
+    inboundPointers.clear(); // the counts belong to the previous SMG
 
     for (SMGObject object : smg.getHeapObjects()) {
       startTraversal(object);
@@ -74,10 +73,18 @@ public class SMGSingleLinkedListFinder implements SMGAbstractionFinder {
     return Collections.unmodifiableSet(returnSet);
   }
 
-  private void buildInboundPointers() {
-    for (Integer pointer : smg.getPTEdges().keySet()) {
-      inboundPointers.put(pointer, smg.getHVEdges(new SMGEdgeHasValueFilter().filterHavingValue(pointer)).size());
+  /**
+   * Get the number of has-value edges that point to the given value.
+   * The number is only computed for values that the traversal reaches as next pointers,
+   * instead of for all points-to edges of the SMG up front.
+   */
+  private int getInboundPointers(Integer pPointer) {
+    Integer count = inboundPointers.get(pPointer);
+    if (count == null) {
+      count = smg.getHVEdges(new SMGEdgeHasValueFilter().filterHavingValue(pPointer)).size();
+      inboundPointers.put(pPointer, count);
     }
+    return count;
   }
 
   private void startTraversal(SMGObject pObject) {
@@ -102,7 +109,7 @@ public class SMGSingleLinkedListFinder implements SMGAbstractionFinder {
       startTraversal(object);
     }
 
-    if (inboundPointers.get(pValue) > 1) {
+    if (getInboundPointers(pValue) > 1) {
       return;
     }
 
@@ -84,6 +84,18 @@ public class ValueAnalysisState implements AbstractQueryableState, FormulaReport
 
   private transient PersistentMap<MemoryLocation, Type> memLocToType = PathCopyingPersistentTreeMap.of();
 
+  /**
+   * Bloom-style summary of the keys of {@link #constantsMap}:
+   * for each tracked memory location, the bit {@link #getSummaryBit(MemoryLocation)} is set.
+   * If the other state tracks a location whose bit is not set here,
+   * this state cannot be less or equal than the other one.
+   * Computed lazily and reset whenever the map changes, 0 means "not yet computed".
+   */
+  private transient volatile long locationSummary = 0;
+
+  /** Cached hash code of {@link #constantsMap}, 0 means "not yet computed". */
+  private transient int hashCode = 0;
+
   public ValueAnalysisState() {
     constantsMap = PathCopyingPersistentTreeMap.of();
   }
@@ -118,7 +130,29 @@ public class ValueAnalysisState implements AbstractQueryableState, FormulaReport
       valueToAdd = ((SymbolicValue) valueToAdd).copyForLocation(pMemLoc);
     }
 
-    constantsMap = constantsMap.putAndCopy(pMemLoc, checkNotNull(valueToAdd));
+    setConstantsMap(constantsMap.putAndCopy(pMemLoc, checkNotNull(valueToAdd)));
+  }
+
+  private void setConstantsMap(PersistentMap<MemoryLocation, Value> pConstantsMap) {
+    constantsMap = pConstantsMap;
+    locationSummary = 0;
+    hashCode = 0;
+  }
+
+  private static long getSummaryBit(MemoryLocation pMemoryLocation) {
+    // Fibonacci hashing to 6 bits
+    return 1L << ((pMemoryLocation.hashCode() * 0x9E3779B9) >>> 26);
+  }
+
+  private long getLocationSummary() {
+    long summary = locationSummary;
+    if (summary == 0) {
+      for (MemoryLocation memoryLocation : constantsMap.keySet()) {
+        summary |= getSummaryBit(memoryLocation);
+      }
+      locationSummary = summary;
+    }
+    return summary;
   }
 
   /**
@@ -185,7 +219,7 @@ public class ValueAnalysisState implements AbstractQueryableState, FormulaReport
 
     Value value = constantsMap.get(pMemoryLocation);
     Type type = memLocToType.get(pMemoryLocation);
-    constantsMap = constantsMap.removeAndCopy(pMemoryLocation);
+    setConstantsMap(constantsMap.removeAndCopy(pMemoryLocation));
     memLocToType = memLocToType.removeAndCopy(pMemoryLocation);
 
     Map<MemoryLocation, Type> typeAssignment;
@@ -359,11 +393,22 @@ public class ValueAnalysisState implements AbstractQueryableState, FormulaReport
   @Override
   public boolean isLessOrEqual(ValueAnalysisState other) {
 
+    // the maps are persistent, so states that were copied from each other often share them
+    if (constantsMap == other.constantsMap) {
+      return true;
+    }
+
     // also, this element is not less or equal than the other element, if it contains less elements
     if (constantsMap.size() < other.constantsMap.size()) {
       return false;
     }
 
+    // also, this element is not less or equal than the other element,
+    // if the other element tracks a memory location that this element does not track
+    if ((other.getLocationSummary() & ~getLocationSummary()) != 0) {
+      return false;
+    }
+
     // also, this element is not less or equal than the other element,
     // if any one constant's value of the other element differs from the constant's value in this
     // element
@@ -396,12 +441,21 @@ public class ValueAnalysisState implements AbstractQueryableState, FormulaReport
 
     ValueAnalysisState otherElement = (ValueAnalysisState) other;
 
+    if (hashCode() != otherElement.hashCode()) {
+      return false;
+    }
+
     return otherElement.constantsMap.equals(constantsMap) && Objects.equals(memLocToType, otherElement.memLocToType);
   }
 
   @Override
   public int hashCode() {
-    return constantsMap.hashCode();
+    int result = hashCode;
+    if (result == 0) {
+      result = constantsMap.hashCode();
+      hashCode = result;
+    }
+    return result;
   }
 
   @Override
@@ -699,7 +753,7 @@ public class ValueAnalysisState implements AbstractQueryableState, FormulaReport
   public void forgetValuesWithIdentifier(String pIdentifier) {
     for (MemoryLocation memoryLocation : constantsMap.keySet()) {
       if (memoryLocation.getIdentifier().equals(pIdentifier)) {
-        constantsMap = constantsMap.removeAndCopy(memoryLocation);
+        setConstantsMap(constantsMap.removeAndCopy(memoryLocation));
         memLocToType = memLocToType.removeAndCopy(memoryLocation);
       }
     }
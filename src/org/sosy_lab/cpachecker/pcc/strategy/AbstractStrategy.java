@@ -54,6 +54,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.PCCStrategy;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.pcc.strategy.PipelinedProofWriter.ProofWritingStatistics;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -76,6 +77,23 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
   @IntegerOption(min=1)
   protected int numThreads = 1;
 
+  @Option(secure=true,
+      name = "proofWritingThreads",
+      description = "number of threads that serialize independent parts of the proof while another thread "
+          + "compresses and writes the proof file, 0 writes the proof sequentially on the analysis thread. "
+          + "The parts are serialized concurrently, thus all abstract states must support this.")
+  @IntegerOption(min=0)
+  private int proofWritingThreads = 0;
+
+  @Option(secure=true,
+      name = "proofWritingBufferSize",
+      description = "maximal number of serialized parts of the proof that wait for being compressed, "
+          + "bounds the memory used if pcc.proofWritingThreads is positive")
+  @IntegerOption(min=1)
+  private int proofWritingBufferSize = 8;
+
+  private final ProofWritingStatistics writingStats = new ProofWritingStatistics();
+
   public AbstractStrategy(Configuration pConfig, LogManager pLogger) throws InvalidConfigurationException {
     pConfig.inject(this, AbstractStrategy.class);
     numThreads = Math.max(1, numThreads);
@@ -86,38 +104,16 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
   }
 
   @Override
-  @SuppressFBWarnings(value="OS_OPEN_STREAM", justification="Do not close stream o because it wraps stream zos/fos which need to remain open and would be closed if o.close() is called.")
   public void writeProof(UnmodifiableReachedSet pReached) {
 
     OutputStream fos = null;
     try {
       fos = file.asByteSink().openStream();
-      ZipOutputStream zos = new ZipOutputStream(fos);
-      zos.setLevel(9);
-
-      ZipEntry ze = new ZipEntry("Proof");
-      zos.putNextEntry(ze);
-      ObjectOutputStream o = new ObjectOutputStream(zos);
-      //TODO might also want to write used configuration to the file so that proof checker does not need to get it as an argument
-      //write ARG
-      writeProofToStream(o, pReached);
-      o.flush();
-      zos.closeEntry();
-
-   // write additional proof information
-      int index = 0;
-      boolean continueWriting;
-      do{
-        ze = new ZipEntry("Additional "+index);
-        zos.putNextEntry(ze);
-        o = new ObjectOutputStream(zos);
-        continueWriting = writeAdditionalProofStream(o);
-        o.flush();
-        zos.closeEntry();
-        index++;
-      }while (continueWriting);
-
-      zos.close();
+      if (proofWritingThreads > 0) {
+        writeProofPipelined(fos, pReached);
+      } else {
+        writeProofSequentially(fos, pReached);
+      }
     } catch (NotSerializableException eS) {
       logger.log(Level.SEVERE, "Proof cannot be written. Class " + eS.getMessage() + " does not implement Serializable interface");
     } catch (IOException e) {
@@ -134,6 +130,75 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
     }
   }
 
+  @SuppressFBWarnings(value="OS_OPEN_STREAM", justification="Do not close stream o because it wraps stream zos/fos which need to remain open and would be closed if o.close() is called.")
+  private void writeProofSequentially(OutputStream fos, UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    ZipOutputStream zos = new ZipOutputStream(fos);
+    zos.setLevel(9);
+
+    ZipEntry ze = new ZipEntry("Proof");
+    zos.putNextEntry(ze);
+    ObjectOutputStream o = new ObjectOutputStream(zos);
+    //TODO might also want to write used configuration to the file so that proof checker does not need to get it as an argument
+    //write ARG
+    writeProofToStream(o, pReached);
+    o.flush();
+    zos.closeEntry();
+
+    // write additional proof information
+    int index = 0;
+    boolean continueWriting;
+    do{
+      ze = new ZipEntry("Additional "+index);
+      zos.putNextEntry(ze);
+      o = new ObjectOutputStream(zos);
+      continueWriting = writeAdditionalProofStream(o);
+      o.flush();
+      zos.closeEntry();
+      index++;
+    }while (continueWriting);
+
+    zos.close();
+  }
+
+  @SuppressFBWarnings(value="OS_OPEN_STREAM", justification="Do not close stream o because it only passes its data to the writer, which closes the file.")
+  private void writeProofPipelined(OutputStream fos, UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    try (PipelinedProofWriter writer =
+        new PipelinedProofWriter(fos, proofWritingThreads, proofWritingBufferSize, writingStats)) {
+
+      ObjectOutputStream o = new ObjectOutputStream(writer.startEntry("Proof"));
+      writeProofToStream(o, pReached);
+      o.flush();
+
+      // write additional proof information
+      if (this instanceof IndependentProofStreamsStrategy) {
+        final IndependentProofStreamsStrategy independentStreams = (IndependentProofStreamsStrategy) this;
+        for (int i = 0; i < independentStreams.getNumAdditionalProofStreams(); i++) {
+          final int index = i;
+          writer.addEntry("Additional " + index, new PipelinedProofWriter.ProofPart() {
+            @Override
+            public void write(ObjectOutputStream pOut) throws IOException {
+              independentStreams.writeAdditionalProofStream(index, pOut);
+            }
+          });
+        }
+
+      } else {
+        int index = 0;
+        boolean continueWriting;
+        do {
+          o = new ObjectOutputStream(writer.startEntry("Additional " + index));
+          continueWriting = writeAdditionalProofStream(o);
+          o.flush();
+          index++;
+        } while (continueWriting);
+      }
+
+      writer.finish();
+    }
+  }
+
   protected abstract void writeProofToStream(ObjectOutputStream out, UnmodifiableReachedSet reached)
       throws IOException, InvalidConfigurationException, InterruptedException;
 
@@ -184,6 +249,11 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
     statsCollection.addAll(pccStats);
   }
 
+  /** Get the statistics about writing the proof, which are separate from the statistics about checking it. */
+  public Statistics getProofWritingStatistics() {
+    return writingStats;
+  }
+
   public static class PCStrategyStatistics implements Statistics {
 
     protected Timer transferTimer = new Timer();
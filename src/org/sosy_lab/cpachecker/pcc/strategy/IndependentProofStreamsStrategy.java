@@ -0,0 +1,46 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+/**
+ * Interface for strategies whose additional proof streams
+ * can be written independently of each other, which allows
+ * {@link AbstractStrategy} to write them concurrently.
+ */
+public interface IndependentProofStreamsStrategy {
+
+  /**
+   * Get the number of additional proof streams.
+   */
+  int getNumAdditionalProofStreams();
+
+  /**
+   * Write the additional proof stream with the given index,
+   * may be called concurrently for different indices.
+   */
+  void writeAdditionalProofStream(int pIndex, ObjectOutputStream pOut) throws IOException;
+}
@@ -0,0 +1,311 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.concurrency.Threads;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * Writes the zip file of a proof in a pipeline.
+ * Independent parts of the proof are serialized by worker threads into buffers,
+ * while a single writer thread compresses the serialized data and writes it to the file.
+ * Data that is serialized on the calling thread is passed to the writer thread in chunks,
+ * such that serialization and compression overlap as well.
+ *
+ * The number of buffers that wait for the writer thread is bounded,
+ * the calling thread blocks if the writer thread cannot keep up.
+ * The zip entries are written in the order in which they are started.
+ */
+class PipelinedProofWriter implements AutoCloseable {
+
+  /** A part of the proof that can be serialized independently of all other parts. */
+  interface ProofPart {
+    void write(ObjectOutputStream pOut) throws IOException;
+  }
+
+  private static final int CHUNK_SIZE = 1 << 20;
+
+  /** The start of a new zip entry and/or data that belongs to the current zip entry. */
+  private static class Item {
+
+    private final @Nullable String entryName;
+    private final @Nullable Future<byte[]> data;
+
+    private Item(@Nullable String pEntryName, @Nullable Future<byte[]> pData) {
+      entryName = pEntryName;
+      data = pData;
+    }
+  }
+
+  private static final Item END = new Item(null, null);
+
+  private final BlockingQueue<Item> queue;
+  private final ExecutorService serializationExecutor;
+  private final ExecutorService writerExecutor;
+  private final Future<Void> writerResult;
+  private final ProofWritingStatistics stats;
+
+  PipelinedProofWriter(OutputStream pOut, int pSerializationThreads, int pBufferSize,
+      ProofWritingStatistics pStats) {
+    queue = new ArrayBlockingQueue<>(pBufferSize);
+    stats = pStats;
+    serializationExecutor = Executors.newFixedThreadPool(pSerializationThreads,
+        Threads.threadFactoryBuilder().setDaemon(true).build());
+    writerExecutor = Executors.newSingleThreadExecutor(Threads.threadFactoryBuilder().setDaemon(true).build());
+    writerResult = writerExecutor.submit(new Writer(pOut));
+  }
+
+  /**
+   * Start a new zip entry whose content is written to the returned stream on the calling thread.
+   * The stream needs to be flushed before the next entry is started.
+   */
+  OutputStream startEntry(String pName) throws IOException, InterruptedException {
+    put(new Item(pName, null));
+    return new ChunkingOutputStream();
+  }
+
+  /** Add a zip entry whose content is serialized by a worker thread. */
+  void addEntry(String pName, final ProofPart pPart) throws IOException, InterruptedException {
+    Future<byte[]> data = serializationExecutor.submit(new Callable<byte[]>() {
+
+      @Override
+      public byte[] call() throws IOException {
+        long start = System.nanoTime();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+          pPart.write(out);
+        }
+        stats.parallelSerializationTime.addAndGet(System.nanoTime() - start);
+        stats.parallelParts.incrementAndGet();
+        return buffer.toByteArray();
+      }
+    });
+    put(new Item(pName, data));
+  }
+
+  /** Wait until all entries are compressed and written, and close the file. */
+  void finish() throws IOException, InterruptedException {
+    put(END);
+    waitForWriter();
+  }
+
+  private void put(Item pItem) throws IOException, InterruptedException {
+    stats.waitingTimer.start();
+    try {
+      while (!queue.offer(pItem, 100, TimeUnit.MILLISECONDS)) {
+        if (writerResult.isDone()) {
+          waitForWriter();
+          throw new IOException("Proof writer stopped before the proof was completed");
+        }
+      }
+    } finally {
+      stats.waitingTimer.stop();
+    }
+  }
+
+  private void waitForWriter() throws IOException, InterruptedException {
+    try {
+      writerResult.get();
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, IOException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("writing proof", t);
+    }
+  }
+
+  @Override
+  public void close() {
+    serializationExecutor.shutdownNow();
+    writerExecutor.shutdownNow();
+  }
+
+  /** The writer thread, which takes the items from the queue and writes them to the zip file. */
+  private class Writer implements Callable<Void> {
+
+    private final OutputStream out;
+
+    private Writer(OutputStream pOut) {
+      out = pOut;
+    }
+
+    @Override
+    public Void call() throws IOException, InterruptedException {
+      try (ZipOutputStream zos = new ZipOutputStream(out)) {
+        zos.setLevel(9);
+        boolean entryOpen = false;
+
+        for (Item item = queue.take(); item != END; item = queue.take()) {
+          byte[] data = item.data == null ? null : getData(item.data);
+
+          stats.compressionTimer.start();
+          try {
+            if (item.entryName != null) {
+              if (entryOpen) {
+                zos.closeEntry();
+              }
+              zos.putNextEntry(new ZipEntry(item.entryName));
+              entryOpen = true;
+            }
+            if (data != null) {
+              zos.write(data);
+            }
+          } finally {
+            stats.compressionTimer.stop();
+          }
+        }
+
+        if (entryOpen) {
+          zos.closeEntry();
+        }
+      }
+      return null;
+    }
+
+    private byte[] getData(Future<byte[]> pData) throws IOException, InterruptedException {
+      try {
+        return pData.get();
+      } catch (ExecutionException e) {
+        Throwable t = e.getCause();
+        Throwables.propagateIfPossible(t, IOException.class, InterruptedException.class);
+        throw new UnexpectedCheckedException("serializing proof", t);
+      }
+    }
+  }
+
+  /** Stream that passes the written data in chunks to the writer thread. */
+  private class ChunkingOutputStream extends OutputStream {
+
+    private byte[] chunk = new byte[CHUNK_SIZE];
+    private int size = 0;
+
+    @Override
+    public void write(int pByte) throws IOException {
+      if (size == chunk.length) {
+        sendChunk();
+      }
+      chunk[size++] = (byte) pByte;
+    }
+
+    @Override
+    public void write(byte[] pBytes, int pOffset, int pLength) throws IOException {
+      int offset = pOffset;
+      int remaining = pLength;
+      while (remaining > 0) {
+        if (size == chunk.length) {
+          sendChunk();
+        }
+        int length = Math.min(remaining, chunk.length - size);
+        System.arraycopy(pBytes, offset, chunk, size, length);
+        size += length;
+        offset += length;
+        remaining -= length;
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (size > 0) {
+        sendChunk();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+
+    private void sendChunk() throws IOException {
+      byte[] data;
+      if (size == chunk.length) {
+        data = chunk;
+        chunk = new byte[CHUNK_SIZE];
+      } else {
+        data = Arrays.copyOf(chunk, size);
+      }
+      size = 0;
+
+      try {
+        put(new Item(null, Futures.immediateFuture(data)));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for proof writer");
+      }
+    }
+  }
+
+  static class ProofWritingStatistics implements Statistics {
+
+    private final Timer waitingTimer = new Timer();
+    private final Timer compressionTimer = new Timer();
+    private final AtomicLong parallelSerializationTime = new AtomicLong();
+    private final AtomicInteger parallelParts = new AtomicInteger();
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, ReachedSet pReached) {
+      if (compressionTimer.getNumberOfIntervals() == 0) {
+        return; // proof was written sequentially
+      }
+      pOut.println("Number of proof parts serialized in parallel: " + parallelParts.get());
+      pOut.println("Time for serializing proof parts in parallel: "
+          + TimeSpan.ofNanos(parallelSerializationTime.get()).formatAs(TimeUnit.SECONDS) + " (sum over all threads)");
+      pOut.println("Time for compressing and writing proof:       " + compressionTimer);
+      pOut.println("Time waiting for proof writer:                " + waitingTimer);
+    }
+
+    @Override
+    public String getName() {
+      return "Proof Writing";
+    }
+  }
+}
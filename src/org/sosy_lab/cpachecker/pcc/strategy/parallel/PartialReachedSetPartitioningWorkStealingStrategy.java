@@ -0,0 +1,326 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.parallel;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.io.Files;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.pcc.PartitioningCheckingHelper;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.PropertyChecker.PropertyCheckerCPA;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.CheckingCosts;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitionChecker;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningIOHelper;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningUtils;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+
+/**
+ * Checks a partitioned partial certificate like {@link PartialReachedSetPartitioningParallelStrategy},
+ * but schedules every partition as a separate fork-join task.
+ * Idle threads steal the remaining partitions from busy ones,
+ * such that partitions with uneven checking costs do not leave threads idle.
+ *
+ * The checking time of every partition is measured and can be exported
+ * (cf. {@link CheckingCosts}), such that the certificate can be partitioned
+ * according to the measured costs next time.
+ */
+@Options(prefix="pcc.partitioning")
+public class PartialReachedSetPartitioningWorkStealingStrategy extends AbstractStrategy {
+
+  @Option(secure=true, description="file to which the measured checking costs of the certificate "
+      + "are written after checking it, such that they can be used for partitioning "
+      + "the certificate next time (cf. pcc.partitioning.partitioningStrategy)")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private Path checkingCostsFile = null;
+
+  private class WorkStealingStatistics implements Statistics {
+
+    private final AtomicInteger checkedPartitions = new AtomicInteger();
+    private final AtomicLong checkingTime = new AtomicLong();
+    private final AtomicLong maxPartitionCheckingTime = new AtomicLong();
+    private long steals = 0;
+
+    private void partitionChecked(long pNanos) {
+      checkedPartitions.incrementAndGet();
+      checkingTime.addAndGet(pNanos);
+      long max;
+      do {
+        max = maxPartitionCheckingTime.get();
+      } while (pNanos > max && !maxPartitionCheckingTime.compareAndSet(max, pNanos));
+    }
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, ReachedSet pReached) {
+      int partitions = checkedPartitions.get();
+      pOut.println("Number of checked partitions:           " + partitions);
+      if (partitions > 0) {
+        pOut.println("Time for checking partitions:           " + format(checkingTime.get())
+            + " (avg: " + format(checkingTime.get() / partitions)
+            + ", max: " + format(maxPartitionCheckingTime.get()) + ")");
+      }
+      pOut.println("Number of stolen tasks:                 " + steals);
+    }
+
+    private String format(long pNanos) {
+      return TimeSpan.ofNanos(pNanos).formatAs(TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String getName() {
+      return "Work-stealing partition checking";
+    }
+  }
+
+  /** The result of checking one partition, written by the task that checked it. */
+  private static class PartitionResult {
+
+    private final Collection<AbstractState> certificatePart = new ArrayList<>();
+    private final Multimap<CFANode, AbstractState> partitionElements = HashMultimap.create();
+    private final Collection<AbstractState> inOtherPartition = new ArrayList<>();
+    private long checkingTime;
+  }
+
+  private final PartitioningIOHelper ioHelper;
+  private final PropertyCheckerCPA cpa;
+  private final ShutdownNotifier shutdownNotifier;
+  private final WorkStealingStatistics workStealingStats = new WorkStealingStatistics();
+
+  public PartialReachedSetPartitioningWorkStealingStrategy(final Configuration pConfig, final LogManager pLogger,
+      final ShutdownNotifier pShutdownNotifier, final PropertyCheckerCPA pCpa)
+      throws InvalidConfigurationException {
+    super(pConfig, pLogger);
+    pConfig.inject(this);
+    shutdownNotifier = pShutdownNotifier;
+    cpa = pCpa;
+    ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
+    addPCCStatistic(ioHelper.getPartitioningStatistc());
+    addPCCStatistic(workStealingStats);
+  }
+
+  @Override
+  public void constructInternalProofRepresentation(UnmodifiableReachedSet pReached)
+      throws InvalidConfigurationException, InterruptedException {
+    ioHelper.constructInternalProofRepresentation(pReached);
+  }
+
+  @Override
+  public boolean checkCertificate(ReachedSet pReachedSet) throws CPAException, InterruptedException {
+    AbstractState initialState = pReachedSet.popFromWaitlist();
+    Precision initPrec = pReachedSet.getPrecision(initialState);
+
+    int numPartitions = ioHelper.getNumPartitions();
+    PartitionResult[] results = new PartitionResult[numPartitions];
+    CheckingContext context = new CheckingContext(initPrec, results);
+
+    logger.log(Level.INFO, "Check", numPartitions, "partitions with", numThreads, "threads");
+    ForkJoinPool pool = new ForkJoinPool(numThreads);
+    try {
+      pool.invoke(new CheckPartitionsTask(context, 0, numPartitions));
+    } finally {
+      pool.shutdown();
+      workStealingStats.steals += pool.getStealCount();
+    }
+
+    shutdownNotifier.shutdownIfNecessary();
+    if (!context.checkResult.get()) {
+      return false;
+    }
+
+    // merge the results of all partitions, this is done sequentially such that no locking is needed
+    Collection<AbstractState> certificate = Sets.newHashSetWithExpectedSize(context.certificateSize.get());
+    Multimap<CFANode, AbstractState> partitionNodes = HashMultimap.create();
+    Collection<AbstractState> inOtherPartition = new ArrayList<>();
+    CheckingCosts costs = new CheckingCosts();
+    for (int i = 0; i < numPartitions; i++) {
+      certificate.addAll(results[i].certificatePart);
+      partitionNodes.putAll(results[i].partitionElements);
+      inOtherPartition.addAll(results[i].inOtherPartition);
+      costs.addPartition(ioHelper.getPartition(i).getFirst(), results[i].checkingTime);
+    }
+    writeCheckingCosts(costs);
+
+    logger.log(Level.INFO, "Add initial state to elements for which it will be checked if they are covered by partition nodes of certificate.");
+    inOtherPartition.add(initialState);
+
+    logger.log(Level.INFO,
+        "Check if initial state and all nodes which should be contained in different partition are covered by certificate (partition node).");
+    if (!PartitioningUtils.areElementsCoveredByPartitionElement(inOtherPartition, partitionNodes, cpa.getStopOperator(),
+        initPrec)) {
+      logger.log(Level.SEVERE,
+          "Initial state or a state which should be in other partition is not covered by certificate.");
+      return false;
+    }
+
+    logger.log(Level.INFO, "Check property.");
+    stats.getPropertyCheckingTimer().start();
+    try {
+      if (!cpa.getPropChecker().satisfiesProperty(certificate)) {
+        logger.log(Level.SEVERE, "Property violated");
+        return false;
+      }
+    } finally {
+      stats.getPropertyCheckingTimer().stop();
+    }
+
+    return true;
+  }
+
+  private void writeCheckingCosts(CheckingCosts pCosts) {
+    if (checkingCostsFile != null) {
+      try (Writer w = Files.openOutputFile(checkingCostsFile)) {
+        pCosts.write(w);
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not write checking costs of certificate");
+      }
+    }
+  }
+
+  /** State that is shared by all tasks that check the partitions of one certificate. */
+  private class CheckingContext implements PartitioningCheckingHelper {
+
+    private final AtomicBoolean checkResult = new AtomicBoolean(true);
+    private final AtomicInteger certificateSize = new AtomicInteger(0);
+    private final Precision initPrec;
+    private final PartitionResult[] results;
+
+    private CheckingContext(Precision pInitPrec, PartitionResult[] pResults) {
+      initPrec = pInitPrec;
+      results = pResults;
+    }
+
+    private boolean shouldContinue() {
+      return checkResult.get() && !shutdownNotifier.shouldShutdown();
+    }
+
+    @Override
+    public int getCurrentCertificateSize() {
+      return certificateSize.get();
+    }
+
+    @Override
+    public void abortCheckingPreparation() {
+      checkResult.set(false);
+    }
+  }
+
+  /**
+   * Task that checks a range of partitions.
+   * Ranges are split in halves until they contain a single partition,
+   * such that idle threads can steal the unchecked halves.
+   */
+  private class CheckPartitionsTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CheckingContext context;
+    private final int from;
+    private final int to;
+
+    private CheckPartitionsTask(CheckingContext pContext, int pFrom, int pTo) {
+      context = pContext;
+      from = pFrom;
+      to = pTo;
+    }
+
+    @Override
+    protected void compute() {
+      if (!context.shouldContinue()) {
+        return;
+      }
+
+      if (to - from > 1) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new CheckPartitionsTask(context, from, middle),
+            new CheckPartitionsTask(context, middle, to));
+        return;
+      }
+
+      if (to - from == 1) {
+        checkPartition(from);
+      }
+    }
+
+    private void checkPartition(int pIndex) {
+      long start = System.nanoTime();
+      PartitionChecker checker = new PartitionChecker(context.initPrec, cpa.getStopOperator(),
+          cpa.getTransferRelation(), ioHelper, context, shutdownNotifier, logger);
+      checker.checkPartition(pIndex);
+
+      PartitionResult result = new PartitionResult();
+      checker.addCertificatePartsToCertificate(result.certificatePart);
+      checker.addPartitionElements(result.partitionElements);
+      checker.addElementsCheckedInOtherPartitions(result.inOtherPartition);
+      result.checkingTime = System.nanoTime() - start;
+
+      context.certificateSize.addAndGet(result.certificatePart.size());
+      context.results[pIndex] = result;
+      workStealingStats.partitionChecked(result.checkingTime);
+    }
+  }
+
+  @Override
+  protected void writeProofToStream(ObjectOutputStream pOut, UnmodifiableReachedSet pReached) throws IOException,
+      InvalidConfigurationException, InterruptedException {
+    ioHelper.writeProof(pOut, pReached);
+  }
+
+  @Override
+  protected void readProofFromStream(ObjectInputStream pIn) throws ClassNotFoundException,
+      InvalidConfigurationException, IOException {
+    ioHelper.readProof(pIn, stats);
+  }
+}
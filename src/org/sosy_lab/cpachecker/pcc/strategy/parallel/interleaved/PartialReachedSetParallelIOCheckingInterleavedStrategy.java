@@ -26,52 +26,86 @@ package org.sosy_lab.cpachecker.pcc.strategy.parallel.interleaved;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.ArrayList;
+import java.io.PrintStream;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.Pair;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.pcc.PartitioningCheckingHelper;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.PropertyChecker.PropertyCheckerCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy;
-import org.sosy_lab.cpachecker.pcc.strategy.parallel.ParallelPartitionChecker;
-import org.sosy_lab.cpachecker.pcc.strategy.parallel.io.ParallelPartitionReader;
+import org.sosy_lab.cpachecker.pcc.strategy.IndependentProofStreamsStrategy;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitionChecker;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningIOHelper;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningUtils;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Sets;
 
+/**
+ * Strategy that reads and checks the partitions of a certificate concurrently.
+ *
+ * Decoder threads read the partitions from the proof file (which allows random access to every partition)
+ * and pass them to the checker threads through a bounded queue,
+ * such that a partition can be dropped as soon as it is checked.
+ * If no threads are reserved for reading, every thread checks the partitions that it decoded itself.
+ * The states of the checked partitions are merged into concurrent collections without locking,
+ * and all threads stop as soon as one partition fails.
+ */
 @Options(prefix = "pcc.interleaved")
-public class PartialReachedSetParallelIOCheckingInterleavedStrategy extends AbstractStrategy {
+public class PartialReachedSetParallelIOCheckingInterleavedStrategy extends AbstractStrategy
+    implements IndependentProofStreamsStrategy {
 
   @Option(secure=true,
       name = "useReadCores",
       description = "The number of cores used exclusively for proof reading. Must be less than pcc.useCores and may not be negative. Value 0 means that the cores used for reading and checking are shared")
   private int numReadThreads = 0;
 
+  @Option(secure=true,
+      name = "decodedPartitionQueueSize",
+      description = "maximal number of partitions that are read but not yet checked, "
+          + "bounds the memory used if pcc.interleaved.useReadCores is positive")
+  @IntegerOption(min=1)
+  private int decodedPartitionQueueSize = 8;
+
   private int nextPartition;
   private final PartitioningIOHelper ioHelper;
   private final ShutdownNotifier shutdown;
   private final PropertyCheckerCPA cpa;
+  private final InterleavedCheckingStatistics interleavedStats = new InterleavedCheckingStatistics();
 
   public PartialReachedSetParallelIOCheckingInterleavedStrategy(final Configuration pConfig, final LogManager pLogger,
       final ShutdownNotifier pShutdownNotifier, final PropertyCheckerCPA pCpa)
@@ -85,7 +119,7 @@ public class PartialReachedSetParallelIOCheckingInterleavedStrategy extends Abst
     ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
     numReadThreads = Math.min(numReadThreads, numThreads - 1);
     numReadThreads = Math.max(0, numReadThreads);
-    addPCCStatistic(ioHelper.getPartitioningStatistc());
+    addPCCStatistic(interleavedStats);
   }
 
   @Override
@@ -97,37 +131,37 @@ public class PartialReachedSetParallelIOCheckingInterleavedStrategy extends Abst
 
   @Override
   public boolean checkCertificate(final ReachedSet pReachedSet) throws CPAException, InterruptedException {
-    AtomicBoolean checkResult = new AtomicBoolean(true);
-    Semaphore partitionChecked = new Semaphore(0);
-    Semaphore partitionsRead = new Semaphore(0);
-    Collection<AbstractState> certificate = Sets.newHashSetWithExpectedSize(ioHelper.getNumPartitions());
-    Multimap<CFANode, AbstractState> partitionNodes = HashMultimap.create();
-    Collection<AbstractState> inOtherPartition = new ArrayList<>();
     AbstractState initialState = pReachedSet.popFromWaitlist();
     Precision initPrec = pReachedSet.getPrecision(initialState);
-    Lock lock = new ReentrantLock();
+    CheckingContext context = new CheckingContext(ioHelper.getNumPartitions());
 
-    ExecutorService executor = null, readExecutor = null, checkExecutor = null;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
     logger.log(Level.INFO, "Create and start threads");
-    try {
+    try (ZipFile proof = new ZipFile(file.toFile())) {
       if (numReadThreads == 0) {
-        executor = Executors.newFixedThreadPool(numThreads);
-        startReadingThreads(numThreads, executor, checkResult, partitionsRead, partitionChecked);
-        startCheckingThreads(numThreads, executor, checkResult, partitionsRead, partitionChecked, certificate,
-            partitionNodes, inOtherPartition,
-            initPrec, lock);
+        for (int i = 0; i < numThreads; i++) {
+          executor.execute(new PartitionDecoder(context, proof, createChecker(context, initPrec)));
+        }
       } else {
-        readExecutor = Executors.newFixedThreadPool(numReadThreads);
-        startReadingThreads(numReadThreads, readExecutor, checkResult, partitionsRead, partitionChecked);
-        checkExecutor = Executors.newFixedThreadPool(numThreads - numReadThreads);
-        startCheckingThreads(numThreads - numReadThreads, checkExecutor, checkResult, partitionsRead, partitionChecked,
-            certificate, partitionNodes, inOtherPartition,
-            initPrec, lock);
+        for (int i = 0; i < numReadThreads; i++) {
+          executor.execute(new PartitionDecoder(context, proof, null));
+        }
+        for (int i = numReadThreads; i < numThreads; i++) {
+          executor.execute(new DecodedPartitionChecker(context, createChecker(context, initPrec)));
+        }
       }
 
-      partitionChecked.acquire(ioHelper.getNumPartitions());
+      context.finished.await();
+      executor.shutdownNow(); // wakes up threads that wait for the queue after an abort
+      shutdown.shutdownIfNecessary();
 
-      if (!checkResult.get()) { return false; }
+      if (context.failed.get()) { return false; }
+
+      Multimap<CFANode, AbstractState> partitionNodes = HashMultimap.create();
+      for (Multimap<CFANode, AbstractState> elements : context.partitionElements) {
+        partitionNodes.putAll(elements);
+      }
+      Collection<AbstractState> inOtherPartition = context.inOtherPartition;
 
       logger.log(Level.INFO, "Add initial state to elements for which it will be checked if they are covered by partition nodes of certificate.");
       inOtherPartition.add(initialState);
@@ -144,7 +178,7 @@ public class PartialReachedSetParallelIOCheckingInterleavedStrategy extends Abst
       logger.log(Level.INFO, "Check property.");
       stats.getPropertyCheckingTimer().start();
       try {
-        if (!cpa.getPropChecker().satisfiesProperty(certificate)) {
+        if (!cpa.getPropChecker().satisfiesProperty(context.certificate)) {
           logger.log(Level.SEVERE, "Property violated");
           return false;
         }
@@ -153,38 +187,214 @@ public class PartialReachedSetParallelIOCheckingInterleavedStrategy extends Abst
       }
 
       return true;
+    } catch (IOException e) {
+      logger.logUserException(Level.SEVERE, e, "Cannot open proof for reading partitions");
+      return false;
     } finally {
-      if (executor != null) {
-        executor.shutdown();
+      executor.shutdownNow();
+      stats.increaseProofSize(context.proofSize.get());
+    }
+  }
+
+  private PartitionChecker createChecker(CheckingContext pContext, Precision pInitPrec) {
+    return new PartitionChecker(pInitPrec, cpa.getStopOperator(), cpa.getTransferRelation(), ioHelper, pContext,
+        shutdown, logger);
+  }
+
+  /** State shared by all threads that read and check the partitions of one certificate. */
+  private class CheckingContext implements PartitioningCheckingHelper {
+
+    private final int numPartitions;
+    private final AtomicInteger nextPartitionToDecode = new AtomicInteger(0);
+    private final AtomicInteger nextPartitionToCheck = new AtomicInteger(0);
+    private final AtomicInteger checkedPartitions = new AtomicInteger(0);
+    private final AtomicInteger proofSize = new AtomicInteger(0);
+    private final AtomicBoolean failed = new AtomicBoolean(false);
+    /** released when all partitions are checked or checking failed */
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private final BlockingQueue<Pair<AbstractState[], AbstractState[]>> decodedPartitions =
+        new ArrayBlockingQueue<>(decodedPartitionQueueSize);
+
+    private final Collection<AbstractState> certificate =
+        Collections.newSetFromMap(new ConcurrentHashMap<AbstractState, Boolean>());
+    private final Queue<AbstractState> inOtherPartition = new ConcurrentLinkedQueue<>();
+    private final Queue<Multimap<CFANode, AbstractState>> partitionElements = new ConcurrentLinkedQueue<>();
+
+    private CheckingContext(int pNumPartitions) {
+      numPartitions = pNumPartitions;
+      if (numPartitions == 0) {
+        finished.countDown();
+      }
+    }
+
+    private boolean shouldContinue() {
+      if (shutdown.shouldShutdown()) {
+        abortCheckingPreparation();
+      }
+      return !failed.get();
+    }
+
+    /** Check the partition and merge its states into the shared collections. */
+    private void check(PartitionChecker pChecker, Pair<AbstractState[], AbstractState[]> pPartition) {
+      long start = System.nanoTime();
+      pChecker.checkPartition(pPartition);
+
+      if (!failed.get()) {
+        Multimap<CFANode, AbstractState> elements = HashMultimap.create();
+        pChecker.addPartitionElements(elements);
+        partitionElements.add(elements);
+        pChecker.addCertificatePartsToCertificate(certificate);
+        pChecker.addElementsCheckedInOtherPartitions(inOtherPartition);
+      }
+      pChecker.clearAllSavedPartitioningElements();
+      interleavedStats.checkingTime.addAndGet(System.nanoTime() - start);
+
+      if (checkedPartitions.incrementAndGet() == numPartitions) {
+        finished.countDown();
+      }
+    }
+
+    @Override
+    public int getCurrentCertificateSize() {
+      return certificate.size();
+    }
+
+    @Override
+    public void abortCheckingPreparation() {
+      failed.set(true);
+      finished.countDown();
+    }
+  }
+
+  /**
+   * Reads partitions from the proof file,
+   * and either checks them itself or passes them on to the {@link DecodedPartitionChecker}s.
+   */
+  private class PartitionDecoder implements Runnable {
+
+    private final CheckingContext context;
+    private final ZipFile proof;
+    private final @Nullable PartitionChecker checker;
+
+    private PartitionDecoder(CheckingContext pContext, ZipFile pProof, @Nullable PartitionChecker pChecker) {
+      context = pContext;
+      proof = pProof;
+      checker = pChecker;
+    }
+
+    @Override
+    public void run() {
+      try {
+        int index;
+        while (context.shouldContinue()
+            && (index = context.nextPartitionToDecode.getAndIncrement()) < context.numPartitions) {
+          Pair<AbstractState[], AbstractState[]> partition = decode(index);
+          if (partition == null) {
+            return;
+          }
+
+          if (checker != null) {
+            context.check(checker, partition);
+          } else {
+            try {
+              context.decodedPartitions.put(partition);
+            } catch (InterruptedException e) {
+              return; // checking was finished or aborted
+            }
+          }
+        }
+      } catch (RuntimeException e) {
+        // otherwise the partition is never counted as checked and checkCertificate waits forever
+        logger.logException(Level.SEVERE, e, "Unexpected failure during partition checking");
+        context.abortCheckingPreparation();
       }
-      if (readExecutor != null) {
-        readExecutor.shutdown();
+    }
+
+    private @Nullable Pair<AbstractState[], AbstractState[]> decode(int pIndex) {
+      long start = System.nanoTime();
+      ZipEntry entry = proof.getEntry("Additional " + pIndex);
+      if (entry == null) {
+        logger.log(Level.SEVERE, "Partition", pIndex, "is missing in proof. Stop checking");
+        context.abortCheckingPreparation();
+        return null;
       }
-      if (checkExecutor != null) {
-        checkExecutor.shutdown();
+
+      try (ObjectInputStream in = new ObjectInputStream(proof.getInputStream(entry))) {
+        Pair<AbstractState[], AbstractState[]> partition = ioHelper.decodePartition(in);
+        context.proofSize.addAndGet(partition.getFirst().length + partition.getSecond().length);
+        interleavedStats.decodedPartitions.incrementAndGet();
+        interleavedStats.decodingTime.addAndGet(System.nanoTime() - start);
+        return partition;
+      } catch (IOException | ClassNotFoundException e) {
+        if (!context.failed.get()) { // otherwise the proof may have been closed already
+          logger.logUserException(Level.SEVERE, e, "Partition reading failed. Stop checking");
+        }
+      } catch (RuntimeException e) {
+        logger.logException(Level.SEVERE, e, "Unexpected failure during proof reading");
       }
+      context.abortCheckingPreparation();
+      return null;
     }
   }
 
-  private void startReadingThreads(final int threads, final ExecutorService pReadingExecutor, final AtomicBoolean pCheckResult,
-      final Semaphore partitionsRead, final Semaphore pPartitionChecked) {
-    AtomicInteger nextPartitionId = new AtomicInteger(0);
-    for (int i = 0; i < threads; i++) {
-      pReadingExecutor.execute(new ParallelPartitionReader(pCheckResult, partitionsRead, nextPartitionId, this,
-          ioHelper, stats, logger));
+  /** Checks the partitions that were read by the {@link PartitionDecoder}s. */
+  private class DecodedPartitionChecker implements Runnable {
+
+    private final CheckingContext context;
+    private final PartitionChecker checker;
+
+    private DecodedPartitionChecker(CheckingContext pContext, PartitionChecker pChecker) {
+      context = pContext;
+      checker = pChecker;
+    }
+
+    @Override
+    public void run() {
+      try {
+        // reserve a partition before waiting for it, such that no thread waits for a partition that never comes
+        while (context.shouldContinue()
+            && context.nextPartitionToCheck.getAndIncrement() < context.numPartitions) {
+          Pair<AbstractState[], AbstractState[]> partition;
+          long start = System.nanoTime();
+          try {
+            partition = context.decodedPartitions.take();
+          } catch (InterruptedException e) {
+            return; // checking was aborted
+          }
+          interleavedStats.waitingTime.addAndGet(System.nanoTime() - start);
+          context.check(checker, partition);
+        }
+      } catch (RuntimeException e) {
+        // otherwise the partition is never counted as checked and checkCertificate waits forever
+        logger.logException(Level.SEVERE, e, "Unexpected failure during partition checking");
+        context.abortCheckingPreparation();
+      }
     }
   }
 
-  private void startCheckingThreads(final int threads, final ExecutorService pCheckingExecutor, final AtomicBoolean pCheckResult,
-      final Semaphore pPartitionsRead, final Semaphore pPartitionChecked, final Collection<AbstractState> pCertificate,
-      final Multimap<CFANode, AbstractState> pInPartition, final Collection<AbstractState> pInOtherPartition,
-      final Precision pInitialPrecision, final Lock pLock) {
-    AtomicInteger availablePartitions = new AtomicInteger(0);
-    AtomicInteger nextId = new AtomicInteger(0);
-    for (int i = 0; i < threads; i++) {
-      pCheckingExecutor.execute(new ParallelPartitionChecker(availablePartitions, nextId, pCheckResult, pPartitionsRead,
-          pPartitionChecked, pLock, ioHelper, pInPartition, pCertificate, pInOtherPartition, pInitialPrecision, cpa
-              .getStopOperator(), cpa.getTransferRelation(), shutdown, logger));
+  private static class InterleavedCheckingStatistics implements Statistics {
+
+    private final AtomicInteger decodedPartitions = new AtomicInteger();
+    private final AtomicLong decodingTime = new AtomicLong();
+    private final AtomicLong checkingTime = new AtomicLong();
+    private final AtomicLong waitingTime = new AtomicLong();
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, ReachedSet pReached) {
+      pOut.println("Number of read partitions:                  " + decodedPartitions.get());
+      pOut.println("Time for reading partitions:                " + format(decodingTime.get()) + " (sum over all threads)");
+      pOut.println("Time for checking partitions:               " + format(checkingTime.get()) + " (sum over all threads)");
+      pOut.println("Time waiting for read partitions:           " + format(waitingTime.get()) + " (sum over all threads)");
+    }
+
+    private static String format(long pNanos) {
+      return TimeSpan.ofNanos(pNanos).formatAs(TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String getName() {
+      return "Interleaved Reading and Checking";
     }
   }
 
@@ -206,6 +416,16 @@ public class PartialReachedSetParallelIOCheckingInterleavedStrategy extends Abst
     return nextPartition < ioHelper.getNumPartitions();
   }
 
+  @Override
+  public int getNumAdditionalProofStreams() {
+    return ioHelper.getNumPartitions();
+  }
+
+  @Override
+  public void writeAdditionalProofStream(final int pIndex, final ObjectOutputStream pOut) throws IOException {
+    ioHelper.writePartition(pOut, ioHelper.getPartition(pIndex));
+  }
+
   @Override
   protected void readProofFromStream(ObjectInputStream pIn) throws ClassNotFoundException,
       InvalidConfigurationException, IOException {
@@ -51,6 +51,7 @@ import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.PropertyChecker.PropertyCheckerCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy;
+import org.sosy_lab.cpachecker.pcc.strategy.IndependentProofStreamsStrategy;
 import org.sosy_lab.cpachecker.pcc.strategy.parallel.ParallelPartitionChecker;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningIOHelper;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningUtils;
@@ -60,7 +61,8 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 
 @Options(prefix = "pcc.parallel.io")
-public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy {
+public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy
+    implements IndependentProofStreamsStrategy {
 
   private final PartitioningIOHelper ioHelper;
   private final PropertyCheckerCPA cpa;
@@ -162,6 +164,16 @@ public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy {
     return nextPartition < ioHelper.getNumPartitions();
   }
 
+  @Override
+  public int getNumAdditionalProofStreams() {
+    return ioHelper.getNumPartitions();
+  }
+
+  @Override
+  public void writeAdditionalProofStream(final int pIndex, final ObjectOutputStream pOut) throws IOException {
+    ioHelper.writePartition(pOut, ioHelper.getPartition(pIndex));
+  }
+
   @Override
   protected void readProofFromStream(final ObjectInputStream pIn) throws ClassNotFoundException,
       InvalidConfigurationException, IOException {
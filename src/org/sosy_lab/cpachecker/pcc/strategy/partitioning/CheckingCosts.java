@@ -0,0 +1,147 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+import com.google.common.base.Splitter;
+
+/**
+ * Measured costs of checking the states of a certificate, per CFA location.
+ * The checking time of a partition is attributed evenly to its states,
+ * because partitions are not stable between analyses but locations are.
+ * The costs can be written to a file after checking a certificate
+ * and read again by a partitioner that balances partitions by cost
+ * when the certificate for the same program is generated again.
+ */
+public class CheckingCosts {
+
+  private static final String HEADER = "# location\tstates\tcheckingTimeNanos";
+  private static final Splitter COLUMN_SPLITTER = Splitter.on('\t').trimResults();
+
+  private static class Entry {
+
+    private long states;
+    private long nanos;
+
+    private Entry(long pStates, long pNanos) {
+      states = pStates;
+      nanos = pNanos;
+    }
+  }
+
+  private final Map<Integer, Entry> entries = new TreeMap<>();
+
+  /** Record that checking the given states took the given time altogether. */
+  public void addPartition(AbstractState[] pStates, long pNanos) {
+    if (pStates.length == 0) {
+      return;
+    }
+    long nanosPerState = pNanos / pStates.length;
+    for (AbstractState state : pStates) {
+      CFANode location = AbstractStates.extractLocation(state);
+      if (location != null) {
+        add(location.getNodeNumber(), 1, nanosPerState);
+      }
+    }
+  }
+
+  private void add(int pNodeNumber, long pStates, long pNanos) {
+    Entry entry = entries.get(pNodeNumber);
+    if (entry == null) {
+      entries.put(pNodeNumber, new Entry(pStates, pNanos));
+    } else {
+      entry.states += pStates;
+      entry.nanos += pNanos;
+    }
+  }
+
+  /**
+   * Get the average measured checking time in nanoseconds
+   * for a state at the given location, or null if it is unknown.
+   */
+  public @Nullable Long getAverageCost(CFANode pLocation) {
+    Entry entry = entries.get(pLocation.getNodeNumber());
+    return entry == null ? null : entry.nanos / entry.states;
+  }
+
+  /** Get the average measured checking time in nanoseconds for a state at any location. */
+  public long getAverageCost() {
+    long states = 0;
+    long nanos = 0;
+    for (Entry entry : entries.values()) {
+      states += entry.states;
+      nanos += entry.nanos;
+    }
+    return states == 0 ? 0 : nanos / states;
+  }
+
+  public boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  public void write(Appendable out) throws IOException {
+    out.append(HEADER).append('\n');
+    for (Map.Entry<Integer, Entry> e : entries.entrySet()) {
+      out.append('N').append(Integer.toString(e.getKey())).append('\t')
+         .append(Long.toString(e.getValue().states)).append('\t')
+         .append(Long.toString(e.getValue().nanos)).append('\n');
+    }
+  }
+
+  public static CheckingCosts read(Path pFile) throws IOException {
+    CheckingCosts result = new CheckingCosts();
+    int lineNumber = 0;
+    for (String line : pFile.asCharSource(Charset.defaultCharset()).readLines()) {
+      lineNumber++;
+      if (line.trim().isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      List<String> columns = COLUMN_SPLITTER.splitToList(line);
+      if (columns.size() != 3 || !columns.get(0).startsWith("N")) {
+        throw new IOException("Invalid line " + lineNumber + " in checking cost file " + pFile + ": " + line);
+      }
+      try {
+        long states = Long.parseLong(columns.get(1));
+        if (states > 0) {
+          result.add(Integer.parseInt(columns.get(0).substring(1)), states, Long.parseLong(columns.get(2)));
+        }
+      } catch (NumberFormatException e) {
+        throw new IOException("Invalid number in line " + lineNumber + " of checking cost file " + pFile, e);
+      }
+    }
+    return result;
+  }
+}
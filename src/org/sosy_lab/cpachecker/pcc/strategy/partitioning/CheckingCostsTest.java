@@ -0,0 +1,114 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.sosy_lab.common.io.Files;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.common.io.Paths;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+
+public class CheckingCostsTest {
+
+  private final CFANode nodeA = new CFANode("main");
+  private final CFANode nodeB = new CFANode("main");
+  private final CFANode nodeC = new CFANode("main");
+
+  private static AbstractState stateAt(CFANode pLocation) {
+    AbstractStateWithLocation state = mock(AbstractStateWithLocation.class);
+    when(state.getLocationNode()).thenReturn(pLocation);
+    return state;
+  }
+
+  private CheckingCosts createCosts() {
+    CheckingCosts costs = new CheckingCosts();
+    costs.addPartition(new AbstractState[] { stateAt(nodeA), stateAt(nodeA), stateAt(nodeB) }, 300);
+    costs.addPartition(new AbstractState[] { stateAt(nodeB) }, 500);
+    return costs;
+  }
+
+  private void assertAverages(CheckingCosts pCosts) {
+    // the time of a partition is attributed evenly to its states
+    assertThat(pCosts.getAverageCost(nodeA)).isEqualTo(100L);
+    assertThat(pCosts.getAverageCost(nodeB)).isEqualTo(300L);
+    assertThat(pCosts.getAverageCost(nodeC)).isNull();
+    assertThat(pCosts.getAverageCost()).isEqualTo(200L);
+  }
+
+  @Test
+  public void testAverageCosts() {
+    CheckingCosts costs = createCosts();
+    assertThat(costs.isEmpty()).isFalse();
+    assertAverages(costs);
+  }
+
+  @Test
+  public void testEmpty() {
+    CheckingCosts costs = new CheckingCosts();
+    costs.addPartition(new AbstractState[0], 100);
+    assertThat(costs.isEmpty()).isTrue();
+    assertThat(costs.getAverageCost()).isEqualTo(0L);
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    StringBuilder written = new StringBuilder();
+    createCosts().write(written);
+
+    CheckingCosts read = CheckingCosts.read(writeTempFile(written.toString()));
+    assertAverages(read);
+
+    StringBuilder rewritten = new StringBuilder();
+    read.write(rewritten);
+    assertThat(rewritten.toString()).isEqualTo(written.toString());
+  }
+
+  @Test
+  public void testReadInvalidFile() throws IOException {
+    try {
+      CheckingCosts.read(writeTempFile("N1\t2\n"));
+      fail("invalid line was accepted");
+    } catch (IOException e) {
+      assertThat(e.getMessage()).contains("Invalid line 1");
+    }
+  }
+
+  private static Path writeTempFile(String pContent) throws IOException {
+    File file = File.createTempFile("checkingCosts", ".txt");
+    file.deleteOnExit();
+    Path path = Paths.get(file.getPath());
+    Files.writeFile(path, pContent);
+    return path;
+  }
+}
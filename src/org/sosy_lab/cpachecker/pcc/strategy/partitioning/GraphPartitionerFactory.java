@@ -39,7 +39,8 @@ public class GraphPartitionerFactory {
     DFS,
     BFS,
     OPTIMAL,
-    FM
+    FM,
+    MULTILEVEL
   }
 
   public static BalancedGraphPartitioner createPartitioner(
@@ -56,6 +57,8 @@ public class GraphPartitionerFactory {
       return new ExponentialOptimalBalancedGraphPartitioner(pShutdownNotifier);
     case FM:
       return new FiducciaMattheysesBalancedGraphPartitioner(pConfig, pLogger, pShutdownNotifier);
+    case MULTILEVEL:
+      return new MultilevelWeightedBalancedGraphPartitioner(pConfig, pLogger, pShutdownNotifier);
     default: // RANDOM
       return new RandomBalancedGraphPartitioner();
     }
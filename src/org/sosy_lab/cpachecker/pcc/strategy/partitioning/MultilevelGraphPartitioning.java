@@ -0,0 +1,442 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.sosy_lab.common.ShutdownNotifier;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Multilevel partitioning of a graph with weighted nodes and edges
+ * into a given number of partitions of almost equal node weight with a small weight of cut edges.
+ *
+ * The graph is coarsened repeatedly by contracting a heavy-edge matching,
+ * the coarsest graph is partitioned in breadth-first order,
+ * and the partitioning is projected back level by level and refined greedily at every level.
+ * Every phase runs in time linear in the size of the graph of the respective level
+ * (plus the number of partitions for the refinement).
+ */
+class MultilevelGraphPartitioning {
+
+  /** Undirected graph with weighted nodes and edges in compressed sparse row format. */
+  static class WeightedGraph {
+
+    private final int numNodes;
+    private final long[] nodeWeights;
+    /** the edges of node i are at the positions edgeStart[i] (inclusive) to edgeStart[i+1] (exclusive) */
+    private final int[] edgeStart;
+    private final int[] edgeTargets;
+    private final int[] edgeWeights;
+
+    private WeightedGraph(long[] pNodeWeights, int[] pEdgeStart, int[] pEdgeTargets, int[] pEdgeWeights) {
+      numNodes = pNodeWeights.length;
+      nodeWeights = pNodeWeights;
+      edgeStart = pEdgeStart;
+      edgeTargets = pEdgeTargets;
+      edgeWeights = pEdgeWeights;
+    }
+
+    /**
+     * Create an undirected graph from the successor lists of a directed graph.
+     * Edges in both directions between two nodes are merged into a single edge whose weight
+     * is the number of directed edges, self loops are ignored.
+     */
+    static WeightedGraph fromSuccessors(List<? extends List<Integer>> pSuccessors, long[] pNodeWeights) {
+      Preconditions.checkArgument(pSuccessors.size() == pNodeWeights.length);
+      int numNodes = pNodeWeights.length;
+
+      int[] edgeStart = new int[numNodes + 1];
+      for (int node = 0; node < numNodes; node++) {
+        for (int successor : pSuccessors.get(node)) {
+          if (successor != node) {
+            edgeStart[node + 1]++;
+            edgeStart[successor + 1]++;
+          }
+        }
+      }
+      for (int node = 0; node < numNodes; node++) {
+        edgeStart[node + 1] += edgeStart[node];
+      }
+
+      int[] edgeTargets = new int[edgeStart[numNodes]];
+      int[] nextEdge = Arrays.copyOf(edgeStart, numNodes);
+      for (int node = 0; node < numNodes; node++) {
+        for (int successor : pSuccessors.get(node)) {
+          if (successor != node) {
+            edgeTargets[nextEdge[node]++] = successor;
+            edgeTargets[nextEdge[successor]++] = node;
+          }
+        }
+      }
+      int[] edgeWeights = new int[edgeTargets.length];
+      Arrays.fill(edgeWeights, 1);
+
+      int[] identity = new int[numNodes];
+      for (int node = 0; node < numNodes; node++) {
+        identity[node] = node;
+      }
+      return contract(numNodes, identity, identity, Arrays.copyOf(pNodeWeights, numNodes),
+          new WeightedGraph(pNodeWeights, edgeStart, edgeTargets, edgeWeights));
+    }
+
+    int getNumNodes() {
+      return numNodes;
+    }
+
+    long getTotalNodeWeight() {
+      long total = 0;
+      for (long weight : nodeWeights) {
+        total += weight;
+      }
+      return total;
+    }
+
+    /** Get the total weight of the edges whose nodes are in different partitions. */
+    long getCutWeight(int[] pPartitioning) {
+      long cut = 0;
+      for (int node = 0; node < numNodes; node++) {
+        for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+          if (pPartitioning[node] != pPartitioning[edgeTargets[edge]]) {
+            cut += edgeWeights[edge];
+          }
+        }
+      }
+      return cut / 2; // every edge is stored for both of its nodes
+    }
+  }
+
+  private final int numPartitions;
+  private final double balanceCriterion;
+  private final int coarseningThreshold;
+  private final int refinementPasses;
+  private final ShutdownNotifier shutdownNotifier;
+  private final Random random = new Random(0);
+
+  /**
+   * @param pNumPartitions the number of partitions, at least 1
+   * @param pBalanceCriterion the maximal ratio between the weight of a partition and the average weight
+   * @param pCoarseningThreshold coarsening stops when the graph has at most this many nodes per partition
+   * @param pRefinementPasses maximal number of refinement passes per level
+   */
+  MultilevelGraphPartitioning(int pNumPartitions, double pBalanceCriterion, int pCoarseningThreshold,
+      int pRefinementPasses, ShutdownNotifier pShutdownNotifier) {
+    Preconditions.checkArgument(pNumPartitions >= 1);
+    Preconditions.checkArgument(pBalanceCriterion >= 1.0);
+    Preconditions.checkArgument(pCoarseningThreshold >= 1);
+    numPartitions = pNumPartitions;
+    balanceCriterion = pBalanceCriterion;
+    coarseningThreshold = pCoarseningThreshold;
+    refinementPasses = pRefinementPasses;
+    shutdownNotifier = pShutdownNotifier;
+  }
+
+  /**
+   * Partition the graph.
+   * @return an array that contains the partition of every node
+   */
+  int[] computePartitioning(WeightedGraph pGraph) throws InterruptedException {
+    if (numPartitions == 1 || pGraph.getNumNodes() == 0) {
+      return new int[pGraph.getNumNodes()];
+    }
+
+    long totalWeight = pGraph.getTotalNodeWeight();
+    long maxNodeWeight = Math.max(1, (long) Math.ceil(1.5 * totalWeight / ((double) numPartitions * coarseningThreshold)));
+
+    // coarsening
+    List<WeightedGraph> levels = new ArrayList<>();
+    List<int[]> coarseNodes = new ArrayList<>();
+    WeightedGraph graph = pGraph;
+    while (graph.numNodes > numPartitions * coarseningThreshold) {
+      shutdownNotifier.shutdownIfNecessary();
+      int[] coarseNode = new int[graph.numNodes];
+      WeightedGraph coarse = coarsen(graph, maxNodeWeight, coarseNode);
+      if (coarse.numNodes > 0.95 * graph.numNodes) {
+        break; // the matching does not shrink the graph anymore
+      }
+      levels.add(graph);
+      coarseNodes.add(coarseNode);
+      graph = coarse;
+    }
+
+    long maxPartitionWeight = (long) Math.ceil(balanceCriterion * totalWeight / numPartitions);
+
+    int[] partitioning = computeInitialPartitioning(graph, totalWeight);
+    refine(graph, partitioning, maxPartitionWeight);
+
+    // uncoarsening
+    for (int level = levels.size() - 1; level >= 0; level--) {
+      shutdownNotifier.shutdownIfNecessary();
+      WeightedGraph fine = levels.get(level);
+      int[] coarseNode = coarseNodes.get(level);
+      int[] finePartitioning = new int[fine.numNodes];
+      for (int node = 0; node < fine.numNodes; node++) {
+        finePartitioning[node] = partitioning[coarseNode[node]];
+      }
+      partitioning = finePartitioning;
+      refine(fine, partitioning, maxPartitionWeight);
+    }
+    return partitioning;
+  }
+
+  /**
+   * Contract a heavy-edge matching of the graph.
+   * The nodes are visited in random order and every unmatched node is matched with the unmatched neighbor
+   * to which it has the heaviest edge, unless the merged node would be heavier than the given limit.
+   * @param pCoarseNode filled with the node of the coarse graph for every node of the given graph
+   */
+  private WeightedGraph coarsen(WeightedGraph pGraph, long pMaxNodeWeight, int[] pCoarseNode) {
+    int numNodes = pGraph.numNodes;
+    int[] match = new int[numNodes];
+    Arrays.fill(match, -1);
+
+    for (int node : randomPermutation(numNodes)) {
+      if (match[node] >= 0) {
+        continue;
+      }
+      int partner = node;
+      int heaviestEdge = 0;
+      for (int edge = pGraph.edgeStart[node]; edge < pGraph.edgeStart[node + 1]; edge++) {
+        int neighbor = pGraph.edgeTargets[edge];
+        if (match[neighbor] < 0 && pGraph.edgeWeights[edge] > heaviestEdge
+            && pGraph.nodeWeights[node] + pGraph.nodeWeights[neighbor] <= pMaxNodeWeight) {
+          partner = neighbor;
+          heaviestEdge = pGraph.edgeWeights[edge];
+        }
+      }
+      match[node] = partner;
+      match[partner] = node;
+    }
+
+    // number the coarse nodes, the members of a coarse node are node and match[node]
+    int numCoarseNodes = 0;
+    int[] firstMember = new int[numNodes];
+    Arrays.fill(pCoarseNode, -1);
+    for (int node = 0; node < numNodes; node++) {
+      if (pCoarseNode[node] < 0) {
+        pCoarseNode[node] = numCoarseNodes;
+        pCoarseNode[match[node]] = numCoarseNodes;
+        firstMember[numCoarseNodes] = node;
+        numCoarseNodes++;
+      }
+    }
+
+    long[] coarseWeights = new long[numCoarseNodes];
+    for (int node = 0; node < numNodes; node++) {
+      coarseWeights[pCoarseNode[node]] += pGraph.nodeWeights[node];
+    }
+    return contract(numCoarseNodes, Arrays.copyOf(firstMember, numCoarseNodes), match, coarseWeights, pGraph);
+  }
+
+  /**
+   * Build the graph whose node i consists of the nodes pFirstMember[i] and pSecondMember[pFirstMember[i]]
+   * of the given graph (which may be the same node).
+   * Parallel edges are merged into one edge with the sum of their weights, edges within a node are dropped.
+   */
+  private static WeightedGraph contract(int pNumNodes, int[] pFirstMember, int[] pSecondMember,
+      long[] pNodeWeights, WeightedGraph pGraph) {
+    int[] coarseNode;
+    if (pNumNodes == pGraph.numNodes) {
+      coarseNode = pFirstMember; // identity
+    } else {
+      coarseNode = new int[pGraph.numNodes];
+      for (int node = 0; node < pNumNodes; node++) {
+        coarseNode[pFirstMember[node]] = node;
+        coarseNode[pSecondMember[pFirstMember[node]]] = node;
+      }
+    }
+
+    int[] edgeStart = new int[pNumNodes + 1];
+    int[] edgeTargets = new int[pGraph.edgeTargets.length];
+    int[] edgeWeights = new int[pGraph.edgeTargets.length];
+    // position of the edge to a coarse node in the edge list of the current node
+    int[] edgePosition = new int[pNumNodes];
+    Arrays.fill(edgePosition, -1);
+
+    int numEdges = 0;
+    for (int node = 0; node < pNumNodes; node++) {
+      edgeStart[node] = numEdges;
+      int first = pFirstMember[node];
+      int second = pSecondMember[first];
+      for (int member = first; ; member = second) {
+        for (int edge = pGraph.edgeStart[member]; edge < pGraph.edgeStart[member + 1]; edge++) {
+          int target = coarseNode[pGraph.edgeTargets[edge]];
+          if (target == node) {
+            continue;
+          }
+          if (edgePosition[target] >= edgeStart[node]) {
+            edgeWeights[edgePosition[target]] += pGraph.edgeWeights[edge];
+          } else {
+            edgePosition[target] = numEdges;
+            edgeTargets[numEdges] = target;
+            edgeWeights[numEdges] = pGraph.edgeWeights[edge];
+            numEdges++;
+          }
+        }
+        if (member == second) {
+          break;
+        }
+      }
+    }
+    edgeStart[pNumNodes] = numEdges;
+
+    return new WeightedGraph(pNodeWeights, edgeStart,
+        Arrays.copyOf(edgeTargets, numEdges), Arrays.copyOf(edgeWeights, numEdges));
+  }
+
+  private int[] randomPermutation(int pSize) {
+    int[] permutation = new int[pSize];
+    for (int i = 0; i < pSize; i++) {
+      int j = random.nextInt(i + 1);
+      permutation[i] = permutation[j];
+      permutation[j] = i;
+    }
+    return permutation;
+  }
+
+  /**
+   * Partition the graph by assigning its nodes in breadth-first order to the partitions,
+   * such that every partition gets a connected part of the graph with about the average weight.
+   */
+  private int[] computeInitialPartitioning(WeightedGraph pGraph, long pTotalWeight) {
+    int numNodes = pGraph.numNodes;
+    int[] partitioning = new int[numNodes];
+    boolean[] visited = new boolean[numNodes];
+    int[] queue = new int[numNodes];
+    int queueEnd = 0;
+    long assignedWeight = 0;
+
+    for (int root = 0; root < numNodes; root++) {
+      if (visited[root]) {
+        continue;
+      }
+      visited[root] = true;
+      int queueStart = queueEnd;
+      queue[queueEnd++] = root;
+      while (queueStart < queueEnd) {
+        int node = queue[queueStart++];
+        long weight = pGraph.nodeWeights[node];
+        // the partition whose share of the total weight contains the middle of the node
+        int partition = (int) ((assignedWeight + weight / 2.0) * numPartitions / Math.max(1, pTotalWeight));
+        partitioning[node] = Math.min(numPartitions - 1, partition);
+        assignedWeight += weight;
+
+        for (int edge = pGraph.edgeStart[node]; edge < pGraph.edgeStart[node + 1]; edge++) {
+          int neighbor = pGraph.edgeTargets[edge];
+          if (!visited[neighbor]) {
+            visited[neighbor] = true;
+            queue[queueEnd++] = neighbor;
+          }
+        }
+      }
+    }
+    return partitioning;
+  }
+
+  /**
+   * Greedily move nodes to the neighboring partition to which they have the heaviest edges.
+   * A node is moved if this reduces the weight of the cut edges without exceeding the maximal weight
+   * of the target partition, or if it does not increase the cut weight but improves the balance.
+   * Nodes of partitions that are heavier than allowed are moved even if the cut weight increases.
+   */
+  private void refine(WeightedGraph pGraph, int[] pPartitioning, long pMaxPartitionWeight)
+      throws InterruptedException {
+    long[] partitionWeights = new long[numPartitions];
+    for (int node = 0; node < pGraph.numNodes; node++) {
+      partitionWeights[pPartitioning[node]] += pGraph.nodeWeights[node];
+    }
+
+    // weight of the edges from the current node to every partition, and the partitions with non-zero weight
+    long[] connectivity = new long[numPartitions];
+    int[] adjacentPartitions = new int[numPartitions];
+
+    for (int pass = 0; pass < refinementPasses; pass++) {
+      shutdownNotifier.shutdownIfNecessary();
+      int moves = 0;
+
+      for (int node = 0; node < pGraph.numNodes; node++) {
+        int current = pPartitioning[node];
+        long weight = pGraph.nodeWeights[node];
+        boolean overweight = partitionWeights[current] > pMaxPartitionWeight;
+
+        int numAdjacent = 0;
+        for (int edge = pGraph.edgeStart[node]; edge < pGraph.edgeStart[node + 1]; edge++) {
+          int partition = pPartitioning[pGraph.edgeTargets[edge]];
+          if (connectivity[partition] == 0) {
+            adjacentPartitions[numAdjacent++] = partition;
+          }
+          connectivity[partition] += pGraph.edgeWeights[edge];
+        }
+
+        int target = -1;
+        long bestGain = 0;
+        for (int i = 0; i < numAdjacent; i++) {
+          int partition = adjacentPartitions[i];
+          if (partition == current || partitionWeights[partition] + weight > pMaxPartitionWeight) {
+            continue;
+          }
+          long gain = connectivity[partition] - connectivity[current];
+          boolean improvesBalance = partitionWeights[partition] + weight < partitionWeights[current];
+          if ((target < 0 && (gain > 0 || (gain == 0 && improvesBalance) || overweight))
+              || (target >= 0 && gain > bestGain)) {
+            target = partition;
+            bestGain = gain;
+          }
+        }
+        if (target < 0 && overweight) {
+          target = getLightestPartition(partitionWeights);
+        }
+
+        for (int i = 0; i < numAdjacent; i++) {
+          connectivity[adjacentPartitions[i]] = 0;
+        }
+
+        if (target >= 0 && target != current) {
+          pPartitioning[node] = target;
+          partitionWeights[current] -= weight;
+          partitionWeights[target] += weight;
+          moves++;
+        }
+      }
+
+      if (moves == 0) {
+        break;
+      }
+    }
+  }
+
+  private static int getLightestPartition(long[] pPartitionWeights) {
+    int lightest = 0;
+    for (int partition = 1; partition < pPartitionWeights.length; partition++) {
+      if (pPartitionWeights[partition] < pPartitionWeights[lightest]) {
+        lightest = partition;
+      }
+    }
+    return lightest;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.MultilevelGraphPartitioning.WeightedGraph;
+
+import com.google.common.collect.ImmutableList;
+
+public class MultilevelGraphPartitioningTest {
+
+  private static int[] partition(WeightedGraph pGraph, int pNumPartitions) throws InterruptedException {
+    return new MultilevelGraphPartitioning(pNumPartitions, 1.1, 2, 8, ShutdownNotifier.create())
+        .computePartitioning(pGraph);
+  }
+
+  /**
+   * Two chains of the given length, with the nodes 0 to pLength-1 and pLength to 2*pLength-1,
+   * that are connected by a single edge from the end of the first to the end of the second.
+   */
+  private static List<List<Integer>> twoChains(int pLength) {
+    List<List<Integer>> successors = new ArrayList<>();
+    for (int i = 0; i < 2 * pLength; i++) {
+      if (i == pLength - 1) {
+        successors.add(ImmutableList.of(2 * pLength - 1));
+      } else if (i == 2 * pLength - 1) {
+        successors.add(ImmutableList.<Integer>of());
+      } else {
+        successors.add(ImmutableList.of(i + 1));
+      }
+    }
+    return successors;
+  }
+
+  private static long[] partitionWeights(int[] pPartitioning, long[] pNodeWeights, int pNumPartitions) {
+    long[] result = new long[pNumPartitions];
+    for (int i = 0; i < pPartitioning.length; i++) {
+      result[pPartitioning[i]] += pNodeWeights[i];
+    }
+    return result;
+  }
+
+  @Test
+  public void testUnweightedChain() throws InterruptedException {
+    long[] weights = new long[200];
+    Arrays.fill(weights, 1);
+    WeightedGraph graph = WeightedGraph.fromSuccessors(twoChains(100), weights);
+
+    int[] partitioning = partition(graph, 2);
+
+    long[] partitionWeights = partitionWeights(partitioning, weights, 2);
+    assertThat(partitionWeights[0]).isAtMost(110L);
+    assertThat(partitionWeights[1]).isAtMost(110L);
+    assertThat(graph.getCutWeight(partitioning)).isAtMost(3L);
+  }
+
+  @Test
+  public void testWeightedChain() throws InterruptedException {
+    // the first quarter of the nodes is as expensive as the rest
+    long[] weights = new long[200];
+    Arrays.fill(weights, 0, 50, 3);
+    Arrays.fill(weights, 50, 200, 1);
+    WeightedGraph graph = WeightedGraph.fromSuccessors(twoChains(100), weights);
+
+    int[] partitioning = partition(graph, 2);
+
+    long[] partitionWeights = partitionWeights(partitioning, weights, 2);
+    assertThat(partitionWeights[0]).isAtMost(165L);
+    assertThat(partitionWeights[1]).isAtMost(165L);
+    assertThat(graph.getCutWeight(partitioning)).isAtMost(3L);
+  }
+
+  @Test
+  public void testParallelEdgesAndSelfLoops() {
+    List<List<Integer>> successors = ImmutableList.<List<Integer>>of(
+        ImmutableList.of(0, 1), ImmutableList.of(0), ImmutableList.<Integer>of());
+    WeightedGraph graph = WeightedGraph.fromSuccessors(successors, new long[] {1, 1, 1});
+
+    assertThat(graph.getCutWeight(new int[] {0, 1, 1})).isEqualTo(2L);
+    assertThat(graph.getCutWeight(new int[] {0, 0, 1})).isEqualTo(0L);
+  }
+
+  @Test
+  public void testSinglePartition() throws InterruptedException {
+    long[] weights = new long[10];
+    Arrays.fill(weights, 1);
+    int[] partitioning = partition(WeightedGraph.fromSuccessors(twoChains(5), weights), 1);
+    assertThat(partitioning).isEqualTo(new int[10]);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.pcc.BalancedGraphPartitioner;
+import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState;
+import org.sosy_lab.cpachecker.pcc.strategy.partialcertificate.PartialReachedSetDirectedGraph;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.MultilevelGraphPartitioning.WeightedGraph;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+/**
+ * Partitioner that balances the partitions by their expected checking costs instead of their size,
+ * and minimizes the number of edges between partitions,
+ * because every such edge requires a coverage check of the successor in the other partition.
+ *
+ * The checking costs of a state are taken from the measured checking costs of a previous check
+ * of a certificate for the same program (cf. {@link CheckingCosts}), if available.
+ * Otherwise they are estimated from the components of the state.
+ *
+ * The partitioning is computed with a multilevel algorithm (cf. {@link MultilevelGraphPartitioning})
+ * in time almost linear in the size of the certificate.
+ */
+@Options(prefix = "pcc.partitioning.multilevel")
+public class MultilevelWeightedBalancedGraphPartitioner implements BalancedGraphPartitioner {
+
+  @Option(secure=true, description = "measured checking costs of a previous certificate check of the same program "
+      + "(cf. option pcc.partitioning.checkingCostsFile), if not given, the costs are estimated")
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private Path costFile = null;
+
+  @Option(secure=true, description = "estimated checking costs of a predicate abstraction state "
+      + "relative to the costs of a state of another CPA, used if no measured costs are available")
+  @IntegerOption(min=1)
+  private int predicateAbstractionCosts = 10;
+
+  @Option(secure=true, description = "maximal ratio between the costs of a partition and the average costs of a partition")
+  private double balanceCriterion = 1.1d;
+
+  @Option(secure=true, description = "the certificate is coarsened until it has at most this many nodes per partition")
+  @IntegerOption(min=1)
+  private int coarseningThreshold = 20;
+
+  @Option(secure=true, description = "maximal number of passes for improving the partitioning on every level")
+  @IntegerOption(min=0)
+  private int refinementPasses = 8;
+
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+  private final CheckingCosts costs;
+
+  public MultilevelWeightedBalancedGraphPartitioner(Configuration pConfig, LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    if (balanceCriterion < 1.0) {
+      throw new InvalidConfigurationException("Balance criterion for partitioning must be at least 1.");
+    }
+    costs = readCosts();
+  }
+
+  private CheckingCosts readCosts() {
+    if (costFile != null) {
+      try {
+        return CheckingCosts.read(costFile);
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not read checking costs, estimating them instead");
+      }
+    }
+    return new CheckingCosts();
+  }
+
+  @Override
+  public List<Set<Integer>> computePartitioning(int pNumPartitions, PartialReachedSetDirectedGraph pGraph)
+      throws InterruptedException {
+    if (pNumPartitions <= 0 || pGraph == null) {
+      throw new IllegalArgumentException("Partitioniong must contain at most 1 partition. Graph may not be null.");
+    }
+
+    WeightedGraph graph = WeightedGraph.fromSuccessors(pGraph.getAdjacencyList(), getNodeWeights(pGraph));
+    int[] partitionOfNode = new MultilevelGraphPartitioning(pNumPartitions, balanceCriterion, coarseningThreshold,
+        refinementPasses, shutdownNotifier).computePartitioning(graph);
+
+    List<Set<Integer>> partitioning = new ArrayList<>(pNumPartitions);
+    for (int i = 0; i < pNumPartitions; i++) {
+      partitioning.add(new HashSet<Integer>());
+    }
+    for (int node = 0; node < partitionOfNode.length; node++) {
+      partitioning.get(partitionOfNode[node]).add(node);
+    }
+
+    logger.log(Level.FINE, String.format("[Multilevel] Computed partitioning with total costs %d and cut size %d",
+        graph.getTotalNodeWeight(), graph.getCutWeight(partitionOfNode)));
+    return partitioning;
+  }
+
+  private long[] getNodeWeights(PartialReachedSetDirectedGraph pGraph) {
+    long[] weights = new long[pGraph.getNumNodes()];
+    long averageCosts = costs.getAverageCost();
+    for (int i = 0; i < weights.length; i++) {
+      AbstractState state = pGraph.getNode(i);
+      if (costs.isEmpty()) {
+        weights[i] = estimateCosts(state);
+      } else {
+        CFANode location = AbstractStates.extractLocation(state);
+        Long measured = location == null ? null : costs.getAverageCost(location);
+        // measured costs are in nanoseconds, thus rounding to 1 only matters for trivial states
+        weights[i] = Math.max(1, measured == null ? averageCosts : measured);
+      }
+    }
+    return weights;
+  }
+
+  /** Estimate the checking costs of a state, every component counts 1 except for predicate abstractions. */
+  private long estimateCosts(AbstractState pState) {
+    long result = 0;
+    for (AbstractState component : AbstractStates.asIterable(pState)) {
+      if (component instanceof PredicateAbstractState
+          && ((PredicateAbstractState) component).isAbstractionState()
+          && !((PredicateAbstractState) component).getAbstractionFormula().isTrue()) {
+        result += predicateAbstractionCosts;
+      } else {
+        result++;
+      }
+    }
+    return result;
+  }
+}
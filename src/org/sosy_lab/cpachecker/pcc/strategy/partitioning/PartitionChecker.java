@@ -77,8 +77,12 @@ public class PartitionChecker {
   }
 
   public void checkPartition(int pIndex){
+    checkPartition(ioHelper.getPartition(pIndex));
+  }
+
+  /** Check the given partition, which need not be stored in the IO helper. */
+  public void checkPartition(Pair<AbstractState[], AbstractState[]> partition){
     Multimap<CFANode, AbstractState> statesPerLocation = HashMultimap.create();
-    Pair<AbstractState[], AbstractState[]> partition = ioHelper.getPartition(pIndex);
     Preconditions.checkNotNull(partition);
 
     // add nodes of partition
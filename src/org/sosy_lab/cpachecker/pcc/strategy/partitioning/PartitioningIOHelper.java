@@ -154,6 +154,15 @@ public class PartitioningIOHelper {
     pStats.increaseProofSize(result.getFirst().length+result.getSecond().length);
   }
 
+  /**
+   * Read a partition without storing it, such that it can be checked and dropped afterwards.
+   * May be called concurrently for different streams.
+   */
+  public Pair<AbstractState[], AbstractState[]> decodePartition(final ObjectInputStream pIn)
+      throws ClassNotFoundException, IOException {
+    return readPartitionContent(pIn);
+  }
+
   private Pair<AbstractState[], AbstractState[]> readPartitionContent(final ObjectInputStream pIn)
       throws ClassNotFoundException, IOException {
     return Pair.of((AbstractState[]) pIn.readObject(), (AbstractState[]) pIn.readObject());
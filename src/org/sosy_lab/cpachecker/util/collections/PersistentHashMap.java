@@ -0,0 +1,441 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.collections;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Maps;
+
+/**
+ * Immutable hash map that shares its structure with the maps it was created from
+ * (hash array mapped trie).
+ * Copying is free, and {@link #putAndCopy(Object, Object)} and {@link #removeAndCopy(Object)}
+ * copy only the O(log n) nodes on the path to the modified key.
+ *
+ * In contrast to {@link org.sosy_lab.common.collect.PathCopyingPersistentTreeMap},
+ * the keys need not be comparable, only {@link Object#hashCode()} and {@link Object#equals(Object)}
+ * are used. Neither keys nor values may be null.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class PersistentHashMap<K, V> {
+
+  private static final int BITS_PER_LEVEL = 5;
+  private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+  /** Maximal depth of the trie: seven levels for the 32 bits of the hash, plus collision nodes. */
+  private static final int MAX_DEPTH = 8;
+
+  private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+  /**
+   * A node of the trie. Its array contains pairs of key and value,
+   * or pairs of null and a child node.
+   */
+  private abstract static class Node {
+
+    final Object[] array;
+
+    Node(Object[] pArray) {
+      array = pArray;
+    }
+
+    abstract @Nullable Object get(int hash, int shift, Object key);
+
+    /** Returns this node if nothing changed, sets pAdded[0] if the key was not present. */
+    abstract Node put(int hash, int shift, Object key, Object value, boolean[] pAdded);
+
+    /** Returns this node if the key was not present, and null if the node is now empty. */
+    abstract @Nullable Node remove(int hash, int shift, Object key);
+  }
+
+  private static final class BitmapNode extends Node {
+
+    private final int bitmap;
+
+    BitmapNode(int pBitmap, Object[] pArray) {
+      super(pArray);
+      bitmap = pBitmap;
+    }
+
+    private int indexOf(int bit) {
+      return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Object get(int hash, int shift, Object key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int i = indexOf(bit);
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        return ((Node) v).get(hash, shift + BITS_PER_LEVEL, key);
+      }
+      return key.equals(k) ? v : null;
+    }
+
+    @Override
+    Node put(int hash, int shift, Object key, Object value, boolean[] pAdded) {
+      int bit = bit(hash, shift);
+      int i = indexOf(bit);
+      if ((bitmap & bit) == 0) {
+        pAdded[0] = true;
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, i);
+        newArray[i] = key;
+        newArray[i + 1] = value;
+        System.arraycopy(array, i, newArray, i + 2, array.length - i);
+        return new BitmapNode(bitmap | bit, newArray);
+      }
+
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        Node child = (Node) v;
+        Node newChild = child.put(hash, shift + BITS_PER_LEVEL, key, value, pAdded);
+        return newChild == child ? this : new BitmapNode(bitmap, with(array, i + 1, newChild));
+      }
+      if (key.equals(k)) {
+        return v == value ? this : new BitmapNode(bitmap, with(array, i + 1, value));
+      }
+
+      pAdded[0] = true;
+      Node child = createNode(shift + BITS_PER_LEVEL, k.hashCode(), k, v, hash, key, value);
+      Object[] newArray = with(array, i, null);
+      newArray[i + 1] = child;
+      return new BitmapNode(bitmap, newArray);
+    }
+
+    @Override
+    Node remove(int hash, int shift, Object key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = indexOf(bit);
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        Node child = (Node) v;
+        Node newChild = child.remove(hash, shift + BITS_PER_LEVEL, key);
+        if (newChild == child) {
+          return this;
+        } else if (newChild != null) {
+          return new BitmapNode(bitmap, with(array, i + 1, newChild));
+        }
+      } else if (!key.equals(k)) {
+        return this;
+      }
+
+      if (bitmap == bit) {
+        return null;
+      }
+      return new BitmapNode(bitmap ^ bit, without(array, i));
+    }
+  }
+
+  /** Node for keys that have the same hash code. */
+  private static final class CollisionNode extends Node {
+
+    private final int hash;
+
+    CollisionNode(int pHash, Object[] pArray) {
+      super(pArray);
+      hash = pHash;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object get(int pHash, int shift, Object key) {
+      if (pHash != hash) {
+        return null;
+      }
+      int i = indexOf(key);
+      return i < 0 ? null : array[i + 1];
+    }
+
+    @Override
+    Node put(int pHash, int shift, Object key, Object value, boolean[] pAdded) {
+      if (pHash != hash) {
+        // the new key belongs next to this node, so we need a new level in between
+        Node parent = new BitmapNode(bit(hash, shift), new Object[] {null, this});
+        return parent.put(pHash, shift, key, value, pAdded);
+      }
+
+      int i = indexOf(key);
+      if (i >= 0) {
+        return array[i + 1] == value ? this : new CollisionNode(hash, with(array, i + 1, value));
+      }
+      pAdded[0] = true;
+      Object[] newArray = Arrays.copyOf(array, array.length + 2);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    Node remove(int pHash, int shift, Object key) {
+      if (pHash != hash) {
+        return this;
+      }
+      int i = indexOf(key);
+      if (i < 0) {
+        return this;
+      }
+      return array.length == 2 ? null : new CollisionNode(hash, without(array, i));
+    }
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << ((hash >>> shift) & LEVEL_MASK);
+  }
+
+  private static Object[] with(Object[] array, int i, Object value) {
+    Object[] result = array.clone();
+    result[i] = value;
+    return result;
+  }
+
+  private static Object[] without(Object[] array, int i) {
+    Object[] result = new Object[array.length - 2];
+    System.arraycopy(array, 0, result, 0, i);
+    System.arraycopy(array, i + 2, result, i, array.length - i - 2);
+    return result;
+  }
+
+  private static Node createNode(int shift, int hash1, Object key1, Object value1,
+      int hash2, Object key2, Object value2) {
+    if (hash1 == hash2) {
+      return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+    }
+    int index1 = (hash1 >>> shift) & LEVEL_MASK;
+    int index2 = (hash2 >>> shift) & LEVEL_MASK;
+    if (index1 == index2) {
+      Node child = createNode(shift + BITS_PER_LEVEL, hash1, key1, value1, hash2, key2, value2);
+      return new BitmapNode(1 << index1, new Object[] {null, child});
+    }
+    Object[] array = index1 < index2
+        ? new Object[] {key1, value1, key2, value2}
+        : new Object[] {key2, value2, key1, value1};
+    return new BitmapNode((1 << index1) | (1 << index2), array);
+  }
+
+  private final @Nullable Node root;
+  private final int size;
+
+  private PersistentHashMap(@Nullable Node pRoot, int pSize) {
+    root = pRoot;
+    size = pSize;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentHashMap<K, V> of() {
+    return (PersistentHashMap<K, V>) EMPTY;
+  }
+
+  public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> pMap) {
+    PersistentHashMap<K, V> result = of();
+    for (Map.Entry<? extends K, ? extends V> entry : pMap.entrySet()) {
+      result = result.putAndCopy(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  public @Nullable V get(Object pKey) {
+    if (root == null || pKey == null) {
+      return null;
+    }
+    return (V) root.get(pKey.hashCode(), 0, pKey);
+  }
+
+  public boolean containsKey(Object pKey) {
+    return get(pKey) != null;
+  }
+
+  /** Returns a map with the given mapping added, or this map if the mapping is already present. */
+  public PersistentHashMap<K, V> putAndCopy(K pKey, V pValue) {
+    checkNotNull(pKey);
+    checkNotNull(pValue);
+    boolean[] added = new boolean[1];
+    Node newRoot;
+    if (root == null) {
+      added[0] = true;
+      newRoot = new BitmapNode(bit(pKey.hashCode(), 0), new Object[] {pKey, pValue});
+    } else {
+      newRoot = root.put(pKey.hashCode(), 0, pKey, pValue, added);
+    }
+    return newRoot == root ? this : new PersistentHashMap<K, V>(newRoot, added[0] ? size + 1 : size);
+  }
+
+  /** Returns a map without the given key, or this map if the key is not present. */
+  public PersistentHashMap<K, V> removeAndCopy(Object pKey) {
+    if (root == null || pKey == null) {
+      return this;
+    }
+    Node newRoot = root.remove(pKey.hashCode(), 0, pKey);
+    if (newRoot == root) {
+      return this;
+    }
+    return newRoot == null ? PersistentHashMap.<K, V>of() : new PersistentHashMap<K, V>(newRoot, size - 1);
+  }
+
+  /**
+   * Returns an unmodifiable {@link Map} view of this map.
+   * As this map is immutable, the view never changes.
+   */
+  public Map<K, V> asMap() {
+    return new MapView();
+  }
+
+  Iterator<Map.Entry<K, V>> entryIterator() {
+    return new EntryIterator<K, V>(root);
+  }
+
+  private final class MapView extends AbstractMap<K, V> {
+
+    @Override
+    public V get(Object pKey) {
+      return PersistentHashMap.this.get(pKey);
+    }
+
+    @Override
+    public boolean containsKey(Object pKey) {
+      return PersistentHashMap.this.containsKey(pKey);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+      return new AbstractSet<Map.Entry<K, V>>() {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+          return entryIterator();
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+  }
+
+  private static final class EntryIterator<K, V> extends AbstractIterator<Map.Entry<K, V>> {
+
+    private final Object[][] arrays = new Object[MAX_DEPTH][];
+    private final int[] positions = new int[MAX_DEPTH];
+    private int depth;
+
+    private EntryIterator(@Nullable Node pRoot) {
+      if (pRoot == null) {
+        depth = -1;
+      } else {
+        arrays[0] = pRoot.array;
+        depth = 0;
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Map.Entry<K, V> computeNext() {
+      while (depth >= 0) {
+        Object[] array = arrays[depth];
+        int position = positions[depth];
+        if (position >= array.length) {
+          depth--;
+          continue;
+        }
+        positions[depth] = position + 2;
+
+        Object key = array[position];
+        Object value = array[position + 1];
+        if (key == null) {
+          depth++;
+          arrays[depth] = ((Node) value).array;
+          positions[depth] = 0;
+        } else {
+          return Maps.immutableEntry((K) key, (V) value);
+        }
+      }
+      return endOfData();
+    }
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (this == pObj) {
+      return true;
+    }
+    if (!(pObj instanceof PersistentHashMap)) {
+      return false;
+    }
+    PersistentHashMap<?, ?> other = (PersistentHashMap<?, ?>) pObj;
+    return size == other.size && (root == other.root || asMap().equals(other.asMap()));
+  }
+
+  @Override
+  public int hashCode() {
+    return asMap().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+}
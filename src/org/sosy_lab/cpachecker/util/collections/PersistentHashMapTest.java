@@ -0,0 +1,140 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.collections;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class PersistentHashMapTest {
+
+  /** Key with a configurable hash code to provoke collisions. */
+  private static final class Key {
+    private final int id;
+    private final int hash;
+
+    Key(int pId, int pHash) {
+      id = pId;
+      hash = pHash;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof Key && ((Key) pObj).id == id;
+    }
+
+    @Override
+    public String toString() {
+      return "K" + id;
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    PersistentHashMap<String, String> map = PersistentHashMap.of();
+    assertThat(map.isEmpty()).isTrue();
+    assertThat(map.get("a")).isNull();
+    assertThat(map.removeAndCopy("a")).isSameAs(map);
+    assertThat(map.asMap()).isEmpty();
+  }
+
+  @Test
+  public void testStructuralSharing() {
+    PersistentHashMap<String, Integer> map1 = PersistentHashMap.<String, Integer>of().putAndCopy("a", 1);
+    PersistentHashMap<String, Integer> map2 = map1.putAndCopy("b", 2);
+
+    assertThat(map1.asMap()).isEqualTo(ImmutableMap.of("a", 1));
+    assertThat(map2.asMap()).isEqualTo(ImmutableMap.of("a", 1, "b", 2));
+    assertThat(map2.putAndCopy("b", 2)).isSameAs(map2);
+    assertThat(map2.removeAndCopy("c")).isSameAs(map2);
+    assertThat(map2.removeAndCopy("b")).isEqualTo(map1);
+    assertThat(map2.removeAndCopy("b").hashCode()).isEqualTo(map1.hashCode());
+  }
+
+  @Test
+  public void testCollisions() {
+    Key k1 = new Key(1, 42);
+    Key k2 = new Key(2, 42);
+    Key k3 = new Key(3, 42 | (1 << 31));
+
+    PersistentHashMap<Key, String> map = PersistentHashMap.of();
+    map = map.putAndCopy(k1, "1").putAndCopy(k2, "2").putAndCopy(k3, "3");
+    assertThat(map.size()).isEqualTo(3);
+    assertThat(map.get(k1)).isEqualTo("1");
+    assertThat(map.get(k2)).isEqualTo("2");
+    assertThat(map.get(k3)).isEqualTo("3");
+    assertThat(map.get(new Key(4, 42))).isNull();
+
+    map = map.removeAndCopy(k1);
+    assertThat(map.asMap()).isEqualTo(ImmutableMap.of(k2, "2", k3, "3"));
+    map = map.removeAndCopy(k2).removeAndCopy(k3);
+    assertThat(map.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testRandomOperations() {
+    Random random = new Random(0);
+    Map<Key, Integer> expected = new HashMap<>();
+    PersistentHashMap<Key, Integer> map = PersistentHashMap.of();
+
+    for (int i = 0; i < 20000; i++) {
+      // few distinct hash codes with many shared prefixes
+      int id = random.nextInt(500);
+      Key key = new Key(id, (id % 97) * 0x01010101);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        map = map.removeAndCopy(key);
+      } else {
+        expected.put(key, i);
+        map = map.putAndCopy(key, i);
+      }
+      assertThat(map.size()).isEqualTo(expected.size());
+    }
+    assertThat(map.asMap()).isEqualTo(expected);
+    assertThat(PersistentHashMap.copyOf(expected)).isEqualTo(map);
+  }
+
+  @Test
+  public void testSet() {
+    PersistentHashSet<Integer> set1 = PersistentHashSet.copyOf(Arrays.asList(1, 2, 3));
+    PersistentHashSet<Integer> set2 = set1.removeAndCopy(2).addAndCopy(4);
+
+    assertThat(set1.asSet()).containsExactly(1, 2, 3);
+    assertThat(set2.asSet()).containsExactly(1, 3, 4);
+    assertThat(set2.addAndCopy(4)).isSameAs(set2);
+    assertThat(set2.removeAndCopy(4).addAndCopy(2)).isEqualTo(set1);
+  }
+}
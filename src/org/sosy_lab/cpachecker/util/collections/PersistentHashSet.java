@@ -0,0 +1,146 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.collections;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
+
+/**
+ * Immutable hash set that shares its structure with the sets it was created from.
+ * This is a {@link PersistentHashMap} of the elements,
+ * thus copying is free and modifications need O(log n).
+ *
+ * @param <E> the type of the elements
+ */
+public final class PersistentHashSet<E> implements Iterable<E> {
+
+  private static final PersistentHashSet<?> EMPTY = 
+      new PersistentHashSet<>(PersistentHashMap.<Object, Boolean>of());
+
+  private final PersistentHashMap<E, Boolean> map;
+
+  private PersistentHashSet(PersistentHashMap<E, Boolean> pMap) {
+    map = pMap;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentHashSet<E> of() {
+    return (PersistentHashSet<E>) EMPTY;
+  }
+
+  public static <E> PersistentHashSet<E> copyOf(Iterable<? extends E> pElements) {
+    PersistentHashSet<E> result = of();
+    for (E element : pElements) {
+      result = result.addAndCopy(element);
+    }
+    return result;
+  }
+
+  public int size() {
+    return map.size();
+  }
+
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  public boolean contains(Object pElement) {
+    return map.containsKey(pElement);
+  }
+
+  /** Returns a set with the given element added, or this set if it is already present. */
+  public PersistentHashSet<E> addAndCopy(E pElement) {
+    PersistentHashMap<E, Boolean> newMap = map.putAndCopy(pElement, Boolean.TRUE);
+    return newMap == map ? this : new PersistentHashSet<>(newMap);
+  }
+
+  /** Returns a set without the given element, or this set if it is not present. */
+  public PersistentHashSet<E> removeAndCopy(Object pElement) {
+    PersistentHashMap<E, Boolean> newMap = map.removeAndCopy(pElement);
+    return newMap == map ? this : new PersistentHashSet<>(newMap);
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return Iterators.transform(map.entryIterator(), PersistentHashSet.<E>getKey());
+  }
+
+  private static <E> Function<Map.Entry<E, Boolean>, E> getKey() {
+    return new Function<Map.Entry<E, Boolean>, E>() {
+      @Override
+      public E apply(Map.Entry<E, Boolean> pEntry) {
+        return pEntry.getKey();
+      }
+    };
+  }
+
+  /**
+   * Returns an unmodifiable {@link Set} view of this set.
+   * As this set is immutable, the view never changes.
+   */
+  public Set<E> asSet() {
+    return new AbstractSet<E>() {
+      @Override
+      public Iterator<E> iterator() {
+        return PersistentHashSet.this.iterator();
+      }
+
+      @Override
+      public boolean contains(Object pElement) {
+        return PersistentHashSet.this.contains(pElement);
+      }
+
+      @Override
+      public int size() {
+        return PersistentHashSet.this.size();
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (this == pObj) {
+      return true;
+    }
+    if (!(pObj instanceof PersistentHashSet)) {
+      return false;
+    }
+    return map.equals(((PersistentHashSet<?>) pObj).map);
+  }
+
+  @Override
+  public int hashCode() {
+    return asSet().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return asSet().toString();
+  }
+}
@@ -26,15 +26,28 @@ package org.sosy_lab.cpachecker.util.octagon;
 public class NumArray {
 
   private final long array;
+  private final double[] values;
 
+  /** Create a number array of the native library. */
   NumArray(long l) {
     array = l;
+    values = null;
+  }
+
+  /** Create a number array of the Java implementation. */
+  NumArray(double[] pValues) {
+    array = 0;
+    values = pValues;
   }
 
   long getArray() {
     return array;
   }
 
+  double[] getValues() {
+    return values;
+  }
+
   @Override
   public String toString() {
     // TODO
@@ -47,11 +60,11 @@ public class NumArray {
       return false;
     }
     NumArray otherArr = (NumArray) pObj;
-    return this.array == otherArr.array;
+    return this.array == otherArr.array && this.values == otherArr.values;
   }
 
   @Override
   public int hashCode() {
-    return (int)array;
+    return values == null ? (int)array : System.identityHashCode(values);
   }
 }
\ No newline at end of file
@@ -32,16 +32,26 @@ import java.util.List;
 public class Octagon {
 
   private final long octId;
+  private final OctagonMatrix matrix;
   private final OctagonManager manager;
   private static List<OctagonPhantomReference> phantomReferences = new ArrayList<>();
   private static ReferenceQueue<Octagon> referenceQueue = new ReferenceQueue<>();
 
-  Octagon(long l, OctagonManager manager) {
+  /** Create an octagon of the native library, which is freed after it is unreachable. */
+  Octagon(long l, OctagonNativeManager manager) {
     octId = l;
+    matrix = null;
     this.manager = manager;
     registerPhantomReference(this);
   }
 
+  /** Create an octagon of the Java implementation, which needs no cleanup. */
+  Octagon(OctagonMatrix pMatrix, OctagonJavaManager manager) {
+    octId = 0;
+    matrix = pMatrix;
+    this.manager = manager;
+  }
+
   private static void registerPhantomReference(Octagon oct) {
     phantomReferences.add(new OctagonPhantomReference(oct, referenceQueue));
   }
@@ -57,13 +67,17 @@ public class Octagon {
     return octId;
   }
 
+  OctagonMatrix getMatrix() {
+    return matrix;
+  }
+
   public OctagonManager getManager() {
     return manager;
   }
 
   @Override
   public int hashCode() {
-    return (int)octId;
+    return matrix == null ? (int)octId : matrix.hashCode();
   }
 
   @Override
@@ -78,6 +92,9 @@ public class Octagon {
 
   @Override
   public String toString() {
+    if (matrix != null) {
+      return "octagon with dimension: " + matrix.getDimension();
+    }
     return "octagon with id: " + octId;
   }
-}
\ No newline at end of file
+}
@@ -33,7 +33,7 @@ import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 import com.google.common.collect.BiMap;
 
 
-public class OctagonIntManager extends OctagonManager {
+public class OctagonIntManager extends OctagonNativeManager {
 
   public OctagonIntManager() {
     super("JOct_int");
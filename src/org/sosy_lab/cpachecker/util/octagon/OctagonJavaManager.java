@@ -0,0 +1,471 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import java.util.Arrays;
+
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonDoubleValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonIntValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+import com.google.common.collect.BiMap;
+
+/**
+ * Octagon manager that is implemented in Java (cf. {@link OctagonMatrix})
+ * and thus needs no native library.
+ * Octagons are immutable, so copies are free and successor states share their matrices.
+ *
+ * Number arrays have the same layout as for the native library,
+ * interval arrays store the upper bound and the negated lower bound of each coefficient.
+ * Backward substitutions are not supported.
+ */
+public class OctagonJavaManager extends OctagonManager {
+
+  private static final double INF = Double.POSITIVE_INFINITY;
+
+  /* constraint types of addBinConstraint, as in the native library */
+  private static final int PX = 0;
+  private static final int MX = 1;
+  private static final int PXPY = 2;
+  private static final int PXMY = 3;
+  private static final int MXPY = 4;
+  private static final int MXMY = 5;
+
+  private final boolean integers;
+
+  /**
+   * @param pIntegers whether the octagons contain only integer values (like {@link OctagonIntManager})
+   *                  or also floating-point values (like {@link OctagonFloatManager})
+   */
+  public OctagonJavaManager(boolean pIntegers) {
+    integers = pIntegers;
+  }
+
+  private Octagon wrap(OctagonMatrix pMatrix) {
+    return new Octagon(pMatrix, this);
+  }
+
+  private static OctagonMatrix matrix(Octagon oct) {
+    OctagonMatrix matrix = oct.getMatrix();
+    if (matrix == null) {
+      throw new IllegalArgumentException("Octagon " + oct + " was not created by the Java octagon manager");
+    }
+    return matrix;
+  }
+
+  private static double[] values(NumArray n) {
+    double[] values = n.getValues();
+    if (values == null) {
+      throw new IllegalArgumentException("Number array was not created by the Java octagon manager");
+    }
+    return values;
+  }
+
+  /* num handling function*/
+
+  @Override
+  public NumArray init_num_t(int n) {
+    return new NumArray(new double[n]);
+  }
+
+  @Override
+  public void num_set(NumArray n1, NumArray n2) {
+    values(n1)[0] = values(n2)[0];
+  }
+
+  /** Set the bounds of a variable, lower is the negated lower bound like in {@link #getVariableBounds}. */
+  @Override
+  public Octagon set_bounds(Octagon oct, int pos, NumArray lower, NumArray upper) {
+    OctagonMatrix forgotten = matrix(oct).forget(pos);
+    return wrap(forgotten.addConstraints(
+        new int[] {2 * pos + 1, 2 * pos},
+        new int[] {2 * pos, 2 * pos + 1},
+        new double[] {2 * values(upper)[0], 2 * values(lower)[0]}));
+  }
+
+  @Override
+  public void num_set_int(NumArray n, int pos, long i) {
+    values(n)[pos] = i;
+  }
+
+  @Override
+  public void num_set_float(NumArray n, int pos, double d) {
+    values(n)[pos] = integers ? Math.floor(d) : d;
+  }
+
+  @Override
+  public void num_set_inf(NumArray n, int pos) {
+    values(n)[pos] = INF;
+  }
+
+  @Override
+  public long num_get_int(NumArray n, int pos) {
+    return (long) values(n)[pos];
+  }
+
+  @Override
+  public double num_get_float(NumArray n, int pos) {
+    return values(n)[pos];
+  }
+
+  @Override
+  public boolean num_infty(NumArray n, int pos) {
+    return values(n)[pos] == INF;
+  }
+
+  @Override
+  public void num_clear_n(NumArray n, int size) {
+    // nothing to do, the array is garbage collected
+  }
+
+  /* Octagon Creation */
+
+  @Override
+  public Octagon empty(int n) {
+    return wrap(OctagonMatrix.empty(n, integers));
+  }
+
+  @Override
+  public Octagon universe(int n) {
+    return wrap(OctagonMatrix.universe(n, integers));
+  }
+
+  @Override
+  public Octagon copy(Octagon oct) {
+    return wrap(matrix(oct));
+  }
+
+  @Override
+  public Octagon full_copy(Octagon oct) {
+    return wrap(matrix(oct));
+  }
+
+  /* Query Functions */
+
+  @Override
+  public int dimension(Octagon oct) {
+    return matrix(oct).getDimension();
+  }
+
+  @Override
+  public int nbconstraints(Octagon oct) {
+    return matrix(oct).getNumberOfConstraints();
+  }
+
+  /* Test Functions */
+
+  private static int toTbool(boolean value) {
+    return value ? 1 : 2;
+  }
+
+  @Override
+  public boolean isEmpty(Octagon oct) {
+    return matrix(oct).isEmpty();
+  }
+
+  @Override
+  public int isEmptyLazy(Octagon oct) {
+    return toTbool(isEmpty(oct));
+  }
+
+  @Override
+  public boolean isUniverse(Octagon oct) {
+    return matrix(oct).isUniverse();
+  }
+
+  @Override
+  public boolean isIncludedIn(Octagon oct1, Octagon oct2) {
+    return matrix(oct1).isIncludedIn(matrix(oct2));
+  }
+
+  @Override
+  public int isIncludedInLazy(Octagon oct1, Octagon oct2) {
+    return toTbool(isIncludedIn(oct1, oct2));
+  }
+
+  @Override
+  public boolean isEqual(Octagon oct1, Octagon oct2) {
+    return matrix(oct1).isEqualTo(matrix(oct2));
+  }
+
+  @Override
+  public int isEqualLazy(Octagon oct1, Octagon oct2) {
+    return toTbool(isEqual(oct1, oct2));
+  }
+
+  @Override
+  public boolean isIn(Octagon oct1, NumArray array) {
+    return matrix(oct1).contains(values(array));
+  }
+
+  /* Operators */
+
+  @Override
+  public Octagon intersection(Octagon oct1, Octagon oct2) {
+    return wrap(matrix(oct1).intersection(matrix(oct2)));
+  }
+
+  @Override
+  public Octagon union(Octagon oct1, Octagon oct2) {
+    return wrap(matrix(oct1).union(matrix(oct2)));
+  }
+
+  @Override
+  public Octagon widening(Octagon oct1, Octagon oct2) {
+    return wrap(matrix(oct1).widening(matrix(oct2)));
+  }
+
+  @Override
+  public Octagon narrowing(Octagon oct1, Octagon oct2) {
+    return wrap(matrix(oct1).narrowing(matrix(oct2)));
+  }
+
+  /* Transfer Functions */
+
+  @Override
+  public Octagon forget(Octagon oct, int k) {
+    return wrap(matrix(oct).forget(k));
+  }
+
+  /** Assign tab[0]*v_0 + ... + tab[n-1]*v_(n-1) + tab[n] to v_k. */
+  @Override
+  public Octagon assingVar(Octagon oct, int k, NumArray array) {
+    OctagonMatrix matrix = matrix(oct);
+    double[] coefficients = Arrays.copyOf(values(array), matrix.getDimension() + 1);
+    return wrap(matrix.assign(k, coefficients, coefficients));
+  }
+
+  /** Assign [tab[1], tab[0]]*v_0 + ... + [tab[2n+1], tab[2n]] to v_k, tab[2i+1] is the negated lower bound. */
+  @Override
+  public Octagon intervAssingVar(Octagon oct, int k, NumArray array) {
+    OctagonMatrix matrix = matrix(oct);
+    double[] values = values(array);
+    int size = matrix.getDimension() + 1;
+    double[] low = new double[size];
+    double[] high = new double[size];
+    for (int i = 0; i < size; i++) {
+      high[i] = values[2 * i];
+      low[i] = -values[2 * i + 1];
+    }
+    return wrap(matrix.assign(k, low, high));
+  }
+
+  /** Add constraints given as quadruples (type, x, y, c) as in the native library. */
+  @Override
+  public Octagon addBinConstraint(Octagon oct, int noOfConstraints, NumArray array) {
+    double[] values = values(array);
+    int[] from = new int[noOfConstraints];
+    int[] to = new int[noOfConstraints];
+    double[] bounds = new double[noOfConstraints];
+    for (int c = 0; c < noOfConstraints; c++) {
+      int type = (int) values[4 * c];
+      int x = (int) values[4 * c + 1];
+      int y = (int) values[4 * c + 2];
+      double bound = values[4 * c + 3];
+      switch (type) {
+      case PX: // x <= c
+        from[c] = 2 * x + 1; to[c] = 2 * x; bounds[c] = 2 * bound;
+        break;
+      case MX: // -x <= c
+        from[c] = 2 * x; to[c] = 2 * x + 1; bounds[c] = 2 * bound;
+        break;
+      case PXPY: // x + y <= c
+        from[c] = 2 * y + 1; to[c] = 2 * x; bounds[c] = bound;
+        break;
+      case PXMY: // x - y <= c
+        from[c] = 2 * y; to[c] = 2 * x; bounds[c] = bound;
+        break;
+      case MXPY: // -x + y <= c
+        from[c] = 2 * x; to[c] = 2 * y; bounds[c] = bound;
+        break;
+      case MXMY: // -x - y <= c
+        from[c] = 2 * y; to[c] = 2 * x + 1; bounds[c] = bound;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown constraint type " + type);
+      }
+    }
+    return wrap(matrix(oct).addConstraints(from, to, bounds));
+  }
+
+  /** Add the constraint tab[0]*v_0 + ... + tab[n-1]*v_(n-1) + tab[n] >= 0. */
+  @Override
+  public Octagon addConstraint(Octagon oct, NumArray array) {
+    double[] values = values(array);
+    int size = matrix(oct).getDimension() + 1;
+    NumArray intervals = init_num_t(2 * size);
+    for (int i = 0; i < size; i++) {
+      values(intervals)[2 * i] = values[i];
+      values(intervals)[2 * i + 1] = -values[i];
+    }
+    return intervAddConstraint(oct, intervals);
+  }
+
+  /**
+   * Add the constraint [tab[1], tab[0]]*v_0 + ... + [tab[2n+1], tab[2n]] >= 0, tab[2i+1] is the negated lower bound.
+   * Octagonal constraints are added exactly, otherwise the bounds of the single variables are restricted.
+   */
+  @Override
+  public Octagon intervAddConstraint(Octagon oct, NumArray array) {
+    OctagonMatrix matrix = matrix(oct).close();
+    if (matrix.isEmpty()) {
+      return wrap(matrix);
+    }
+    double[] values = values(array);
+    int n = matrix.getDimension();
+
+    // the constraint is sum <= constHigh with sum = -(sum of the variable terms)
+    double constHigh = values[2 * n];
+    int[] vars = new int[n];
+    int count = 0;
+    boolean octagonal = true;
+    for (int i = 0; i < n; i++) {
+      double high = values[2 * i];
+      double low = -values[2 * i + 1];
+      if (low == 0 && high == 0) {
+        continue;
+      }
+      vars[count++] = i;
+      octagonal &= low == high && Math.abs(low) == 1;
+    }
+
+    if (octagonal && count <= 2) {
+      if (count == 0) {
+        return constHigh >= 0 ? wrap(matrix) : empty(n);
+      }
+      // -a*x - b*y <= constHigh, node 2x stands for +x and 2x+1 for -x
+      int x = vars[0];
+      int nodeX = values[2 * x] > 0 ? 2 * x + 1 : 2 * x;
+      if (count == 1) {
+        return wrap(matrix.addConstraints(new int[] {nodeX ^ 1}, new int[] {nodeX}, new double[] {2 * constHigh}));
+      }
+      int y = vars[1];
+      int nodeY = values[2 * y] > 0 ? 2 * y + 1 : 2 * y;
+      return wrap(matrix.addConstraints(new int[] {nodeY ^ 1}, new int[] {nodeX}, new double[] {constHigh}));
+    }
+
+    // a_i*x_i >= -(rest), thus a_i*x_i >= -(upper bound of rest)
+    OctagonMatrix result = matrix;
+    for (int k = 0; k < count; k++) {
+      int x = vars[k];
+      double high = values[2 * x];
+      double low = -values[2 * x + 1];
+      if (low != high) {
+        continue;
+      }
+      double rest = constHigh;
+      for (int l = 0; l < count; l++) {
+        if (l != k) {
+          int y = vars[l];
+          double yHigh = matrix.getUpperBound(y);
+          double yLow = -matrix.getNegatedLowerBound(y);
+          rest += Math.max(Math.max(multiply(values[2 * y], yLow), multiply(values[2 * y], yHigh)),
+                           Math.max(multiply(-values[2 * y + 1], yLow), multiply(-values[2 * y + 1], yHigh)));
+        }
+      }
+      if (Double.isNaN(rest) || rest == INF) {
+        continue;
+      }
+      if (high > 0) {
+        // x >= -rest/a, i.e., -x <= rest/a
+        result = result.addConstraints(new int[] {2 * x}, new int[] {2 * x + 1}, new double[] {2 * rest / high});
+      } else {
+        // x <= rest/|a|
+        result = result.addConstraints(new int[] {2 * x + 1}, new int[] {2 * x}, new double[] {2 * rest / -high});
+      }
+    }
+    return wrap(result);
+  }
+
+  private static double multiply(double a, double b) {
+    if (a == 0 || b == 0) {
+      return 0;
+    }
+    return a * b;
+  }
+
+  /* change of dimensions */
+
+  @Override
+  public Octagon addDimensionAndEmbed(Octagon oct, int k) {
+    return wrap(matrix(oct).addDimensions(k, false));
+  }
+
+  @Override
+  public Octagon addDimensionAndProject(Octagon oct, int k) {
+    return wrap(matrix(oct).addDimensions(k, true));
+  }
+
+  @Override
+  public Octagon removeDimension(Octagon oct, int k) {
+    return wrap(matrix(oct).removeDimensions(k));
+  }
+
+  @Override
+  public String print(Octagon oct, BiMap<Integer, MemoryLocation> map) {
+    StringBuilder str = new StringBuilder();
+    str.append("Octagon (dimension: " + dimension(oct) + ")\n");
+    if (isEmpty(oct)) {
+      str.append("[Empty]\n");
+      return str.toString();
+    }
+
+    for (int i = 0; i < map.size(); i++) {
+      OctagonInterval bounds = getVariableBounds(oct, i);
+      str.append(" ").append(map.get(i)).append(" -> [")
+         .append(bounds.getLow().isInfinite() ? "-INFINITY" : bounds.getLow().toString()).append(", ")
+         .append(bounds.getHigh().isInfinite() ? "INFINITY" : bounds.getHigh().toString()).append("]\n");
+    }
+    return str.toString();
+  }
+
+  @Override
+  public OctagonInterval getVariableBounds(Octagon oct, int id) {
+    OctagonMatrix matrix = matrix(oct);
+    assert id < matrix.getDimension();
+    if (matrix.isEmpty()) {
+      return OctagonInterval.EMPTY;
+    }
+    double upper = matrix.getUpperBound(id);
+    double negatedLower = matrix.getNegatedLowerBound(id);
+    boolean lowerInfinite = negatedLower == INF;
+    boolean upperInfinite = upper == INF;
+
+    if (!integers) {
+      return new OctagonInterval(lowerInfinite ? Double.NEGATIVE_INFINITY : -negatedLower,
+                                 upperInfinite ? Double.POSITIVE_INFINITY : upper);
+    } else if (lowerInfinite && upperInfinite) {
+      return new OctagonInterval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    } else if (lowerInfinite) {
+      return new OctagonInterval(new OctagonDoubleValue(Double.NEGATIVE_INFINITY),
+                                 OctagonIntValue.of((long) upper));
+    } else if (upperInfinite) {
+      return new OctagonInterval(OctagonIntValue.of((long) -negatedLower),
+                                 new OctagonDoubleValue(Double.POSITIVE_INFINITY));
+    } else {
+      return new OctagonInterval((long) -negatedLower, (long) upper);
+    }
+  }
+}
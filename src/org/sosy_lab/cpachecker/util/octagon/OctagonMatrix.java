@@ -0,0 +1,616 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * Octagon stored as half difference-bound matrix in a flat array,
+ * used by {@link OctagonJavaManager}.
+ *
+ * Variable k is represented by the two nodes 2k (for +v_k) and 2k+1 (for -v_k),
+ * and the entry (i, j) is the bound of the constraint node_j - node_i <= m[i][j].
+ * Because of the coherence m[i][j] = m[j^1][i^1], only the entries with j <= (i|1) are stored.
+ * Thus the matrix of an octagon with n variables has 2n(n+1) entries,
+ * and adding or removing the last variables only changes the end of the array.
+ *
+ * Instances are immutable and may be shared between octagons.
+ * The strong closure of a matrix is computed lazily and cached.
+ * All operations that change only the constraints of a single variable
+ * restore the closure incrementally in O(n²).
+ */
+final class OctagonMatrix {
+
+  private static final double INF = Double.POSITIVE_INFINITY;
+
+  private final int dimension;
+
+  /** whether all bounds are integers, in this case the closure is tight */
+  private final boolean integral;
+
+  /** the entries of the half matrix, or null if the octagon is empty */
+  private final @Nullable double[] m;
+
+  private final boolean closed;
+  private @Nullable OctagonMatrix closure;
+
+  private OctagonMatrix(int pDimension, boolean pIntegral, @Nullable double[] pMatrix, boolean pClosed) {
+    dimension = pDimension;
+    integral = pIntegral;
+    m = pMatrix;
+    closed = pClosed;
+  }
+
+  static OctagonMatrix universe(int pDimension, boolean pIntegral) {
+    double[] matrix = new double[size(pDimension)];
+    Arrays.fill(matrix, INF);
+    setDiagonal(matrix, 0, pDimension);
+    return new OctagonMatrix(pDimension, pIntegral, matrix, true);
+  }
+
+  static OctagonMatrix empty(int pDimension, boolean pIntegral) {
+    return new OctagonMatrix(pDimension, pIntegral, null, true);
+  }
+
+  private static int size(int pDimension) {
+    return 2 * pDimension * (pDimension + 1);
+  }
+
+  private static int index(int i, int j) {
+    if (j > (i | 1)) {
+      return index(j ^ 1, i ^ 1);
+    }
+    return j + ((i + 1) * (i + 1)) / 2;
+  }
+
+  private static void setDiagonal(double[] pMatrix, int pFrom, int pTo) {
+    for (int i = 2 * pFrom; i < 2 * pTo; i++) {
+      pMatrix[index(i, i)] = 0;
+    }
+  }
+
+  int getDimension() {
+    return dimension;
+  }
+
+  boolean isIntegral() {
+    return integral;
+  }
+
+  /** Get the bound of the constraint node_j - node_i <= c, the matrix must not be empty. */
+  double get(int i, int j) {
+    return m[index(i, j)];
+  }
+
+  /* Closure */
+
+  /** Returns the strong (or for integers tight) closure of this matrix. */
+  OctagonMatrix close() {
+    if (closed) {
+      return this;
+    }
+    OctagonMatrix result = closure;
+    if (result == null) {
+      double[] matrix = m.clone();
+      for (int k = 0; k < dimension; k++) {
+        pivot(matrix, dimension, k);
+      }
+      result = strengthen(matrix);
+      closure = result;
+    }
+    return result;
+  }
+
+  boolean isEmpty() {
+    return close().m == null;
+  }
+
+  /**
+   * Close the matrix, given that it was closed except for the constraints involving variable v.
+   * The shortest-path steps with the other variables as pivot
+   * can only change the rows and columns of v, so only these are updated,
+   * and only the final step with v as pivot needs to update the whole matrix.
+   */
+  private OctagonMatrix closeIncrementally(double[] matrix, int v) {
+    for (int k = 0; k < dimension; k++) {
+      if (k != v) {
+        for (int i = 2 * v; i <= 2 * v + 1; i++) {
+          for (int j = 0; j < 2 * dimension; j++) {
+            relax(matrix, i, j, k);
+          }
+        }
+      }
+    }
+    pivot(matrix, dimension, v);
+    return strengthen(matrix);
+  }
+
+  /** Shortest-path step for all entries with the two nodes of variable k as pivot. */
+  private static void pivot(double[] matrix, int pDimension, int k) {
+    final int k0 = 2 * k;
+    final int k1 = 2 * k + 1;
+    final double kk1 = matrix[index(k0, k1)];
+    final double k1k = matrix[index(k1, k0)];
+
+    for (int i = 0; i < 2 * pDimension; i++) {
+      final double ik0 = matrix[index(i, k0)];
+      final double ik1 = matrix[index(i, k1)];
+      if (ik0 == INF && ik1 == INF) {
+        continue;
+      }
+      final int last = i | 1;
+      for (int j = 0; j <= last; j++) {
+        final double k0j = matrix[index(k0, j)];
+        final double k1j = matrix[index(k1, j)];
+        final int ij = index(i, j);
+        double value = matrix[ij];
+        value = Math.min(value, ik0 + k0j);
+        value = Math.min(value, ik1 + k1j);
+        value = Math.min(value, ik0 + kk1 + k1j);
+        value = Math.min(value, ik1 + k1k + k0j);
+        matrix[ij] = value;
+      }
+    }
+  }
+
+  /** Shortest-path step for the entry (i, j) with the two nodes of variable k as pivot. */
+  private static void relax(double[] matrix, int i, int j, int k) {
+    final int k0 = 2 * k;
+    final int k1 = 2 * k + 1;
+    final double ik0 = matrix[index(i, k0)];
+    final double ik1 = matrix[index(i, k1)];
+    final double k0j = matrix[index(k0, j)];
+    final double k1j = matrix[index(k1, j)];
+    final int ij = index(i, j);
+    double value = matrix[ij];
+    value = Math.min(value, ik0 + k0j);
+    value = Math.min(value, ik1 + k1j);
+    value = Math.min(value, ik0 + matrix[index(k0, k1)] + k1j);
+    value = Math.min(value, ik1 + matrix[index(k1, k0)] + k0j);
+    matrix[ij] = value;
+  }
+
+  /**
+   * Tighten (for integers) and strengthen a matrix after the shortest-path closure,
+   * and check it for emptiness.
+   */
+  private OctagonMatrix strengthen(double[] matrix) {
+    final int n2 = 2 * dimension;
+    final double[] unary = new double[n2];
+    for (int i = 0; i < n2; i++) {
+      double value = matrix[index(i, i ^ 1)];
+      if (integral) {
+        value = 2 * Math.floor(value / 2);
+        matrix[index(i, i ^ 1)] = value;
+      }
+      unary[i] = value;
+    }
+
+    for (int i = 0; i < n2; i++) {
+      final int last = i | 1;
+      for (int j = 0; j <= last; j++) {
+        final int ij = index(i, j);
+        matrix[ij] = Math.min(matrix[ij], (unary[i] + unary[j ^ 1]) / 2);
+      }
+    }
+
+    for (int i = 0; i < n2; i++) {
+      final int ii = index(i, i);
+      if (matrix[ii] < 0) {
+        return empty(dimension, integral);
+      }
+      matrix[ii] = 0;
+    }
+    return new OctagonMatrix(dimension, integral, matrix, true);
+  }
+
+  /* Tests */
+
+  boolean isUniverse() {
+    OctagonMatrix c = close();
+    if (c.m == null) {
+      return false;
+    }
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && c.m[index(i, j)] != INF) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  boolean isIncludedIn(OctagonMatrix pOther) {
+    checkDimension(pOther);
+    OctagonMatrix c = close();
+    if (c.m == null) {
+      return true;
+    }
+    if (pOther.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < c.m.length; i++) {
+      if (c.m[i] > pOther.m[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean isEqualTo(OctagonMatrix pOther) {
+    if (dimension != pOther.dimension) {
+      return false;
+    }
+    OctagonMatrix c1 = close();
+    OctagonMatrix c2 = pOther.close();
+    if (c1.m == null || c2.m == null) {
+      return c1.m == c2.m;
+    }
+    return Arrays.equals(c1.m, c2.m);
+  }
+
+  boolean contains(double[] pPoint) {
+    if (isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (node(pPoint, j) - node(pPoint, i) > m[index(i, j)]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static double node(double[] pPoint, int i) {
+    return (i & 1) == 0 ? pPoint[i / 2] : -pPoint[i / 2];
+  }
+
+  int getNumberOfConstraints() {
+    if (m == null) {
+      return 0;
+    }
+    int result = 0;
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && m[index(i, j)] != INF) {
+          result++;
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Returns the upper and the negated lower bound of a variable, the octagon must not be empty. */
+  double getUpperBound(int pVar) {
+    return close().get(2 * pVar + 1, 2 * pVar) / 2;
+  }
+
+  double getNegatedLowerBound(int pVar) {
+    return close().get(2 * pVar, 2 * pVar + 1) / 2;
+  }
+
+  /* Operators */
+
+  OctagonMatrix intersection(OctagonMatrix pOther) {
+    checkDimension(pOther);
+    if (m == null) {
+      return this;
+    } else if (pOther.m == null) {
+      return pOther;
+    }
+    double[] matrix = new double[m.length];
+    for (int i = 0; i < matrix.length; i++) {
+      matrix[i] = Math.min(m[i], pOther.m[i]);
+    }
+    return new OctagonMatrix(dimension, integral, matrix, false);
+  }
+
+  /** The convex hull of two octagons, which is closed if the arguments are closed. */
+  OctagonMatrix union(OctagonMatrix pOther) {
+    checkDimension(pOther);
+    OctagonMatrix c1 = close();
+    OctagonMatrix c2 = pOther.close();
+    if (c1.m == null) {
+      return c2;
+    } else if (c2.m == null) {
+      return c1;
+    }
+    double[] matrix = new double[c1.m.length];
+    for (int i = 0; i < matrix.length; i++) {
+      matrix[i] = Math.max(c1.m[i], c2.m[i]);
+    }
+    return new OctagonMatrix(dimension, integral, matrix, true);
+  }
+
+  /**
+   * Widening with threshold zero: Bounds that increase are widened to zero if possible,
+   * otherwise to infinity. This matrix is the previous iterate and is not closed,
+   * as closing it would break termination.
+   */
+  OctagonMatrix widening(OctagonMatrix pOther) {
+    checkDimension(pOther);
+    OctagonMatrix c2 = pOther.close();
+    if (m == null) {
+      return c2;
+    } else if (c2.m == null) {
+      return this;
+    }
+    double[] matrix = new double[m.length];
+    for (int i = 0; i < matrix.length; i++) {
+      if (c2.m[i] <= m[i]) {
+        matrix[i] = m[i];
+      } else if (c2.m[i] <= 0) {
+        matrix[i] = 0;
+      } else {
+        matrix[i] = INF;
+      }
+    }
+    return new OctagonMatrix(dimension, integral, matrix, false);
+  }
+
+  OctagonMatrix narrowing(OctagonMatrix pOther) {
+    checkDimension(pOther);
+    OctagonMatrix c1 = close();
+    OctagonMatrix c2 = pOther.close();
+    if (c1.m == null || c2.m == null) {
+      return empty(dimension, integral);
+    }
+    double[] matrix = new double[c1.m.length];
+    for (int i = 0; i < matrix.length; i++) {
+      matrix[i] = c1.m[i] == INF ? c2.m[i] : c1.m[i];
+    }
+    return new OctagonMatrix(dimension, integral, matrix, false);
+  }
+
+  /* Transfer functions */
+
+  /** Remove all constraints of a variable, the result is closed. */
+  OctagonMatrix forget(int pVar) {
+    OctagonMatrix c = close();
+    if (c.m == null) {
+      return c;
+    }
+    double[] matrix = c.m.clone();
+    forget(matrix, pVar);
+    return new OctagonMatrix(dimension, integral, matrix, true);
+  }
+
+  private void forget(double[] matrix, int pVar) {
+    for (int i = 2 * pVar; i <= 2 * pVar + 1; i++) {
+      for (int j = 0; j < 2 * dimension; j++) {
+        matrix[index(i, j)] = i == j ? 0 : INF;
+      }
+    }
+  }
+
+  /**
+   * Add the constraint node_j - node_i <= c for all given triples (i, j, c).
+   * If all constraints involve the same variable, the closure is restored incrementally.
+   */
+  OctagonMatrix addConstraints(int[] pFrom, int[] pTo, double[] pBounds) {
+    OctagonMatrix c = close();
+    if (c.m == null) {
+      return c;
+    }
+    double[] matrix = c.m.clone();
+    int commonVar = pFrom.length == 0 ? -1 : pFrom[0] / 2;
+    for (int k = 0; k < pFrom.length; k++) {
+      int ij = index(pFrom[k], pTo[k]);
+      double bound = integral ? Math.floor(pBounds[k]) : pBounds[k];
+      matrix[ij] = Math.min(matrix[ij], bound);
+      if (pFrom[k] / 2 != commonVar && pTo[k] / 2 != commonVar) {
+        commonVar = -1;
+      }
+    }
+    if (commonVar >= 0) {
+      return closeIncrementally(matrix, commonVar);
+    }
+    return new OctagonMatrix(dimension, integral, matrix, false).close();
+  }
+
+  /**
+   * Assign the value of the expression sum_i [pLow_i, pHigh_i]*v_i + [pLow_n, pHigh_n]
+   * to variable x. Assignments of the form x := ±y + c and x := ±x + c are exact,
+   * other expressions are approximated by their bounds.
+   */
+  OctagonMatrix assign(int x, double[] pLow, double[] pHigh) {
+    OctagonMatrix c = close();
+    if (c.m == null) {
+      return c;
+    }
+
+    double constLow = pLow[dimension];
+    double constHigh = pHigh[dimension];
+    int var = -1;
+    boolean octagonal = true;
+    for (int i = 0; i < dimension && octagonal; i++) {
+      if (pLow[i] == 0 && pHigh[i] == 0) {
+        continue;
+      }
+      if (var == -1 && pLow[i] == pHigh[i] && Math.abs(pLow[i]) == 1) {
+        var = i;
+      } else {
+        octagonal = false;
+      }
+    }
+
+    double[] matrix = c.m.clone();
+    if (octagonal && var == x) {
+      if (pLow[x] < 0) {
+        negate(matrix, x);
+      }
+      shift(matrix, x, constLow, constHigh);
+
+    } else if (octagonal && var >= 0) {
+      forget(matrix, x);
+      boolean positive = pLow[var] > 0;
+      int y0 = 2 * var;
+      int y1 = 2 * var + 1;
+      // x - y <= high and y - x <= -low for x := y + [low, high]
+      // x + y <= high and -x - y <= -low for x := -y + [low, high]
+      setMin(matrix, positive ? y0 : y1, 2 * x, upper(constHigh));
+      setMin(matrix, 2 * x, positive ? y0 : y1, -lower(constLow));
+
+    } else {
+      double low = constLow;
+      double high = constHigh;
+      for (int i = 0; i < dimension; i++) {
+        if (pLow[i] == 0 && pHigh[i] == 0) {
+          continue;
+        }
+        double varHigh = c.get(2 * i + 1, 2 * i) / 2;
+        double varLow = -c.get(2 * i, 2 * i + 1) / 2;
+        double[] products = {
+            multiply(pLow[i], varLow), multiply(pLow[i], varHigh),
+            multiply(pHigh[i], varLow), multiply(pHigh[i], varHigh)};
+        double min = products[0];
+        double max = products[0];
+        for (double p : products) {
+          min = Math.min(min, p);
+          max = Math.max(max, p);
+        }
+        low += min;
+        high += max;
+      }
+      if (Double.isNaN(low)) {
+        low = Double.NEGATIVE_INFINITY;
+      }
+      if (Double.isNaN(high)) {
+        high = INF;
+      }
+      forget(matrix, x);
+      setMin(matrix, 2 * x + 1, 2 * x, 2 * upper(high));
+      setMin(matrix, 2 * x, 2 * x + 1, -2 * lower(low));
+    }
+    return closeIncrementally(matrix, x);
+  }
+
+  /** Multiplication with 0 * infinity = 0, as 0 is exact. */
+  private static double multiply(double a, double b) {
+    if (a == 0 || b == 0) {
+      return 0;
+    }
+    return a * b;
+  }
+
+  private double upper(double pBound) {
+    return integral ? Math.floor(pBound) : pBound;
+  }
+
+  private double lower(double pBound) {
+    return integral ? Math.ceil(pBound) : pBound;
+  }
+
+  private static void setMin(double[] matrix, int i, int j, double pBound) {
+    int ij = index(i, j);
+    matrix[ij] = Math.min(matrix[ij], pBound);
+  }
+
+  /** Replace x by -x, i.e., swap the two nodes of x. */
+  private void negate(double[] matrix, int x) {
+    double[] old = matrix.clone();
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        int oi = i / 2 == x ? i ^ 1 : i;
+        int oj = j / 2 == x ? j ^ 1 : j;
+        if (oi != i || oj != j) {
+          matrix[index(i, j)] = old[index(oi, oj)];
+        }
+      }
+    }
+  }
+
+  /** Replace x by x + [low, high]. */
+  private void shift(double[] matrix, int x, double low, double high) {
+    low = lower(low);
+    high = upper(high);
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i == j || (i / 2 != x && j / 2 != x)) {
+          continue;
+        }
+        // node 2x is shifted by [low, high], node 2x+1 by [-high, -low]
+        double upperJ = j == 2 * x ? high : j == 2 * x + 1 ? -low : 0;
+        double lowerI = i == 2 * x ? low : i == 2 * x + 1 ? -high : 0;
+        int ij = index(i, j);
+        matrix[ij] = matrix[ij] + upperJ - lowerI;
+      }
+    }
+  }
+
+  /* Change of dimensions */
+
+  OctagonMatrix addDimensions(int pCount, boolean pProject) {
+    if (m == null) {
+      return empty(dimension + pCount, integral);
+    }
+    int newDimension = dimension + pCount;
+    double[] matrix = Arrays.copyOf(m, size(newDimension));
+    Arrays.fill(matrix, m.length, matrix.length, INF);
+    setDiagonal(matrix, dimension, newDimension);
+    if (pProject) {
+      for (int v = dimension; v < newDimension; v++) {
+        matrix[index(2 * v + 1, 2 * v)] = 0;
+        matrix[index(2 * v, 2 * v + 1)] = 0;
+      }
+      return new OctagonMatrix(newDimension, integral, matrix, false);
+    }
+    return new OctagonMatrix(newDimension, integral, matrix, closed);
+  }
+
+  /** Remove the last pCount variables, the result is closed. */
+  OctagonMatrix removeDimensions(int pCount) {
+    OctagonMatrix c = close();
+    int newDimension = dimension - pCount;
+    if (c.m == null) {
+      return empty(newDimension, integral);
+    }
+    return new OctagonMatrix(newDimension, integral, Arrays.copyOf(c.m, size(newDimension)), true);
+  }
+
+  private void checkDimension(OctagonMatrix pOther) {
+    if (dimension != pOther.dimension) {
+      throw new IllegalArgumentException("Octagons of different dimension " + dimension + " and " + pOther.dimension);
+    }
+  }
+
+  @Override
+  public String toString() {
+    if (isEmpty()) {
+      return "[Empty]";
+    }
+    StringBuilder str = new StringBuilder();
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        str.append(m[index(i, j)]).append(j == (i | 1) ? "\n" : "\t");
+      }
+    }
+    return str.toString();
+  }
+}
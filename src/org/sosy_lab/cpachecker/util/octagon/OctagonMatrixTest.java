@@ -0,0 +1,151 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OctagonMatrixTest {
+
+  private static final int DIMENSION = 4;
+
+  // constraint node_j - node_i <= c as (i, j), node 2x stands for +x and 2x+1 for -x
+  private static OctagonMatrix addConstraint(OctagonMatrix pMatrix, int i, int j, double c) {
+    return pMatrix.addConstraints(new int[] {i}, new int[] {j}, new double[] {c});
+  }
+
+  @Test
+  public void testBounds() {
+    OctagonMatrix m = OctagonMatrix.universe(2, true);
+    m = addConstraint(m, 1, 0, 2 * 5);   // x <= 5
+    m = addConstraint(m, 0, 2, 3);       // y - x <= 3
+    m = addConstraint(m, 2, 3, 2 * -1);  // y >= 1
+
+    assertThat(m.getUpperBound(1)).isWithin(0).of(8.0);
+    assertThat(m.getNegatedLowerBound(1)).isWithin(0).of(-1.0);
+    assertThat(m.getNegatedLowerBound(0)).isWithin(0).of(2.0);
+    assertThat(m.contains(new double[] {5, 8})).isTrue();
+    assertThat(m.contains(new double[] {4, 8})).isFalse();
+    assertThat(m.isEmpty()).isFalse();
+
+    m = addConstraint(m, 3, 2, 2 * 0);   // y <= 0
+    assertThat(m.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testTightClosure() {
+    // 2x <= 1 has no integer solution with x > 0
+    OctagonMatrix m = OctagonMatrix.universe(1, true);
+    m = addConstraint(m, 1, 0, 1);
+    m = addConstraint(m, 0, 1, -1);
+    assertThat(m.isEmpty()).isTrue();
+
+    OctagonMatrix f = OctagonMatrix.universe(1, false);
+    f = addConstraint(f, 1, 0, 1);
+    f = addConstraint(f, 0, 1, -1);
+    assertThat(f.isEmpty()).isFalse();
+    assertThat(f.getUpperBound(0)).isWithin(0).of(0.5);
+  }
+
+  @Test
+  public void testAssign() {
+    OctagonMatrix m = OctagonMatrix.universe(2, true);
+    m = addConstraint(m, 1, 0, 2 * 5);   // x <= 5
+    m = addConstraint(m, 0, 1, 2 * 0);   // x >= 0
+
+    // y := -x + 2
+    m = m.assign(1, new double[] {-1, 0, 2}, new double[] {-1, 0, 2});
+    assertThat(m.getUpperBound(1)).isWithin(0).of(2.0);
+    assertThat(m.getNegatedLowerBound(1)).isWithin(0).of(3.0);
+    assertThat(m.get(2, 1)).isWithin(0).of(-2.0); // x + y == 2
+
+    // x := x + 1
+    m = m.assign(0, new double[] {1, 0, 1}, new double[] {1, 0, 1});
+    assertThat(m.getUpperBound(0)).isWithin(0).of(6.0);
+    assertThat(m.contains(new double[] {1, 2})).isTrue();
+    assertThat(m.contains(new double[] {0, 2})).isFalse();
+  }
+
+  @Test
+  public void testUnionAndInclusion() {
+    OctagonMatrix zero = OctagonMatrix.universe(1, true);
+    zero = addConstraint(zero, 1, 0, 0);
+    zero = addConstraint(zero, 0, 1, 0);
+    OctagonMatrix ten = zero.assign(0, new double[] {0, 10}, new double[] {0, 10});
+
+    OctagonMatrix union = zero.union(ten);
+    assertThat(zero.isIncludedIn(union)).isTrue();
+    assertThat(union.isIncludedIn(zero)).isFalse();
+    assertThat(union.getUpperBound(0)).isWithin(0).of(10.0);
+    assertThat(OctagonMatrix.empty(1, true).isIncludedIn(zero)).isTrue();
+
+    OctagonMatrix widened = zero.widening(union);
+    assertThat(widened.getUpperBound(0)).isPositiveInfinity();
+    assertThat(widened.getNegatedLowerBound(0)).isWithin(0).of(0.0);
+  }
+
+  @Test
+  public void testIncrementalClosureEqualsFullClosure() {
+    Random random = new Random(0);
+    for (int round = 0; round < 500; round++) {
+      int count = 2 + random.nextInt(6);
+      int[] from = new int[count + 1];
+      int[] to = new int[count + 1];
+      double[] bounds = new double[count + 1];
+      for (int k = 0; k <= count; k++) {
+        from[k] = random.nextInt(2 * DIMENSION);
+        to[k] = random.nextInt(2 * DIMENSION);
+        bounds[k] = random.nextInt(21) - 5;
+      }
+      // a constraint on two variables that do not share a variable with the first constraint,
+      // such that the closure of the first count constraints is computed from scratch
+      from[1] = 2 * ((from[0] / 2 + 1) % DIMENSION);
+      to[1] = 2 * ((from[0] / 2 + 2) % DIMENSION) + 1;
+      if (to[0] / 2 == from[1] / 2 || to[0] / 2 == to[1] / 2) {
+        to[0] = from[0];
+      }
+      boolean integral = random.nextBoolean();
+
+      OctagonMatrix base = OctagonMatrix.universe(DIMENSION, integral)
+          .addConstraints(copy(from, count), copy(to, count), copy(bounds, count));
+      OctagonMatrix incremental = addConstraint(base, from[count], to[count], bounds[count]);
+      OctagonMatrix full = OctagonMatrix.universe(DIMENSION, integral).addConstraints(from, to, bounds);
+
+      assertThat(incremental.isEmpty()).isEqualTo(full.isEmpty());
+      assertThat(incremental.isEqualTo(full)).isTrue();
+    }
+  }
+
+  private static int[] copy(int[] pArray, int pLength) {
+    return Arrays.copyOf(pArray, pLength);
+  }
+
+  private static double[] copy(double[] pArray, int pLength) {
+    return Arrays.copyOf(pArray, pLength);
+  }
+}
@@ -0,0 +1,519 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.bdd;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsWriter.writingStatisticsTo;
+
+import java.io.PrintStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.sosy_lab.common.concurrency.Threads;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+
+/**
+ * A BDD package written in Java that can be used concurrently by several threads.
+ *
+ * Nodes are hash-consed in a concurrent unique table that holds them weakly,
+ * and are thus managed by the Java garbage collector.
+ * A background thread, which is shared by all factories,
+ * removes the entries of collected nodes from the tables.
+ * Results of operations are stored in a lossy operation cache
+ * that is shared by all threads without locking.
+ *
+ * Variables are ordered by their index, reordering is not supported.
+ */
+final class ConcurrentBDDFactory {
+
+  // operation codes for the operation cache
+  private static final int AND = 0;
+  private static final int OR = 1;
+  private static final int XOR = 2;
+  private static final int BIIMP = 3;
+  private static final int IMP = 4;
+  private static final int NOT = 5;
+  private static final int ITE = 6;
+  private static final int EXISTS = 7;
+
+  // Statistics
+  @GuardedBy("itself")
+  private final StatTimer cleanupTimer = new StatTimer("Time for BDD node cleanup");
+  @GuardedBy("cleanupTimer")
+  private final StatInt cleanupQueueSize = new StatInt(StatKind.AVG, "Size of BDD node cleanup queue");
+  @GuardedBy("cleanupTimer")
+  private final StatInt uniqueTableSize = new StatInt(StatKind.AVG, "Size of BDD unique table after cleanup");
+
+  private final ConcurrentBDDRegion falseNode =
+      new ConcurrentBDDRegion(ConcurrentBDDRegion.FALSE_ID, ConcurrentBDDRegion.TERMINAL_VAR, null, null);
+  private final ConcurrentBDDRegion trueNode =
+      new ConcurrentBDDRegion(ConcurrentBDDRegion.TRUE_ID, ConcurrentBDDRegion.TERMINAL_VAR, null, null);
+
+  private final AtomicLong nextId = new AtomicLong(ConcurrentBDDRegion.TRUE_ID + 1);
+
+  // The unique table maps the variable and the successors of each node to the node.
+  private final ConcurrentMap<NodeKey, NodeReference> uniqueTable;
+
+  // Entries are immutable, so racy reads and writes of the array
+  // can only lose entries, but never produce wrong results.
+  private final CacheEntry[] cache;
+  private final int cacheMask;
+
+  /**
+   * Create a new BDD factory.
+   *
+   * @param pInitialTableSize the initial capacity of the unique table.
+   * @param pLog2CacheSize the binary logarithm of the number of entries in the operation cache.
+   * @param pConcurrencyLevel the estimated number of threads using the factory.
+   */
+  ConcurrentBDDFactory(int pInitialTableSize, int pLog2CacheSize, int pConcurrencyLevel) {
+    checkArgument(pLog2CacheSize >= 0 && pLog2CacheSize < 31);
+    uniqueTable = new ConcurrentHashMap<>(pInitialTableSize, 0.75f, pConcurrencyLevel);
+    cache = new CacheEntry[1 << pLog2CacheSize];
+    cacheMask = cache.length - 1;
+  }
+
+  /**
+   * The cleanup thread that is shared by all factories.
+   * It is started when the first node is created.
+   */
+  private static final class NodeCleanup {
+
+    // The references of collected nodes of all factories will appear in this queue.
+    private static final ReferenceQueue<ConcurrentBDDRegion> QUEUE = new ReferenceQueue<>();
+
+    static {
+      Threads.newThread(new Runnable() {
+        @Override
+        public void run() {
+          reclaimNodes();
+        }
+      }, "BDD cleanup thread", true).start();
+    }
+
+    /**
+     * Remove the entries of all garbage-collected nodes from the unique tables.
+     * This method runs in a separate thread infinitely.
+     * The references are reachable only from the unique table of their factory,
+     * so the thread does not keep a factory alive that is no longer used.
+     */
+    private static void reclaimNodes() {
+      try {
+        while (true) {
+          Reference<? extends ConcurrentBDDRegion> ref = QUEUE.remove();
+          do {
+            ref = ((NodeReference) ref).factory.reclaimNodes((NodeReference) ref);
+          } while (ref != null);
+        }
+      } catch (InterruptedException e) {
+        // do nothing, we just let this thread terminate
+      }
+    }
+  }
+
+  /**
+   * Remove the entry of the given garbage-collected node from the unique table,
+   * and the same for all following nodes of this factory in the queue.
+   *
+   * @return the first reference in the queue that belongs to another factory, or null.
+   */
+  private Reference<? extends ConcurrentBDDRegion> reclaimNodes(NodeReference pFirst) {
+    // The lock is uncontended except while statistics are printed.
+    synchronized (cleanupTimer) {
+      cleanupTimer.start();
+      int count = 0;
+      Reference<? extends ConcurrentBDDRegion> ref = pFirst;
+      do {
+        NodeReference nodeRef = (NodeReference) ref;
+        if (nodeRef.factory != this) {
+          break;
+        }
+        // Remove only if the entry was not yet replaced by a new node with the same key.
+        uniqueTable.remove(nodeRef.key, nodeRef);
+        count++;
+      } while ((ref = NodeCleanup.QUEUE.poll()) != null);
+      cleanupQueueSize.setNextValue(count);
+      uniqueTableSize.setNextValue(uniqueTable.size());
+      cleanupTimer.stop();
+      return ref;
+    }
+  }
+
+  void printStatistics(PrintStream out) {
+    synchronized (cleanupTimer) {
+      writingStatisticsTo(out)
+          .put("Number of created BDD nodes", nextId.get() - ConcurrentBDDRegion.TRUE_ID - 1)
+          .put("Size of BDD unique table", uniqueTable.size())
+          .put("Size of BDD cache", cache.length)
+          .putIfUpdatedAtLeastOnce(cleanupQueueSize)
+          .putIfUpdatedAtLeastOnce(uniqueTableSize)
+          .putIfUpdatedAtLeastOnce(cleanupTimer);
+    }
+  }
+
+  ConcurrentBDDRegion zero() {
+    return falseNode;
+  }
+
+  ConcurrentBDDRegion one() {
+    return trueNode;
+  }
+
+  /** Get the BDD that is true iff the given variable is true. */
+  ConcurrentBDDRegion ithVar(int pVar) {
+    checkArgument(pVar >= 0 && pVar < ConcurrentBDDRegion.TERMINAL_VAR);
+    return makeNode(pVar, falseNode, trueNode);
+  }
+
+  /** Get the unique node with the given variable and successors. */
+  private ConcurrentBDDRegion makeNode(int pVar, ConcurrentBDDRegion pLow, ConcurrentBDDRegion pHigh) {
+    if (pLow == pHigh) {
+      return pLow;
+    }
+    // The successors are alive (we reference them), so their ids identify them.
+    NodeKey key = new NodeKey(pVar, pLow.getId(), pHigh.getId());
+    while (true) {
+      NodeReference existing = uniqueTable.get(key);
+      if (existing != null) {
+        ConcurrentBDDRegion node = existing.get();
+        if (node != null) {
+          return node;
+        }
+      }
+
+      // There is no node yet, or it was collected but not yet removed from the table.
+      ConcurrentBDDRegion node = new ConcurrentBDDRegion(nextId.getAndIncrement(), pVar, pLow, pHigh);
+      NodeReference ref = new NodeReference(node, this, key);
+      boolean inserted = (existing == null)
+          ? uniqueTable.putIfAbsent(key, ref) == null
+          : uniqueTable.replace(key, existing, ref);
+      if (inserted) {
+        return node;
+      }
+      // another thread was faster, retry and use its node
+    }
+  }
+
+  ConcurrentBDDRegion not(ConcurrentBDDRegion f) {
+    if (f.isTerminal()) {
+      return f.isTrue() ? falseNode : trueNode;
+    }
+    ConcurrentBDDRegion result = getCached(NOT, f, falseNode, falseNode);
+    if (result == null) {
+      result = makeNode(f.getVar(), not(f.getLow()), not(f.getHigh()));
+      putCached(NOT, f, falseNode, falseNode, result);
+    }
+    return result;
+  }
+
+  ConcurrentBDDRegion and(ConcurrentBDDRegion f, ConcurrentBDDRegion g) {
+    return apply(AND, f, g);
+  }
+
+  ConcurrentBDDRegion or(ConcurrentBDDRegion f, ConcurrentBDDRegion g) {
+    return apply(OR, f, g);
+  }
+
+  ConcurrentBDDRegion xor(ConcurrentBDDRegion f, ConcurrentBDDRegion g) {
+    return apply(XOR, f, g);
+  }
+
+  ConcurrentBDDRegion biimp(ConcurrentBDDRegion f, ConcurrentBDDRegion g) {
+    return apply(BIIMP, f, g);
+  }
+
+  ConcurrentBDDRegion imp(ConcurrentBDDRegion f, ConcurrentBDDRegion g) {
+    return apply(IMP, f, g);
+  }
+
+  private ConcurrentBDDRegion apply(int op, ConcurrentBDDRegion f, ConcurrentBDDRegion g) {
+    ConcurrentBDDRegion result = applyTerminalCase(op, f, g);
+    if (result != null) {
+      return result;
+    }
+
+    if (op != IMP && f.getId() > g.getId()) {
+      // all other operations are commutative, normalize for better cache hit rates
+      ConcurrentBDDRegion tmp = f;
+      f = g;
+      g = tmp;
+    }
+
+    result = getCached(op, f, g, falseNode);
+    if (result == null) {
+      int var = Math.min(f.getVar(), g.getVar());
+      ConcurrentBDDRegion low = apply(op, cofactor(f, var, false), cofactor(g, var, false));
+      ConcurrentBDDRegion high = apply(op, cofactor(f, var, true), cofactor(g, var, true));
+      result = makeNode(var, low, high);
+      putCached(op, f, g, falseNode, result);
+    }
+    return result;
+  }
+
+  /** Return the result of the operation if it is trivial, or null. */
+  private ConcurrentBDDRegion applyTerminalCase(int op, ConcurrentBDDRegion f, ConcurrentBDDRegion g) {
+    switch (op) {
+    case AND:
+      if (f.isFalse() || g.isFalse()) {
+        return falseNode;
+      } else if (f.isTrue() || f == g) {
+        return g;
+      } else if (g.isTrue()) {
+        return f;
+      }
+      return null;
+    case OR:
+      if (f.isTrue() || g.isTrue()) {
+        return trueNode;
+      } else if (f.isFalse() || f == g) {
+        return g;
+      } else if (g.isFalse()) {
+        return f;
+      }
+      return null;
+    case XOR:
+      if (f == g) {
+        return falseNode;
+      } else if (f.isFalse()) {
+        return g;
+      } else if (g.isFalse()) {
+        return f;
+      } else if (f.isTrue()) {
+        return not(g);
+      } else if (g.isTrue()) {
+        return not(f);
+      }
+      return null;
+    case BIIMP:
+      if (f == g) {
+        return trueNode;
+      } else if (f.isTrue()) {
+        return g;
+      } else if (g.isTrue()) {
+        return f;
+      } else if (f.isFalse()) {
+        return not(g);
+      } else if (g.isFalse()) {
+        return not(f);
+      }
+      return null;
+    case IMP:
+      if (f.isFalse() || g.isTrue() || f == g) {
+        return trueNode;
+      } else if (f.isTrue()) {
+        return g;
+      } else if (g.isFalse()) {
+        return not(f);
+      }
+      return null;
+    default:
+      throw new AssertionError("Unknown BDD operation " + op);
+    }
+  }
+
+  /** if f then g else h */
+  ConcurrentBDDRegion ite(ConcurrentBDDRegion f, ConcurrentBDDRegion g, ConcurrentBDDRegion h) {
+    if (f.isTrue() || g == h) {
+      return g;
+    } else if (f.isFalse()) {
+      return h;
+    } else if (g.isTrue() && h.isFalse()) {
+      return f;
+    } else if (g.isFalse() && h.isTrue()) {
+      return not(f);
+    }
+
+    ConcurrentBDDRegion result = getCached(ITE, f, g, h);
+    if (result == null) {
+      int var = Math.min(f.getVar(), Math.min(g.getVar(), h.getVar()));
+      ConcurrentBDDRegion low =
+          ite(cofactor(f, var, false), cofactor(g, var, false), cofactor(h, var, false));
+      ConcurrentBDDRegion high =
+          ite(cofactor(f, var, true), cofactor(g, var, true), cofactor(h, var, true));
+      result = makeNode(var, low, high);
+      putCached(ITE, f, g, h, result);
+    }
+    return result;
+  }
+
+  /**
+   * Existentially quantify the variables of a cube in a BDD.
+   *
+   * @param f the BDD to quantify.
+   * @param cube a conjunction of positive variables.
+   */
+  ConcurrentBDDRegion exists(ConcurrentBDDRegion f, ConcurrentBDDRegion cube) {
+    while (cube.getVar() < f.getVar()) {
+      // f does not depend on this variable
+      cube = cube.getHigh();
+    }
+    if (f.isTerminal() || cube.isTerminal()) {
+      return f;
+    }
+
+    ConcurrentBDDRegion result = getCached(EXISTS, f, cube, falseNode);
+    if (result == null) {
+      if (cube.getVar() == f.getVar()) {
+        ConcurrentBDDRegion rest = cube.getHigh();
+        result = or(exists(f.getLow(), rest), exists(f.getHigh(), rest));
+      } else {
+        result = makeNode(f.getVar(), exists(f.getLow(), cube), exists(f.getHigh(), cube));
+      }
+      putCached(EXISTS, f, cube, falseNode, result);
+    }
+    return result;
+  }
+
+  /** Get the variables that occur in a BDD, in ascending order. */
+  SortedSet<Integer> scanVars(ConcurrentBDDRegion f) {
+    SortedSet<Integer> vars = new TreeSet<>();
+    Set<ConcurrentBDDRegion> visited =
+        Collections.newSetFromMap(new IdentityHashMap<ConcurrentBDDRegion, Boolean>());
+    Deque<ConcurrentBDDRegion> waitlist = new ArrayDeque<>();
+    waitlist.push(f);
+    while (!waitlist.isEmpty()) {
+      ConcurrentBDDRegion node = waitlist.pop();
+      if (!node.isTerminal() && visited.add(node)) {
+        vars.add(node.getVar());
+        waitlist.push(node.getLow());
+        waitlist.push(node.getHigh());
+      }
+    }
+    return vars;
+  }
+
+  private static ConcurrentBDDRegion cofactor(ConcurrentBDDRegion f, int var, boolean value) {
+    if (f.getVar() != var) {
+      return f;
+    }
+    return value ? f.getHigh() : f.getLow();
+  }
+
+  private int cacheIndex(int op, ConcurrentBDDRegion f, ConcurrentBDDRegion g, ConcurrentBDDRegion h) {
+    long hash = f.getId() * 0x9E3779B97F4A7C15L
+        + g.getId() * 0xC2B2AE3D27D4EB4FL
+        + h.getId() * 0x165667B19E3779F9L
+        + op;
+    hash ^= hash >>> 29;
+    hash ^= hash >>> 32;
+    return (int) hash & cacheMask;
+  }
+
+  private ConcurrentBDDRegion getCached(int op,
+      ConcurrentBDDRegion f, ConcurrentBDDRegion g, ConcurrentBDDRegion h) {
+    CacheEntry entry = cache[cacheIndex(op, f, g, h)];
+    if (entry != null && entry.op == op && entry.f == f && entry.g == g && entry.h == h) {
+      return entry.result;
+    }
+    return null;
+  }
+
+  private void putCached(int op,
+      ConcurrentBDDRegion f, ConcurrentBDDRegion g, ConcurrentBDDRegion h,
+      ConcurrentBDDRegion result) {
+    cache[cacheIndex(op, f, g, h)] = new CacheEntry(op, f, g, h, result);
+  }
+
+  private static final class CacheEntry {
+
+    private final int op;
+    private final ConcurrentBDDRegion f;
+    private final ConcurrentBDDRegion g;
+    private final ConcurrentBDDRegion h;
+    private final ConcurrentBDDRegion result;
+
+    private CacheEntry(int pOp,
+        ConcurrentBDDRegion pF, ConcurrentBDDRegion pG, ConcurrentBDDRegion pH,
+        ConcurrentBDDRegion pResult) {
+      op = pOp;
+      f = pF;
+      g = pG;
+      h = pH;
+      result = pResult;
+    }
+  }
+
+  /**
+   * Key of the unique table.
+   * It refers to the successors only by their ids,
+   * such that the table does not keep any nodes alive.
+   */
+  private static final class NodeKey {
+
+    private final int var;
+    private final long lowId;
+    private final long highId;
+
+    private NodeKey(int pVar, long pLowId, long pHighId) {
+      var = pVar;
+      lowId = pLowId;
+      highId = pHighId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof NodeKey)) {
+        return false;
+      }
+      NodeKey other = (NodeKey) o;
+      return var == other.var && lowId == other.lowId && highId == other.highId;
+    }
+
+    @Override
+    public int hashCode() {
+      long hash = lowId * 31 + highId;
+      return 31 * var + (int) (hash ^ (hash >>> 32));
+    }
+  }
+
+  private static final class NodeReference extends WeakReference<ConcurrentBDDRegion> {
+
+    private final ConcurrentBDDFactory factory;
+    private final NodeKey key;
+
+    private NodeReference(ConcurrentBDDRegion pNode, ConcurrentBDDFactory pFactory, NodeKey pKey) {
+      super(pNode, NodeCleanup.QUEUE);
+      factory = pFactory;
+      key = pKey;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.bdd;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentBDDFactoryTest {
+
+  private static final int VARS = 12;
+
+  private ConcurrentBDDFactory factory;
+
+  @Before
+  public void setUp() {
+    factory = new ConcurrentBDDFactory(16, 8, 4);
+  }
+
+  @Test
+  public void testCanonicity() {
+    ConcurrentBDDRegion a = factory.ithVar(0);
+    ConcurrentBDDRegion b = factory.ithVar(1);
+
+    assertThat(factory.ithVar(0)).isSameAs(a);
+    assertThat(factory.and(a, b)).isSameAs(factory.and(b, a));
+    assertThat(factory.not(factory.or(factory.not(a), factory.not(b))))
+        .isSameAs(factory.and(a, b));
+    assertThat(factory.xor(a, b)).isSameAs(factory.not(factory.biimp(a, b)));
+    assertThat(factory.imp(a, b)).isSameAs(factory.or(factory.not(a), b));
+    assertThat(factory.ite(a, b, factory.not(b))).isSameAs(factory.biimp(a, b));
+    assertThat(factory.and(a, factory.not(a)).isFalse()).isTrue();
+    assertThat(factory.or(a, factory.not(a)).isTrue()).isTrue();
+  }
+
+  @Test
+  public void testExists() {
+    ConcurrentBDDRegion a = factory.ithVar(0);
+    ConcurrentBDDRegion b = factory.ithVar(1);
+    ConcurrentBDDRegion c = factory.ithVar(2);
+    ConcurrentBDDRegion f = factory.or(factory.and(a, b), factory.and(factory.not(a), c));
+
+    assertThat(factory.exists(f, a)).isSameAs(factory.or(b, c));
+    assertThat(factory.exists(f, factory.and(a, b))).isSameAs(factory.one());
+    assertThat(factory.exists(f, factory.ithVar(5))).isSameAs(f);
+    assertThat(factory.scanVars(f)).containsExactly(0, 1, 2).inOrder();
+  }
+
+  /** Build the same function on several threads and check that all get the same node. */
+  @Test
+  public void testConcurrentConstruction() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<ConcurrentBDDRegion>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        final boolean reverse = (i % 2 == 1);
+        results.add(executor.submit(new Callable<ConcurrentBDDRegion>() {
+          @Override
+          public ConcurrentBDDRegion call() {
+            return buildPairwiseEquality(reverse);
+          }
+        }));
+      }
+
+      ConcurrentBDDRegion expected = buildPairwiseEquality(false);
+      for (Future<ConcurrentBDDRegion> result : results) {
+        assertThat(result.get()).isSameAs(expected);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** x0 = x1 and x2 = x3 and ..., conjoined in the given order. */
+  private ConcurrentBDDRegion buildPairwiseEquality(boolean pReverse) {
+    ConcurrentBDDRegion result = factory.one();
+    for (int i = 0; i < VARS; i += 2) {
+      int var = pReverse ? VARS - 2 - i : i;
+      result = factory.and(result, factory.biimp(factory.ithVar(var), factory.ithVar(var + 1)));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.bdd;
+
+import org.sosy_lab.cpachecker.util.predicates.interfaces.Region;
+
+import com.google.common.primitives.Longs;
+
+/**
+ * Regions represented as nodes of a {@link ConcurrentBDDFactory}.
+ *
+ * Nodes are unique within their factory,
+ * so equality is identity and no node needs to be freed manually.
+ */
+final class ConcurrentBDDRegion implements Region {
+
+  /** Variable index of the two terminal nodes, larger than all real variables. */
+  static final int TERMINAL_VAR = Integer.MAX_VALUE;
+
+  static final long FALSE_ID = 0;
+  static final long TRUE_ID = 1;
+
+  private final long id;
+  private final int var;
+  private final ConcurrentBDDRegion low;
+  private final ConcurrentBDDRegion high;
+
+  ConcurrentBDDRegion(long pId, int pVar, ConcurrentBDDRegion pLow, ConcurrentBDDRegion pHigh) {
+    id = pId;
+    var = pVar;
+    low = pLow;
+    high = pHigh;
+  }
+
+  /** Unique number of this node, never reused within its factory. */
+  long getId() {
+    return id;
+  }
+
+  int getVar() {
+    return var;
+  }
+
+  /** The successor for the case that the variable is false. */
+  ConcurrentBDDRegion getLow() {
+    return low;
+  }
+
+  /** The successor for the case that the variable is true. */
+  ConcurrentBDDRegion getHigh() {
+    return high;
+  }
+
+  boolean isTerminal() {
+    return var == TERMINAL_VAR;
+  }
+
+  @Override
+  public boolean isTrue() {
+    return id == TRUE_ID;
+  }
+
+  @Override
+  public boolean isFalse() {
+    return id == FALSE_ID;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o;
+  }
+
+  @Override
+  public int hashCode() {
+    return Longs.hashCode(id);
+  }
+
+  @Override
+  public String toString() {
+    if (isTrue()) {
+      return "true";
+    } else if (isFalse()) {
+      return "false";
+    } else {
+      return "BDD node " + id + " (variable " + var + ")";
+    }
+  }
+}
@@ -0,0 +1,380 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.bdd;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.Triple;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.util.predicates.PredicateOrderingStrategy;
+import org.sosy_lab.solver.api.BooleanFormula;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.Region;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.RegionManager;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.view.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A RegionManager for the thread-safe BDD package {@link ConcurrentBDDFactory}.
+ *
+ * All operations may be called concurrently,
+ * so a single instance can be shared by analyses running in parallel.
+ * Unused BDD nodes are reclaimed by the Java garbage collector
+ * and removed from the unique table by a background thread,
+ * so there is no cleanup on the calling threads.
+ */
+@Options(prefix = "bdd.concurrent")
+class ConcurrentBDDRegionManager implements RegionManager {
+
+  @Option(secure = true, description = "Initial size of the BDD unique table.")
+  @IntegerOption(min = 1)
+  private int initTableSize = 1 << 16;
+
+  @Option(secure = true, description = "Log2 size of the BDD operation cache.")
+  @IntegerOption(min = 1, max = 30)
+  private int cacheSize = 20;
+
+  @Option(secure = true, description = "Number of threads expected to use the BDD package concurrently, "
+      + "0 for the number of available processors.")
+  @IntegerOption(min = 0)
+  private int threads = 0;
+
+  private final ConcurrentBDDFactory factory;
+  private final AtomicInteger nextvar = new AtomicInteger(0);
+
+  ConcurrentBDDRegionManager(Configuration config) throws InvalidConfigurationException {
+    config.inject(this);
+    if (threads == 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+    factory = new ConcurrentBDDFactory(initTableSize, cacheSize, threads);
+  }
+
+  private static ConcurrentBDDRegion unwrap(Region region) {
+    return (ConcurrentBDDRegion) region;
+  }
+
+  @Override
+  public void printStatistics(PrintStream out) {
+    factory.printStatistics(out);
+  }
+
+  @Override
+  public String getVersion() {
+    return String.format("Concurrent Java BDD package (%d threads)", threads);
+  }
+
+  @Override
+  public ConcurrentBDDRegion createPredicate() {
+    return factory.ithVar(nextvar.getAndIncrement());
+  }
+
+  @Override
+  public boolean entails(Region pF1, Region pF2) {
+    return factory.imp(unwrap(pF1), unwrap(pF2)).isTrue();
+  }
+
+  @Override
+  public Region makeTrue() {
+    return factory.one();
+  }
+
+  @Override
+  public Region makeFalse() {
+    return factory.zero();
+  }
+
+  @Override
+  public Region makeAnd(Region pF1, Region pF2) {
+    return factory.and(unwrap(pF1), unwrap(pF2));
+  }
+
+  @Override
+  public Region makeNot(Region pF) {
+    return factory.not(unwrap(pF));
+  }
+
+  @Override
+  public Region makeOr(Region pF1, Region pF2) {
+    return factory.or(unwrap(pF1), unwrap(pF2));
+  }
+
+  @Override
+  public Region makeEqual(Region pF1, Region pF2) {
+    return factory.biimp(unwrap(pF1), unwrap(pF2));
+  }
+
+  @Override
+  public Region makeUnequal(Region pF1, Region pF2) {
+    return factory.xor(unwrap(pF1), unwrap(pF2));
+  }
+
+  @Override
+  public Region makeIte(Region pF1, Region pF2, Region pF3) {
+    return factory.ite(unwrap(pF1), unwrap(pF2), unwrap(pF3));
+  }
+
+  @Override
+  public Triple<Region, Region, Region> getIfThenElse(Region pF) {
+    ConcurrentBDDRegion f = unwrap(pF);
+
+    Region predicate = factory.ithVar(f.getVar());
+    Region fThen = f.getHigh();
+    Region fElse = f.getLow();
+
+    return Triple.of(predicate, fThen, fElse);
+  }
+
+  @Override
+  public Region makeExists(Region pF1, Region... pF2) {
+    if (pF2.length == 0) {
+      return pF1;
+    }
+
+    ConcurrentBDDRegion cube = factory.one();
+    for (Region var : pF2) {
+      cube = factory.and(cube, unwrap(var));
+    }
+    return factory.exists(unwrap(pF1), cube);
+  }
+
+  @Override
+  public Set<Region> extractPredicates(Region pF) {
+    ImmutableSet.Builder<Region> predicateBuilder = ImmutableSet.builder();
+    for (int var : factory.scanVars(unwrap(pF))) {
+      predicateBuilder.add(factory.ithVar(var));
+    }
+    return predicateBuilder.build();
+  }
+
+  @Override
+  public RegionBuilder builder(ShutdownNotifier pShutdownNotifier) {
+    return new ConcurrentBDDRegionBuilder(pShutdownNotifier);
+  }
+
+  @Override
+  public void setVarOrder(ArrayList<Integer> pOrder) {
+  }
+
+  @Override
+  public void reorder(PredicateOrderingStrategy strategy) {
+  }
+
+  @Override
+  public Region fromFormula(BooleanFormula pF, FormulaManagerView fmgr,
+      Function<BooleanFormula, Region> atomToRegion) {
+    BooleanFormulaManagerView bfmgr = fmgr.getBooleanFormulaManager();
+    if (bfmgr.isFalse(pF)) {
+      return makeFalse();
+    }
+
+    if (bfmgr.isTrue(pF)) {
+      return makeTrue();
+    }
+
+    return new FormulaToRegionConverter(fmgr, atomToRegion).visit(pF);
+  }
+
+  private class ConcurrentBDDRegionBuilder implements RegionBuilder {
+
+    private final ShutdownNotifier shutdownNotifier;
+    // Invariants:
+    // cubes contains a number of BDDs, whose disjunction makes up the result.
+    // cubes may also contain null values, which are to be ignored,
+    // but there is always at least one non-null value (if the list is not empty).
+    // Cubes are combined like in JavaBDDRegionManager
+    // in order to create balanced disjunctions.
+    private final List<ConcurrentBDDRegion> cubes = new ArrayList<>();
+    private ConcurrentBDDRegion currentCube = null;
+
+    private ConcurrentBDDRegionBuilder(ShutdownNotifier pShutdownNotifier) {
+      shutdownNotifier = pShutdownNotifier;
+    }
+
+    @Override
+    public void startNewConjunction() {
+      checkState(currentCube == null);
+      currentCube = factory.one();
+    }
+
+    @Override
+    public void addPositiveRegion(Region r) {
+      checkState(currentCube != null);
+      currentCube = factory.and(currentCube, unwrap(r));
+    }
+
+    @Override
+    public void addNegativeRegion(Region r) {
+      checkState(currentCube != null);
+      currentCube = factory.and(currentCube, factory.not(unwrap(r)));
+    }
+
+    @Override
+    public void finishConjunction() {
+      checkState(currentCube != null);
+
+      for (int i = 0; i < cubes.size(); i++) {
+        ConcurrentBDDRegion cubeAtI = cubes.get(i);
+
+        if (cubeAtI == null) {
+          cubes.set(i, currentCube);
+          currentCube = null;
+          return;
+        } else {
+          currentCube = factory.or(currentCube, cubeAtI);
+          cubes.set(i, null);
+        }
+      }
+
+      if (currentCube != null) {
+        cubes.add(currentCube);
+        currentCube = null;
+      }
+    }
+
+    @Override
+    public Region getResult() throws InterruptedException {
+      checkState(currentCube == null);
+      if (cubes.isEmpty()) {
+        return factory.zero();
+      }
+
+      ConcurrentBDDRegion result = factory.zero();
+      for (ConcurrentBDDRegion cube : cubes) {
+        if (cube != null) {
+          shutdownNotifier.shutdownIfNecessary();
+          result = factory.or(result, cube);
+        }
+      }
+      cubes.clear();
+      cubes.add(result);
+      return result;
+    }
+
+    @Override
+    public void close() {
+      checkState(currentCube == null);
+      cubes.clear();
+    }
+  }
+
+  /**
+   * Class for creating BDDs out of a formula.
+   * Nodes need not be freed, so the cache can simply be dropped afterwards.
+   */
+  private class FormulaToRegionConverter extends
+      BooleanFormulaManagerView.BooleanFormulaVisitor<ConcurrentBDDRegion> {
+
+    private final Function<BooleanFormula, Region> atomToRegion;
+    private final Map<BooleanFormula, ConcurrentBDDRegion> cache = new HashMap<>();
+
+    FormulaToRegionConverter(FormulaManagerView pFmgr,
+        Function<BooleanFormula, Region> pAtomToRegion) {
+      super(pFmgr);
+      atomToRegion = pAtomToRegion;
+    }
+
+    @Override
+    protected ConcurrentBDDRegion visitTrue() {
+      return factory.one();
+    }
+
+    @Override
+    protected ConcurrentBDDRegion visitFalse() {
+      return factory.zero();
+    }
+
+    @Override
+    protected ConcurrentBDDRegion visitAtom(BooleanFormula pAtom) {
+      return unwrap(atomToRegion.apply(pAtom));
+    }
+
+    private ConcurrentBDDRegion convert(BooleanFormula pOperand) {
+      ConcurrentBDDRegion operand = cache.get(pOperand);
+      if (operand == null) {
+        operand = visit(pOperand);
+        cache.put(pOperand, operand);
+      }
+      return operand;
+    }
+
+    @Override
+    protected ConcurrentBDDRegion visitNot(BooleanFormula pOperand) {
+      return factory.not(convert(pOperand));
+    }
+
+    @Override
+    protected ConcurrentBDDRegion visitAnd(BooleanFormula... pOperands) {
+      checkArgument(pOperands.length >= 2);
+      ConcurrentBDDRegion result = convert(pOperands[0]);
+      for (int i = 1; i < pOperands.length; i++) {
+        result = factory.and(result, convert(pOperands[i]));
+      }
+      return result;
+    }
+
+    @Override
+    protected ConcurrentBDDRegion visitOr(BooleanFormula... pOperands) {
+      checkArgument(pOperands.length >= 2);
+      ConcurrentBDDRegion result = convert(pOperands[0]);
+      for (int i = 1; i < pOperands.length; i++) {
+        result = factory.or(result, convert(pOperands[i]));
+      }
+      return result;
+    }
+
+    @Override
+    protected ConcurrentBDDRegion visitEquivalence(BooleanFormula pOperand1,
+        BooleanFormula pOperand2) {
+      return factory.biimp(convert(pOperand1), convert(pOperand2));
+    }
+
+    @Override
+    protected ConcurrentBDDRegion visitImplication(BooleanFormula pOperand1,
+        BooleanFormula pOperand2) {
+      return factory.imp(convert(pOperand1), convert(pOperand2));
+    }
+
+    @Override
+    protected ConcurrentBDDRegion visitIfThenElse(BooleanFormula pCondition,
+        BooleanFormula pThenFormula, BooleanFormula pElseFormula) {
+      return factory.ite(convert(pCondition), convert(pThenFormula), convert(pElseFormula));
+    }
+  }
+}
@@ -80,6 +80,11 @@ class JavaBDDRegionManager implements RegionManager {
   // Statistics
   private final StatInt cleanupQueueSize = new StatInt(StatKind.AVG, "Size of BDD node cleanup queue");
   private final StatTimer cleanupTimer = new StatTimer("Time for BDD node cleanup");
+  private final StatTimer reorderTimer = new StatTimer("Time for dynamic BDD reordering");
+  private final StatInt nodesBeforeReordering =
+      new StatInt(StatKind.AVG, "Number of BDD nodes before dynamic reordering");
+  private final StatInt nodesAfterReordering =
+      new StatInt(StatKind.AVG, "Number of BDD nodes after dynamic reordering");
   private final LogManager logger;
   private final BDDFactory factory;
   private final Region trueFormula;
@@ -105,6 +110,27 @@ class JavaBDDRegionManager implements RegionManager {
   @Option(secure = true,
       description = "Size of the BDD cache in relation to the node table size (set to 0 to use fixed BDD cache size).")
   private double cacheRatio = 0.1;
+
+  @Option(secure = true,
+      description = "Reorder the BDD variables with this method whenever the number of BDD nodes "
+          + "exceeds a threshold (cf. dynamicReorderingThreshold), NONE disables dynamic reordering.",
+      values = {"NONE", "SIFT", "SIFTITE", "WIN2", "WIN2ITE", "WIN3", "WIN3ITE"},
+      toUppercase = true)
+  private String dynamicReordering = "NONE";
+
+  @Option(secure = true,
+      description = "Number of BDD nodes that triggers the first dynamic reordering.")
+  @IntegerOption(min = 1)
+  private int dynamicReorderingThreshold = 100000;
+
+  @Option(secure = true,
+      description = "After a dynamic reordering, the next one is triggered when the number of BDD nodes "
+          + "exceeds the number of nodes after the last reordering multiplied by this factor.")
+  private double dynamicReorderingGrowth = 2.0;
+
+  private final BDDFactory.ReorderMethod dynamicReorderMethod;
+  private int nextReorderingThreshold;
+
   private int nextvar = 0;
   private int varcount = 100;
 
@@ -130,6 +156,12 @@ class JavaBDDRegionManager implements RegionManager {
     if (cacheSize == 0) {
       cacheSize = (int)(initTableSize * cacheRatio);
     }
+    if (dynamicReorderingGrowth < 1) {
+      throw new InvalidConfigurationException("Invalid value " + dynamicReorderingGrowth
+          + " for option bdd.javabdd.dynamicReorderingGrowth, needs to be at least 1.");
+    }
+    dynamicReorderMethod = getReorderMethod(dynamicReordering);
+    nextReorderingThreshold = dynamicReorderingThreshold;
     factory =
         BDDFactory.init(bddPackage.toLowerCase(), initTableSize, cacheSize);
 
@@ -168,7 +200,7 @@ class JavaBDDRegionManager implements RegionManager {
       throw new AssertionError(e);
     }
 
-    factory.setVarNum(varcount);
+    setVarNum(0, varcount);
     factory.setCacheRatio(cacheRatio);
 
     trueFormula = new JavaBDDRegion(factory.one());
@@ -225,6 +257,11 @@ class JavaBDDRegionManager implements RegionManager {
           .putIf(cacheSize >= 0, "Size of BDD cache", cacheSize)
           .put(cleanupQueueSize)
           .put(cleanupTimer)
+          .putIf(reorderTimer.getUpdateCount() > 0,
+              "Number of dynamic BDD reorderings", reorderTimer.getUpdateCount())
+          .putIfUpdatedAtLeastOnce(reorderTimer)
+          .putIfUpdatedAtLeastOnce(nodesBeforeReordering)
+          .putIfUpdatedAtLeastOnce(nodesAfterReordering)
 
           .put(
               "Time for BDD garbage collection",
@@ -277,8 +314,9 @@ class JavaBDDRegionManager implements RegionManager {
 
   private BDD createNewVar() {
     if (nextvar >= varcount) {
+      int oldVarcount = varcount;
       varcount *= 1.5;
-      factory.setVarNum(varcount);
+      setVarNum(oldVarcount, varcount);
     }
     BDD ret = factory.ithVar(nextvar++);
 
@@ -287,6 +325,20 @@ class JavaBDDRegionManager implements RegionManager {
     return ret;
   }
 
+  /**
+   * Set the number of variables of the BDD library.
+   * If dynamic reordering is enabled, every new variable gets its own block,
+   * because the library reorders only variables that belong to a block.
+   */
+  private void setVarNum(int oldVarcount, int newVarcount) {
+    factory.setVarNum(newVarcount);
+    if (dynamicReorderMethod != null) {
+      for (int var = oldVarcount; var < newVarcount; var++) {
+        factory.addVarBlock(var, var, false);
+      }
+    }
+  }
+
   @Override
   public JavaBDDRegion createPredicate() {
     cleanupReferences();
@@ -299,6 +351,7 @@ class JavaBDDRegionManager implements RegionManager {
    * as possible.
    * Usually we would do this in a daemon thread in the background, but the
    * BDD library is not multi-threaded.
+   * For the same reason, dynamic reordering is also triggered from here.
    */
   private void cleanupReferences() {
     cleanupTimer.start();
@@ -318,6 +371,58 @@ class JavaBDDRegionManager implements RegionManager {
     } finally {
       cleanupTimer.stop();
     }
+
+    if (dynamicReorderMethod != null) {
+      reorderIfNecessary();
+    }
+  }
+
+  /**
+   * Reorder the variables if the number of BDD nodes grew beyond the current threshold.
+   * The threshold is then moved relative to the number of nodes after reordering,
+   * such that reorderings happen less often if they do not help.
+   */
+  private void reorderIfNecessary() {
+    int nodes = factory.getNodeNum();
+    if (nodes <= nextReorderingThreshold) {
+      return;
+    }
+
+    reorderTimer.start();
+    try {
+      factory.reorder(dynamicReorderMethod);
+    } finally {
+      reorderTimer.stop();
+    }
+
+    int nodesAfter = factory.getNodeNum();
+    nodesBeforeReordering.setNextValue(nodes);
+    nodesAfterReordering.setNextValue(nodesAfter);
+    nextReorderingThreshold = (int) Math.min(Integer.MAX_VALUE,
+        Math.max(dynamicReorderingThreshold, nodesAfter * dynamicReorderingGrowth));
+    logger.log(LOG_LEVEL, "Dynamic BDD reordering changed number of nodes from", nodes,
+        "to", nodesAfter);
+  }
+
+  private static BDDFactory.ReorderMethod getReorderMethod(String pMethod) {
+    switch (pMethod) {
+      case "NONE":
+        return null;
+      case "SIFT":
+        return BDDFactory.REORDER_SIFT;
+      case "SIFTITE":
+        return BDDFactory.REORDER_SIFTITE;
+      case "WIN2":
+        return BDDFactory.REORDER_WIN2;
+      case "WIN2ITE":
+        return BDDFactory.REORDER_WIN2ITE;
+      case "WIN3":
+        return BDDFactory.REORDER_WIN3;
+      case "WIN3ITE":
+        return BDDFactory.REORDER_WIN3ITE;
+      default:
+        throw new AssertionError("Unknown reordering method " + pMethod);
+    }
   }
 
   /**